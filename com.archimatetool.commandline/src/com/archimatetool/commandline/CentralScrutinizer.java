@@ -179,7 +179,8 @@ public class CentralScrutinizer implements IApplication {
             pause();
         }
         
-        return EXIT_OK;
+        // A provider may have set an exit code
+        return CommandLineState.getExitCode() != 0 ? CommandLineState.getExitCode() : EXIT_OK;
     }
     
     private void showHelp() {
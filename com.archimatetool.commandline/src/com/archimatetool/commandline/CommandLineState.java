@@ -20,6 +20,11 @@ public class CommandLineState {
      */
     private static IArchimateModel singletonModel;
     
+    /**
+     * The exit code to return when all providers have run
+     */
+    private static int exitCode;
+    
     public static IArchimateModel getModel() {
         return singletonModel;
     }
@@ -28,4 +33,16 @@ public class CommandLineState {
         singletonModel = model;
     }
     
+    public static int getExitCode() {
+        return exitCode;
+    }
+    
+    /**
+     * Set a non-zero exit code so that a calling script can tell that a provider's check failed.
+     * The remaining providers still run.
+     */
+    public static void setExitCode(int code) {
+        exitCode = code;
+    }
+    
 }
@@ -70,6 +70,8 @@ public class ImportCSVProvider extends AbstractCommandLineProvider {
         CSVImporter importer = new CSVImporter(model);
         importer.doImport(csvFile);
 
+        logMessage(NLS.bind(Messages.ImportCSVProvider_8, new Object[] {
+                importer.getRecordCount(), importer.getImportTime(), importer.getRecordsPerSecond() }));
         logMessage(Messages.ImportCSVProvider_5);
     }
     
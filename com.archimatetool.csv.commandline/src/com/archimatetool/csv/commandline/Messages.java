@@ -53,6 +53,8 @@ public class Messages extends NLS {
     public static String ImportCSVProvider_6;
 
     public static String ImportCSVProvider_7;
+
+    public static String ImportCSVProvider_8;
     static {
         // initialize resource bundle
         NLS.initializeMessages(BUNDLE_NAME, Messages.class);
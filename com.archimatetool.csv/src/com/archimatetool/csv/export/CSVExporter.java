@@ -5,16 +5,28 @@
  */
 package com.archimatetool.csv.export;
 
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
+import java.io.InterruptedIOException;
+import java.io.UnsupportedEncodingException;
 import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.regex.Pattern;
 
 import org.eclipse.emf.ecore.EObject;
 
@@ -37,10 +49,20 @@ import com.archimatetool.model.IProperty;
 /**
  * CSV Exporter
  * 
+ * The model is traversed once to collect the concepts, and then the elements, relations and properties files
+ * are written concurrently.
+ * 
  * @author Phillip Beauvoir
  */
 public class CSVExporter implements CSVConstants {
     
+    /**
+     * Size of the write buffer for each file
+     */
+    static final int BUFFER_SIZE = 256 * 1024;
+    
+    private static final Pattern NEWLINES = Pattern.compile("(\r\n|\r|\n)"); //$NON-NLS-1$
+    
     private char fDelimiter = ',';
     private String fFilePrefix = ""; //$NON-NLS-1$
     
@@ -65,10 +87,123 @@ public class CSVExporter implements CSVConstants {
         fModel = model;
     }
     
+    /**
+     * The concepts of the model collected in one traversal
+     */
+    private static class ModelConcepts {
+        /**
+         * Top level folder -> concepts in the folder and its child folders, folder elements first
+         */
+        Map<IFolder, List<IArchimateConcept>> folderConcepts = new HashMap<>();
+        
+        /**
+         * All concepts in model contents order, child folders first
+         */
+        List<IArchimateConcept> allConcepts = new ArrayList<>();
+        
+        boolean hasProperties;
+        
+        ModelConcepts(IArchimateModel model) {
+            hasProperties = !model.getProperties().isEmpty();
+            
+            for(IFolder folder : model.getFolders()) {
+                List<IArchimateConcept> list = new ArrayList<>();
+                addFolder(folder, list);
+                folderConcepts.put(folder, list);
+            }
+        }
+        
+        private void addFolder(IFolder folder, List<IArchimateConcept> list) {
+            int start = list.size();
+            
+            for(EObject object : folder.getElements()) {
+                if(object instanceof IArchimateConcept) {
+                    IArchimateConcept concept = (IArchimateConcept)object;
+                    list.add(concept);
+                    hasProperties |= !concept.getProperties().isEmpty();
+                }
+            }
+            
+            int end = list.size();
+            
+            for(IFolder f : folder.getFolders()) {
+                addFolder(f, list);
+            }
+            
+            // Child folders are before elements in the model's contents
+            allConcepts.addAll(list.subList(start, end));
+        }
+        
+        List<IArchimateConcept> getConcepts(IFolder folder) {
+            List<IArchimateConcept> list = folder != null ? folderConcepts.get(folder) : null;
+            return list != null ? list : new ArrayList<>();
+        }
+    }
+    
     public void export(File folder) throws IOException {
-        writeModelAndElements(new File(folder, createElementsFileName()));
-        writeRelationships(new File(folder, createRelationsFileName()));
-        writeProperties(new File(folder, createPropertiesFileName()));
+        ModelConcepts modelConcepts = new ModelConcepts(fModel);
+        
+        File elementsFile = new File(folder, createElementsFileName());
+        File relationsFile = new File(folder, createRelationsFileName());
+        File propertiesFile = new File(folder, createPropertiesFileName());
+        
+        List<ForkJoinTask<Void>> tasks = new ArrayList<>();
+        tasks.add(submit(() -> writeModelAndElements(elementsFile, modelConcepts)));
+        tasks.add(submit(() -> writeRelationships(relationsFile, modelConcepts)));
+        tasks.add(submit(() -> writeProperties(propertiesFile, modelConcepts)));
+        
+        // Wait for all of the files to be written and closed before reporting the first error
+        IOException exception = null;
+        
+        for(ForkJoinTask<Void> task : tasks) {
+            try {
+                waitForTask(task);
+            }
+            catch(IOException ex) {
+                if(exception == null) {
+                    exception = ex;
+                }
+            }
+        }
+        
+        if(exception != null) {
+            throw exception;
+        }
+    }
+    
+    @FunctionalInterface
+    private interface FileWriterTask {
+        void write() throws IOException;
+    }
+    
+    private ForkJoinTask<Void> submit(FileWriterTask task) {
+        return ForkJoinPool.commonPool().submit((Callable<Void>)() -> {
+            task.write();
+            return null;
+        });
+    }
+    
+    private void waitForTask(ForkJoinTask<Void> task) throws IOException {
+        try {
+            task.get();
+        }
+        catch(InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        catch(ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if(cause instanceof IOException) {
+                throw (IOException)cause;
+            }
+            if(cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            if(cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new IOException(cause);
+        }
     }
     
     /**
@@ -105,44 +240,42 @@ public class CSVExporter implements CSVConstants {
     /**
      * Write the Model and All Elements
      */
-    private void writeModelAndElements(File file) throws IOException {
-        Writer writer = createOutputStreamWriter(file);
-        
-        // Write BOM
-        writeBOM(writer);
-        
-        // Write Header
-        String header = createHeader(MODEL_ELEMENTS_HEADER);
-        writer.write(header);
-        
-        // CRLF
-        writer.write(CRLF);
-        
-        // Write Model
-        String modelRow = createModelRow();
-        writer.write(modelRow);
-        
-        // Write Elements
-        writeElementsInFolder(writer, fModel.getFolder(FolderType.STRATEGY));
-        writeElementsInFolder(writer, fModel.getFolder(FolderType.BUSINESS));
-        writeElementsInFolder(writer, fModel.getFolder(FolderType.APPLICATION));
-        writeElementsInFolder(writer, fModel.getFolder(FolderType.TECHNOLOGY));
-        writeElementsInFolder(writer, fModel.getFolder(FolderType.MOTIVATION));
-        writeElementsInFolder(writer, fModel.getFolder(FolderType.IMPLEMENTATION_MIGRATION));
-        writeElementsInFolder(writer, fModel.getFolder(FolderType.OTHER));
-        
-        writer.close();
+    private void writeModelAndElements(File file, ModelConcepts modelConcepts) throws IOException {
+        try(Writer writer = createWriter(file)) {
+            // Write BOM
+            writeBOM(writer);
+            
+            // Write Header
+            String header = createHeader(MODEL_ELEMENTS_HEADER);
+            writer.write(header);
+            
+            // CRLF
+            writer.write(CRLF);
+            
+            // Write Model
+            String modelRow = createModelRow();
+            writer.write(modelRow);
+            
+            // Write Elements
+            writeElementsInFolder(writer, modelConcepts, fModel.getFolder(FolderType.STRATEGY));
+            writeElementsInFolder(writer, modelConcepts, fModel.getFolder(FolderType.BUSINESS));
+            writeElementsInFolder(writer, modelConcepts, fModel.getFolder(FolderType.APPLICATION));
+            writeElementsInFolder(writer, modelConcepts, fModel.getFolder(FolderType.TECHNOLOGY));
+            writeElementsInFolder(writer, modelConcepts, fModel.getFolder(FolderType.MOTIVATION));
+            writeElementsInFolder(writer, modelConcepts, fModel.getFolder(FolderType.IMPLEMENTATION_MIGRATION));
+            writeElementsInFolder(writer, modelConcepts, fModel.getFolder(FolderType.OTHER));
+        }
     }
     
     /**
      * Write all elements in a given folder and its child folders to Writer
      */
-    private void writeElementsInFolder(Writer writer, IFolder folder) throws IOException {
+    private void writeElementsInFolder(Writer writer, ModelConcepts modelConcepts, IFolder folder) throws IOException {
         if(folder == null) {
             return;
         }
         
-        List<IArchimateConcept> concepts = getConcepts(folder);
+        List<IArchimateConcept> concepts = new ArrayList<>(modelConcepts.getConcepts(folder));
         sort(concepts);
         
         for(IArchimateConcept concept : concepts) {
@@ -156,8 +289,8 @@ public class CSVExporter implements CSVConstants {
     /**
      * Write All Relationships
      */
-    private void writeRelationships(File file) throws IOException {
-        List<IArchimateConcept> concepts = getConcepts(fModel.getFolder(FolderType.RELATIONS));
+    private void writeRelationships(File file, ModelConcepts modelConcepts) throws IOException {
+        List<IArchimateConcept> concepts = new ArrayList<>(modelConcepts.getConcepts(fModel.getFolder(FolderType.RELATIONS)));
         sort(concepts);
         
         // Are there any to write?
@@ -165,56 +298,49 @@ public class CSVExporter implements CSVConstants {
             return;
         }
         
-        Writer writer = createOutputStreamWriter(file);
-        
-        // Write BOM
-        writeBOM(writer);
-        
-        // Write Header
-        String header = createHeader(RELATIONSHIPS_HEADER);
-        writer.write(header);
-        
-        // Write Relationships
-        for(IArchimateConcept concept : concepts) {
-            if(concept instanceof IArchimateRelationship) {
-                writer.write(CRLF);
-                writer.write(createRelationshipRow((IArchimateRelationship)concept));
+        try(Writer writer = createWriter(file)) {
+            // Write BOM
+            writeBOM(writer);
+            
+            // Write Header
+            String header = createHeader(RELATIONSHIPS_HEADER);
+            writer.write(header);
+            
+            // Write Relationships
+            for(IArchimateConcept concept : concepts) {
+                if(concept instanceof IArchimateRelationship) {
+                    writer.write(CRLF);
+                    writer.write(createRelationshipRow((IArchimateRelationship)concept));
+                }
             }
         }
-        
-        writer.close();
     }
     
     /**
      * Write All Properties
      */
-    private void writeProperties(File file) throws IOException {
+    private void writeProperties(File file, ModelConcepts modelConcepts) throws IOException {
         // Are there any to write?
-        if(!fWriteEmptyFile && !hasProperties()) {
+        if(!fWriteEmptyFile && !modelConcepts.hasProperties) {
             return;
         }
         
-        Writer writer = createOutputStreamWriter(file);
-        
-        // Write BOM
-        writeBOM(writer);
-        
-        // Write Header
-        String header = createHeader(PROPERTIES_HEADER);
-        writer.write(header);
-        
-        // Write Model Properties
-        for(IProperty property : fModel.getProperties()) {
-            writer.write(CRLF);
-            writer.write(createPropertyRow(fModel.getId(), property));
-        }
-        
-        // Write Element and Relationship Properties
-        for(Iterator<EObject> iter = fModel.eAllContents(); iter.hasNext();) {
-            EObject eObject = iter.next();
-            if(eObject instanceof IArchimateConcept) {
-                IArchimateConcept concept = (IArchimateConcept)eObject;
-                
+        try(Writer writer = createWriter(file)) {
+            // Write BOM
+            writeBOM(writer);
+            
+            // Write Header
+            String header = createHeader(PROPERTIES_HEADER);
+            writer.write(header);
+            
+            // Write Model Properties
+            for(IProperty property : fModel.getProperties()) {
+                writer.write(CRLF);
+                writer.write(createPropertyRow(fModel.getId(), property));
+            }
+            
+            // Write Element and Relationship Properties
+            for(IArchimateConcept concept : modelConcepts.allConcepts) {
                 for(IProperty property : concept.getProperties()) {
                     writer.write(CRLF);
                     writer.write(createPropertyRow(concept.getId(), property));
@@ -224,8 +350,6 @@ public class CSVExporter implements CSVConstants {
                 writeSpecialProperties(writer, concept);
             }
         }
-        
-        writer.close();
     }
     
     private void writeSpecialProperties(Writer writer, IArchimateConcept concept) throws IOException {
@@ -265,27 +389,6 @@ public class CSVExporter implements CSVConstants {
         }
     }
     
-    /**
-     * @return true if the model has any user properties
-     */
-    boolean hasProperties() {
-        if(!fModel.getProperties().isEmpty()) {
-            return true;
-        }
-        
-        for(Iterator<EObject> iter = fModel.eAllContents(); iter.hasNext();) {
-            EObject eObject = iter.next();
-            if(eObject instanceof IArchimateConcept) {
-                IArchimateConcept concept = (IArchimateConcept)eObject;
-                if(!concept.getProperties().isEmpty()) {
-                    return true;
-                }
-            }
-        }
-
-        return false;
-    }
-
     /**
      * Create a Header from given string elements
      */
@@ -441,7 +544,7 @@ public class CSVExporter implements CSVConstants {
         
         // Newlines (optional)
         if(fStripNewLines) {
-            s = s.replaceAll("(\r\n|\r|\n)", " ");  //$NON-NLS-1$//$NON-NLS-2$
+            s = NEWLINES.matcher(s).replaceAll(" "); //$NON-NLS-1$
         }
         
         // Tabs become a space
@@ -476,51 +579,45 @@ public class CSVExporter implements CSVConstants {
     }
     
     /**
-     * Return a list of all elements/relations in a given folder and its child folders
+     * Sort a list of ArchimateElement/Relationship types
+     * Sort by class name then element name
+     * The sort keys are created once for each concept rather than on each comparison
      */
-    private List<IArchimateConcept> getConcepts(IFolder folder) {
-        List<IArchimateConcept> list = new ArrayList<IArchimateConcept>();
-        
-        if(folder == null) {
-            return list;
+    void sort(List<IArchimateConcept> list) {
+        if(list == null || list.size() < 2) {
+            return;
         }
         
-        for(EObject object : folder.getElements()) {
-            if(object instanceof IArchimateConcept) {
-                list.add((IArchimateConcept)object);
-            }
+        List<SortKey> keys = new ArrayList<>(list.size());
+        for(IArchimateConcept concept : list) {
+            keys.add(new SortKey(concept));
         }
         
-        for(IFolder f : folder.getFolders()) {
-            list.addAll(getConcepts(f));
-        }
+        keys.sort(null);
         
-        return list;
+        for(int i = 0; i < keys.size(); i++) {
+            list.set(i, keys.get(i).concept);
+        }
     }
-
-    /**
-     * Sort a list of ArchimateElement/Relationship types
-     * Sort by class name then element name
-     */
-    void sort(List<IArchimateConcept> list) {
-        if(list == null || list.size() < 2) {
-            return;
+    
+    private static class SortKey implements Comparable<SortKey> {
+        IArchimateConcept concept;
+        String className;
+        String name;
+        
+        SortKey(IArchimateConcept concept) {
+            this.concept = concept;
+            className = concept.eClass().getName().toLowerCase();
+            name = StringUtils.safeString(concept.getName().toLowerCase().trim());
         }
         
-        Collections.sort(list, new Comparator<IArchimateConcept>() {
-            @Override
-            public int compare(IArchimateConcept o1, IArchimateConcept o2) {
-                if(o1.eClass().equals(o2.eClass())) {
-                    String name1 = StringUtils.safeString(o1.getName().toLowerCase().trim());
-                    String name2 = StringUtils.safeString(o2.getName().toLowerCase().trim());
-                    return name1.compareTo(name2);
-                }
-                
-                String name1 = o1.eClass().getName().toLowerCase();
-                String name2 = o2.eClass().getName().toLowerCase();
-                return name1.compareTo(name2);
+        @Override
+        public int compareTo(SortKey other) {
+            if(concept.eClass().equals(other.concept.eClass())) {
+                return name.compareTo(other.name);
             }
-        });
+            return className.compareTo(other.className);
+        }
     }
     
     String createElementsFileName() {
@@ -535,15 +632,34 @@ public class CSVExporter implements CSVConstants {
         return fFilePrefix + PROPERTIES_FILENAME + FILE_EXTENSION;
     }
     
-    OutputStreamWriter createOutputStreamWriter(File file) throws IOException {
+    /**
+     * Create a buffered Writer that writes to the file's channel
+     */
+    Writer createWriter(File file) throws IOException {
+        CharsetEncoder encoder = getCharset().newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        
+        return new BufferedWriter(Channels.newWriter(channel, encoder, -1), BUFFER_SIZE);
+    }
+    
+    Charset getCharset() throws UnsupportedEncodingException {
         if("ANSI".equals(fEncoding)) { //$NON-NLS-1$
-            return new OutputStreamWriter(new FileOutputStream(file));
+            return Charset.defaultCharset();
         }
         else if(fEncoding.startsWith("UTF-8")) { //$NON-NLS-1$
-            return new OutputStreamWriter(new FileOutputStream(file), "UTF-8"); //$NON-NLS-1$
+            return StandardCharsets.UTF_8;
         }
         else {
-            return new OutputStreamWriter(new FileOutputStream(file), fEncoding);
+            try {
+                return Charset.forName(fEncoding);
+            }
+            catch(IllegalArgumentException ex) {
+                throw new UnsupportedEncodingException(fEncoding);
+            }
         }
     }
 }
@@ -5,16 +5,19 @@
  */
 package com.archimatetool.csv.importer;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.util.ArrayList;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
-import java.util.List;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.UUID;
+import java.util.regex.Pattern;
 
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
@@ -81,6 +84,24 @@ public class CSVImporter implements CSVConstants {
     
     // Model purpose from CSV. Optional.
     private String modelPurpose;
+    
+    // Number of records read and time taken by the last import
+    private long recordCount;
+    private long importTime;
+    
+    // Characters not allowed in names and property values
+    private static final Pattern NEWLINES_AND_TABS = Pattern.compile("(\r\n|\r|\n|\t)"); //$NON-NLS-1$
+    
+    // Valid ID characters
+    private static final Pattern VALID_ID = Pattern.compile("^[a-zA-Z0-9._-]+$"); //$NON-NLS-1$
+    
+    /**
+     * Handles each record of a CSV file as it is read
+     */
+    @FunctionalInterface
+    interface RecordHandler {
+        void handle(CSVRecord csvRecord) throws CSVParseException;
+    }
 
     public CSVImporter(IArchimateModel model) {
         fModel = model;
@@ -91,6 +112,9 @@ public class CSVImporter implements CSVConstants {
      * @param file
      */
     public void doImport(File file) throws IOException, CSVParseException {
+        long startTime = System.currentTimeMillis();
+        recordCount = 0;
+        
         // What file is it?
         
         File elementsFile = getMatchingFile(file, ELEMENTS_FILENAME);
@@ -111,6 +135,29 @@ public class CSVImporter implements CSVConstants {
         // Execute the Commands
         CommandStack stack = (CommandStack)fModel.getAdapter(CommandStack.class);
         stack.execute(createCommands());
+        
+        importTime = System.currentTimeMillis() - startTime;
+    }
+    
+    /**
+     * @return The number of records read in the last import, including header records
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+    
+    /**
+     * @return The time taken in milliseconds by the last import
+     */
+    public long getImportTime() {
+        return importTime;
+    }
+    
+    /**
+     * @return The number of records imported per second in the last import
+     */
+    public long getRecordsPerSecond() {
+        return recordCount * 1000 / Math.max(1, importTime);
     }
     
     /**
@@ -209,21 +256,14 @@ public class CSVImporter implements CSVConstants {
      * @throws CSVParseException
      */
     void importElements(File file) throws IOException, CSVParseException {
-        List<CSVRecord> records = getRecords(file);
-        
-        // Should have at least one record
-        if(records.isEmpty()) {
-            throw new CSVParseException(Messages.CSVImporter_1);
-        }
-        
-        for(CSVRecord csvRecord : records) {
+        long count = readRecords(file, csvRecord -> {
             if(!isElementsRecordCorrectSize(csvRecord)) {
                 throw new CSVParseException(Messages.CSVImporter_2);
             }
 
             // Header
             if(isHeaderRecord(csvRecord, MODEL_ELEMENTS_HEADER)) {
-                continue;
+                return;
             }
 
             // Model (this is optional)
@@ -234,6 +274,11 @@ public class CSVImporter implements CSVConstants {
             else {
                 createElementFromRecord(csvRecord);
             }
+        });
+        
+        // Should have at least one record
+        if(count == 0) {
+            throw new CSVParseException(Messages.CSVImporter_1);
         }
     }
     
@@ -315,20 +360,20 @@ public class CSVImporter implements CSVConstants {
      * @throws CSVParseException
      */
     void importRelations(File file) throws IOException, CSVParseException {
-        for(CSVRecord csvRecord : getRecords(file)) {
+        readRecords(file, csvRecord -> {
             if(!isRelationsRecordCorrectSize(csvRecord)) {
                 throw new CSVParseException(Messages.CSVImporter_2);
             }
 
             // Header
             if(isHeaderRecord(csvRecord, RELATIONSHIPS_HEADER)) {
-                continue;
+                return;
             }
             // Relation
             else {
                 createRelationFromRecord(csvRecord);
             }
-        }
+        });
         
         // Now connect the relations
         for(Entry<String, IArchimateConcept> entry : newConcepts.entrySet()) {
@@ -412,20 +457,20 @@ public class CSVImporter implements CSVConstants {
      * @throws CSVParseException
      */
     void importProperties(File file) throws IOException, CSVParseException {
-        for(CSVRecord csvRecord : getRecords(file)) {
+        readRecords(file, csvRecord -> {
             if(!isPropertiesRecordCorrectSize(csvRecord)) {
                 throw new CSVParseException(Messages.CSVImporter_2);
             }
 
             // Header
             if(isHeaderRecord(csvRecord, PROPERTIES_HEADER)) {
-                continue;
+                return;
             }
             // Property
             else {
                 createPropertyFromRecord(csvRecord);
             }
-        }
+        });
     }
     
     private boolean isPropertiesRecordCorrectSize(CSVRecord csvRecord) {
@@ -451,7 +496,7 @@ public class CSVImporter implements CSVConstants {
         
         // Not found, check if it's referencing an existing element in the model
         if(propertiesObject == null) {
-            EObject eObject = ArchimateModelUtils.getObjectByID(fModel, id);
+            EObject eObject = fModel.getObjectByID(id);
             if(eObject instanceof IProperties) {
                 propertiesObject = (IProperties)eObject;
             }
@@ -517,60 +562,103 @@ public class CSVImporter implements CSVConstants {
     // -------------------------------- Helpers --------------------------------
     
     /**
-     * Get all records for a CSV file.
-     * This is a brute-force approach to try with a comma delimiter first. If that fails then
-     * try a semicolon, and if that fails, a tab.
+     * Read the records of a CSV file, passing each one to a handler as it is read, so that the records are not all held in memory
      * 
      * @param file The file to open
-     * @return Records, which may be empty but never null
+     * @param handler The handler for each record
+     * @return The number of records read
      * @throws IOException
+     * @throws CSVParseException
      */
-    List<CSVRecord> getRecords(File file) throws IOException {
-        List<CSVRecord> records = new ArrayList<CSVRecord>(); 
-        CSVParser parser = null;
+    long readRecords(File file, RecordHandler handler) throws IOException, CSVParseException {
+        long count = 0;
         
+        try(CSVParser parser = createParser(file, getCSVFormat(file))) {
+            for(Iterator<CSVRecord> iter = parser.iterator(); hasNextRecord(iter);) {
+                handler.handle(iter.next());
+                count++;
+            }
+        }
+        
+        recordCount += count;
+        
+        return count;
+    }
+    
+    /**
+     * Get the CSV format for a file.
+     * The delimiter is detected from the header record only. A comma delimiter is tried first,
+     * then a semicolon, then a tab. The first delimiter that splits the header record into more than
+     * one field is used, otherwise the first delimiter that could read the header record.
+     * 
+     * @param file The file to check
+     * @return The format with the matching delimiter
+     * @throws IOException if the header record can't be read with any of the delimiters
+     */
+    CSVFormat getCSVFormat(File file) throws IOException {
         String errorMessage = "invalid char between encapsulated token and delimiter"; //$NON-NLS-1$
         
-        try {
-            InputStreamReader is = new InputStreamReader(new BOMInputStream(new FileInputStream(file)), "UTF-8"); //$NON-NLS-1$
-            parser = new CSVParser(is, CSVFormat.DEFAULT);
-            records = parser.getRecords();
-        }
-        catch(IOException ex) {
-            if(parser != null) {
-                parser.close();
-            }
-            if(ex.getMessage() != null && ex.getMessage().contains(errorMessage)) {
-                try {
-                    InputStreamReader is = new InputStreamReader(new BOMInputStream(new FileInputStream(file)), "UTF-8"); //$NON-NLS-1$
-                    parser = new CSVParser(is, CSVFormat.DEFAULT.withDelimiter(';'));
-                    records = parser.getRecords();
+        CSVFormat[] formats = {
+                CSVFormat.DEFAULT,
+                CSVFormat.DEFAULT.withDelimiter(';'),
+                CSVFormat.DEFAULT.withDelimiter('\t')
+        };
+        
+        CSVFormat readableFormat = null;
+        IOException lastException = null;
+        
+        for(CSVFormat format : formats) {
+            try(CSVParser parser = createParser(file, format)) {
+                Iterator<CSVRecord> iter = parser.iterator();
+                
+                // Empty file
+                if(!hasNextRecord(iter)) {
+                    return CSVFormat.DEFAULT;
+                }
+                
+                // Only the header record is read
+                if(iter.next().size() > 1) {
+                    return format;
                 }
-                catch(IOException ex2) {
-                    if(parser != null) {
-                        parser.close();
-                    }
-                    if(ex2.getMessage() != null && ex2.getMessage().contains(errorMessage)) {
-                        InputStreamReader is = new InputStreamReader(new BOMInputStream(new FileInputStream(file)), "UTF-8"); //$NON-NLS-1$
-                        parser = new CSVParser(is, CSVFormat.DEFAULT.withDelimiter('\t'));
-                        records = parser.getRecords();
-                    }
-                    else {
-                        throw ex2;
-                    }
+                
+                if(readableFormat == null) {
+                    readableFormat = format;
                 }
             }
-            else {
-                throw ex;
+            catch(IOException ex) {
+                // Try the next delimiter if this is the delimiter error
+                if(ex.getMessage() == null || !ex.getMessage().contains(errorMessage)) {
+                    throw ex;
+                }
+                lastException = ex;
             }
         }
-        finally {
-            if(parser != null) {
-                parser.close();
-            }
+        
+        if(readableFormat != null) {
+            return readableFormat;
         }
         
-        return records;
+        throw lastException;
+    }
+    
+    private CSVParser createParser(File file, CSVFormat format) throws IOException {
+        Reader reader = new BufferedReader(new InputStreamReader(new BOMInputStream(new FileInputStream(file)), StandardCharsets.UTF_8));
+        return new CSVParser(reader, format);
+    }
+    
+    /**
+     * The parser's iterator wraps an IOException in an IllegalStateException so unwrap it
+     */
+    private boolean hasNextRecord(Iterator<CSVRecord> iter) throws IOException {
+        try {
+            return iter.hasNext();
+        }
+        catch(IllegalStateException ex) {
+            if(ex.getCause() instanceof IOException) {
+                throw (IOException)ex.getCause();
+            }
+            throw ex;
+        }
     }
     
     /**
@@ -640,7 +728,7 @@ public class CSVImporter implements CSVConstants {
         }
         
         // Newlines and Tabs
-        s = s.replaceAll("(\r\n|\r|\n|\t)", " ");  //$NON-NLS-1$//$NON-NLS-2$
+        s = NEWLINES_AND_TABS.matcher(s).replaceAll(" "); //$NON-NLS-1$
         
         return s;
     }
@@ -676,7 +764,7 @@ public class CSVImporter implements CSVConstants {
     }
     
     void checkIDForInvalidCharacters(String id) throws CSVParseException {
-        if(!id.matches("^[a-zA-Z0-9._-]+$")) { //$NON-NLS-1$
+        if(!VALID_ID.matcher(id).matches()) {
             throw new CSVParseException(Messages.CSVImporter_12 + id);
         }
     }
@@ -686,7 +774,7 @@ public class CSVImporter implements CSVConstants {
      * @throws CSVParseException 
      */
     IArchimateConcept findArchimateConceptInModel(String id, EClass eClass) throws CSVParseException {
-        EObject eObject = ArchimateModelUtils.getObjectByID(fModel, id);
+        EObject eObject = fModel.getObjectByID(id);
         
         // Found an element with this id
         if(eObject != null) {
@@ -713,7 +801,7 @@ public class CSVImporter implements CSVConstants {
         
         // No. How about in the model?
         if(eObject == null) {
-            eObject = ArchimateModelUtils.getObjectByID(fModel, id);
+            eObject = fModel.getObjectByID(id);
         }
         
         // Not found
@@ -0,0 +1,99 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.diagram.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.gef.ui.parts.GraphicalViewerImpl;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.layout.FillLayout;
+import org.eclipse.swt.widgets.Shell;
+
+import com.archimatetool.model.IDiagramModel;
+
+
+/**
+ * Creates images of Diagram Models using one hidden Shell and one Graphical Viewer for each type of Diagram Model.
+ *
+ * The Shell, Viewers, root edit parts and layers are created once and reused for each Diagram Model
+ * so use this when creating images of many Diagram Models, such as in reports and command line exports.
+ * Only the edit parts and figures of each Diagram Model's contents are created, and these are removed after each image.
+ *
+ * This has to be used in the Display thread and disposed of when done.
+ */
+public class DiagramImageRenderer {
+    
+    private Shell fShell;
+    
+    private Map<EClass, GraphicalViewerImpl> fViewers = new HashMap<>();
+    
+    /**
+     * @param model The model to create the image from
+     * @param scale The scale to use. 1 is full size.
+     * @param margin amount of white space margin to apply around the image
+     * @return A Scaled Image from the given Diagram Model
+     *         Clients must dispose of the Image when done.
+     *         If model has no children a blank image of 100x100 is returned
+     */
+    public Image createImage(IDiagramModel model, double scale, int margin) {
+        return createModelReferencedImage(model, scale, margin).getImage();
+    }
+    
+    /**
+     * @param model The model to create the image from
+     * @param scale The scale to use. 1 is full size.
+     * @param margin amount of white space margin to apply around the image
+     * @return ModelReferencedImage wrapper class containing a Scaled Image from the given Diagram Model and offset bounds
+     *         Clients must dispose of the Image when done.
+     *         If model has no children a blank image of 100x100 is returned
+     */
+    public ModelReferencedImage createModelReferencedImage(IDiagramModel model, double scale, int margin) {
+        GraphicalViewerImpl viewer = getViewer(model);
+        
+        try {
+            viewer.setContents(model);
+            viewer.flush();
+            return DiagramUtils.createModelReferencedImage(viewer, scale, margin);
+        }
+        finally {
+            // Remove the contents edit parts so that they stop listening to the model
+            viewer.getRootEditPart().setContents(null);
+        }
+    }
+    
+    /**
+     * Dispose of the Shell and Viewers
+     */
+    public void dispose() {
+        if(fShell != null) {
+            fShell.dispose();
+            fShell = null;
+        }
+        
+        fViewers.clear();
+    }
+    
+    /**
+     * @return The Viewer for this type of Diagram Model, creating it if needed
+     */
+    private GraphicalViewerImpl getViewer(IDiagramModel model) {
+        GraphicalViewerImpl viewer = fViewers.get(model.eClass());
+        
+        if(viewer == null) {
+            if(fShell == null) {
+                fShell = new Shell();
+                fShell.setLayout(new FillLayout());
+            }
+            
+            viewer = DiagramUtils.createEmptyViewer(model, fShell);
+            fViewers.put(model.eClass(), viewer);
+        }
+        
+        return viewer;
+    }
+}
@@ -18,10 +18,8 @@ import org.eclipse.gef.editparts.LayerManager;
 import org.eclipse.gef.ui.parts.GraphicalViewerImpl;
 import org.eclipse.swt.graphics.GC;
 import org.eclipse.swt.graphics.Image;
-import org.eclipse.swt.layout.FillLayout;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Display;
-import org.eclipse.swt.widgets.Shell;
 
 import com.archimatetool.editor.diagram.DiagramEditorFactoryExtensionHandler;
 import com.archimatetool.editor.diagram.IDiagramEditorFactory;
@@ -47,6 +45,19 @@ public final class DiagramUtils {
      * @return A Graphical Viewer
      */
     public static GraphicalViewerImpl createViewer(IDiagramModel model, Composite parent) {
+        GraphicalViewerImpl viewer = createEmptyViewer(model, parent);
+        
+        viewer.setContents(model);
+        viewer.flush();
+        
+        return viewer;
+    }
+    
+    /**
+     * Create a GraphicalViewerImpl with no contents that can show models of the same type as the given model.
+     * The Viewer has no Scroll Bars
+     */
+    static GraphicalViewerImpl createEmptyViewer(IDiagramModel model, Composite parent) {
         EditPartFactory editPartFactory = null;
         
         if(model instanceof IArchimateDiagramModel) {
@@ -75,9 +86,6 @@ public final class DiagramUtils {
         RootEditPart rootPart = new FreeformGraphicalRootEditPart();
         viewer.setRootEditPart(rootPart);
         
-        viewer.setContents(model);
-        viewer.flush();
-        
         return viewer;
     }
     
@@ -100,16 +108,17 @@ public final class DiagramUtils {
      * @return ModelReferencedImage wrapper class containing a Scaled Image from the given Diagram Model and offset bounds
      *         Clients must dispose of the Image when done.
      *         If model has no children a blank image of 100x100 is returned
+     *         To create images of many models use a DiagramImageRenderer
      */
     public static ModelReferencedImage createModelReferencedImage(IDiagramModel model, double scale, int margin) {
-        Shell shell = new Shell();
-        shell.setLayout(new FillLayout());
+        DiagramImageRenderer renderer = new DiagramImageRenderer();
         
-        GraphicalViewer viewer = createViewer(model, shell);
-        ModelReferencedImage image = createModelReferencedImage(viewer, scale, margin);
-        shell.dispose();
-        
-        return image;
+        try {
+            return renderer.createModelReferencedImage(model, scale, margin);
+        }
+        finally {
+            renderer.dispose();
+        }
     }
 
     /**
@@ -124,7 +133,7 @@ public final class DiagramUtils {
         return createModelReferencedImage(graphicalViewer, scale, margin).getImage();
     }
     
-    private static ModelReferencedImage createModelReferencedImage(GraphicalViewer graphicalViewer, double scale, int margin) {
+    static ModelReferencedImage createModelReferencedImage(GraphicalViewer graphicalViewer, double scale, int margin) {
         LayerManager layerManager = (LayerManager)graphicalViewer.getEditPartRegistry().get(LayerManager.ID);
         IFigure rootFigure = layerManager.getLayer(LayerConstants.PRINTABLE_LAYERS);
         return createModelReferencedImage(rootFigure, scale, margin);
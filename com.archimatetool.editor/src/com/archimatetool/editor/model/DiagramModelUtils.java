@@ -16,7 +16,6 @@ import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
 
 import com.archimatetool.editor.preferences.ConnectionPreferences;
-import com.archimatetool.model.FolderType;
 import com.archimatetool.model.IArchimateConcept;
 import com.archimatetool.model.IArchimateElement;
 import com.archimatetool.model.IArchimateFactory;
@@ -196,6 +195,23 @@ public class DiagramModelUtils {
      * @return The list of Diagram Model References. May be empty, but never null.
      */
     public static List<IDiagramModelReference> findDiagramModelReferences(IDiagramModelContainer container, IDiagramModel diagramModel) {
+        // If the diagram model is in a model use its stored references rather than searching the container
+        if(diagramModel.getArchimateModel() != null) {
+            List<IDiagramModelReference> list = new ArrayList<IDiagramModelReference>();
+            
+            for(IDiagramModelReference ref : diagramModel.getReferencingDiagramModelReferences()) {
+                if(isContainedIn(ref, container)) {
+                    list.add(ref);
+                }
+            }
+            
+            return list;
+        }
+        
+        return findDiagramModelReferencesInContainer(container, diagramModel);
+    }
+    
+    private static List<IDiagramModelReference> findDiagramModelReferencesInContainer(IDiagramModelContainer container, IDiagramModel diagramModel) {
         List<IDiagramModelReference> list = new ArrayList<IDiagramModelReference>();
         
         for(IDiagramModelObject object : container.getChildren()) {
@@ -205,29 +221,32 @@ public class DiagramModelUtils {
                 }
             }
             if(object instanceof IDiagramModelContainer) {
-                list.addAll(findDiagramModelReferences((IDiagramModelContainer)object, diagramModel));
+                list.addAll(findDiagramModelReferencesInContainer((IDiagramModelContainer)object, diagramModel));
             }
         }
         
         return list;
     }
     
+    /**
+     * @return true if object is a descendant of container
+     */
+    private static boolean isContainedIn(EObject object, IDiagramModelContainer container) {
+        for(EObject parent = object.eContainer(); parent != null; parent = parent.eContainer()) {
+            if(parent == container) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
     /**
      * Return true if diagramModel is referenced anywhere in its model as a diagram model reference
      * @param diagramModel The diagram model
      * @return true if referenced
      */
     public static boolean hasDiagramModelReference(IDiagramModel diagramModel) {
-        if(diagramModel.getArchimateModel() != null) {
-            for(Iterator<EObject> iter = diagramModel.getArchimateModel().getFolder(FolderType.DIAGRAMS).eAllContents(); iter.hasNext();) {
-                EObject eObject = iter.next();
-                if(eObject instanceof IDiagramModelReference && ((IDiagramModelReference)eObject).getReferencedModel() == diagramModel) {
-                    return true;
-                }
-            }
-        }
-        
-        return false;
+        return !diagramModel.getReferencingDiagramModelReferences().isEmpty();
     }
     
     /**
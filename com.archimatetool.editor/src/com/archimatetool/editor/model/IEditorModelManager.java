@@ -126,6 +126,13 @@ public interface IEditorModelManager {
      */
     void saveState() throws IOException;
     
+    /**
+     * Load the models that were saved in the state of loaded models.
+     * This is called the first time that getModels() is called and does nothing if called again.
+     * @throws IOException
+     */
+    void loadState() throws IOException;
+    
     /**
      * @param file
      * @return True if the model backed by file is already loaded
@@ -10,10 +10,14 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
 
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.jface.dialogs.MessageDialog;
+import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.widgets.Shell;
 
 import com.archimatetool.editor.Logger;
@@ -35,63 +39,83 @@ import com.archimatetool.model.IIdentifier;
 /**
  * Check Model for integrity
  * 
+ * Each top level folder of the model is checked as a separate partition concurrently.
+ * Each partition stops when it has found the maximum number of errors, and the first errors in model order are kept.
+ * 
  * @author Phillip Beauvoir
  */
 public class ModelChecker {
 
+    /**
+     * Default maximum number of errors to collect
+     */
+    public static final int DEFAULT_MAX_ERRORS = 100;
+    
     private IArchimateModel fModel;
     
     private List<String> fErrorMessages;
     
+    private int fMaxErrors = DEFAULT_MAX_ERRORS;
+    
+    /**
+     * The results of checking one partition of the model
+     */
+    private static class Partition {
+        List<String> messages = new ArrayList<>();
+        Map<IArchimateConcept, Integer> instanceCounts = new HashMap<>();
+    }
+    
     public ModelChecker(IArchimateModel model) {
         fModel = model;
     }
     
+    /**
+     * Set the maximum number of errors to collect. Checking stops when this number is reached.
+     * @param maxErrors The maximum number of errors, or zero or less for no maximum
+     */
+    public void setMaxErrors(int maxErrors) {
+        fMaxErrors = maxErrors;
+    }
+    
+    public int getMaxErrors() {
+        return fMaxErrors;
+    }
+    
     /**
      * @return True if OK, false if not OK
      */
     public boolean checkAll() {
         fErrorMessages = new ArrayList<String>();
         
+        // fErrorMessages.addAll(checkFolderStructure()); // not that important
+        
+        // Check each top level object (folder) of the model concurrently
+        List<ForkJoinTask<Partition>> tasks = new ArrayList<>();
+        
+        for(EObject eObject : fModel.eContents()) {
+            tasks.add(ForkJoinPool.commonPool().submit(() -> checkPartition(eObject)));
+        }
+        
         // Instance count map
         Map<IArchimateConcept, Integer> dmcMap = new HashMap<IArchimateConcept, Integer>();
         
-        // fErrorMessages.addAll(checkFolderStructure()); // not that important
+        // Collect the results in model order
+        for(ForkJoinTask<Partition> task : tasks) {
+            Partition partition = getResult(task);
+            fErrorMessages.addAll(partition.messages);
+            partition.instanceCounts.forEach((concept, count) -> dmcMap.merge(concept, count, Integer::sum));
+        }
         
-        // Iterate through all objects in the model...
-        for(Iterator<EObject> iter = fModel.eAllContents(); iter.hasNext();) {
-            EObject eObject = iter.next();
-            
-            // Identifier
-            if(eObject instanceof IIdentifier) {
-                fErrorMessages.addAll(checkHasIdentifier((IIdentifier)eObject));
-            }
-            
-            // Relation
-            if(eObject instanceof IArchimateRelationship) {
-                fErrorMessages.addAll(checkRelationship((IArchimateRelationship)eObject));
-            }
-            
-            // Diagram Model Object
-            if(eObject instanceof IDiagramModelArchimateObject) {
-                fErrorMessages.addAll(checkDiagramModelArchimateObject((IDiagramModelArchimateObject)eObject));
-                incrementInstanceCount((IDiagramModelArchimateComponent)eObject, dmcMap);
-            }
-            
-            // Diagram Model Connection
-            if(eObject instanceof IDiagramModelArchimateConnection) {
-                fErrorMessages.addAll(checkDiagramModelArchimateConnection((IDiagramModelArchimateConnection)eObject));
-                incrementInstanceCount((IDiagramModelArchimateConnection)eObject, dmcMap);
-            }
-            
-            // Folder
-            if(eObject instanceof IFolder) {
-                fErrorMessages.addAll(checkFolder((IFolder)eObject));
-            }
+        // Now check Diagram Model Object reference count. If no partition stopped early all of the instances were counted.
+        if(!isErrorLimitReached(fErrorMessages)) {
+            fErrorMessages.addAll(checkDiagramComponentInstanceCount(dmcMap));
         }
         
-        // Now check Diagram Model Object reference count
-        fErrorMessages.addAll(checkDiagramComponentInstanceCount(dmcMap));
+        // Keep the first errors in model order so that the result doesn't depend on which partition finished first
+        if(isErrorLimitReached(fErrorMessages)) {
+            fErrorMessages = new ArrayList<String>(fErrorMessages.subList(0, fMaxErrors));
+            fErrorMessages.add(NLS.bind(Messages.ModelChecker_28, fMaxErrors));
+        }
         
         return fErrorMessages.isEmpty();
     }
@@ -100,6 +124,78 @@ public class ModelChecker {
         return fErrorMessages;
     }
     
+    /**
+     * Check an object and all of its contents
+     */
+    private Partition checkPartition(EObject root) {
+        Partition partition = new Partition();
+        
+        checkObject(root, partition);
+        
+        for(Iterator<EObject> iter = root.eAllContents(); iter.hasNext() && !isErrorLimitReached(partition.messages);) {
+            checkObject(iter.next(), partition);
+        }
+        
+        return partition;
+    }
+    
+    private void checkObject(EObject eObject, Partition partition) {
+        List<String> messages = partition.messages;
+        
+        // Identifier
+        if(eObject instanceof IIdentifier) {
+            checkHasIdentifier((IIdentifier)eObject, messages);
+        }
+        
+        // Relation
+        if(eObject instanceof IArchimateRelationship) {
+            checkRelationship((IArchimateRelationship)eObject, messages);
+        }
+        
+        // Diagram Model Object
+        if(eObject instanceof IDiagramModelArchimateObject) {
+            checkDiagramModelArchimateObject((IDiagramModelArchimateObject)eObject, messages);
+            incrementInstanceCount((IDiagramModelArchimateComponent)eObject, partition.instanceCounts);
+        }
+        
+        // Diagram Model Connection
+        if(eObject instanceof IDiagramModelArchimateConnection) {
+            checkDiagramModelArchimateConnection((IDiagramModelArchimateConnection)eObject, messages);
+            incrementInstanceCount((IDiagramModelArchimateConnection)eObject, partition.instanceCounts);
+        }
+        
+        // Folder
+        if(eObject instanceof IFolder) {
+            checkFolder((IFolder)eObject, messages);
+        }
+    }
+    
+    private Partition getResult(ForkJoinTask<Partition> task) {
+        try {
+            return task.get();
+        }
+        catch(InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(ex);
+        }
+        catch(ExecutionException ex) {
+            throw new RuntimeException(ex.getCause());
+        }
+    }
+    
+    /**
+     * Add an error message if the list doesn't already have the maximum number of errors
+     */
+    private void addError(List<String> messages, String message) {
+        if(!isErrorLimitReached(messages)) {
+            messages.add(message);
+        }
+    }
+    
+    private boolean isErrorLimitReached(List<String> messages) {
+        return fMaxErrors > 0 && messages.size() >= fMaxErrors;
+    }
+    
     public void showErrorDialog(Shell shell) {
         if(fErrorMessages == null || fErrorMessages.isEmpty()) {
             return;
@@ -161,112 +257,127 @@ public class ModelChecker {
     
     List<String> checkHasIdentifier(IIdentifier eObject) {
         List<String> messages = new ArrayList<String>();
-        
+        checkHasIdentifier(eObject, messages);
+        return messages;
+    }
+    
+    private void checkHasIdentifier(IIdentifier eObject, List<String> messages) {
         if(!StringUtils.isSet(eObject.getId())) {
             String message = Messages.ModelChecker_10 + " " + ArchiLabelProvider.INSTANCE.getLabel(eObject); //$NON-NLS-1$
-            messages.add(message);
+            addError(messages, message);
         }
-        
-        return messages;
     }
     
     List<String> checkRelationship(IArchimateRelationship relation) {
         List<String> messages = new ArrayList<String>();
-        
-        String name = " (" + relation.getId() + ")"; //$NON-NLS-1$ //$NON-NLS-2$
-        
+        checkRelationship(relation, messages);
+        return messages;
+    }
+    
+    private void checkRelationship(IArchimateRelationship relation, List<String> messages) {
         // Source missing
         if(relation.getSource() == null) {
-            String message = Messages.ModelChecker_19 + name;
-            messages.add(message);
+            addError(messages, Messages.ModelChecker_19 + getName(relation));
         }
         // Source orphaned from model
         else if(relation.getSource().getArchimateModel() == null) {
-            String message = Messages.ModelChecker_20 + name;
-            messages.add(message);
+            addError(messages, Messages.ModelChecker_20 + getName(relation));
         }
         
         // Target missing
         if(relation.getTarget() == null) {
-            String message = Messages.ModelChecker_21 + name;
-            messages.add(message);
+            addError(messages, Messages.ModelChecker_21 + getName(relation));
         }
         // Target orphaned from model
         else if(relation.getTarget().getArchimateModel() == null) {
-            String message = Messages.ModelChecker_22 + name;
-            messages.add(message);
+            addError(messages, Messages.ModelChecker_22 + getName(relation));
         }
-        
-        return messages;
+    }
+    
+    private String getName(IArchimateRelationship relation) {
+        return " (" + relation.getId() + ")"; //$NON-NLS-1$ //$NON-NLS-2$
     }
     
     List<String> checkDiagramModelArchimateObject(IDiagramModelArchimateObject dmo) {
         List<String> messages = new ArrayList<String>();
+        checkDiagramModelArchimateObject(dmo, messages);
+        return messages;
+    }
+    
+    private void checkDiagramModelArchimateObject(IDiagramModelArchimateObject dmo, List<String> messages) {
+        IArchimateElement element = dmo.getArchimateElement();
+        
+        // OK
+        if(element != null && element.getArchimateModel() != null) {
+            return;
+        }
         
         String name = dmo.getDiagramModel() == null ? Messages.ModelChecker_11 : " '" + dmo.getDiagramModel().getName() + "' (" + dmo.getId() + ")"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 
-        IArchimateElement element = dmo.getArchimateElement();
-        
         // No referenced element
         if(element == null) {
-            messages.add(Messages.ModelChecker_12 + name);
+            addError(messages, Messages.ModelChecker_12 + name);
         }
         // Orphaned element
-        else if(element.getArchimateModel() == null) {
-            messages.add(Messages.ModelChecker_13 + name);
+        else {
+            addError(messages, Messages.ModelChecker_13 + name);
         }
-        
-        return messages;
     }
     
     List<String> checkDiagramModelArchimateConnection(IDiagramModelArchimateConnection connection) {
         List<String> messages = new ArrayList<String>();
-        
-        String name = connection.getDiagramModel() == null ? Messages.ModelChecker_11 : " '" + connection.getDiagramModel().getName() + "' (" + connection.getId() + ")"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-
+        checkDiagramModelArchimateConnection(connection, messages);
+        return messages;
+    }
+    
+    private void checkDiagramModelArchimateConnection(IDiagramModelArchimateConnection connection, List<String> messages) {
         IArchimateRelationship relation = connection.getArchimateRelationship();
         
         // No referenced relation
         if(relation == null) {
-            messages.add(Messages.ModelChecker_15 + name);
+            addError(messages, Messages.ModelChecker_15 + getName(connection));
         }
         else {
             // Orphaned relation
             if(relation.getArchimateModel() == null) {
-                messages.add(Messages.ModelChecker_16 + name);
+                addError(messages, Messages.ModelChecker_16 + getName(connection));
             }
             // Orphaned relation source
             if(relation.getSource() != null && relation.getSource().getArchimateModel() == null) {
-                messages.add(Messages.ModelChecker_17 + name);
+                addError(messages, Messages.ModelChecker_17 + getName(connection));
             }
             // Orphaned relation target
             if(relation.getTarget() != null && relation.getTarget().getArchimateModel() == null) {
-                messages.add(Messages.ModelChecker_18 + name);
+                addError(messages, Messages.ModelChecker_18 + getName(connection));
             }
             // Relationship ends != connection ends
             if(((IDiagramModelArchimateComponent)connection.getSource()).getArchimateConcept() != relation.getSource()) {
-                messages.add(Messages.ModelChecker_14 + name);
+                addError(messages, Messages.ModelChecker_14 + getName(connection));
             }
             if(((IDiagramModelArchimateComponent)connection.getTarget()).getArchimateConcept() != relation.getTarget()) {
-                messages.add(Messages.ModelChecker_27 + name);
+                addError(messages, Messages.ModelChecker_27 + getName(connection));
             }
         }
-        
-        return messages;
+    }
+    
+    private String getName(IDiagramModelArchimateConnection connection) {
+        return connection.getDiagramModel() == null ? Messages.ModelChecker_11 : " '" + connection.getDiagramModel().getName() + "' (" + connection.getId() + ")"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
     }
     
     List<String> checkFolder(IFolder folder) {
         List<String> messages = new ArrayList<String>();
-        
+        checkFolder(folder, messages);
+        return messages;
+    }
+    
+    private void checkFolder(IFolder folder, List<String> messages) {
         // Only allowed these types in folder's elements list
         for(EObject eObject : folder.getElements()) {
             if(!(eObject instanceof IArchimateConcept || eObject instanceof IDiagramModel)) {
                 String name = " (Folder: " + folder.getId() + " Object: " + ((IIdentifier)eObject).getId() + ")"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-                messages.add(Messages.ModelChecker_25 + name);
+                addError(messages, Messages.ModelChecker_25 + name);
             }
         }
-        
-        return messages;
     }
     
     /**
@@ -281,19 +392,20 @@ public class ModelChecker {
     }
     
     /**
-     * Check the actual IDiagramModelArchimateComponent instance count against the concept's reported instance count
+     * Check the actual IDiagramModelArchimateComponent instance count against the concept's reported instance count.
+     * Getting the reported count means checking the ancestors of each referencing component so this is done concurrently.
      */
     private List<String> checkDiagramComponentInstanceCount(Map<IArchimateConcept, Integer> map) {
+        List<IArchimateConcept> concepts = map.entrySet().parallelStream()
+                .filter(entry -> entry.getKey().getReferencingDiagramComponents().size() != entry.getValue())
+                .map(entry -> entry.getKey())
+                .collect(Collectors.toList());
+        
         List<String> messages = new ArrayList<String>();
         
-        // Now check the total count against the reported count of the concept
-        for(Entry<IArchimateConcept, Integer> entry : map.entrySet()) {
-            IArchimateConcept concept = entry.getKey();
-            int count = entry.getValue();
-            if(concept.getReferencingDiagramComponents().size() != count) {
-                String name = " (" + concept.getId() + ")"; //$NON-NLS-1$ //$NON-NLS-2$
-                messages.add(Messages.ModelChecker_24 + name);
-            }
+        for(IArchimateConcept concept : concepts) {
+            String name = " (" + concept.getId() + ")"; //$NON-NLS-1$ //$NON-NLS-2$
+            addError(messages, Messages.ModelChecker_24 + name);
         }
         
         return messages;
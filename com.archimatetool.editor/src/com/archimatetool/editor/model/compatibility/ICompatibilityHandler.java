@@ -7,9 +7,13 @@ package com.archimatetool.editor.model.compatibility;
 
 import org.eclipse.emf.ecore.resource.Resource;
 
+import com.archimatetool.model.IArchimateModel;
+
 /**
  * Interface to fix backward compatibility issues
  * 
+ * Handlers are created once and used for every model that is loaded so they should not keep any state between models.
+ * 
  * @author Phillip Beauvoir
  */
 public interface ICompatibilityHandler {
@@ -25,4 +29,13 @@ public interface ICompatibilityHandler {
      * @throws CompatibilityHandlerException
      */
     void fixCompatibility(Resource resource) throws CompatibilityHandlerException;
+    
+    /**
+     * @param model The model
+     * @return false if this handler can't apply to the model, for example because of the model's version, so that it is not called at all.
+     *         The default is true.
+     */
+    default boolean isApplicable(IArchimateModel model) {
+        return true;
+    }
 }
\ No newline at end of file
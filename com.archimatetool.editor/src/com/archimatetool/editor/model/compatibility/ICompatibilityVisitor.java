@@ -0,0 +1,49 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.model.compatibility;
+
+import java.util.Iterator;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+
+import com.archimatetool.model.IArchimateModel;
+
+/**
+ * A compatibility handler that fixes a model one object at a time.
+ * 
+ * ModelCompatibility visits each object in the model once and passes it to all applicable visitors
+ * so that the model is only traversed once however many handlers need to fix it.
+ * 
+ * Handlers are still run in the order they are registered in plugin.xml. A visitor sees the model as left by all handlers registered before it
+ * except that consecutive visitors share one traversal, so an object is passed to each of them in turn before the next object is visited.
+ * Any pending visitors are always run before a handler that is not a visitor. isApplicable() is called for consecutive visitors
+ * before any of them are run, so it should not depend on changes made by the visitors before it.
+ */
+public interface ICompatibilityVisitor extends ICompatibilityHandler {
+    
+    /**
+     * Fix an object in the model. This is only called if isApplicable() returned true for the model.
+     * Objects must not be added, removed or moved in the model.
+     * @param eObject The object
+     * @throws CompatibilityHandlerException
+     */
+    void visit(EObject eObject) throws CompatibilityHandlerException;
+    
+    /**
+     * Fix the model on its own by visiting all of its objects
+     */
+    @Override
+    default void fixCompatibility(Resource resource) throws CompatibilityHandlerException {
+        IArchimateModel model = (IArchimateModel)resource.getContents().get(0);
+        
+        if(isApplicable(model)) {
+            for(Iterator<EObject> iter = model.eAllContents(); iter.hasNext();) {
+                visit(iter.next());
+            }
+        }
+    }
+}
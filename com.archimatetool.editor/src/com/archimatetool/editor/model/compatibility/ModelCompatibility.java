@@ -6,12 +6,15 @@
 package com.archimatetool.editor.model.compatibility;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.IExtensionRegistry;
 import org.eclipse.core.runtime.Platform;
+import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.Resource.Diagnostic;
 import org.eclipse.emf.ecore.xmi.ClassNotFoundException;
@@ -34,6 +37,11 @@ import com.archimatetool.model.IArchimateModel;
  */
 public class ModelCompatibility {
     
+    /**
+     * Registered compatibility handlers, created once
+     */
+    private static List<ICompatibilityHandler> handlers;
+    
     private Resource fResource;
     
     // Too noisy converting from A2 to A3 models
@@ -129,21 +137,75 @@ public class ModelCompatibility {
     }
     
     /**
-     * Fix any compatibility issues in registered handlers
+     * Fix any compatibility issues in registered handlers in registration order.
+     * Handlers that don't apply to the model are skipped.
+     * Consecutive visitors are run together in one traversal of the model, and any pending visitors are run before the next handler that is not a visitor.
      * @throws CompatibilityHandlerException 
      */
     public void fixCompatibility() throws CompatibilityHandlerException {
-        IExtensionRegistry registry = Platform.getExtensionRegistry();
-        for(IConfigurationElement configurationElement : registry.getConfigurationElementsFor(ICompatibilityHandler.EXTENSION_ID)) {
-            try {
-                ICompatibilityHandler handler = (ICompatibilityHandler)configurationElement.createExecutableExtension("class"); //$NON-NLS-1$
-                if(handler != null) {
-                    handler.fixCompatibility(fResource);
-                }
-            } 
-            catch(CoreException ex) {
-                ex.printStackTrace();
-            } 
+        IArchimateModel model = (IArchimateModel)fResource.getContents().get(0);
+        
+        List<ICompatibilityVisitor> visitors = new ArrayList<>();
+        
+        for(ICompatibilityHandler handler : getHandlers()) {
+            if(!handler.isApplicable(model)) {
+                continue;
+            }
+            
+            if(handler instanceof ICompatibilityVisitor) {
+                visitors.add((ICompatibilityVisitor)handler);
+            }
+            else {
+                // Visitors registered before this handler have to be run first
+                runVisitors(model, visitors);
+                handler.fixCompatibility(fResource);
+            }
         }
+        
+        runVisitors(model, visitors);
+    }
+    
+    /**
+     * Traverse the model once passing each object to the visitors in order, then clear the list of visitors
+     */
+    private void runVisitors(IArchimateModel model, List<ICompatibilityVisitor> visitors) throws CompatibilityHandlerException {
+        if(visitors.isEmpty()) {
+            return;
+        }
+        
+        for(Iterator<EObject> iter = model.eAllContents(); iter.hasNext();) {
+            EObject eObject = iter.next();
+            for(ICompatibilityVisitor visitor : visitors) {
+                visitor.visit(eObject);
+            }
+        }
+        
+        visitors.clear();
+    }
+    
+    /**
+     * @return The registered compatibility handlers. These are read from the extension registry and created the first time only.
+     */
+    static synchronized List<ICompatibilityHandler> getHandlers() {
+        if(handlers == null) {
+            List<ICompatibilityHandler> list = new ArrayList<>();
+            
+            IExtensionRegistry registry = Platform.getExtensionRegistry();
+            for(IConfigurationElement configurationElement : registry.getConfigurationElementsFor(ICompatibilityHandler.EXTENSION_ID)) {
+                try {
+                    ICompatibilityHandler handler = (ICompatibilityHandler)configurationElement.createExecutableExtension("class"); //$NON-NLS-1$
+                    if(handler != null) {
+                        list.add(handler);
+                    }
+                } 
+                catch(CoreException ex) {
+                    ex.printStackTrace();
+                } 
+            }
+            
+            handlers = Collections.unmodifiableList(list);
+        }
+        
+        return handlers;
     }
 }
@@ -27,6 +27,11 @@ import com.archimatetool.model.IFolder;
  */
 public class Archimate2To3Handler implements ICompatibilityHandler {
     
+    @Override
+    public boolean isApplicable(IArchimateModel model) {
+        return isArchimate2Model(model);
+    }
+    
     @Override
     public void fixCompatibility(Resource resource) throws CompatibilityHandlerException {
         IArchimateModel model = (IArchimateModel)resource.getContents().get(0);
@@ -8,10 +8,8 @@ package com.archimatetool.editor.model.compatibility.handlers;
 import java.util.Iterator;
 
 import org.eclipse.emf.ecore.EObject;
-import org.eclipse.emf.ecore.resource.Resource;
 
-import com.archimatetool.editor.model.compatibility.CompatibilityHandlerException;
-import com.archimatetool.editor.model.compatibility.ICompatibilityHandler;
+import com.archimatetool.editor.model.compatibility.ICompatibilityVisitor;
 import com.archimatetool.editor.utils.StringUtils;
 import com.archimatetool.model.IArchimateModel;
 import com.archimatetool.model.IDiagramModelObject;
@@ -24,15 +22,18 @@ import com.archimatetool.model.IDiagramModelObject;
  * 
  * @author Phillip Beauvoir
  */
-public class OutlineOpacityHandler implements ICompatibilityHandler {
+public class OutlineOpacityHandler implements ICompatibilityVisitor {
     
     @Override
-    public void fixCompatibility(Resource resource) throws CompatibilityHandlerException {
-        IArchimateModel model = (IArchimateModel)resource.getContents().get(0);
-        
-        // Check all widths and heights
-        if(isVersion(model)) {
-            setDefaultOutlineOpacity(model);
+    public boolean isApplicable(IArchimateModel model) {
+        return isVersion(model);
+    }
+    
+    @Override
+    public void visit(EObject eObject) {
+        if(eObject instanceof IDiagramModelObject) {
+            IDiagramModelObject dmo = (IDiagramModelObject)eObject;
+            dmo.setLineAlpha(dmo.getAlpha());
         }
     }
     
@@ -44,11 +45,7 @@ public class OutlineOpacityHandler implements ICompatibilityHandler {
 
     void setDefaultOutlineOpacity(IArchimateModel model) {
         for(Iterator<EObject> iter = model.eAllContents(); iter.hasNext();) {
-            EObject eObject = iter.next();
-            if(eObject instanceof IDiagramModelObject) {
-                IDiagramModelObject dmo = (IDiagramModelObject)eObject;
-                dmo.setLineAlpha(dmo.getAlpha());
-            }
+            visit(iter.next());
         }
     }
     
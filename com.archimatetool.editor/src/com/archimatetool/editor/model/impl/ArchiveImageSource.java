@@ -0,0 +1,207 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.model.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * On-demand source of image bytes in a model's archive file.
+ *
+ * Only the zip file's central directory is read when this is created. The bytes of an entry are read from the file
+ * the first time they are asked for and are then held in a SoftReference so that they can be freed under memory pressure
+ * and read again later if needed.
+ *
+ * The zip file is not kept open between reads so that the archive file can be saved over.
+ * If the archive file is changed after this was created then reading an entry will fail with an IOException.
+ */
+class ArchiveImageSource {
+
+    private static final String IMAGES_FOLDER = "images/"; //$NON-NLS-1$
+
+    private File fFile;
+    private long fLastModified;
+    private long fLength;
+
+    /**
+     * Entry name -> SourceEntry
+     */
+    private Map<String, SourceEntry> fEntries = new LinkedHashMap<>();
+
+    /**
+     * Uncompressed size -> entry names, used as a quick filter when looking for duplicate bytes
+     */
+    private Map<Long, List<String>> fSizeTable = new HashMap<>();
+
+    private static class SourceEntry {
+        long size;
+        long crc;
+        SoftReference<byte[]> bytesRef;
+
+        SourceEntry(long size, long crc) {
+            this.size = size;
+            this.crc = crc;
+        }
+    }
+
+    /**
+     * Index the image entries in the archive file
+     * @param file The archive file
+     * @throws IOException
+     */
+    ArchiveImageSource(File file) throws IOException {
+        fFile = file;
+        fLastModified = file.lastModified();
+        fLength = file.length();
+
+        try(ZipFile zipFile = new ZipFile(file)) {
+            for(Enumeration<? extends ZipEntry> enm = zipFile.entries(); enm.hasMoreElements();) {
+                ZipEntry zipEntry = enm.nextElement();
+                String entryName = zipEntry.getName();
+                if(entryName.startsWith(IMAGES_FOLDER) && !zipEntry.isDirectory()) {
+                    fEntries.put(entryName, new SourceEntry(zipEntry.getSize(), zipEntry.getCrc()));
+                    fSizeTable.computeIfAbsent(zipEntry.getSize(), k -> new ArrayList<>()).add(entryName);
+                }
+            }
+        }
+    }
+
+    File getFile() {
+        return fFile;
+    }
+
+    boolean hasEntry(String entryName) {
+        return fEntries.containsKey(entryName);
+    }
+
+    boolean hasEntries() {
+        return !fEntries.isEmpty();
+    }
+
+    Set<String> getEntryNames() {
+        return fEntries.keySet();
+    }
+
+    /**
+     * @return The uncompressed size of the entry as recorded in the archive, or -1 if not known
+     */
+    long getEntrySize(String entryName) {
+        SourceEntry entry = fEntries.get(entryName);
+        return entry != null ? entry.size : -1;
+    }
+
+    /**
+     * Remove an entry so that it is no longer provided by this source
+     */
+    void removeEntry(String entryName) {
+        SourceEntry entry = fEntries.remove(entryName);
+        if(entry != null) {
+            List<String> names = fSizeTable.get(entry.size);
+            if(names != null) {
+                names.remove(entryName);
+                if(names.isEmpty()) {
+                    fSizeTable.remove(entry.size);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return True if the archive file has not been changed since it was indexed
+     */
+    boolean isValid() {
+        return fFile.exists() && fFile.lastModified() == fLastModified && fFile.length() == fLength;
+    }
+
+    /**
+     * Get the bytes for an entry, reading them from the archive file if they are not already held in memory
+     * @return The bytes or null if there is no such entry
+     * @throws IOException if the archive file has changed or could not be read
+     */
+    byte[] getBytes(String entryName) throws IOException {
+        SourceEntry entry = fEntries.get(entryName);
+        if(entry == null) {
+            return null;
+        }
+
+        byte[] bytes = entry.bytesRef != null ? entry.bytesRef.get() : null;
+
+        if(bytes == null) {
+            if(!isValid()) {
+                throw new IOException("Archive file has changed: " + fFile); //$NON-NLS-1$
+            }
+
+            try(ZipFile zipFile = new ZipFile(fFile)) {
+                ZipEntry zipEntry = zipFile.getEntry(entryName);
+                if(zipEntry == null) {
+                    throw new IOException("Entry not found in archive file: " + entryName); //$NON-NLS-1$
+                }
+
+                try(InputStream in = zipFile.getInputStream(zipEntry)) {
+                    bytes = readBytes(in, entry.size);
+                }
+            }
+
+            entry.bytesRef = new SoftReference<>(bytes);
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Find an entry that has the same bytes.
+     * The size and CRC recorded in the archive are checked first so that only likely matches are read and compared.
+     * @return The entry name or null if not found
+     * @throws IOException
+     */
+    String findEntry(byte[] bytes) throws IOException {
+        List<String> names = fSizeTable.get((long)bytes.length);
+        if(names == null) {
+            return null;
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        long value = crc.getValue();
+
+        for(String entryName : names) {
+            if(fEntries.get(entryName).crc == value && Arrays.equals(bytes, getBytes(entryName))) {
+                return entryName;
+            }
+        }
+
+        return null;
+    }
+
+    void dispose() {
+        fEntries.clear();
+        fSizeTable.clear();
+    }
+
+    private byte[] readBytes(InputStream in, long size) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size > 0 ? (int)size : 8192);
+        byte[] buf = new byte[8192];
+        int bytesRead;
+        while((bytesRead = in.read(buf)) != -1) {
+            out.write(buf, 0, bytesRead);
+        }
+        return out.toByteArray();
+    }
+}
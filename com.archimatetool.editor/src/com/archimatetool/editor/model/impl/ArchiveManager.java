@@ -5,21 +5,23 @@
  */
 package com.archimatetool.editor.model.impl;
 
-import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Enumeration;
-import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map.Entry;
 import java.util.Set;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
@@ -29,10 +31,12 @@ import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.xmi.XMLResource;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.ImageData;
 import org.eclipse.swt.widgets.Display;
 
+import com.archimatetool.editor.Logger;
 import com.archimatetool.editor.model.IArchiveManager;
 import com.archimatetool.editor.utils.FileUtils;
 import com.archimatetool.model.IArchimateModel;
@@ -114,19 +118,7 @@ public class ArchiveManager implements IArchiveManager {
     
     @Override
     public List<String> getImagePaths() {
-        Set<String> set = new HashSet<>();
-        
-        for(Iterator<EObject> iter = fModel.eAllContents(); iter.hasNext();) {
-            EObject element = iter.next();
-            if(element instanceof IDiagramModelImageProvider) {
-                String imagePath = ((IDiagramModelImageProvider)element).getImagePath();
-                if(imagePath != null) {
-                    set.add(imagePath);
-                }
-            }
-        }
-        
-        return new ArrayList<>(set);
+        return new ArrayList<>(collectImagePaths());
     }
     
     @Override
@@ -135,13 +127,22 @@ public class ArchiveManager implements IArchiveManager {
     }
     
     /**
-     * Load images from model's archive file
+     * Load images from model's archive file.
+     * Only the archive's index is read here, image bytes are read when they are first needed.
      */
     @Override
     public void loadImages() throws IOException {
-        if(!fImagesLoaded && loadImagesFromModelFile(fModel.getFile())) {
-            fImagesLoaded = true;
+        if(fImagesLoaded) {
+            return;
         }
+        
+        File file = fModel.getFile();
+        if(file == null || !file.exists() || !FACTORY.isArchiveFile(file)) {
+            return;
+        }
+        
+        byteArrayStorage.setImageSource(new ArchiveImageSource(file));
+        fImagesLoaded = true;
     }
     
     @Override
@@ -223,11 +224,42 @@ public class ArchiveManager implements IArchiveManager {
             return;
         }
         
-        if(hasImages()) {
-            saveModelToArchiveFile(file);
+        // One pass to get the image paths in use, which also tells us which format to use
+        Set<String> imagePaths = collectImagePaths();
+        
+        // If the file is a symbolic link then replace the file that it links to rather than the link
+        File targetFile = file.exists() ? file.toPath().toRealPath().toFile() : file.getAbsoluteFile();
+        
+        // Write to a temp file in the same folder and then rename it so that a failed save doesn't lose the existing file
+        File tmpFile = File.createTempFile("~archi", ".tmp", targetFile.getParentFile()); //$NON-NLS-1$ //$NON-NLS-2$
+        
+        try {
+            if(imagePaths.isEmpty()) {
+                saveResource(file, tmpFile);
+            }
+            else {
+                saveModelToArchiveFile(file, tmpFile, imagePaths);
+            }
+            
+            // Images that are only in the archive file source were not saved as the model doesn't reference them now
+            // but an undo could reference them again, so keep them before the source is replaced
+            ArchiveImageSource imageSource = byteArrayStorage.getImageSource();
+            boolean replacingSource = imageSource != null && imageSource.getFile().getAbsoluteFile().equals(file.getAbsoluteFile());
+            byteArrayStorage.loadSourceEntries(imagePaths);
+            
+            moveFile(tmpFile, targetFile);
+            
+            if(!imagePaths.isEmpty()) {
+                // Now read images from the new archive file and free the ones that we have in memory
+                byteArrayStorage.setImageSource(new ArchiveImageSource(file));
+                byteArrayStorage.releaseSourceEntries();
+            }
+            else if(replacingSource) {
+                byteArrayStorage.setImageSource(null);
+            }
         }
-        else {
-            saveResource(file);
+        finally {
+            tmpFile.delete();
         }
     }
     
@@ -235,8 +267,11 @@ public class ArchiveManager implements IArchiveManager {
     public IArchiveManager clone(IArchimateModel model) {
         ArchiveManager archiveManager = new ArchiveManager(model);
         
-        for(Entry<String, byte[]> entry : byteArrayStorage.getEntrySet()) {
-            archiveManager.byteArrayStorage.addByteContentEntry(entry.getKey(), entry.getValue());
+        try {
+            archiveManager.byteArrayStorage.addEntries(byteArrayStorage);
+        }
+        catch(IOException ex) {
+            Logger.logError("Could not copy images", ex); //$NON-NLS-1$
         }
         
         return archiveManager;
@@ -245,48 +280,57 @@ public class ArchiveManager implements IArchiveManager {
     /**
      * Save the model to Archive File format
      */
-    private void saveModelToArchiveFile(File file) throws IOException {
-        try(ZipOutputStream zOut = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+    private void saveModelToArchiveFile(File file, File tmpFile, Set<String> imagePaths) throws IOException {
+        try(ZipOutputStream zOut = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
             // Add the model xml file
-            saveModelFile(zOut);
+            saveModelFile(file, zOut);
             
             // Add any images
-            saveImages(zOut);
+            saveImages(zOut, imagePaths);
         }
     }
     
     /**
-     * Save the model xml file in the Archive File
+     * Save the model xml file directly into the Archive File
      */
-    private void saveModelFile(ZipOutputStream zOut) throws IOException {
-        // Temp file for xml model file
-        File tmpFile = File.createTempFile("archi-", null); //$NON-NLS-1$
-        tmpFile.deleteOnExit();
-        saveResource(tmpFile);
-        
+    private void saveModelFile(File file, ZipOutputStream zOut) throws IOException {
         ZipEntry zipEntry = new ZipEntry("model.xml"); //$NON-NLS-1$
         zipEntry.setTime(0); // Set time to zero for coArchi
         zOut.putNextEntry(zipEntry);
         
-        final int bufSize = 8192;
-        byte buf[] = new byte[bufSize];
-        int bytesRead;
-        
-        try(BufferedInputStream in = new BufferedInputStream(new FileInputStream(tmpFile), bufSize)) {
-            while((bytesRead = in.read(buf)) != -1) {
-                zOut.write(buf, 0, bytesRead);
+        // Don't let the Resource close the zip stream
+        saveResource(file, new FilterOutputStream(zOut) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
             }
-            zOut.closeEntry();
-        }
-        finally {
-            tmpFile.delete();
+            
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        });
+        
+        zOut.closeEntry();
+    }
+    
+    /**
+     * Save the model to a file
+     * @param file The model's file, used as the Resource's URI
+     * @param outFile The file to actually write to
+     */
+    private void saveResource(File file, File outFile) throws IOException {
+        try(OutputStream out = new BufferedOutputStream(new FileOutputStream(outFile))) {
+            saveResource(file, out);
         }
     }
     
     /**
      * Save the model to Resource
+     * @param file The model's file, used as the Resource's URI
+     * @param out The stream to write to
      */
-    private void saveResource(File file) throws IOException {
+    private void saveResource(File file, OutputStream out) throws IOException {
         Resource resource = fModel.eResource();
         
         // No parent Resource set, so create a new one
@@ -301,34 +345,59 @@ public class ArchiveManager implements IArchiveManager {
         
         // Catch *all* exceptions in case of XML errors
         try {
-            resource.save(null);
+            resource.save(out, ((XMLResource)resource).getDefaultSaveOptions());
         }
         catch(Exception ex) {
             throw new IOException(ex);
         }
     }
     
-    private void saveImages(ZipOutputStream zOut) throws IOException {
-        List<String> added = new ArrayList<String>();
+    /**
+     * Save the images used in the model into the Archive File
+     * @throws IOException if an image could not be read, so that the save fails rather than losing the image
+     */
+    private void saveImages(ZipOutputStream zOut, Set<String> imagePaths) throws IOException {
+        for(String imagePath : imagePaths) {
+            byte[] bytes = byteArrayStorage.readEntry(imagePath);
+            if(bytes != null) {
+                ZipEntry zipEntry = new ZipEntry(imagePath);
+                zipEntry.setTime(0); // Set time to zero for coArchi
+                zOut.putNextEntry(zipEntry);
+                zOut.write(bytes);
+                zOut.closeEntry();
+            }
+        }
+    }
+    
+    /**
+     * @return The image paths used in the model in the order they are first found
+     */
+    private Set<String> collectImagePaths() {
+        Set<String> set = new LinkedHashSet<>();
         
         for(Iterator<EObject> iter = fModel.eAllContents(); iter.hasNext();) {
-            EObject eObject = iter.next();
-            if(eObject instanceof IDiagramModelImageProvider) {
-                IDiagramModelImageProvider imageProvider = (IDiagramModelImageProvider)eObject;
-                String imagePath = imageProvider.getImagePath();
-                if(imagePath != null && !added.contains(imagePath)) {
-                    byte[] bytes = byteArrayStorage.getEntry(imagePath);
-                    if(bytes != null) {
-                        ZipEntry zipEntry = new ZipEntry(imagePath);
-                        zipEntry.setTime(0); // Set time to zero for coArchi
-                        zOut.putNextEntry(zipEntry);
-                        zOut.write(bytes);
-                        zOut.closeEntry();
-                        added.add(imagePath);
-                    }
+            EObject element = iter.next();
+            if(element instanceof IDiagramModelImageProvider) {
+                String imagePath = ((IDiagramModelImageProvider)element).getImagePath();
+                if(imagePath != null) {
+                    set.add(imagePath);
                 }
             }
         }
+        
+        return set;
+    }
+    
+    /**
+     * Move the saved temp file to the target file, atomically if the file system allows it
+     */
+    private void moveFile(File srcFile, File destFile) throws IOException {
+        try {
+            Files.move(srcFile.toPath(), destFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch(AtomicMoveNotSupportedException ex) {
+            Files.move(srcFile.toPath(), destFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
     }
     
     private String createArchiveImagePathname(File file) {
@@ -344,6 +413,10 @@ public class ArchiveManager implements IArchiveManager {
         return path;
     }
     
+    ByteArrayStorage getByteArrayStorage() {
+        return byteArrayStorage;
+    }
+    
     @Override
     public void dispose() {
         byteArrayStorage.dispose();
@@ -11,26 +11,80 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Base64;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
+import com.archimatetool.editor.Logger;
+
 /**
  * Byte Array Storage Unit
  * 
+ * Identical sets of bytes are stored only once. Each set of bytes is keyed on its SHA-256 digest
+ * and reference counted by the entry names that share it, so finding a duplicate is a hash lookup.
+ * 
  * @author Phillip Beauvoir
  */
 public class ByteArrayStorage {
     
+    /**
+     * Entry name -> bytes
+     */
     private Map<String, byte[]> fdataTable = new HashMap<String, byte[]>();
     
+    /**
+     * Digest -> shared content
+     */
+    private Map<String, ContentEntry> fContentTable = new HashMap<String, ContentEntry>();
+    
+    /**
+     * Entry name -> digest
+     */
+    private Map<String, String> fDigestTable = new HashMap<String, String>();
+    
+    /**
+     * Number of times a set of bytes was re-used rather than stored again, and the number of bytes that saved
+     */
+    private int fDuplicateCount;
+    private long fDuplicateBytes;
+    
+    /**
+     * Last digest calculated, to save calculating it twice when getKey() is followed by addByteContentEntry()
+     */
+    private byte[] fLastDigestedBytes;
+    private String fLastDigest;
+    
+    /**
+     * Optional source of entries that are read from the model's archive file only when needed
+     */
+    private ArchiveImageSource fImageSource;
+    
+    /**
+     * A set of bytes and the entry names that reference it. The first entry name is the canonical key.
+     */
+    private static class ContentEntry {
+        byte[] bytes;
+        Set<String> entryNames = new LinkedHashSet<>();
+        
+        ContentEntry(byte[] bytes) {
+            this.bytes = bytes;
+        }
+        
+        String getKey() {
+            return entryNames.iterator().next();
+        }
+    }
+    
     InputStream getInputStream(String entryName) {
         if(entryName != null) {
-            byte[] bytes = fdataTable.get(entryName);
+            byte[] bytes = getEntry(entryName);
             if(bytes != null) {
                 return new ByteArrayInputStream(bytes);
             }
@@ -39,10 +93,22 @@ public class ByteArrayStorage {
     }
 
     String getKey(byte[] bytes) {
-        for(Entry<String, byte[]> entry : fdataTable.entrySet()) {
-            byte[] entryBytes = entry.getValue();
-            if(Arrays.equals(bytes, entryBytes)) {
-                return entry.getKey();
+        if(bytes == null) {
+            return null;
+        }
+        
+        ContentEntry contentEntry = fContentTable.get(getDigest(bytes));
+        if(contentEntry != null && contentEntry.bytes.length == bytes.length) {
+            return contentEntry.getKey();
+        }
+        
+        // Not in memory, check the archive file source
+        if(fImageSource != null) {
+            try {
+                return fImageSource.findEntry(bytes);
+            }
+            catch(IOException ex) {
+                Logger.logError("Could not read image bytes from archive file", ex); //$NON-NLS-1$
             }
         }
         
@@ -55,32 +121,121 @@ public class ByteArrayStorage {
             if(bytes != null) {
                 return bytes.length;
             }
+            if(fImageSource != null && fImageSource.hasEntry(entryName)) {
+                return fImageSource.getEntrySize(entryName);
+            }
         }
         return -1;
     }
     
+    /**
+     * @return The entries held in memory. This does not include entries that are still only in the archive file source
+     */
     Set<Entry<String, byte[]>> getEntrySet() {
         return fdataTable.entrySet();
     }
     
     List<String> getEntryNames() {
-        return new ArrayList<>(fdataTable.keySet());
+        Set<String> set = new LinkedHashSet<>(fdataTable.keySet());
+        if(fImageSource != null) {
+            set.addAll(fImageSource.getEntryNames());
+        }
+        return new ArrayList<>(set);
     }
 
     boolean hasEntries() {
-        return !fdataTable.isEmpty();
+        return !fdataTable.isEmpty() || (fImageSource != null && fImageSource.hasEntries());
     }
     
     boolean hasEntry(String entryName) {
-        return fdataTable.containsKey(entryName);
+        return fdataTable.containsKey(entryName) || (fImageSource != null && fImageSource.hasEntry(entryName));
     }
     
     void removeEntry(String entryName) {
-        fdataTable.remove(entryName);
+        removeMemoryEntry(entryName);
+        
+        if(fImageSource != null) {
+            fImageSource.removeEntry(entryName);
+        }
     }
     
     byte[] getEntry(String entryName) {
-        return fdataTable.get(entryName);
+        try {
+            return readEntry(entryName);
+        }
+        catch(IOException ex) {
+            Logger.logError("Could not read image bytes from archive file", ex); //$NON-NLS-1$
+            return null;
+        }
+    }
+    
+    /**
+     * @return The bytes of an entry, reading them from the archive file source if they are not in memory, or null if there is no such entry
+     * @throws IOException if the entry is in the archive file source but could not be read from it
+     */
+    byte[] readEntry(String entryName) throws IOException {
+        byte[] bytes = fdataTable.get(entryName);
+        
+        // Read it from the archive file
+        if(bytes == null && fImageSource != null && fImageSource.hasEntry(entryName)) {
+            bytes = fImageSource.getBytes(entryName);
+        }
+        
+        return bytes;
+    }
+    
+    /**
+     * Set the archive file source that provides entries on demand. Entries held in memory take precedence over the source.
+     * Any entries only in a previous source should be loaded into memory first with loadSourceEntries()
+     */
+    void setImageSource(ArchiveImageSource imageSource) {
+        if(fImageSource != null && fImageSource != imageSource) {
+            fImageSource.dispose();
+        }
+        
+        fImageSource = imageSource;
+    }
+    
+    /**
+     * Release entries held in memory that can be read from the archive file source.
+     * Only call this if the entries in memory are known to be the same as those in the source, as after a save.
+     */
+    void releaseSourceEntries() {
+        if(fImageSource != null) {
+            for(String entryName : new ArrayList<>(fdataTable.keySet())) {
+                if(fImageSource.hasEntry(entryName)) {
+                    removeMemoryEntry(entryName);
+                }
+            }
+        }
+    }
+    
+    /**
+     * @return The archive file source, or null
+     */
+    ArchiveImageSource getImageSource() {
+        return fImageSource;
+    }
+    
+    /**
+     * Load entries that are only in the archive file source into memory so that they are kept when the source is replaced.
+     * The model might not reference these now but could do again after an undo.
+     * This has to be done before the archive file is replaced.
+     * @param except Entry names that don't need to be loaded because they will be in the new archive file
+     */
+    void loadSourceEntries(Set<String> except) {
+        if(fImageSource != null) {
+            for(String entryName : new ArrayList<>(fImageSource.getEntryNames())) {
+                if(!fdataTable.containsKey(entryName) && !except.contains(entryName)) {
+                    try {
+                        addMemoryEntry(entryName, fImageSource.getBytes(entryName));
+                    }
+                    catch(IOException ex) {
+                        Logger.logError("Could not read image bytes from archive file", ex); //$NON-NLS-1$
+                    }
+                }
+            }
+        }
     }
     
     void addFileContentEntry(String entryName, File file) throws IOException {
@@ -93,20 +248,111 @@ public class ByteArrayStorage {
     }
 
     void addByteContentEntry(String entryName, byte[] bytes) {
+        // Replacing an existing entry, so de-reference its bytes first
+        if(hasEntry(entryName)) {
+            removeEntry(entryName);
+        }
+        
+        addMemoryEntry(entryName, bytes);
+    }
+    
+    private void addMemoryEntry(String entryName, byte[] bytes) {
         // Check if we have these bytes already. If we do then re-reference them
         // We might be adding the same set of bytes but from a different file
-        String key = getKey(bytes);
+        String digest = getDigest(bytes);
+        ContentEntry contentEntry = fContentTable.get(digest);
         
         // Yes we have them, so re-use the bytes
-        if(key != null) {
-            fdataTable.put(entryName, getEntry(key));
+        if(contentEntry != null) {
+            fDuplicateCount++;
+            fDuplicateBytes += bytes.length;
         }
         // No, so add the bytes
         else {
-            fdataTable.put(entryName, bytes);
+            contentEntry = new ContentEntry(bytes);
+            fContentTable.put(digest, contentEntry);
+        }
+        
+        contentEntry.entryNames.add(entryName);
+        fDigestTable.put(entryName, digest);
+        fdataTable.put(entryName, contentEntry.bytes);
+    }
+    
+    private void removeMemoryEntry(String entryName) {
+        fdataTable.remove(entryName);
+        
+        String digest = fDigestTable.remove(entryName);
+        if(digest != null) {
+            ContentEntry contentEntry = fContentTable.get(digest);
+            contentEntry.entryNames.remove(entryName);
+            if(contentEntry.entryNames.isEmpty()) {
+                fContentTable.remove(digest);
+            }
         }
     }
     
+    /**
+     * Add all entries from another storage unit, sharing its bytes without having to calculate digests again.
+     * Entries that are only in the other's archive file source are loaded into memory as that file could change.
+     */
+    void addEntries(ByteArrayStorage other) throws IOException {
+        for(Entry<String, String> entry : other.fDigestTable.entrySet()) {
+            String entryName = entry.getKey();
+            String digest = entry.getValue();
+            
+            if(hasEntry(entryName)) {
+                removeEntry(entryName);
+            }
+            
+            ContentEntry contentEntry = fContentTable.get(digest);
+            if(contentEntry == null) {
+                contentEntry = new ContentEntry(other.fContentTable.get(digest).bytes);
+                fContentTable.put(digest, contentEntry);
+            }
+            
+            contentEntry.entryNames.add(entryName);
+            fDigestTable.put(entryName, digest);
+            fdataTable.put(entryName, contentEntry.bytes);
+        }
+        
+        if(other.fImageSource != null) {
+            for(String entryName : other.fImageSource.getEntryNames()) {
+                if(!other.fdataTable.containsKey(entryName)) {
+                    addByteContentEntry(entryName, other.fImageSource.getBytes(entryName));
+                }
+            }
+        }
+    }
+    
+    /**
+     * @return The number of distinct sets of bytes stored
+     */
+    int getUniqueEntryCount() {
+        return fContentTable.size();
+    }
+    
+    /**
+     * @return The number of entries referencing a given entry's bytes, or 0 if there is no such entry
+     */
+    int getReferenceCount(String entryName) {
+        String digest = fDigestTable.get(entryName);
+        return digest != null ? fContentTable.get(digest).entryNames.size() : 0;
+    }
+    
+    /**
+     * @return The number of times that added bytes were found to be a duplicate and were re-used
+     */
+    int getDuplicateCount() {
+        return fDuplicateCount;
+    }
+    
+    /**
+     * @return The total number of bytes not stored because they were duplicates
+     */
+    long getDuplicateBytesSaved() {
+        return fDuplicateBytes;
+    }
+    
     byte[] getBytesFromFile(File file) throws IOException {
         // Get the bytes from the file
         if(file != null && file.exists()) {
@@ -119,6 +365,34 @@ public class ByteArrayStorage {
     void dispose() {
         fdataTable.clear();
         fdataTable = null;
+        fContentTable.clear();
+        fContentTable = null;
+        fDigestTable.clear();
+        fDigestTable = null;
+        fLastDigestedBytes = null;
+        
+        if(fImageSource != null) {
+            fImageSource.dispose();
+            fImageSource = null;
+        }
+    }
+    
+    /**
+     * @return The SHA-256 digest of bytes as a String
+     */
+    private String getDigest(byte[] bytes) {
+        if(bytes != fLastDigestedBytes) {
+            try {
+                MessageDigest md = MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+                fLastDigest = Base64.getEncoder().encodeToString(md.digest(bytes));
+                fLastDigestedBytes = bytes;
+            }
+            catch(NoSuchAlgorithmException ex) { // Every Java implementation has to support SHA-256
+                throw new RuntimeException(ex);
+            }
+        }
+        
+        return fLastDigest;
     }
     
     /**
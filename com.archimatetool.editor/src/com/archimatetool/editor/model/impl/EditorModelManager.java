@@ -11,7 +11,14 @@ import java.beans.PropertyChangeSupport;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.common.util.URI;
@@ -84,12 +91,17 @@ implements IEditorModelManager {
     /**
      * Models Open
      */
-    private List<IArchimateModel> fModels;
+    private List<IArchimateModel> fModels = new ArrayList<IArchimateModel>();
+    
+    /**
+     * Whether the models in the backing file have been loaded
+     */
+    private boolean fStateLoaded;
     
     /**
      * Backing File
      */
-    private File backingFile = new File(ArchiPlugin.INSTANCE.getUserDataFolder(), "models.xml"); //$NON-NLS-1$
+    private File backingFile;
     
     /**
      * Listen to the App closing so we can ask to save
@@ -102,24 +114,22 @@ implements IEditorModelManager {
         @Override
         public boolean preShutdown(IWorkbench  workbench, boolean forced) {
             // Handle modified models
-            if(fModels != null) { // Dont call getModels() - we don't want to call loadState();
-                for(IArchimateModel model : fModels) {
-                    if(isModelDirty(model)) {
-                        try {
-                            boolean result = askSaveModel(model);
-                            if(!result) {
-                                return false;
-                            }
-                        }
-                        catch(IOException ex) {
-                            ex.printStackTrace();
-                            MessageDialog.openError(Display.getCurrent().getActiveShell(),
-                                    Messages.EditorModelManager_14,
-                                    NLS.bind(Messages.EditorModelManager_15, model.getFile())
-                                    + "\n" + ex.getMessage()); //$NON-NLS-1$
+            for(IArchimateModel model : fModels) { // Dont call getModels() - we don't want to call loadState();
+                if(isModelDirty(model)) {
+                    try {
+                        boolean result = askSaveModel(model);
+                        if(!result) {
                             return false;
                         }
                     }
+                    catch(IOException ex) {
+                        ex.printStackTrace();
+                        MessageDialog.openError(Display.getCurrent().getActiveShell(),
+                                Messages.EditorModelManager_14,
+                                NLS.bind(Messages.EditorModelManager_15, model.getFile())
+                                + "\n" + ex.getMessage()); //$NON-NLS-1$
+                        return false;
+                    }
                 }
             }
             
@@ -128,6 +138,15 @@ implements IEditorModelManager {
     };
     
     public EditorModelManager() {
+        this(new File(ArchiPlugin.INSTANCE.getUserDataFolder(), "models.xml")); //$NON-NLS-1$
+    }
+    
+    /**
+     * @param backingFile The file that the state of loaded models is saved to and loaded from
+     */
+    EditorModelManager(File backingFile) {
+        this.backingFile = backingFile;
+        
         if(PlatformUI.isWorkbenchRunning()) {
             PlatformUI.getWorkbench().addWorkbenchListener(workBenchListener);
         }
@@ -135,9 +154,8 @@ implements IEditorModelManager {
     
     @Override
     public List<IArchimateModel> getModels() {
-        if(fModels == null) {
-            fModels = new ArrayList<IArchimateModel>();
-            
+        // Load the models that were open last time when first asked for
+        if(!fStateLoaded) {
             try {
                 loadState();
             }
@@ -253,6 +271,29 @@ implements IEditorModelManager {
             return model;
         }
         
+        return registerParsedModel(parseModel(file));
+    }
+    
+    /**
+     * The result of parsing a model file
+     */
+    private static class ParsedModel {
+        File file;
+        IArchimateModel model;
+        IncompatibleModelException incompatibleException;
+        boolean isLaterModelVersion;
+        List<Diagnostic> acceptableExceptions;
+        ModelCompatibility modelCompatibility;
+    }
+    
+    /**
+     * Load a model file and check its compatibility.
+     * This doesn't touch the UI or this manager's state so it can be called on any thread.
+     */
+    private ParsedModel parseModel(File file) {
+        ParsedModel parsedModel = new ParsedModel();
+        parsedModel.file = file;
+        
         // Ascertain if this is an archive file
         boolean useArchiveFormat = IArchiveManager.FACTORY.isArchiveFile(file);
         
@@ -274,25 +315,44 @@ implements IEditorModelManager {
                 modelCompatibility.checkErrors();
             }
             catch(IncompatibleModelException ex1) {
-                // Was it a disaster?
-                if(PlatformUI.isWorkbenchRunning()) {
-                    MessageDialog.openError(Display.getCurrent().getActiveShell(),
-                            Messages.EditorModelManager_2,
-                            NLS.bind(Messages.EditorModelManager_3, file)
-                            + "\n" + ex1.getMessage()); //$NON-NLS-1$
-                    
-                }
-
-                return null;
+                parsedModel.incompatibleException = ex1;
+                return parsedModel;
+            }
+        }
+        
+        parsedModel.model = (IArchimateModel)resource.getContents().get(0);
+        parsedModel.isLaterModelVersion = modelCompatibility.isLaterModelVersion(ModelVersion.VERSION);
+        parsedModel.acceptableExceptions = modelCompatibility.getAcceptableExceptions();
+        parsedModel.modelCompatibility = modelCompatibility;
+        
+        return parsedModel;
+    }
+    
+    /**
+     * Ask the user about any problems with a parsed model, fix any compatibility issues and then register it.
+     * This has to be called on the UI thread.
+     * @return The model or null if it could not be or was not loaded
+     */
+    private IArchimateModel registerParsedModel(ParsedModel parsedModel) {
+        File file = parsedModel.file;
+        
+        // Was it a disaster?
+        if(parsedModel.incompatibleException != null) {
+            if(PlatformUI.isWorkbenchRunning()) {
+                MessageDialog.openError(Display.getCurrent().getActiveShell(),
+                        Messages.EditorModelManager_2,
+                        NLS.bind(Messages.EditorModelManager_3, file)
+                        + "\n" + parsedModel.incompatibleException.getMessage()); //$NON-NLS-1$
             }
+            
+            return null;
         }
         
-        model = (IArchimateModel)resource.getContents().get(0);
+        IArchimateModel model = parsedModel.model;
 
         // Once loaded - check for later model version
         if(PlatformUI.isWorkbenchRunning()) {
-            boolean isLaterModelVersion = modelCompatibility.isLaterModelVersion(ModelVersion.VERSION);
-            if(isLaterModelVersion) {
+            if(parsedModel.isLaterModelVersion) {
                 boolean answer = MessageDialog.openQuestion(Display.getCurrent().getActiveShell(),
                         Messages.EditorModelManager_4,
                         NLS.bind(Messages.EditorModelManager_5,
@@ -303,7 +363,7 @@ implements IEditorModelManager {
             }
             // Check for unknown model features which might be OK to load
             else {
-                List<Diagnostic> exceptions = modelCompatibility.getAcceptableExceptions();
+                List<Diagnostic> exceptions = parsedModel.acceptableExceptions;
                 if(!exceptions.isEmpty()) {
                     String message = ""; //$NON-NLS-1$
                     for(int i = 0; i < exceptions.size(); i++) {
@@ -327,7 +387,7 @@ implements IEditorModelManager {
 
         // And then fix any backward compatibility issues
         try {
-            modelCompatibility.fixCompatibility();
+            parsedModel.modelCompatibility.fixCompatibility();
         }
         catch(CompatibilityHandlerException ex) {
         }
@@ -658,20 +718,94 @@ implements IEditorModelManager {
         JDOMUtils.write2XMLFile(doc, backingFile);
     }
     
-    private void loadState() throws IOException, JDOMException {
+    @Override
+    public void loadState() throws IOException {
+        if(fStateLoaded) {
+            return;
+        }
+        
+        fStateLoaded = true;
+        
+        List<File> files = new ArrayList<>();
+        
         if(backingFile.exists()) {
-            Document doc = JDOMUtils.readXMLFile(backingFile);
+            Document doc;
+            try {
+                doc = JDOMUtils.readXMLFile(backingFile);
+            }
+            catch(JDOMException ex) {
+                throw new IOException(ex);
+            }
+            
             if(doc.hasRootElement()) {
                 Element rootElement = doc.getRootElement();
                 for(Object e : rootElement.getChildren("model")) { //$NON-NLS-1$
                     Element modelElement = (Element)e;
                     String filePath = modelElement.getAttributeValue("file"); //$NON-NLS-1$
                     if(filePath != null) {
-                        loadModel(new File(filePath));
+                        files.add(new File(filePath));
                     }
                 }
             }
         }
+        
+        if(files.size() > 1 && Preferences.STORE.getBoolean(IPreferenceConstants.LOAD_MODELS_IN_PARALLEL)) {
+            loadModelsInParallel(files);
+        }
+        else {
+            for(File file : files) {
+                loadModel(file);
+            }
+        }
+    }
+    
+    /**
+     * Parse model files in parallel on a bounded thread pool and then register each one, in the original order, on this thread.
+     * If one model fails to load the others are still loaded.
+     */
+    private void loadModelsInParallel(List<File> files) {
+        int numThreads = Math.max(1, Math.min(files.size(), Runtime.getRuntime().availableProcessors() - 1));
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        
+        Map<File, Future<ParsedModel>> futures = new LinkedHashMap<>();
+        for(File file : files) {
+            if(file.exists() && !futures.containsKey(file)) {
+                futures.put(file, executor.submit(() -> parseModel(file)));
+            }
+        }
+        
+        executor.shutdown();
+        
+        // Register each model as soon as it is parsed while the later ones are still being parsed
+        for(Entry<File, Future<ParsedModel>> entry : futures.entrySet()) {
+            try {
+                registerParsedModelIsolated(entry.getValue().get());
+            }
+            catch(ExecutionException ex) {
+                Logger.logError("Could not load model: " + entry.getKey(), ex.getCause()); //$NON-NLS-1$
+            }
+            catch(InterruptedException ex) {
+                Logger.logError("Interrupted loading models", ex); //$NON-NLS-1$
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Register a parsed model, isolating any failure to this model
+     */
+    private void registerParsedModelIsolated(ParsedModel parsedModel) {
+        try {
+            // It might have been loaded in the meantime
+            if(locateLoadedModel(parsedModel.file) == null) {
+                registerParsedModel(parsedModel);
+            }
+        }
+        catch(Exception ex) {
+            Logger.logError("Could not load model: " + parsedModel.file, ex); //$NON-NLS-1$
+        }
     }
     
     //========================== Model Listener events  ==========================
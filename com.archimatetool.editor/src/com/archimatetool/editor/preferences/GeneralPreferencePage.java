@@ -31,6 +31,7 @@ implements IWorkbenchPreferencePage, IPreferenceConstants {
     private static String HELP_ID = "com.archimatetool.help.prefsGeneral"; //$NON-NLS-1$
     
     private Button fOpenDiagramsOnLoadButton;
+    private Button fLoadModelsInParallelButton;
     private Button fBackupOnSaveButton;
     
     private Spinner fMRUSizeSpinner;
@@ -38,6 +39,7 @@ implements IWorkbenchPreferencePage, IPreferenceConstants {
     private Button fShowUnusedElementsInModelTreeButton;
     private Button fAutoSearchButton;
     private Button fWarnOnDeleteButton;
+    private Button fVirtualModelTreeButton;
     
     private Button fScaleImagesButton;
     
@@ -72,6 +74,11 @@ implements IWorkbenchPreferencePage, IPreferenceConstants {
         fBackupOnSaveButton.setText(Messages.GeneralPreferencePage_5);
         fBackupOnSaveButton.setLayoutData(createHorizontalGridData(2));
         
+        // Load models in parallel at startup
+        fLoadModelsInParallelButton = new Button(fileGroup, SWT.CHECK);
+        fLoadModelsInParallelButton.setText(Messages.GeneralPreferencePage_19);
+        fLoadModelsInParallelButton.setLayoutData(createHorizontalGridData(2));
+        
         // Size of recently opened file list
         Label label = new Label(fileGroup, SWT.NULL);
         label.setText(Messages.GeneralPreferencePage_2);
@@ -102,6 +109,14 @@ implements IWorkbenchPreferencePage, IPreferenceConstants {
         fWarnOnDeleteButton.setText(Messages.GeneralPreferencePage_16);
         fWarnOnDeleteButton.setLayoutData(createHorizontalGridData(2));
         
+        fVirtualModelTreeButton = new Button(modelTreeGroup, SWT.CHECK);
+        fVirtualModelTreeButton.setText(Messages.GeneralPreferencePage_20);
+        fVirtualModelTreeButton.setLayoutData(createHorizontalGridData(2));
+        
+        label = new Label(modelTreeGroup, SWT.NULL);
+        label.setText(Messages.GeneralPreferencePage_21);
+        label.setLayoutData(createHorizontalGridData(2));
+        
         // Label Expressions
         Group expressionsGroup = new Group(client, SWT.NULL);
         expressionsGroup.setText(Messages.GeneralPreferencePage_17);
@@ -134,10 +149,12 @@ implements IWorkbenchPreferencePage, IPreferenceConstants {
         setSpinnerValues();
         fBackupOnSaveButton.setSelection(getPreferenceStore().getBoolean(BACKUP_ON_SAVE));
         fOpenDiagramsOnLoadButton.setSelection(getPreferenceStore().getBoolean(OPEN_DIAGRAMS_ON_LOAD));
+        fLoadModelsInParallelButton.setSelection(getPreferenceStore().getBoolean(LOAD_MODELS_IN_PARALLEL));
         
         fShowUnusedElementsInModelTreeButton.setSelection(getPreferenceStore().getBoolean(HIGHLIGHT_UNUSED_ELEMENTS_IN_MODEL_TREE));
         fAutoSearchButton.setSelection(getPreferenceStore().getBoolean(TREE_SEARCH_AUTO));
         fWarnOnDeleteButton.setSelection(getPreferenceStore().getBoolean(SHOW_WARNING_ON_DELETE_FROM_TREE));
+        fVirtualModelTreeButton.setSelection(getPreferenceStore().getBoolean(MODEL_TREE_VIRTUAL));
         fUseLabelExpressionsButton.setSelection(getPreferenceStore().getBoolean(USE_LABEL_EXPRESSIONS_IN_ANALYSIS_TABLE));
 
         fScaleImagesButton.setSelection(getPreferenceStore().getBoolean(SCALE_IMAGE_EXPORT));
@@ -151,11 +168,13 @@ implements IWorkbenchPreferencePage, IPreferenceConstants {
     public boolean performOk() {
         getPreferenceStore().setValue(BACKUP_ON_SAVE, fBackupOnSaveButton.getSelection());
         getPreferenceStore().setValue(OPEN_DIAGRAMS_ON_LOAD, fOpenDiagramsOnLoadButton.getSelection());
+        getPreferenceStore().setValue(LOAD_MODELS_IN_PARALLEL, fLoadModelsInParallelButton.getSelection());
         getPreferenceStore().setValue(MRU_MAX, fMRUSizeSpinner.getSelection());
         
         getPreferenceStore().setValue(HIGHLIGHT_UNUSED_ELEMENTS_IN_MODEL_TREE, fShowUnusedElementsInModelTreeButton.getSelection());
         getPreferenceStore().setValue(TREE_SEARCH_AUTO, fAutoSearchButton.getSelection());
         getPreferenceStore().setValue(SHOW_WARNING_ON_DELETE_FROM_TREE, fWarnOnDeleteButton.getSelection());
+        getPreferenceStore().setValue(MODEL_TREE_VIRTUAL, fVirtualModelTreeButton.getSelection());
         getPreferenceStore().setValue(USE_LABEL_EXPRESSIONS_IN_ANALYSIS_TABLE, fUseLabelExpressionsButton.getSelection());
         
         getPreferenceStore().setValue(SCALE_IMAGE_EXPORT, fScaleImagesButton.getSelection());
@@ -167,11 +186,13 @@ implements IWorkbenchPreferencePage, IPreferenceConstants {
     protected void performDefaults() {
         fBackupOnSaveButton.setSelection(getPreferenceStore().getDefaultBoolean(BACKUP_ON_SAVE));
         fOpenDiagramsOnLoadButton.setSelection(getPreferenceStore().getDefaultBoolean(OPEN_DIAGRAMS_ON_LOAD));
+        fLoadModelsInParallelButton.setSelection(getPreferenceStore().getDefaultBoolean(LOAD_MODELS_IN_PARALLEL));
         fMRUSizeSpinner.setSelection(getPreferenceStore().getDefaultInt(MRU_MAX));
         
         fShowUnusedElementsInModelTreeButton.setSelection(getPreferenceStore().getDefaultBoolean(HIGHLIGHT_UNUSED_ELEMENTS_IN_MODEL_TREE));
         fAutoSearchButton.setSelection(getPreferenceStore().getDefaultBoolean(TREE_SEARCH_AUTO));
         fWarnOnDeleteButton.setSelection(getPreferenceStore().getDefaultBoolean(SHOW_WARNING_ON_DELETE_FROM_TREE));
+        fVirtualModelTreeButton.setSelection(getPreferenceStore().getDefaultBoolean(MODEL_TREE_VIRTUAL));
         fUseLabelExpressionsButton.setSelection(getPreferenceStore().getDefaultBoolean(USE_LABEL_EXPRESSIONS_IN_ANALYSIS_TABLE));
         
         fScaleImagesButton.setSelection(getPreferenceStore().getDefaultBoolean(SCALE_IMAGE_EXPORT));
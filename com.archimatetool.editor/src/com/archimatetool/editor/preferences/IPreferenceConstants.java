@@ -115,8 +115,10 @@ public interface IPreferenceConstants {
     
     String OPEN_DIAGRAMS_ON_LOAD = "openDiagramsOnLoad";
     String BACKUP_ON_SAVE = "backupOnSave";
+    String LOAD_MODELS_IN_PARALLEL = "loadModelsInParallel";
     
     String HIGHLIGHT_UNUSED_ELEMENTS_IN_MODEL_TREE = "highlightUnusedElementsInModelTree";
+    String MODEL_TREE_VIRTUAL = "modelTreeVirtual";
     
     String TREE_SEARCH_AUTO = "treeSearchAuto";
     String SHOW_WARNING_ON_DELETE_FROM_TREE = "showWarningOnDeleteFromTree";
@@ -124,8 +124,10 @@ implements IPreferenceConstants {
         
         store.setDefault(OPEN_DIAGRAMS_ON_LOAD, false);
         store.setDefault(BACKUP_ON_SAVE, true);
+        store.setDefault(LOAD_MODELS_IN_PARALLEL, false);
 
         store.setDefault(HIGHLIGHT_UNUSED_ELEMENTS_IN_MODEL_TREE, true);
+        store.setDefault(MODEL_TREE_VIRTUAL, false);
         
         store.setDefault(TREE_SEARCH_AUTO, true);
         store.setDefault(SHOW_WARNING_ON_DELETE_FROM_TREE, true);
@@ -0,0 +1,167 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.ui.textrender;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import com.archimatetool.model.IArchimateModelObject;
+import com.archimatetool.model.IArchimatePackage;
+
+/**
+ * Cache of rendered text for objects.
+ *
+ * The text rendered for an object is kept until the object or one of the objects that the text was rendered from changes,
+ * or until the object or one of its ancestors is removed from its parent.
+ */
+class RenderCache {
+    
+    /**
+     * Max number of format expressions cached for one object
+     */
+    private static final int MAX_EXPRESSIONS = 10;
+    
+    /**
+     * The rendered text for one object.
+     * This is added as an adapter to the object and to all the objects that the text was rendered from.
+     */
+    private class CacheAdapter extends AdapterImpl {
+        IArchimateModelObject owner;
+        Map<String, String> results = new HashMap<>();
+        Set<Notifier> dependencies = new HashSet<>();
+        
+        CacheAdapter(IArchimateModelObject owner) {
+            this.owner = owner;
+        }
+        
+        @Override
+        public boolean isAdapterForType(Object type) {
+            return type == owner;
+        }
+        
+        @Override
+        public void notifyChanged(Notification msg) {
+            // Not interested in these
+            if(msg.isTouch() || msg.getEventType() == Notification.REMOVING_ADAPTER
+                    || msg.getFeature() == IArchimatePackage.Literals.DIAGRAM_MODEL_OBJECT__BOUNDS) {
+                return;
+            }
+            
+            synchronized(RenderCache.this) {
+                dispose();
+            }
+        }
+        
+        void dispose() {
+            for(Notifier notifier : dependencies) {
+                notifier.eAdapters().remove(this);
+            }
+            
+            dependencies.clear();
+            results.clear();
+            owner = null;
+        }
+    }
+    
+    /**
+     * Added once to each ancestor of the objects that have cached text so that the cached text of removed objects is dropped.
+     * The cached text would otherwise keep removed objects reachable from the objects that their text was rendered from.
+     */
+    private Adapter removalAdapter = new AdapterImpl() {
+        @Override
+        public void notifyChanged(Notification msg) {
+            if(!(msg.getFeature() instanceof EReference && ((EReference)msg.getFeature()).isContainment())) {
+                return;
+            }
+            
+            if(msg.getEventType() == Notification.REMOVE) {
+                removed(msg.getOldValue());
+            }
+            else if(msg.getEventType() == Notification.REMOVE_MANY) {
+                for(Object o : (Collection<?>)msg.getOldValue()) {
+                    removed(o);
+                }
+            }
+        }
+    };
+    
+    /**
+     * @return The cached rendered text for an object and format expression, or null if not cached
+     */
+    synchronized String get(IArchimateModelObject object, String expression) {
+        CacheAdapter adapter = (CacheAdapter)EcoreUtil.getExistingAdapter(object, object);
+        return adapter != null ? adapter.results.get(expression) : null;
+    }
+    
+    /**
+     * Cache the rendered text for an object and format expression
+     * @param dependencies The objects that the text was rendered from, including the object itself
+     */
+    synchronized void put(IArchimateModelObject object, String expression, String text, Set<Notifier> dependencies) {
+        CacheAdapter adapter = (CacheAdapter)EcoreUtil.getExistingAdapter(object, object);
+        
+        if(adapter == null) {
+            adapter = new CacheAdapter(object);
+            addRemovalAdapter(object);
+        }
+        else if(adapter.results.size() >= MAX_EXPRESSIONS) {
+            adapter.results.clear();
+        }
+        
+        adapter.results.put(expression, text);
+        
+        for(Notifier notifier : dependencies) {
+            if(adapter.dependencies.add(notifier)) {
+                notifier.eAdapters().add(adapter);
+            }
+        }
+        
+        // Make sure that the object itself has the adapter so that it can be found
+        if(adapter.dependencies.add(object)) {
+            object.eAdapters().add(adapter);
+        }
+    }
+    
+    private void addRemovalAdapter(EObject object) {
+        for(EObject parent = object.eContainer(); parent != null; parent = parent.eContainer()) {
+            if(!parent.eAdapters().contains(removalAdapter)) {
+                parent.eAdapters().add(removalAdapter);
+            }
+        }
+    }
+    
+    /**
+     * Drop the cached text of a removed object and its contents
+     */
+    private synchronized void removed(Object object) {
+        if(object instanceof EObject) {
+            dispose((EObject)object);
+            
+            for(Iterator<EObject> iter = ((EObject)object).eAllContents(); iter.hasNext();) {
+                dispose(iter.next());
+            }
+        }
+    }
+    
+    private void dispose(EObject eObject) {
+        CacheAdapter adapter = (CacheAdapter)EcoreUtil.getExistingAdapter(eObject, eObject);
+        if(adapter != null) {
+            adapter.dispose();
+        }
+    }
+}
@@ -0,0 +1,420 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.ui.textrender;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.ecore.EObject;
+
+import com.archimatetool.editor.ui.ArchiLabelProvider;
+import com.archimatetool.editor.utils.StringUtils;
+import com.archimatetool.model.IArchimateDiagramModel;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IArchimateModelObject;
+import com.archimatetool.model.IConnectable;
+import com.archimatetool.model.IDiagramModelComponent;
+import com.archimatetool.model.IDiagramModelConnection;
+import com.archimatetool.model.IDocumentable;
+import com.archimatetool.model.IInfluenceRelationship;
+import com.archimatetool.model.IProperties;
+import com.archimatetool.model.IProperty;
+import com.archimatetool.model.ITextContent;
+import com.archimatetool.model.viewpoints.ViewpointManager;
+
+/**
+ * Renders all of the core expressions in one pass from a template of the text.
+ *
+ * The text is parsed once into literal text and expressions of the form $prefix{body} where the body can contain other expressions,
+ * for example ${wordwrap:20:${name}}. Inner expressions are rendered first.
+ *
+ * If the text contains anything that can't be rendered in one pass in the same way as the other renderers,
+ * such as an unknown expression or rendered text that contains another expression, nothing is rendered
+ * and the text should be rendered by the other renderers.
+ */
+@SuppressWarnings("nls")
+class TemplateRenderer extends AbstractTextRenderer {
+    
+    private static final Pattern PREFIX_PATTERN = Pattern.compile(allPrefixesGroup);
+    
+    private static final int MAX_TEMPLATES = 100;
+    
+    /**
+     * Parsed templates of text, most recently used last
+     */
+    private Map<String, List<Object>> templates = new LinkedHashMap<String, List<Object>>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+        
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<Object>> eldest) {
+            return size() > MAX_TEMPLATES;
+        }
+    };
+    
+    /**
+     * An expression in a template
+     */
+    private static class Expression {
+        String prefix;
+        List<Object> body = new ArrayList<>();
+    }
+    
+    @Override
+    public String render(IArchimateModelObject object, String text) {
+        String result = render(object, text, new HashSet<>());
+        return result != null ? result : text;
+    }
+    
+    /**
+     * Render text
+     * @param object The object whose text should be rendered
+     * @param text The text that should be rendered
+     * @param dependencies Objects that the rendered text was rendered from are added to this
+     * @return The rendered text, or null if the text can't be rendered in one pass
+     */
+    String render(IArchimateModelObject object, String text, Set<Notifier> dependencies) {
+        addDependency(dependencies, object);
+        
+        String result = evaluate(object, getTemplate(text), false, dependencies);
+        
+        // Rendered text contains an expression or a '$' that is not an expression
+        if(result != null && result.indexOf('$') != -1) {
+            return null;
+        }
+        
+        return result;
+    }
+    
+    private List<Object> getTemplate(String text) {
+        synchronized(templates) {
+            List<Object> template = templates.get(text);
+            
+            if(template == null) {
+                template = new ArrayList<>();
+                parse(text, 0, false, template);
+                templates.put(text, template);
+            }
+            
+            return template;
+        }
+    }
+    
+    /**
+     * Parse text from start into literal Strings and Expressions
+     * @param inBody if true the text is the body of an expression and parsing stops after its closing brace
+     * @return the index after the parsed text, or -1 if inBody is true and there is no closing brace
+     */
+    private int parse(String text, int start, boolean inBody, List<Object> nodes) {
+        StringBuilder literal = new StringBuilder();
+        int i = start;
+        
+        while(i < text.length()) {
+            char c = text.charAt(i);
+            
+            // End of body
+            if(c == '}' && inBody) {
+                addLiteral(nodes, literal);
+                return i + 1;
+            }
+            
+            // Start of expression
+            if(c == '$') {
+                int brace = text.indexOf('{', i + 1);
+                if(brace != -1 && PREFIX_PATTERN.matcher(text.substring(i + 1, brace)).matches()) {
+                    Expression expression = new Expression();
+                    int end = parse(text, brace + 1, true, expression.body);
+                    if(end != -1) {
+                        expression.prefix = brace > i + 1 ? text.substring(i + 1, brace) : null;
+                        addLiteral(nodes, literal);
+                        nodes.add(expression);
+                        i = end;
+                        continue;
+                    }
+                }
+            }
+            
+            literal.append(c);
+            i++;
+        }
+        
+        if(inBody) {
+            return -1;
+        }
+        
+        addLiteral(nodes, literal);
+        return i;
+    }
+    
+    private void addLiteral(List<Object> nodes, StringBuilder literal) {
+        if(literal.length() > 0) {
+            nodes.add(literal.toString());
+            literal.setLength(0);
+        }
+    }
+    
+    /**
+     * @param inBody if true the nodes are the body of an expression
+     * @return the rendered nodes or null if they can't be rendered
+     */
+    private String evaluate(IArchimateModelObject object, List<Object> nodes, boolean inBody, Set<Notifier> dependencies) {
+        StringBuilder sb = new StringBuilder();
+        
+        for(Object node : nodes) {
+            if(node instanceof Expression) {
+                String s = evaluate(object, (Expression)node, dependencies);
+                if(s == null) {
+                    return null;
+                }
+                
+                // Rendered text in a body can't change where the outer expression ends
+                if(inBody && (s.indexOf('$') != -1 || s.indexOf('{') != -1 || s.indexOf('}') != -1)) {
+                    return null;
+                }
+                
+                sb.append(s);
+            }
+            else {
+                sb.append((String)node);
+            }
+        }
+        
+        return sb.toString();
+    }
+    
+    /**
+     * @return the rendered expression or null if it can't be rendered
+     */
+    private String evaluate(IArchimateModelObject object, Expression expression, Set<Notifier> dependencies) {
+        String body = evaluate(object, expression.body, true, dependencies);
+        if(body == null) {
+            return null;
+        }
+        
+        String prefix = expression.prefix;
+        
+        // Expressions without a prefix
+        if(prefix == null) {
+            if(body.equals("strength")) {
+                IArchimateModelObject actualObject = getActualObject(object);
+                addDependency(dependencies, actualObject);
+                return actualObject instanceof IInfluenceRelationship ? ((IInfluenceRelationship)actualObject).getStrength() : null;
+            }
+            
+            if(body.equals("viewpoint")) {
+                if(object instanceof IDiagramModelComponent) {
+                    addDependency(dependencies, ((IDiagramModelComponent)object).getDiagramModel());
+                }
+                if(object instanceof IDiagramModelComponent && ((IDiagramModelComponent)object).getDiagramModel() instanceof IArchimateDiagramModel) {
+                    return ViewpointManager.INSTANCE.getViewpoint(((IArchimateDiagramModel)((IDiagramModelComponent)object).getDiagramModel()).getViewpoint()).getName();
+                }
+                return "";
+            }
+            
+            if(body.startsWith("wordwrap:")) {
+                return renderWordWrap(body.substring(9));
+            }
+        }
+        
+        IArchimateModelObject refObject = getObjectFromPrefix(object, prefix, dependencies);
+        
+        switch(body) {
+            case "name":
+                return refObject != null ? StringUtils.safeString(refObject.getName()) : "";
+            
+            case "documentation":
+            case "doc":
+                if(refObject instanceof IDocumentable) {
+                    return StringUtils.safeString(((IDocumentable)refObject).getDocumentation());
+                }
+                if(refObject instanceof IArchimateModel) {
+                    return StringUtils.safeString(((IArchimateModel)refObject).getPurpose());
+                }
+                return "";
+            
+            case "type":
+                return refObject != null ? ArchiLabelProvider.INSTANCE.getDefaultName(refObject.eClass()) : "";
+            
+            case "content":
+                if(prefix != null && !prefix.equals("connection:source") && !prefix.equals("connection:target")) {
+                    return null;
+                }
+                return refObject instanceof ITextContent ? StringUtils.safeString(((ITextContent)refObject).getContent()) : "";
+            
+            case "properties":
+                return refObject instanceof IProperties ? getAllProperties((IProperties)refObject, true) : null;
+            
+            case "propertiesvalues":
+                return refObject instanceof IProperties ? getAllProperties((IProperties)refObject, false) : null;
+            
+            default:
+                break;
+        }
+        
+        // Property value
+        if(body.startsWith("property:") && body.length() > 9) {
+            String key = body.substring(9);
+            if(refObject instanceof IProperties) {
+                for(IProperty property : ((IProperties)refObject).getProperties()) {
+                    if(property.getKey().equals(key)) {
+                        return property.getValue();
+                    }
+                }
+            }
+            return "";
+        }
+        
+        // List of all of a certain property key with separator
+        if(body.startsWith("properties:")) {
+            String s = body.substring(11);
+            int index = s.indexOf(':');
+            if(index == -1 || index == s.length() - 1 || !(refObject instanceof IProperties)) {
+                return null;
+            }
+            
+            String separator = s.substring(0, index);
+            String key = s.substring(index + 1);
+            StringBuilder sb = new StringBuilder();
+            
+            for(IProperty property : ((IProperties)refObject).getProperties()) {
+                if(property.getKey().equals(key)) {
+                    if(sb.length() > 0) {
+                        sb.append(separator);
+                    }
+                    sb.append(property.getValue());
+                }
+            }
+            
+            return sb.toString();
+        }
+        
+        return null;
+    }
+    
+    /**
+     * @param s The text after "wordwrap:" in the form limit:text
+     */
+    private String renderWordWrap(String s) {
+        int index = s.indexOf(':');
+        if(index < 1 || index == s.length() - 1) {
+            return null;
+        }
+        
+        String limit = s.substring(0, index);
+        for(int i = 0; i < limit.length(); i++) {
+            if(limit.charAt(i) < '0' || limit.charAt(i) > '9') {
+                return null;
+            }
+        }
+        
+        int wrapLimit;
+        try {
+            wrapLimit = Integer.parseInt(limit);
+        }
+        catch(NumberFormatException ex) {
+            wrapLimit = 999999;
+        }
+        
+        return WordWrapRenderer.wrap(s.substring(index + 1), wrapLimit);
+    }
+    
+    /**
+     * Get the object referred to by prefix and add the objects it is found from to dependencies
+     */
+    private IArchimateModelObject getObjectFromPrefix(IArchimateModelObject object, String prefix, Set<Notifier> dependencies) {
+        addDependency(dependencies, getActualObject(object));
+        
+        // The object is found from the object's ancestors
+        if(modelPrefix.equals(prefix) || viewPrefix.equals(prefix) || viewFolderPrefix.equals(prefix)) {
+            addAncestors(dependencies, object);
+        }
+        else if(modelFolderPrefix.equals(prefix)) {
+            addAncestors(dependencies, getActualObject(object));
+        }
+        
+        // The object is found from the object's parent
+        else if(parentPrefix.equals(prefix)) {
+            addDependency(dependencies, object.eContainer());
+        }
+        
+        // The object is found from the object's connections
+        else if(prefix != null) {
+            if(object instanceof IDiagramModelConnection) {
+                addConnectionEnds(dependencies, (IDiagramModelConnection)object);
+            }
+            
+            if(object instanceof IConnectable) {
+                for(IDiagramModelConnection connection : ((IConnectable)object).getSourceConnections()) {
+                    addConnectionEnds(dependencies, connection);
+                }
+                for(IDiagramModelConnection connection : ((IConnectable)object).getTargetConnections()) {
+                    addConnectionEnds(dependencies, connection);
+                }
+            }
+        }
+        
+        IArchimateModelObject refObject = getObjectFromPrefix(object, prefix);
+        
+        addDependency(dependencies, refObject);
+        
+        if(refObject instanceof IProperties) {
+            dependencies.addAll(((IProperties)refObject).getProperties());
+        }
+        
+        return refObject;
+    }
+    
+    private void addConnectionEnds(Set<Notifier> dependencies, IDiagramModelConnection connection) {
+        addDependency(dependencies, connection);
+        addDependency(dependencies, getActualObject(connection));
+        addDependency(dependencies, connection.getSource());
+        addDependency(dependencies, connection.getTarget());
+        
+        if(connection.getSource() instanceof IArchimateModelObject) {
+            addDependency(dependencies, getActualObject((IArchimateModelObject)connection.getSource()));
+        }
+        if(connection.getTarget() instanceof IArchimateModelObject) {
+            addDependency(dependencies, getActualObject((IArchimateModelObject)connection.getTarget()));
+        }
+    }
+    
+    private void addAncestors(Set<Notifier> dependencies, EObject eObject) {
+        for(; eObject != null; eObject = eObject.eContainer()) {
+            dependencies.add(eObject);
+        }
+    }
+    
+    private void addDependency(Set<Notifier> dependencies, Notifier notifier) {
+        if(notifier != null) {
+            dependencies.add(notifier);
+        }
+    }
+    
+    private String getAllProperties(IProperties object, boolean full) {
+        StringBuilder sb = new StringBuilder();
+        
+        for(int i = 0; i < object.getProperties().size(); i++) {
+            IProperty property = object.getProperties().get(i);
+            
+            if(full) {
+                sb.append(property.getKey()).append(": ");
+            }
+            
+            sb.append(property.getValue());
+            
+            if(i < object.getProperties().size() - 1) {
+                sb.append("\n");
+            }
+        }
+        
+        return sb.toString();
+    }
+}
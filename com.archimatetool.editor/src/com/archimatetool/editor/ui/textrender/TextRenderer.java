@@ -9,6 +9,8 @@ import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
+import org.eclipse.emf.common.notify.Notifier;
+
 import com.archimatetool.editor.utils.StringUtils;
 import com.archimatetool.model.IArchimateModelObject;
 import com.archimatetool.model.IDiagramModelArchimateComponent;
@@ -30,6 +32,15 @@ public class TextRenderer {
 
     private Set<ITextRenderer> renderers = new LinkedHashSet<>();
     
+    // Number of internal renderers. If more are registered their expressions might not be known to the template renderer
+    private int coreRendererCount;
+    
+    // Renders all internal renderers' expressions in one pass
+    private TemplateRenderer templateRenderer = new TemplateRenderer();
+    
+    // Rendered text of objects
+    private RenderCache renderCache = new RenderCache();
+    
     private static TextRenderer defaultTextRenderer = new TextRenderer();
     
     public static TextRenderer getDefault() {
@@ -49,6 +60,8 @@ public class TextRenderer {
         registerRenderer(new ViewpointRenderer());
         
         registerRenderer(new WordWrapRenderer());
+        
+        coreRendererCount = renderers.size();
     }
     
     /**
@@ -98,6 +111,23 @@ public class TextRenderer {
         // Remove escapement of newline chars
         String result = renderNewLines(formatExpression);
         
+        // If only the internal renderers are registered render the expression from its template and cache it
+        if(object != null && renderers.size() == coreRendererCount) {
+            String text = renderCache.get(object, result);
+            if(text != null) {
+                return text;
+            }
+            
+            Set<Notifier> dependencies = new HashSet<>();
+            text = templateRenderer.render(object, result, dependencies);
+            if(text != null) {
+                renderCache.put(object, result, text, dependencies);
+                return text;
+            }
+        }
+        
+        // Else render it with the registered renderers until there is nothing more to render
+        
         // Keep a list of results to check for circular recursion
         Set<String> resultSet = new HashSet<String>();
         
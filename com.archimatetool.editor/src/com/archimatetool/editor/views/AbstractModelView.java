@@ -28,6 +28,7 @@ import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.jface.viewers.SelectionChangedEvent;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.IActionBars;
 import org.eclipse.ui.actions.ActionFactory;
 import org.eclipse.ui.part.ViewPart;
@@ -252,6 +253,26 @@ implements IContextProvider, PropertyChangeListener, ITabbedPropertySheetPageCon
      */
     private List<Notification> fNotificationBuffer;
     
+    /**
+     * Delay in milliseconds, about one frame, before notifications received outside of a buffer are processed together
+     */
+    private static final int NOTIFICATION_COALESCE_DELAY = 16;
+    
+    /**
+     * Attribute and reference changes received outside of a buffer waiting to be processed together.
+     * Objects added, removed and moved are processed straight away, after any waiting changes, so that
+     * a new object is in the viewer when it is selected or edited straight after it is added.
+     */
+    private List<Notification> fPendingNotifications;
+    
+    private Runnable fPendingNotificationsRunnable = this::processPendingNotifications;
+    
+    /**
+     * Elements to update and parents to refresh, collected when processing notifications together
+     */
+    private Set<Object> fCoalescedUpdateElements;
+    private Set<Object> fCoalescedRefreshElements;
+    
     @Override
     public void propertyChange(PropertyChangeEvent evt) {
         String propertyName = evt.getPropertyName();
@@ -259,6 +280,9 @@ implements IContextProvider, PropertyChangeListener, ITabbedPropertySheetPageCon
         
         // Start: Buffer all incoming notifications
         if(propertyName == IEditorModelManager.PROPERTY_ECORE_EVENTS_START) {
+            // Process any waiting notifications first so that they are handled in order
+            processPendingNotificationsNow();
+            
             fAddingToBuffer = true;
             fNotificationBuffer = new ArrayList<Notification>();
         }
@@ -270,7 +294,22 @@ implements IContextProvider, PropertyChangeListener, ITabbedPropertySheetPageCon
         else if(propertyName == IEditorModelManager.PROPERTY_ECORE_EVENT) {
             // Normal event
             if(!fAddingToBuffer) {
-                eCoreChanged((Notification)newValue);
+                Notification msg = (Notification)newValue;
+                int type = msg.getEventType();
+                
+                // Value set, so wait for any more and process them together
+                if(type == Notification.SET || type == Notification.UNSET) {
+                    if(fPendingNotifications == null) {
+                        fPendingNotifications = new ArrayList<Notification>();
+                        Display.getCurrent().timerExec(NOTIFICATION_COALESCE_DELAY, fPendingNotificationsRunnable);
+                    }
+                    fPendingNotifications.add(msg);
+                }
+                // Else process it now after any waiting notifications so that they are handled in order
+                else {
+                    processPendingNotificationsNow();
+                    eCoreChanged(msg);
+                }
             }
             // Else add to buffer
             else {
@@ -279,6 +318,71 @@ implements IContextProvider, PropertyChangeListener, ITabbedPropertySheetPageCon
         }
     }
     
+    /**
+     * Cancel the timer and process any waiting notifications now
+     */
+    private void processPendingNotificationsNow() {
+        if(fPendingNotifications != null) {
+            Display.getCurrent().timerExec(-1, fPendingNotificationsRunnable);
+            processPendingNotifications();
+        }
+    }
+    
+    /**
+     * Process the notifications received outside of a buffer since the first one
+     */
+    private void processPendingNotifications() {
+        List<Notification> notifications = fPendingNotifications;
+        fPendingNotifications = null;
+        
+        if(notifications != null && getViewer() != null && !getViewer().getControl().isDisposed()) {
+            eCoreChanged(notifications);
+        }
+    }
+    
+    /**
+     * React to ECore Model Changes received outside of a buffer and processed together to refresh the view.
+     * Each notification is passed to eCoreChanged(Notification) but each affected element is updated or refreshed only once.
+     * Overriders can do their own thing.
+     */
+    protected void eCoreChanged(List<Notification> notifications) {
+        // Just the one
+        if(notifications.size() == 1) {
+            eCoreChanged(notifications.get(0));
+            return;
+        }
+        
+        fCoalescedUpdateElements = new HashSet<Object>();
+        fCoalescedRefreshElements = new HashSet<Object>();
+        
+        try {
+            getViewer().getControl().setRedraw(false);
+            
+            for(Notification msg : notifications) {
+                eCoreChanged(msg);
+            }
+            
+            // Refresh parent nodes
+            for(Object parent : fCoalescedRefreshElements) {
+                getViewer().refresh(parent);
+            }
+            
+            // Update affected element nodes unless already refreshed with their parent
+            List<Object> elements = new ArrayList<Object>();
+            for(Object element : fCoalescedUpdateElements) {
+                if(!(element instanceof EObject && fCoalescedRefreshElements.contains(((EObject)element).eContainer()))) {
+                    elements.add(element);
+                }
+            }
+            getViewer().update(elements.toArray(), null);
+        }
+        finally {
+            fCoalescedUpdateElements = null;
+            fCoalescedRefreshElements = null;
+            getViewer().getControl().setRedraw(true);
+        }
+    }
+    
     /**
      * React to ECore Model Changes to refresh the view
      */
@@ -291,6 +395,18 @@ implements IContextProvider, PropertyChangeListener, ITabbedPropertySheetPageCon
             return;
         }
         
+        // Processing notifications together, so collect the nodes to update and refresh
+        if(fCoalescedUpdateElements != null) {
+            fCoalescedUpdateElements.addAll(getElementsToUpdateFromNotification(msg));
+            
+            Object parent = getParentToRefreshFromNotification(msg);
+            if(parent != null) {
+                fCoalescedRefreshElements.add(parent);
+            }
+            
+            return;
+        }
+        
         try {
             getViewer().getControl().setRedraw(false);
 
@@ -474,6 +590,12 @@ implements IContextProvider, PropertyChangeListener, ITabbedPropertySheetPageCon
         // Unregister us as a Model Manager Listener
         IEditorModelManager.INSTANCE.removePropertyChangeListener(this);
         
+        // Don't process waiting notifications
+        if(fPendingNotifications != null) {
+            fPendingNotifications = null;
+            getSite().getShell().getDisplay().timerExec(-1, fPendingNotificationsRunnable);
+        }
+        
         // Remove Prefs listener
         Preferences.STORE.removePropertyChangeListener(prefsListener);
         
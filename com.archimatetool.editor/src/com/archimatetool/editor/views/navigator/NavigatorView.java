@@ -402,6 +402,21 @@ implements INavigatorView, ISelectionListener {
         }
     }
     
+    @Override
+    protected void eCoreChanged(List<Notification> notifications) {
+        // If a relationship was reconnected refresh it all once, else update each changed element
+        for(Notification msg : notifications) {
+            Object feature = msg.getFeature();
+            if(feature == IArchimatePackage.Literals.ARCHIMATE_RELATIONSHIP__SOURCE ||
+                                        feature == IArchimatePackage.Literals.ARCHIMATE_RELATIONSHIP__TARGET) {
+                getViewer().refresh();
+                return;
+            }
+        }
+        
+        super.eCoreChanged(notifications);
+    }
+    
     @Override
     protected void doRefreshFromNotifications(List<Notification> notifications) {
         getViewer().refresh();
@@ -145,7 +145,8 @@ implements ITreeModelView, IUIRequestListener {
         layout.verticalSpacing = 0;
         parent.setLayout(layout);
         
-        fTreeViewer = new TreeModelViewer(parent, SWT.NULL);
+        // Virtual tree creates tree items only when they are shown
+        fTreeViewer = new TreeModelViewer(parent, Preferences.STORE.getBoolean(IPreferenceConstants.MODEL_TREE_VIRTUAL) ? SWT.VIRTUAL : SWT.NULL);
         fTreeViewer.getControl().setLayoutData(new GridData(GridData.FILL_BOTH));
         
         fTreeViewer.setInput(IEditorModelManager.INSTANCE);
@@ -647,6 +648,7 @@ implements ITreeModelView, IUIRequestListener {
         // Garbage collection
         fTreeViewer = null;
         fFindReplaceProvider = null;
+        fSearchFilter.dispose();
         fSearchFilter = null;
         fSynchroniser = null;
         
@@ -684,6 +686,8 @@ implements ITreeModelView, IUIRequestListener {
         
         // Model removed
         else if(propertyName == IEditorModelManager.PROPERTY_MODEL_REMOVED) {
+            getViewer().clearSortKeys();
+            
             TreePath[] expanded = getViewer().getExpandedTreePaths(); // save these to restore expanded state
             getViewer().refresh();
             getViewer().setExpandedTreePaths(expanded);
@@ -715,6 +719,12 @@ implements ITreeModelView, IUIRequestListener {
             fSynchroniser.setSynchronise(true);
         }
         
+        // Ecore Event, so clear any cached sort keys before the tree is refreshed
+        else if(propertyName == IEditorModelManager.PROPERTY_ECORE_EVENT) {
+            getViewer().clearSortKeys((Notification)evt.getNewValue());
+            super.propertyChange(evt);
+        }
+        
         else {
             super.propertyChange(evt);
         }
@@ -6,8 +6,11 @@
 package com.archimatetool.editor.views.tree;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.jface.util.IPropertyChangeListener;
 import org.eclipse.jface.util.PropertyChangeEvent;
@@ -17,7 +20,9 @@ import org.eclipse.jface.viewers.ColumnViewerEditor;
 import org.eclipse.jface.viewers.ColumnViewerEditorActivationEvent;
 import org.eclipse.jface.viewers.ColumnViewerEditorActivationStrategy;
 import org.eclipse.jface.viewers.ICellModifier;
+import org.eclipse.jface.viewers.ILazyTreeContentProvider;
 import org.eclipse.jface.viewers.ITreeContentProvider;
+import org.eclipse.jface.viewers.TreePath;
 import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.jface.viewers.TreeViewerEditor;
 import org.eclipse.jface.viewers.Viewer;
@@ -50,8 +55,11 @@ import com.archimatetool.model.FolderType;
 import com.archimatetool.model.IArchimateConcept;
 import com.archimatetool.model.IArchimateModel;
 import com.archimatetool.model.IArchimateModelObject;
+import com.archimatetool.model.IArchimatePackage;
 import com.archimatetool.model.IArchimateRelationship;
 import com.archimatetool.model.IDiagramModel;
+import com.archimatetool.model.IDiagramModelComponent;
+import com.archimatetool.model.IFeature;
 import com.archimatetool.model.IFolder;
 import com.archimatetool.model.INameable;
 
@@ -75,6 +83,22 @@ public class TreeModelViewer extends TreeViewer {
     private Font fontItalic = FontFactory.getItalic(getTree().getFont());
     private Font fontBold = FontFactory.getBold(getTree().getFont());;
     
+    /**
+     * Cache of the text used to sort objects so that it is not rendered on every comparison
+     */
+    private Map<Object, String> fSortKeys = new HashMap<>();
+    
+    /**
+     * True if any cached sort key has been rendered from an ancestor folder's text expression
+     */
+    private boolean fHasRenderedSortKeys;
+    
+    /**
+     * In virtual mode, the filtered and sorted children of parent elements.
+     * Tree items are only created from these when they are shown.
+     */
+    private Map<Object, Object[]> fSortedChildIndex = new HashMap<>();
+    
     
     /**
      * Application Preferences Listener
@@ -101,7 +125,14 @@ public class TreeModelViewer extends TreeViewer {
         // Fonts
         setTreeFonts();
 
-        setContentProvider(new ModelTreeViewerContentProvider());
+        // In virtual mode use a lazy content provider so that items are only created when shown
+        if(isVirtual()) {
+            setContentProvider(new ModelTreeViewerLazyContentProvider());
+        }
+        else {
+            setContentProvider(new ModelTreeViewerContentProvider());
+        }
+
         setLabelProvider(new ModelTreeViewerLabelProvider());
         
         setUseHashlookup(true);
@@ -124,16 +155,8 @@ public class TreeModelViewer extends TreeViewer {
                 }
                 
                 // Get rendered text or name
-                String label1 = getAncestorFolderRenderText((IArchimateModelObject)e1);
-                if(label1 == null) {
-                    label1 = StringUtils.safeString(ArchiLabelProvider.INSTANCE.getLabelNormalised(e1));
-                }
-
-                // Get rendered text or name
-                String label2 = getAncestorFolderRenderText((IArchimateModelObject)e2);
-                if(label2 == null) {
-                    label2 = StringUtils.safeString(ArchiLabelProvider.INSTANCE.getLabelNormalised(e2));
-                }
+                String label1 = getSortKey(e1);
+                String label2 = getSortKey(e2);
                 
                 //return getComparator().compare(label1, label2);
                 return label1.compareToIgnoreCase(label2);
@@ -202,10 +225,19 @@ public class TreeModelViewer extends TreeViewer {
             @Override
             public void widgetDisposed(DisposeEvent e) {
                 Preferences.STORE.removePropertyChangeListener(prefsListener);
+                clearSortKeys();
+                fSortedChildIndex.clear();
             }
         });
     }
     
+    /**
+     * @return true if the tree was created with SWT.VIRTUAL and tree items are only created when they are shown
+     */
+    public boolean isVirtual() {
+        return (getTree().getStyle() & SWT.VIRTUAL) != 0;
+    }
+    
     /**
      * Edit an element on the tree
      * @param element the element to be edited
@@ -257,6 +289,12 @@ public class TreeModelViewer extends TreeViewer {
      */
     public TreeItem findTreeItem(Object element) {
         Widget item = findItem(element);
+        
+        // In virtual mode the item might not have been created yet
+        if(item == null && element != null && isVirtual()) {
+            item = internalExpand(element, false);
+        }
+        
         return (TreeItem)(item instanceof TreeItem ? item : null);
     }
     
@@ -276,15 +314,222 @@ public class TreeModelViewer extends TreeViewer {
     // Need package access to this method
     @Override
     protected Object[] getSortedChildren(Object parentElementOrTreePath) {
+        // In virtual mode the viewer doesn't filter and sort the children so use the sorted child index
+        if(isVirtual()) {
+            Object parent = parentElementOrTreePath instanceof TreePath ? ((TreePath)parentElementOrTreePath).getLastSegment() : parentElementOrTreePath;
+            return getSortedChildIndex(parent).clone();
+        }
+        
         return super.getSortedChildren(parentElementOrTreePath);
     }
     
+    @Override
+    protected void inputChanged(Object input, Object oldInput) {
+        fSortedChildIndex.clear();
+        super.inputChanged(input, oldInput);
+    }
+    
+    @Override
+    protected void internalRefresh(Object element, boolean updateLabels) {
+        clearSortedChildIndex(element);
+        super.internalRefresh(element, updateLabels);
+    }
+    
+    /**
+     * In virtual mode, get the filtered and sorted children of a parent element. This is kept until the parent is refreshed.
+     */
+    private Object[] getSortedChildIndex(Object parent) {
+        Object[] children = fSortedChildIndex.get(parent);
+        
+        if(children == null) {
+            children = getModelChildren(parent);
+            
+            // Don't keep empty entries for elements
+            if(children.length == 0) {
+                return children;
+            }
+            
+            for(ViewerFilter filter : getFilters()) {
+                children = filter.filter(this, parent, children);
+            }
+            
+            if(getComparator() != null) {
+                getComparator().sort(this, children);
+            }
+            
+            fSortedChildIndex.put(parent, children);
+        }
+        
+        return children;
+    }
+    
+    /**
+     * Clear the sorted child index of an element and all of its descendants, or all of it if element is null or the input
+     */
+    private void clearSortedChildIndex(Object element) {
+        if(fSortedChildIndex.isEmpty()) {
+            return;
+        }
+        
+        if(element == null || element == getInput()) {
+            fSortedChildIndex.clear();
+            return;
+        }
+        
+        // Children are only indexed when their parent's tree item is created from the parent's index entry,
+        // so walk down the indexed children. This includes children that have since been removed or moved.
+        Object[] children = fSortedChildIndex.remove(element);
+        if(children != null) {
+            for(Object child : children) {
+                clearSortedChildIndex(child);
+            }
+        }
+    }
+    
+    /**
+     * In virtual mode, query whether a parent element has any children that pass the filters without sorting them
+     */
+    private boolean hasFilteredChildren(Object parent) {
+        Object[] children = fSortedChildIndex.get(parent);
+        if(children != null) {
+            return children.length > 0;
+        }
+        
+        for(Object child : getModelChildren(parent)) {
+            if(isFilteredIn(parent, child)) {
+                return true;
+            }
+        }
+        
+        return false;
+    }
+    
+    private boolean isFilteredIn(Object parent, Object element) {
+        for(ViewerFilter filter : getFilters()) {
+            if(!filter.select(this, parent, element)) {
+                return false;
+            }
+        }
+        
+        return true;
+    }
+    
+    /**
+     * @return The unsorted and unfiltered child objects of a parent element
+     */
+    private Object[] getModelChildren(Object parentElement) {
+        if(parentElement instanceof IEditorModelManager) {
+            return ((IEditorModelManager)parentElement).getModels().toArray();
+        }
+        
+        if(parentElement instanceof IArchimateModel) {
+            return ((IArchimateModel)parentElement).getFolders().toArray();
+        }
+        
+        if(parentElement instanceof IFolder) {
+            List<Object> list = new ArrayList<Object>();
+            
+            // Folders
+            list.addAll(((IFolder)parentElement).getFolders());
+            // Elements
+            list.addAll(((IFolder)parentElement).getElements());
+            
+            return list.toArray();
+        }
+        
+        return new Object[0];
+    }
+    
     private void setTreeFonts() {
         UIUtils.setFontFromPreferences(getTree(), IPreferenceConstants.MODEL_TREE_FONT, false);
         fontItalic = FontFactory.getItalic(getTree().getFont());
         fontBold = FontFactory.getBold(getTree().getFont());
     }
     
+    /**
+     * @return The rendered text or name of an object to sort on. This is cached until the object changes.
+     */
+    private String getSortKey(Object object) {
+        String key = fSortKeys.get(object);
+        
+        if(key == null) {
+            key = getAncestorFolderRenderText((IArchimateModelObject)object);
+            
+            if(key != null) {
+                fHasRenderedSortKeys = true;
+            }
+            else {
+                key = StringUtils.safeString(ArchiLabelProvider.INSTANCE.getLabelNormalised(object));
+            }
+            
+            fSortKeys.put(object, key);
+        }
+        
+        return key;
+    }
+    
+    /**
+     * Clear all cached sort keys
+     */
+    void clearSortKeys() {
+        fSortKeys.clear();
+        fHasRenderedSortKeys = false;
+    }
+    
+    /**
+     * Clear any cached sort keys that might be out of date after a model change
+     */
+    void clearSortKeys(Notification msg) {
+        if(fSortKeys.isEmpty()) {
+            return;
+        }
+        
+        Object notifier = msg.getNotifier();
+        int type = msg.getEventType();
+        
+        // Rendered text can refer to other objects and their properties so clear them all
+        if(fHasRenderedSortKeys && isRenderedTextChange(msg)) {
+            clearSortKeys();
+        }
+        // Name changed
+        else if(type == Notification.SET && msg.getFeature() == IArchimatePackage.Literals.NAMEABLE__NAME) {
+            fSortKeys.remove(notifier);
+        }
+        // Objects removed from the tree so don't hold on to them
+        else if((type == Notification.REMOVE || type == Notification.REMOVE_MANY) && isTreeFeature(msg.getFeature())) {
+            clearSortKeys();
+        }
+        // A folder's feature changed which might be a text expression
+        else if((notifier instanceof IFolder && msg.getFeature() == IArchimatePackage.Literals.FEATURES__FEATURES)
+                || (notifier instanceof IFeature && ((IFeature)notifier).eContainer() instanceof IFolder)) {
+            clearSortKeys();
+        }
+    }
+    
+    /**
+     * @return true if a change can change the text rendered for an object in the tree.
+     *         Text is rendered for concepts and views from the objects themselves and the objects that they refer to,
+     *         their ancestor folders, profiles and the model, but not from the contents of views.
+     *         So any change apart from a change to the contents of a view might change it.
+     */
+    private boolean isRenderedTextChange(Notification msg) {
+        // A view's child, connection or one of their bounds, properties or features
+        for(Object object = msg.getNotifier(); object instanceof EObject && !(object instanceof IDiagramModel); object = ((EObject)object).eContainer()) {
+            if(object instanceof IDiagramModelComponent) {
+                return false;
+            }
+        }
+        
+        return true;
+    }
+    
+    /**
+     * @return true if feature holds the objects shown in the tree
+     */
+    private boolean isTreeFeature(Object feature) {
+        return feature == IArchimatePackage.Literals.FOLDER__ELEMENTS || feature == IArchimatePackage.Literals.FOLDER_CONTAINER__FOLDERS;
+    }
+    
     /**
      * If a Concept or a View's parent or ancestor parent folder has a text expression, evaluate it and return it
      * But let's keep a limit to its length
@@ -325,26 +570,7 @@ public class TreeModelViewer extends TreeViewer {
 
         @Override
         public Object[] getChildren(Object parentElement) {
-            if(parentElement instanceof IEditorModelManager) {
-            	return ((IEditorModelManager)parentElement).getModels().toArray();
-            }
-            
-            if(parentElement instanceof IArchimateModel) {
-            	return ((IArchimateModel)parentElement).getFolders().toArray();
-            }
-
-            if(parentElement instanceof IFolder) {
-                List<Object> list = new ArrayList<Object>();
-                
-                // Folders
-                list.addAll(((IFolder)parentElement).getFolders());
-                // Elements
-                list.addAll(((IFolder)parentElement).getElements());
-                
-                return list.toArray();
-            }
-            
-            return new Object[0];
+            return getModelChildren(parentElement);
         }
 
         @Override
@@ -361,6 +587,56 @@ public class TreeModelViewer extends TreeViewer {
         }
     }
     
+    /**
+     *  Lazy Content Provider used in virtual mode.
+     *  Tree items are created from the sorted child index only when they are shown.
+     */
+    private class ModelTreeViewerLazyContentProvider implements ILazyTreeContentProvider {
+        
+        @Override
+        public void inputChanged(Viewer v, Object oldInput, Object newInput) {
+        }
+        
+        @Override
+        public void dispose() {
+        }
+        
+        @Override
+        public void updateElement(Object parent, int index) {
+            Object[] children = getSortedChildIndex(parent);
+            if(index < children.length) {
+                Object child = children[index];
+                replace(parent, index, child);
+                
+                // An expanded child needs all of its children
+                if(getExpandedState(child)) {
+                    updateChildCount(child, -1);
+                }
+                // Else only show whether it has children without filtering and sorting all of them.
+                // The viewer asks for the real count when it expands an item that has one empty child.
+                else {
+                    setChildCount(child, hasFilteredChildren(child) ? 1 : 0);
+                }
+            }
+        }
+        
+        @Override
+        public void updateChildCount(Object element, int currentChildCount) {
+            int count = getSortedChildIndex(element).length;
+            if(count != currentChildCount) {
+                setChildCount(element, count);
+            }
+        }
+        
+        @Override
+        public Object getParent(Object element) {
+            if(element instanceof EObject) {
+                return ((EObject)element).eContainer();
+            }
+            return null;
+        }
+    }
+    
     /**
      * Label Provider
      */
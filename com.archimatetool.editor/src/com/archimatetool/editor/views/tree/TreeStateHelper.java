@@ -109,7 +109,7 @@ public class TreeStateHelper {
                     for(IArchimateModel model : IEditorModelManager.INSTANCE.getModels()) {
                         if(file.equals(model.getFile())) {
                             for(String id : elements) {
-                                EObject element = ArchimateModelUtils.getObjectByID(model, id);
+                                EObject element = model.getObjectByID(id);
                                 if(element != null) {
                                     viewer.expandToLevel(element, 1);
                                 }
@@ -6,12 +6,8 @@
 package com.archimatetool.editor.views.tree.commands;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
@@ -33,13 +29,11 @@ import com.archimatetool.model.FolderType;
 import com.archimatetool.model.IAdapter;
 import com.archimatetool.model.IArchimateConcept;
 import com.archimatetool.model.IArchimateElement;
-import com.archimatetool.model.IArchimateModel;
 import com.archimatetool.model.IArchimateModelObject;
 import com.archimatetool.model.IArchimateRelationship;
 import com.archimatetool.model.IDiagramModel;
 import com.archimatetool.model.IDiagramModelConnection;
 import com.archimatetool.model.IDiagramModelObject;
-import com.archimatetool.model.IDiagramModelReference;
 import com.archimatetool.model.IFolder;
 import com.archimatetool.model.IFolderContainer;
 import com.archimatetool.model.util.ArchimateModelUtils;
@@ -77,9 +71,6 @@ public class DeleteCommandHandler {
     // The object to select in the tree after the deletion
     private Object fObjectToSelectAfterDeletion;
     
-    // A cache for a model's diagram references as getting them is slow if there are many diagrams
-    private Map<IArchimateModel, List<IDiagramModelReference>> fDiagramModelReferenceCache;
-    
     /**
      * @param element
      * @return True if we can delete this object
@@ -163,8 +154,6 @@ public class DeleteCommandHandler {
         // Actual elements to delete
         fObjectsToDelete = new HashSet<>();
         
-        fDiagramModelReferenceCache = new HashMap<>();
-        
         // Gather the objects to delete
         getObjectsToDelete();
         
@@ -266,30 +255,8 @@ public class DeleteCommandHandler {
     }
     
     private void getDiagramModelReferencesToDelete(IDiagramModel dm) {
-        // Iterating more than once can be slow so use a cache of diagram model references
-        List<IDiagramModelReference> refs = fDiagramModelReferenceCache.get(dm.getArchimateModel());
-        
-        // Not in the cache so create a new one
-        if(refs == null) {
-            refs = new ArrayList<>();
-            IFolder diagramsFolder = dm.getArchimateModel().getFolder(FolderType.DIAGRAMS);
-            if(diagramsFolder != null) {
-                for(Iterator<EObject> iter = diagramsFolder.eAllContents(); iter.hasNext();) {
-                    EObject eObject = iter.next();
-                    if(eObject instanceof IDiagramModelReference) {
-                        refs.add((IDiagramModelReference)eObject);
-                    }
-                }
-            }
-            fDiagramModelReferenceCache.put(dm.getArchimateModel(), refs);
-        }
-        
-        // Iterate through all refs
-        for(IDiagramModelReference ref : refs) {
-            if(ref.getReferencedModel() == dm) {
-                fObjectsToDelete.add(ref);
-            }
-        }
+        // The diagram model keeps its references so we don't have to search the model for them
+        fObjectsToDelete.addAll(dm.getReferencingDiagramModelReferences());
     }
 
     /**
@@ -6,7 +6,13 @@
 package com.archimatetool.editor.views.tree.search;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
@@ -17,13 +23,11 @@ import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.jface.viewers.ViewerFilter;
 import org.eclipse.swt.widgets.Display;
 
-import com.archimatetool.editor.utils.StringUtils;
-import com.archimatetool.model.IDocumentable;
+import com.archimatetool.editor.model.IEditorModelManager;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IArchimateModelObject;
 import com.archimatetool.model.IFolder;
 import com.archimatetool.model.IFolderContainer;
-import com.archimatetool.model.INameable;
-import com.archimatetool.model.IProperties;
-import com.archimatetool.model.IProperty;
 
 
 /**
@@ -44,6 +48,18 @@ public class SearchFilter extends ViewerFilter {
 
     private boolean fShowAllFolders = false;
 
+    // Lower case search text so that it isn't converted for each element
+    private String fSearchTextLower = ""; //$NON-NLS-1$
+
+    // Search Index for each model, created when first filtering
+    private Map<IArchimateModel, SearchIndex> fSearchIndexes = new HashMap<>();
+
+    // Elements that match the filter and their ancestors, or null if they have to be found again
+    private Set<Object> fVisibleElements;
+
+    // The open models that the visible elements were found in
+    private List<IArchimateModel> fVisibleModels;
+
     public SearchFilter(TreeViewer viewer) {
         fViewer = viewer;
     }
@@ -55,10 +71,13 @@ public class SearchFilter extends ViewerFilter {
         }
 
         fSearchText = text;
+        fSearchTextLower = text.toLowerCase();
         refresh();
     }
 
     private void refresh() {
+        fVisibleElements = null;
+        
         Display.getCurrent().asyncExec(new Runnable() {
             @Override
             public void run() {
@@ -93,8 +112,25 @@ public class SearchFilter extends ViewerFilter {
             restoreState();
         }
         fSearchText = ""; //$NON-NLS-1$
+        fSearchTextLower = ""; //$NON-NLS-1$
         resetFilters();
         fExpanded = null;
+        disposeSearchIndexes();
+    }
+    
+    /**
+     * Dispose of the Search Indexes. They will be created again if needed.
+     */
+    public void dispose() {
+        disposeSearchIndexes();
+    }
+    
+    private void disposeSearchIndexes() {
+        for(SearchIndex index : fSearchIndexes.values()) {
+            index.dispose();
+        }
+        fSearchIndexes.clear();
+        fVisibleElements = null;
     }
 
     public void resetFilters() {
@@ -120,32 +156,70 @@ public class SearchFilter extends ViewerFilter {
 
     /**
      * Query whether element is to be shown (or any children) when filtering
-     * This will also query child elements of element if it's a container
      * @param element Any element including containers
      * @return
      */
     private boolean isElementVisible(Object parentElement, Object element) {
-        if(element instanceof IFolderContainer) {
-            for(IFolder folder : ((IFolderContainer)element).getFolders()) {
-                if(isElementVisible(parentElement, folder)) {
-                    return true;
-                }
-            }
+        // Show all folders, and the model if it has any
+        if(isShowAllFolders() && element instanceof IFolderContainer
+                && (element instanceof IFolder || !((IFolderContainer)element).getFolders().isEmpty())) {
+            return true;
         }
-
-        if(element instanceof IFolder) {
-            for(Object o : ((IFolder)element).getElements()) {
-                if(isElementVisible(parentElement, o)) {
-                    return true;
+        
+        return getVisibleElements().contains(element);
+    }
+    
+    /**
+     * @return The elements in the open models that match the filter and all of their ancestors.
+     *         This is found once with the Search Indexes and kept until the filter, a model or the open models change.
+     */
+    private Set<Object> getVisibleElements() {
+        List<IArchimateModel> models = IEditorModelManager.INSTANCE.getModels();
+        
+        // A model has been opened, created or closed since they were found
+        if(fVisibleElements != null && !models.equals(fVisibleModels)) {
+            fVisibleElements = null;
+        }
+        
+        if(fVisibleElements == null) {
+            fVisibleElements = new HashSet<>();
+            fVisibleModels = new ArrayList<>(models);
+            
+            // Dispose of the Search Indexes of closed models
+            for(Iterator<Entry<IArchimateModel, SearchIndex>> iter = fSearchIndexes.entrySet().iterator(); iter.hasNext();) {
+                Entry<IArchimateModel, SearchIndex> entry = iter.next();
+                if(!models.contains(entry.getKey())) {
+                    entry.getValue().dispose();
+                    iter.remove();
                 }
             }
-
-            if(isShowAllFolders()) {
-                return true;
+            
+            for(IArchimateModel model : models) {
+                for(Entry<EObject, SearchIndex.Entry> entry : getSearchIndex(model).getEntries().entrySet()) {
+                    if(matchesFilter(entry.getKey(), entry.getValue())) {
+                        // Add the element and its ancestors, stopping at an ancestor already added
+                        EObject eObject = entry.getKey();
+                        while(eObject != null && fVisibleElements.add(eObject)) {
+                            eObject = eObject.eContainer();
+                        }
+                    }
+                }
             }
         }
         
-        return matchesFilter(element);
+        return fVisibleElements;
+    }
+    
+    private SearchIndex getSearchIndex(IArchimateModel model) {
+        SearchIndex index = fSearchIndexes.get(model);
+        
+        if(index == null) {
+            // When a model changes the visible elements have to be found again
+            index = new SearchIndex(model, () -> fVisibleElements = null);
+            fSearchIndexes.put(model, index);
+        }
+        
+        return index;
     }
     
     /**
@@ -154,6 +228,22 @@ public class SearchFilter extends ViewerFilter {
      * @return
      */
     public boolean matchesFilter(Object element) {
+        SearchIndex.Entry entry = null;
+        
+        if(element instanceof IArchimateModelObject) {
+            SearchIndex index = fSearchIndexes.get(((IArchimateModelObject)element).getArchimateModel());
+            if(index != null) {
+                entry = index.getEntry(element);
+            }
+        }
+        
+        return matchesFilter(element, entry != null ? entry : new SearchIndex.Entry(element));
+    }
+    
+    /**
+     * Query whether element matches filter criteria using its indexed text
+     */
+    private boolean matchesFilter(Object element, SearchIndex.Entry entry) {
         // EObject Type filter - do this first as the master filter
         if(isObjectFiltered(element)) {
             return false;
@@ -163,11 +253,11 @@ public class SearchFilter extends ViewerFilter {
         boolean propertyKeyResult = false;
 
         // Properties Key filter
-        if(isFilteringPropertyKeys() && element instanceof IProperties) {
-            for(IProperty property : ((IProperties)element).getProperties()) {
-                if(fPropertiesFilter.contains(property.getKey())) {
+        if(isFilteringPropertyKeys()) {
+            for(int i = 0; i < entry.propertyKeys.size(); i++) {
+                if(fPropertiesFilter.contains(entry.propertyKeys.get(i))) {
                     propertyKeyResult = true;
-                    if(hasSearchText() && property.getValue().toLowerCase().contains(fSearchText.toLowerCase())) {
+                    if(hasSearchText() && entry.propertyValues.get(i).contains(fSearchTextLower)) {
                         textSearchResult = true;
                     }
                 }
@@ -177,23 +267,13 @@ public class SearchFilter extends ViewerFilter {
         // If has search Text and no text found yet
         if(hasSearchText()) {
             // Name...
-            if(fFilterName && !textSearchResult && element instanceof INameable) {
-                String name = StringUtils.safeString(((INameable)element).getName());
-                
-                // Normalise in case of multi-line text
-                name = StringUtils.normaliseNewLineCharacters(name);
-                
-                if(name.toLowerCase().contains(fSearchText.toLowerCase())) {
-                    textSearchResult = true;
-                }
+            if(fFilterName && !textSearchResult && entry.name != null && entry.name.contains(fSearchTextLower)) {
+                textSearchResult = true;
             }
 
             // Then Documentation
-            if(fFilterDocumentation && !textSearchResult && element instanceof IDocumentable) {
-                String text = StringUtils.safeString(((IDocumentable)element).getDocumentation());
-                if(text.toLowerCase().contains(fSearchText.toLowerCase())) {
-                    textSearchResult = true;
-                }
+            if(fFilterDocumentation && !textSearchResult && entry.documentation != null && entry.documentation.contains(fSearchTextLower)) {
+                textSearchResult = true;
             }
         }
 
@@ -227,6 +307,7 @@ public class SearchFilter extends ViewerFilter {
     void setFilterOnName(boolean set) {
         if(fFilterName != set) {
             fFilterName = set;
+            fVisibleElements = null;
             if(isFiltering()) {
                 refresh();
             }
@@ -236,6 +317,7 @@ public class SearchFilter extends ViewerFilter {
     void setFilterOnDocumentation(boolean set) {
         if(fFilterDocumentation != set) {
             fFilterDocumentation = set;
+            fVisibleElements = null;
             if(isFiltering()) {
                 refresh();
             }
@@ -0,0 +1,212 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.views.tree.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.ecore.EObject;
+
+import com.archimatetool.editor.utils.StringUtils;
+import com.archimatetool.model.IArchimateConcept;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IArchimatePackage;
+import com.archimatetool.model.IDiagramModel;
+import com.archimatetool.model.IDocumentable;
+import com.archimatetool.model.IFolder;
+import com.archimatetool.model.INameable;
+import com.archimatetool.model.IProperties;
+import com.archimatetool.model.IProperty;
+import com.archimatetool.model.util.LightweightEContentAdapter;
+
+
+/**
+ * Index of the searchable text of the objects in a model that are shown in the Models Tree
+ *
+ * The index is created with one pass of the model and is then kept up to date from model notifications
+ * so that the text doesn't have to be read and converted to lower case each time the Search Filter is applied.
+ */
+class SearchIndex {
+    
+    /**
+     * The searchable text of an object. All text is lower case apart from property keys.
+     */
+    static class Entry {
+        String name;
+        String documentation;
+        List<String> propertyKeys = new ArrayList<>();
+        List<String> propertyValues = new ArrayList<>();
+        
+        Entry(Object element) {
+            if(element instanceof INameable) {
+                // Normalise in case of multi-line text
+                name = StringUtils.normaliseNewLineCharacters(StringUtils.safeString(((INameable)element).getName())).toLowerCase();
+            }
+            
+            if(element instanceof IDocumentable) {
+                documentation = StringUtils.safeString(((IDocumentable)element).getDocumentation()).toLowerCase();
+            }
+            
+            if(element instanceof IProperties) {
+                for(IProperty property : ((IProperties)element).getProperties()) {
+                    propertyKeys.add(property.getKey());
+                    propertyValues.add(StringUtils.safeString(property.getValue()).toLowerCase());
+                }
+            }
+        }
+    }
+    
+    private IArchimateModel fModel;
+    
+    private Map<EObject, Entry> fEntries = new HashMap<>();
+    
+    // Called when the index changes
+    private Runnable fChangeListener;
+    
+    // Adapt to the folder tree and the properties of the objects in it, but not to diagram model children
+    private LightweightEContentAdapter fAdapter = new LightweightEContentAdapter(this::notifyChanged,
+            IFolder.class, IArchimateConcept.class, IDiagramModel.class, IProperty.class);
+    
+    SearchIndex(IArchimateModel model, Runnable changeListener) {
+        fModel = model;
+        fChangeListener = changeListener;
+        
+        add(model);
+        
+        model.eAdapters().add(fAdapter);
+    }
+    
+    /**
+     * @return The indexed text of an object, or null if the object is not in the index
+     */
+    Entry getEntry(Object element) {
+        return fEntries.get(element);
+    }
+    
+    /**
+     * @return All indexed objects and their text
+     */
+    Map<EObject, Entry> getEntries() {
+        return fEntries;
+    }
+    
+    void dispose() {
+        fModel.eAdapters().remove(fAdapter);
+        fEntries.clear();
+        fChangeListener = null;
+    }
+    
+    private void notifyChanged(Notification msg) {
+        Object notifier = msg.getNotifier();
+        Object feature = msg.getFeature();
+        
+        // Property key or value changed
+        if(notifier instanceof IProperty) {
+            update(((IProperty)notifier).eContainer());
+        }
+        
+        // Objects added to or removed from a folder
+        else if(feature == IArchimatePackage.Literals.FOLDER__ELEMENTS || feature == IArchimatePackage.Literals.FOLDER_CONTAINER__FOLDERS) {
+            switch(msg.getEventType()) {
+                case Notification.ADD:
+                    add((EObject)msg.getNewValue());
+                    break;
+                
+                case Notification.ADD_MANY:
+                    for(Object o : (Collection<?>)msg.getNewValue()) {
+                        add((EObject)o);
+                    }
+                    break;
+                
+                case Notification.REMOVE:
+                    remove((EObject)msg.getOldValue());
+                    break;
+                
+                case Notification.REMOVE_MANY:
+                    for(Object o : (Collection<?>)msg.getOldValue()) {
+                        remove((EObject)o);
+                    }
+                    break;
+                
+                default:
+                    return;
+            }
+        }
+        
+        // Name, documentation or properties of an object changed
+        else if(feature == IArchimatePackage.Literals.NAMEABLE__NAME || feature == IArchimatePackage.Literals.DOCUMENTABLE__DOCUMENTATION
+                || feature == IArchimatePackage.Literals.PROPERTIES__PROPERTIES) {
+            update(notifier);
+        }
+        
+        else {
+            return;
+        }
+        
+        if(fChangeListener != null) {
+            fChangeListener.run();
+        }
+    }
+    
+    /**
+     * Index an object and, if it is a folder or the model, the objects in its folders
+     */
+    private void add(EObject eObject) {
+        fEntries.put(eObject, new Entry(eObject));
+        
+        for(TreeIterator<EObject> iter = eObject.eAllContents(); iter.hasNext();) {
+            EObject child = iter.next();
+            
+            if(isInFolderTree(child)) {
+                fEntries.put(child, new Entry(child));
+            }
+            
+            // Only folders contain objects shown in the tree
+            if(!(child instanceof IFolder)) {
+                iter.prune();
+            }
+        }
+    }
+    
+    /**
+     * Remove an object and, if it is a folder, the objects in its folders
+     */
+    private void remove(EObject eObject) {
+        fEntries.remove(eObject);
+        
+        for(TreeIterator<EObject> iter = eObject.eAllContents(); iter.hasNext();) {
+            EObject child = iter.next();
+            
+            fEntries.remove(child);
+            
+            if(!(child instanceof IFolder)) {
+                iter.prune();
+            }
+        }
+    }
+    
+    /**
+     * Re-index an object if it is in the index
+     */
+    private void update(Object element) {
+        if(fEntries.containsKey(element)) {
+            fEntries.put((EObject)element, new Entry(element));
+        }
+    }
+    
+    /**
+     * @return true if the object is a folder or an object in a folder, and so is shown in the tree
+     */
+    private boolean isInFolderTree(EObject eObject) {
+        Object feature = eObject.eContainingFeature();
+        return feature == IArchimatePackage.Literals.FOLDER__ELEMENTS || feature == IArchimatePackage.Literals.FOLDER_CONTAINER__FOLDERS;
+    }
+}
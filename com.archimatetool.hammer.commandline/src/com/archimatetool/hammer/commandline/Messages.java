@@ -0,0 +1,59 @@
+package com.archimatetool.hammer.commandline;
+
+import org.eclipse.osgi.util.NLS;
+
+public class Messages extends NLS {
+
+    private static final String BUNDLE_NAME = "com.archimatetool.hammer.commandline.messages"; //$NON-NLS-1$
+
+    public static String ValidateModelProvider_0;
+
+    public static String ValidateModelProvider_1;
+
+    public static String ValidateModelProvider_10;
+
+    public static String ValidateModelProvider_11;
+
+    public static String ValidateModelProvider_12;
+
+    public static String ValidateModelProvider_13;
+
+    public static String ValidateModelProvider_14;
+
+    public static String ValidateModelProvider_15;
+
+    public static String ValidateModelProvider_16;
+
+    public static String ValidateModelProvider_17;
+
+    public static String ValidateModelProvider_18;
+
+    public static String ValidateModelProvider_19;
+
+    public static String ValidateModelProvider_2;
+
+    public static String ValidateModelProvider_20;
+
+    public static String ValidateModelProvider_21;
+
+    public static String ValidateModelProvider_3;
+
+    public static String ValidateModelProvider_4;
+
+    public static String ValidateModelProvider_5;
+
+    public static String ValidateModelProvider_6;
+
+    public static String ValidateModelProvider_7;
+
+    public static String ValidateModelProvider_8;
+
+    public static String ValidateModelProvider_9;
+    static {
+        // initialize resource bundle
+        NLS.initializeMessages(BUNDLE_NAME, Messages.class);
+    }
+
+    private Messages() {
+    }
+}
@@ -0,0 +1,282 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.hammer.commandline;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.eclipse.jface.preference.IPreferenceStore;
+import org.eclipse.jface.preference.PreferenceStore;
+import org.eclipse.osgi.util.NLS;
+
+import com.archimatetool.commandline.AbstractCommandLineProvider;
+import com.archimatetool.commandline.CommandLineState;
+import com.archimatetool.editor.utils.StringUtils;
+import com.archimatetool.hammer.ArchiHammerPlugin;
+import com.archimatetool.hammer.preferences.IPreferenceConstants;
+import com.archimatetool.hammer.validation.Validator;
+import com.archimatetool.hammer.validation.ValidatorReport;
+import com.archimatetool.model.IArchimateModel;
+
+/**
+ * Command Line interface for validating a model
+ *
+ * Typical usage - (should be all on one line):
+ *
+ * Archi -consoleLog -nosplash -application com.archimatetool.commandline.app
+   --loadModel "/pathToModel/model.archimate"
+   --validate.report "/pathToOutput/report.sarif"
+   --validate.failOn warning
+ */
+public class ValidateModelProvider extends AbstractCommandLineProvider {
+
+    static final String PREFIX = Messages.ValidateModelProvider_0;
+    
+    static final String OPTION_REPORT = "validate.report"; //$NON-NLS-1$
+    static final String OPTION_FORMAT = "validate.format"; //$NON-NLS-1$
+    static final String OPTION_CHECKS = "validate.checks"; //$NON-NLS-1$
+    static final String OPTION_NORMALISE_NAMES = "validate.normaliseNames"; //$NON-NLS-1$
+    static final String OPTION_FAIL_ON = "validate.failOn"; //$NON-NLS-1$
+    static final String OPTION_MAX_ISSUES = "validate.maxIssues"; //$NON-NLS-1$
+    
+    static final String FORMAT_JSON = "json"; //$NON-NLS-1$
+    static final String FORMAT_SARIF = "sarif"; //$NON-NLS-1$
+    
+    /**
+     * Exit code when the number of issues is over the threshold
+     */
+    static final int EXIT_THRESHOLD_EXCEEDED = 1;
+    
+    /**
+     * Exit code when an option value is not valid or there is no model to validate
+     */
+    static final int EXIT_INVALID_OPTION = 2;
+    
+    /**
+     * Check name -> preference key
+     */
+    static final Map<String, String> CHECKS = new LinkedHashMap<>();
+    
+    static {
+        CHECKS.put("invalidRelations", IPreferenceConstants.PREFS_HAMMER_CHECK_INVALID_RELATIONS); //$NON-NLS-1$
+        CHECKS.put("unusedElements", IPreferenceConstants.PREFS_HAMMER_CHECK_UNUSED_ELEMENTS); //$NON-NLS-1$
+        CHECKS.put("unusedRelations", IPreferenceConstants.PREFS_HAMMER_CHECK_UNUSED_RELATIONS); //$NON-NLS-1$
+        CHECKS.put("emptyViews", IPreferenceConstants.PREFS_HAMMER_CHECK_EMPTY_VIEWS); //$NON-NLS-1$
+        CHECKS.put("viewpoint", IPreferenceConstants.PREFS_HAMMER_CHECK_VIEWPOINT); //$NON-NLS-1$
+        CHECKS.put("nesting", IPreferenceConstants.PREFS_HAMMER_CHECK_NESTING); //$NON-NLS-1$
+        CHECKS.put("duplicateElements", IPreferenceConstants.PREFS_HAMMER_CHECK_DUPLICATE_ELEMENTS); //$NON-NLS-1$
+        CHECKS.put("junctions", IPreferenceConstants.PREFS_HAMMER_CHECK_JUNCTIONS); //$NON-NLS-1$
+    }
+    
+    public ValidateModelProvider() {
+    }
+    
+    
+    @Override
+    public void run(CommandLine commandLine) throws Exception {
+        if(!hasCorrectOptions(commandLine)) {
+            return;
+        }
+        
+        IArchimateModel model = CommandLineState.getModel();
+        
+        if(model == null) {
+            throw invalidOption(Messages.ValidateModelProvider_1);
+        }
+        
+        // Report file
+        String value = commandLine.getOptionValue(OPTION_REPORT);
+        if(!StringUtils.isSet(value)) {
+            throw invalidOption(Messages.ValidateModelProvider_2);
+        }
+        
+        File reportFile = new File(value);
+        
+        // Format
+        String format = commandLine.getOptionValue(OPTION_FORMAT);
+        if(!StringUtils.isSet(format)) {
+            format = reportFile.getName().toLowerCase().endsWith("." + FORMAT_SARIF) ? FORMAT_SARIF : FORMAT_JSON; //$NON-NLS-1$
+        }
+        if(!FORMAT_JSON.equals(format) && !FORMAT_SARIF.equals(format)) {
+            throw invalidOption(NLS.bind(Messages.ValidateModelProvider_3, format));
+        }
+        
+        // Threshold
+        String failOn = commandLine.getOptionValue(OPTION_FAIL_ON, ValidatorReport.LEVEL_ERROR);
+        if(!Arrays.asList(ValidatorReport.LEVEL_ERROR, ValidatorReport.LEVEL_WARNING, ValidatorReport.LEVEL_ADVICE).contains(failOn)) {
+            throw invalidOption(NLS.bind(Messages.ValidateModelProvider_4, failOn));
+        }
+        
+        int maxIssues = 0;
+        value = commandLine.getOptionValue(OPTION_MAX_ISSUES);
+        if(StringUtils.isSet(value)) {
+            try {
+                maxIssues = Integer.parseInt(value);
+            }
+            catch(NumberFormatException ex) {
+                throw invalidOption(NLS.bind(Messages.ValidateModelProvider_5, value));
+            }
+            if(maxIssues < 0) {
+                throw invalidOption(NLS.bind(Messages.ValidateModelProvider_21, value));
+            }
+        }
+        
+        // Checker settings
+        IPreferenceStore store = createPreferenceStore(commandLine);
+        
+        logMessage(NLS.bind(Messages.ValidateModelProvider_6, model.getName()));
+        
+        Validator validator = new Validator(model, store);
+        validator.validate();
+        
+        ValidatorReport report = new ValidatorReport(validator);
+        
+        File parent = reportFile.getAbsoluteFile().getParentFile();
+        if(parent != null) {
+            parent.mkdirs();
+        }
+        
+        try(Writer writer = Files.newBufferedWriter(reportFile.toPath(), StandardCharsets.UTF_8)) {
+            if(FORMAT_SARIF.equals(format)) {
+                report.writeSARIF(writer);
+            }
+            else {
+                report.writeJSON(writer);
+            }
+        }
+        
+        logMessage(NLS.bind(Messages.ValidateModelProvider_7, new Object[] {
+                report.getErrorCount(), report.getWarningCount(), report.getAdviceCount(), reportFile.getPath() }));
+        
+        // Count the issues at or above the threshold level
+        int count = report.getErrorCount();
+        if(!ValidatorReport.LEVEL_ERROR.equals(failOn)) {
+            count += report.getWarningCount();
+        }
+        if(ValidatorReport.LEVEL_ADVICE.equals(failOn)) {
+            count += report.getAdviceCount();
+        }
+        
+        if(count > maxIssues) {
+            logError(NLS.bind(Messages.ValidateModelProvider_8, new Object[] { count, failOn, maxIssues }));
+            CommandLineState.setExitCode(EXIT_THRESHOLD_EXCEEDED);
+        }
+    }
+    
+    /**
+     * Create a preference store for the Validator from the Validator preferences and any command line options
+     * @return The store
+     * @throws IOException if an option is not valid
+     */
+    IPreferenceStore createPreferenceStore(CommandLine commandLine) throws IOException {
+        IPreferenceStore hammerStore = ArchiHammerPlugin.INSTANCE.getPreferenceStore();
+        PreferenceStore store = new PreferenceStore();
+        
+        // Checks to run
+        List<String> checks = null;
+        String value = commandLine.getOptionValue(OPTION_CHECKS);
+        if(StringUtils.isSet(value)) {
+            checks = Arrays.asList(value.split("\\s*,\\s*")); //$NON-NLS-1$
+            for(String check : checks) {
+                if(!CHECKS.containsKey(check)) {
+                    throw invalidOption(NLS.bind(Messages.ValidateModelProvider_9, check));
+                }
+            }
+        }
+        
+        for(Map.Entry<String, String> entry : CHECKS.entrySet()) {
+            String key = entry.getValue();
+            store.setValue(key, checks != null ? checks.contains(entry.getKey()) : hammerStore.getBoolean(key));
+        }
+        
+        store.setValue(IPreferenceConstants.PREFS_HAMMER_DUPLICATE_ELEMENTS_NORMALISE_NAMES, commandLine.hasOption(OPTION_NORMALISE_NAMES)
+                || hammerStore.getBoolean(IPreferenceConstants.PREFS_HAMMER_DUPLICATE_ELEMENTS_NORMALISE_NAMES));
+        
+        return store;
+    }
+    
+    /**
+     * Set the exit code for an option that is not valid so that a calling script can tell, as an exception alone is not
+     * reported in the exit code unless the "abortOnException" option is set
+     * @return The exception to throw
+     */
+    private IOException invalidOption(String message) {
+        CommandLineState.setExitCode(EXIT_INVALID_OPTION);
+        return new IOException(message);
+    }
+    
+    @Override
+    protected String getLogPrefix() {
+        return PREFIX;
+    }
+    
+    @Override
+    public int getPriority() {
+        return PRIORITY_REPORT_OR_EXPORT;
+    }
+    
+    @Override
+    public Options getOptions() {
+        Options options = new Options();
+        
+        Option option = Option.builder()
+                .longOpt(OPTION_REPORT)
+                .hasArg().argName(Messages.ValidateModelProvider_10)
+                .desc(Messages.ValidateModelProvider_11)
+                .build();
+        options.addOption(option);
+        
+        option = Option.builder()
+                .longOpt(OPTION_FORMAT)
+                .hasArg().argName(Messages.ValidateModelProvider_12)
+                .desc(Messages.ValidateModelProvider_13)
+                .build();
+        options.addOption(option);
+        
+        option = Option.builder()
+                .longOpt(OPTION_CHECKS)
+                .hasArg().argName(Messages.ValidateModelProvider_14)
+                .desc(NLS.bind(Messages.ValidateModelProvider_15, String.join(",", CHECKS.keySet()))) //$NON-NLS-1$
+                .build();
+        options.addOption(option);
+        
+        option = Option.builder()
+                .longOpt(OPTION_NORMALISE_NAMES)
+                .desc(Messages.ValidateModelProvider_16)
+                .build();
+        options.addOption(option);
+        
+        option = Option.builder()
+                .longOpt(OPTION_FAIL_ON)
+                .hasArg().argName(Messages.ValidateModelProvider_17)
+                .desc(Messages.ValidateModelProvider_18)
+                .build();
+        options.addOption(option);
+        
+        option = Option.builder()
+                .longOpt(OPTION_MAX_ISSUES)
+                .hasArg().argName(Messages.ValidateModelProvider_19)
+                .desc(Messages.ValidateModelProvider_20)
+                .build();
+        options.addOption(option);
+        
+        return options;
+    }
+    
+    private boolean hasCorrectOptions(CommandLine commandLine) {
+        return commandLine.hasOption(OPTION_REPORT);
+    }
+}
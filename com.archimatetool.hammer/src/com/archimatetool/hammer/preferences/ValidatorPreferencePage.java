@@ -42,6 +42,7 @@ implements IWorkbenchPreferencePage, IPreferenceConstants {
             PREFS_HAMMER_CHECK_UNUSED_RELATIONS, Messages.ValidatorPreferencePage_4,
             PREFS_HAMMER_CHECK_VIEWPOINT, Messages.ValidatorPreferencePage_5,
             PREFS_HAMMER_CHECK_DUPLICATE_ELEMENTS, Messages.ValidatorPreferencePage_7,
+            PREFS_HAMMER_DUPLICATE_ELEMENTS_NORMALISE_NAMES, Messages.ValidatorPreferencePage_9,
             PREFS_HAMMER_CHECK_JUNCTIONS, Messages.ValidatorPreferencePage_8
     };
     
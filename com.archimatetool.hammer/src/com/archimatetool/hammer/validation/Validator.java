@@ -6,12 +6,30 @@
 package com.archimatetool.hammer.validation;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
 import org.eclipse.jface.preference.IPreferenceStore;
 
+import com.archimatetool.editor.model.DiagramModelUtils;
 import com.archimatetool.hammer.ArchiHammerPlugin;
 import com.archimatetool.hammer.preferences.IPreferenceConstants;
 import com.archimatetool.hammer.validation.checkers.DuplicateElementChecker;
@@ -32,10 +50,15 @@ import com.archimatetool.hammer.validation.issues.IIssueCategory;
 import com.archimatetool.hammer.validation.issues.OKType;
 import com.archimatetool.hammer.validation.issues.WarningType;
 import com.archimatetool.hammer.validation.issues.WarningsCategory;
+import com.archimatetool.model.IArchimateConcept;
 import com.archimatetool.model.IArchimateDiagramModel;
 import com.archimatetool.model.IArchimateElement;
 import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IArchimateModelObject;
 import com.archimatetool.model.IArchimateRelationship;
+import com.archimatetool.model.IDiagramModel;
+import com.archimatetool.model.IDiagramModelArchimateComponent;
+import com.archimatetool.model.IDiagramModelComponent;
 
 
 /**
@@ -47,6 +70,8 @@ public class Validator {
     
     private IArchimateModel fModel;
     
+    private IPreferenceStore fPreferenceStore;
+    
     private List<IArchimateElement> fElements;
     private List<IArchimateRelationship> fRelations;
     private List<IArchimateDiagramModel> fViews;
@@ -54,16 +79,43 @@ public class Validator {
     private List<ErrorType> fErrorList;
     private List<WarningType> fWarningList;
     private List<AdviceType> fAdviceList;
+    
+    private Map<String, Long> fTimings;
+    
+    /**
+     * Issues found by each checker in the last validation, in checker order
+     */
+    private Map<Class<?>, List<IIssue>> fCheckerIssues;
 
     
     public Validator(IArchimateModel model) {
+        this(model, ArchiHammerPlugin.INSTANCE.getPreferenceStore());
+    }
+    
+    /**
+     * @param model The model to validate
+     * @param preferenceStore The preference store that has the settings of which checkers to run
+     */
+    public Validator(IArchimateModel model, IPreferenceStore preferenceStore) {
         fModel = model;
+        fPreferenceStore = preferenceStore;
     }
 
     /**
      * @return The list of Issue Categories and Issues
      */
     public List<Object> validate() {
+        return validate(null);
+    }
+    
+    /**
+     * Validate the model. The enabled checkers are run concurrently and their issues are merged in checker order.
+     * The checkers read the model on other threads so the model must not be changed until this returns.
+     * @param monitor Progress monitor that can be used to cancel validation, or null
+     * @return The list of Issue Categories and Issues
+     * @throws OperationCanceledException if the monitor was cancelled
+     */
+    public List<Object> validate(IProgressMonitor monitor) {
         if(fModel == null) {
             return null;
         }
@@ -88,82 +140,395 @@ public class Validator {
         }
         
         // Analyse
+        List<IChecker> checkers = createCheckers();
+        List<List<IIssue>> checkerIssues = runCheckers(checkers, monitor);
+        
+        fCheckerIssues = new LinkedHashMap<>();
+        for(int i = 0; i < checkers.size(); i++) {
+            fCheckerIssues.put(checkers.get(i).getClass(), checkerIssues.get(i));
+        }
+        
+        return createResult();
+    }
+    
+    /**
+     * Validate only the concepts and views affected by some changed objects and keep the issues found by the last validation
+     * for the rest of the model. If there was no last validation, or the enabled checkers have changed since, then the whole model is validated.
+     * @param changedObjects The objects that have changed since the last validation, as collected by {@link #collectChangedObjects(Notification, Set)}
+     * @param monitor Progress monitor that can be used to cancel validation, or null
+     * @return The list of Issue Categories and Issues
+     * @throws OperationCanceledException if the monitor was cancelled
+     */
+    public List<Object> validate(Set<EObject> changedObjects, IProgressMonitor monitor) {
+        if(fModel == null) {
+            return null;
+        }
+        
+        if(fCheckerIssues == null) {
+            return validate(monitor);
+        }
+        
+        // Concepts and views that need checking again
+        Set<IArchimateConcept> affectedConcepts = new HashSet<>();
+        Set<IArchimateDiagramModel> affectedViews = new HashSet<>();
+        getAffectedObjects(changedObjects, affectedConcepts, affectedViews);
+        
+        // Update the interesting objects
+        fElements.removeIf(element -> !isInModel(element));
+        fRelations.removeIf(relation -> !isInModel(relation));
+        fViews.removeIf(view -> !isInModel(view));
+        
+        Set<EObject> existing = new HashSet<>(fElements);
+        existing.addAll(fRelations);
+        existing.addAll(fViews);
+        
+        List<IArchimateElement> elements = new ArrayList<>();
+        List<IArchimateRelationship> relations = new ArrayList<>();
+        List<IArchimateDiagramModel> views = new ArrayList<>();
+        
+        for(IArchimateConcept concept : affectedConcepts) {
+            if(isInModel(concept)) {
+                if(concept instanceof IArchimateRelationship) {
+                    relations.add((IArchimateRelationship)concept);
+                    if(!existing.contains(concept)) {
+                        fRelations.add((IArchimateRelationship)concept);
+                    }
+                }
+                else if(concept instanceof IArchimateElement) {
+                    elements.add((IArchimateElement)concept);
+                    if(!existing.contains(concept)) {
+                        fElements.add((IArchimateElement)concept);
+                    }
+                }
+            }
+        }
+        
+        for(IArchimateDiagramModel view : affectedViews) {
+            if(isInModel(view)) {
+                views.add(view);
+                if(!existing.contains(view)) {
+                    fViews.add(view);
+                }
+            }
+        }
+        
+        // Check only the affected objects
+        List<IChecker> checkers = createCheckers(elements, relations, views);
+        
+        List<Class<?>> checkerClasses = new ArrayList<>();
+        for(IChecker checker : checkers) {
+            checkerClasses.add(checker.getClass());
+        }
+        
+        if(!checkerClasses.equals(new ArrayList<>(fCheckerIssues.keySet()))) {
+            return validate(monitor);
+        }
+        
+        List<List<IIssue>> checkerIssues = runCheckers(checkers, monitor);
+        
+        // Replace the issues for the affected objects
+        for(int i = 0; i < checkers.size(); i++) {
+            IChecker checker = checkers.get(i);
+            List<IIssue> issues = checkerIssues.get(i);
+            
+            if(!isWholeModelChecker(checker)) {
+                List<IIssue> previousIssues = new ArrayList<>(fCheckerIssues.get(checker.getClass()));
+                previousIssues.removeIf(issue -> isAffected(issue.getObject(), affectedConcepts, affectedViews));
+                previousIssues.addAll(issues);
+                issues = previousIssues;
+            }
+            
+            fCheckerIssues.put(checker.getClass(), issues);
+        }
+        
+        return createResult();
+    }
+    
+    /**
+     * Collect the objects changed by a model notification. These are the notifier and the objects added, removed or set in a reference,
+     * including the contents of contained objects
+     * @param msg The notification
+     * @param changedObjects The set to add the changed objects to
+     */
+    public static void collectChangedObjects(Notification msg, Set<EObject> changedObjects) {
+        if(msg.getNotifier() instanceof EObject) {
+            changedObjects.add((EObject)msg.getNotifier());
+        }
+        
+        if(msg.getFeature() instanceof EReference) {
+            boolean isContainment = ((EReference)msg.getFeature()).isContainment();
+            addChangedValue(msg.getOldValue(), isContainment, changedObjects);
+            addChangedValue(msg.getNewValue(), isContainment, changedObjects);
+        }
+    }
+    
+    private static void addChangedValue(Object value, boolean isContainment, Set<EObject> changedObjects) {
+        if(value instanceof Collection) {
+            for(Object object : (Collection<?>)value) {
+                addChangedValue(object, isContainment, changedObjects);
+            }
+        }
+        else if(value instanceof EObject) {
+            changedObjects.add((EObject)value);
+            
+            if(isContainment) {
+                for(Iterator<EObject> iter = ((EObject)value).eAllContents(); iter.hasNext();) {
+                    changedObjects.add(iter.next());
+                }
+            }
+        }
+    }
+    
+    /**
+     * Find the concepts and views whose issues could change because of the changed objects
+     */
+    private void getAffectedObjects(Set<EObject> changedObjects, Set<IArchimateConcept> concepts, Set<IArchimateDiagramModel> views) {
+        for(EObject eObject : changedObjects) {
+            // Find the nearest concept, view or diagram component that owns a changed object such as a property or bounds
+            while(eObject != null && !(eObject instanceof IArchimateConcept || eObject instanceof IDiagramModelComponent)) {
+                eObject = eObject.eContainer();
+            }
+            
+            if(eObject instanceof IArchimateConcept) {
+                addAffectedConcept((IArchimateConcept)eObject, concepts, views);
+            }
+            else if(eObject instanceof IDiagramModelComponent) {
+                IDiagramModel dm = ((IDiagramModelComponent)eObject).getDiagramModel();
+                if(dm instanceof IArchimateDiagramModel) {
+                    views.add((IArchimateDiagramModel)dm);
+                }
+                
+                // Adding or removing a diagram component changes whether its concept is used
+                if(eObject instanceof IDiagramModelArchimateComponent) {
+                    addAffectedConcept(((IDiagramModelArchimateComponent)eObject).getArchimateConcept(), concepts, views);
+                }
+            }
+        }
+    }
+    
+    private void addAffectedConcept(IArchimateConcept concept, Set<IArchimateConcept> concepts, Set<IArchimateDiagramModel> views) {
+        if(concept == null || !concepts.add(concept)) {
+            return;
+        }
+        
+        // Views that show the concept
+        for(IDiagramModel dm : DiagramModelUtils.findReferencedDiagramsForArchimateConcept(concept)) {
+            if(dm instanceof IArchimateDiagramModel) {
+                views.add((IArchimateDiagramModel)dm);
+            }
+        }
+        
+        // A relationship's ends, as junctions and nested elements are checked against their relationships
+        if(concept instanceof IArchimateRelationship) {
+            addAffectedConcept(((IArchimateRelationship)concept).getSource(), concepts, views);
+            addAffectedConcept(((IArchimateRelationship)concept).getTarget(), concepts, views);
+        }
+    }
+    
+    /**
+     * @return True if an issue's object is no longer in the model or is one of, or is in one of, the affected concepts and views
+     */
+    private boolean isAffected(Object object, Set<IArchimateConcept> concepts, Set<IArchimateDiagramModel> views) {
+        if(!(object instanceof EObject) || !isInModel((EObject)object)) {
+            return true;
+        }
+        
+        if(object instanceof IArchimateConcept) {
+            return concepts.contains(object);
+        }
+        
+        if(object instanceof IDiagramModelComponent) {
+            return views.contains(((IDiagramModelComponent)object).getDiagramModel());
+        }
+        
+        return false;
+    }
+    
+    private boolean isInModel(EObject eObject) {
+        return eObject instanceof IArchimateModelObject && ((IArchimateModelObject)eObject).getArchimateModel() == fModel;
+    }
+    
+    /**
+     * @return True if a checker's issues for an object depend on other objects anywhere in the model, so it always checks the whole model
+     */
+    private boolean isWholeModelChecker(IChecker checker) {
+        return checker instanceof DuplicateElementChecker;
+    }
+    
+    /**
+     * Run the checkers concurrently and return their issues in the same order as the checkers
+     */
+    private List<List<IIssue>> runCheckers(List<IChecker> checkers, IProgressMonitor monitor) {
+        if(monitor == null) {
+            monitor = new NullProgressMonitor();
+        }
+        
+        fTimings = new LinkedHashMap<>();
+        
+        monitor.beginTask("", checkers.size()); //$NON-NLS-1$
+        
+        List<ForkJoinTask<List<IIssue>>> tasks = new ArrayList<>();
+        Map<IChecker, Long> timings = new ConcurrentHashMap<>();
+        
+        // Cancelling a ForkJoinTask doesn't interrupt it so the checkers check this monitor and stop when it is cancelled
+        IProgressMonitor checkerMonitor = new NullProgressMonitor();
+        
+        for(IChecker checker : checkers) {
+            tasks.add(ForkJoinPool.commonPool().submit(() -> {
+                long start = System.nanoTime();
+                List<IIssue> issues = checker.getIssues(checkerMonitor);
+                timings.put(checker, (System.nanoTime() - start) / 1000000);
+                return issues;
+            }));
+        }
+        
+        List<List<IIssue>> result = new ArrayList<>();
+        
+        for(int i = 0; i < tasks.size(); i++) {
+            result.add(waitForTask(tasks, i, monitor, checkerMonitor));
+            monitor.worked(1);
+        }
+        
+        for(IChecker checker : checkers) {
+            fTimings.put(checker.getClass().getSimpleName(), timings.get(checker));
+        }
+        
+        monitor.done();
+        
+        return result;
+    }
+    
+    /**
+     * @return The list of Issue Categories and Issues from the current checker issues
+     */
+    private List<Object> createResult() {
         List<Object> result = new ArrayList<Object>();
         
         fErrorList = new ArrayList<ErrorType>();
         fWarningList = new ArrayList<WarningType>();
         fAdviceList = new ArrayList<AdviceType>();
         
-        // ------------------ Checkers -----------------------------
+        for(List<IIssue> issues : fCheckerIssues.values()) {
+            collectIssues(issues);
+        }
+        
+        if(!fErrorList.isEmpty()) {
+            IIssueCategory category = new ErrorsCategory(fErrorList);
+            result.add(category);
+        }
+
+        if(!fWarningList.isEmpty()) {
+            IIssueCategory category = new WarningsCategory(fWarningList);
+            result.add(category);
+        }
+        
+        if(!fAdviceList.isEmpty()) {
+            IIssueCategory category = new AdviceCategory(fAdviceList);
+            result.add(category);
+        }
+
+        if(result.isEmpty()) {
+            result.add(new OKType());
+        }
+        
+        return result;
+    }
+    
+    /**
+     * @return The enabled checkers in the order that their issues are reported
+     */
+    List<IChecker> createCheckers() {
+        return createCheckers(getArchimateElements(), getArchimateRelationships(), getArchimateViews());
+    }
+    
+    /**
+     * @return The enabled checkers for the given objects in the order that their issues are reported.
+     *         The duplicate elements checker always checks all elements.
+     */
+    List<IChecker> createCheckers(List<IArchimateElement> elements, List<IArchimateRelationship> relations, List<IArchimateDiagramModel> views) {
+        List<IChecker> checkers = new ArrayList<>();
         
-        IPreferenceStore store = ArchiHammerPlugin.INSTANCE.getPreferenceStore();
+        IPreferenceStore store = fPreferenceStore;
         
         // Invalid Relations
         if(store.getBoolean(IPreferenceConstants.PREFS_HAMMER_CHECK_INVALID_RELATIONS)) {
-            collectIssues(new InvalidRelationsChecker(getArchimateRelationships()));
+            checkers.add(new InvalidRelationsChecker(relations));
         }
         
         // Unused Elements
         if(store.getBoolean(IPreferenceConstants.PREFS_HAMMER_CHECK_UNUSED_ELEMENTS)) {
-            collectIssues(new UnusedElementsChecker(getArchimateElements()));
+            checkers.add(new UnusedElementsChecker(elements));
         }
         
         // Unused Relations
         if(store.getBoolean(IPreferenceConstants.PREFS_HAMMER_CHECK_UNUSED_RELATIONS)) {
-            collectIssues(new UnusedRelationsChecker(getArchimateRelationships()));
+            checkers.add(new UnusedRelationsChecker(relations));
         }
         
         // Empty Views
         if(store.getBoolean(IPreferenceConstants.PREFS_HAMMER_CHECK_EMPTY_VIEWS)) {
-            collectIssues(new EmptyViewsChecker(getArchimateViews()));
+            checkers.add(new EmptyViewsChecker(views));
         }
         
         // Components in wrong Viewpoints
         if(store.getBoolean(IPreferenceConstants.PREFS_HAMMER_CHECK_VIEWPOINT)) {
-            collectIssues(new ViewpointChecker(getArchimateViews()));
+            checkers.add(new ViewpointChecker(views));
         }
         
         // Nested elements
         if(store.getBoolean(IPreferenceConstants.PREFS_HAMMER_CHECK_NESTING)) {
-            collectIssues(new NestedElementsChecker(getArchimateViews()));
+            checkers.add(new NestedElementsChecker(views));
         }
 
         // Possible Duplicates
         if(store.getBoolean(IPreferenceConstants.PREFS_HAMMER_CHECK_DUPLICATE_ELEMENTS)) {
-            collectIssues(new DuplicateElementChecker(getArchimateElements()));
+            checkers.add(new DuplicateElementChecker(getArchimateElements(),
+                    store.getBoolean(IPreferenceConstants.PREFS_HAMMER_DUPLICATE_ELEMENTS_NORMALISE_NAMES)));
         }
         
         // Junctions
         if(store.getBoolean(IPreferenceConstants.PREFS_HAMMER_CHECK_JUNCTIONS)) {
-            collectIssues(new JunctionsChecker(getArchimateElements()));
-        }
-
-        // ----------------------------------------------------------
-
-        if(!fErrorList.isEmpty()) {
-            IIssueCategory category = new ErrorsCategory(fErrorList);
-            result.add(category);
-        }
-
-        if(!fWarningList.isEmpty()) {
-            IIssueCategory category = new WarningsCategory(fWarningList);
-            result.add(category);
+            checkers.add(new JunctionsChecker(elements));
         }
         
-        if(!fAdviceList.isEmpty()) {
-            IIssueCategory category = new AdviceCategory(fAdviceList);
-            result.add(category);
-        }
-
-        if(result.isEmpty()) {
-            result.add(new OKType());
+        return checkers;
+    }
+    
+    /**
+     * Wait for a checker task to complete, checking for cancellation while waiting
+     */
+    private List<IIssue> waitForTask(List<ForkJoinTask<List<IIssue>>> tasks, int index, IProgressMonitor monitor, IProgressMonitor checkerMonitor) {
+        while(true) {
+            if(monitor.isCanceled()) {
+                checkerMonitor.setCanceled(true);
+                for(ForkJoinTask<List<IIssue>> task : tasks) {
+                    task.cancel(true);
+                }
+                throw new OperationCanceledException();
+            }
+            
+            try {
+                return tasks.get(index).get(100, TimeUnit.MILLISECONDS);
+            }
+            catch(TimeoutException ex) {
+                // Check for cancel and wait again
+            }
+            catch(InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new OperationCanceledException();
+            }
+            catch(ExecutionException ex) {
+                throw new RuntimeException(ex.getCause());
+            }
         }
-        
-        return result;
     }
     
     void collectIssues(IChecker checker) {
-        for(IIssue issue : checker.getIssues()) {
+        collectIssues(checker.getIssues());
+    }
+    
+    void collectIssues(List<IIssue> issues) {
+        for(IIssue issue : issues) {
             if(issue instanceof ErrorType) {
                 fErrorList.add((ErrorType)issue);
             }
@@ -176,6 +541,28 @@ public class Validator {
         }
     }
     
+    /**
+     * @return The issues found by each checker in the last validation in checker order, keyed by checker class name
+     */
+    public Map<String, List<IIssue>> getCheckerIssues() {
+        Map<String, List<IIssue>> map = new LinkedHashMap<>();
+        
+        if(fCheckerIssues != null) {
+            for(Entry<Class<?>, List<IIssue>> entry : fCheckerIssues.entrySet()) {
+                map.put(entry.getKey().getSimpleName(), entry.getValue());
+            }
+        }
+        
+        return map;
+    }
+    
+    /**
+     * @return The time taken in milliseconds by each checker in the last validation, keyed by checker class name
+     */
+    public Map<String, Long> getTimings() {
+        return fTimings;
+    }
+    
     public IArchimateModel getModel() {
         return fModel;
     }
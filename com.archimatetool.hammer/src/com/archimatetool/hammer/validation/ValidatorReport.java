@@ -0,0 +1,393 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.hammer.validation;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.eclipse.emf.ecore.EObject;
+
+import com.archimatetool.editor.ui.ArchiLabelProvider;
+import com.archimatetool.hammer.validation.issues.AdviceType;
+import com.archimatetool.hammer.validation.issues.ErrorType;
+import com.archimatetool.hammer.validation.issues.IIssue;
+import com.archimatetool.hammer.validation.issues.WarningType;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IDiagramModel;
+import com.archimatetool.model.IDiagramModelComponent;
+import com.archimatetool.model.IIdentifier;
+
+
+/**
+ * Writes the issues found by the last validation of a Validator as JSON,
+ * or as SARIF (Static Analysis Results Interchange Format) so that the results can be read by CI servers and code scanning tools.
+ */
+@SuppressWarnings("nls")
+public class ValidatorReport {
+
+    public static final String SARIF_VERSION = "2.1.0";
+    public static final String SARIF_SCHEMA = "https://json.schemastore.org/sarif-2.1.0.json";
+    
+    static final String TOOL_NAME = "Archi Validator";
+    static final String TOOL_URI = "https://www.archimatetool.com";
+    
+    public static final String LEVEL_ERROR = "error";
+    public static final String LEVEL_WARNING = "warning";
+    public static final String LEVEL_ADVICE = "advice";
+    
+    private IArchimateModel fModel;
+    private Map<String, List<IIssue>> fCheckerIssues;
+    
+    /**
+     * @param validator The Validator. It should have been run with validate()
+     */
+    public ValidatorReport(Validator validator) {
+        fModel = validator.getModel();
+        fCheckerIssues = validator.getCheckerIssues();
+    }
+    
+    public int getErrorCount() {
+        return getIssueCount(ErrorType.class);
+    }
+    
+    public int getWarningCount() {
+        return getIssueCount(WarningType.class);
+    }
+    
+    public int getAdviceCount() {
+        return getIssueCount(AdviceType.class);
+    }
+    
+    private int getIssueCount(Class<? extends IIssue> type) {
+        int count = 0;
+        
+        for(List<IIssue> issues : fCheckerIssues.values()) {
+            for(IIssue issue : issues) {
+                if(type.isInstance(issue)) {
+                    count++;
+                }
+            }
+        }
+        
+        return count;
+    }
+    
+    /**
+     * @return The level of an issue, one of "error", "warning" or "advice"
+     */
+    public static String getLevel(IIssue issue) {
+        if(issue instanceof ErrorType) {
+            return LEVEL_ERROR;
+        }
+        if(issue instanceof WarningType) {
+            return LEVEL_WARNING;
+        }
+        return LEVEL_ADVICE;
+    }
+    
+    /**
+     * Write the issues as JSON
+     */
+    public void writeJSON(Writer writer) throws IOException {
+        JSONWriter json = new JSONWriter(writer);
+        
+        json.beginObject();
+        json.name("model").value(fModel.getName());
+        json.name("file").value(fModel.getFile() != null ? fModel.getFile().getPath() : null);
+        json.name("errors").value(getErrorCount());
+        json.name("warnings").value(getWarningCount());
+        json.name("advice").value(getAdviceCount());
+        
+        json.name("issues").beginArray();
+        
+        for(Entry<String, List<IIssue>> entry : fCheckerIssues.entrySet()) {
+            for(IIssue issue : entry.getValue()) {
+                json.beginObject();
+                json.name("level").value(getLevel(issue));
+                json.name("checker").value(entry.getKey());
+                json.name("name").value(issue.getName());
+                json.name("description").value(issue.getDescription());
+                json.name("explanation").value(issue.getExplanation());
+                
+                if(issue.getObject() instanceof EObject) {
+                    json.name("object");
+                    writeObject(json, (EObject)issue.getObject());
+                }
+                
+                json.endObject();
+            }
+        }
+        
+        json.endArray();
+        json.endObject();
+        json.flush();
+    }
+    
+    /**
+     * Write the issues as a SARIF log with one run. Each checker is a rule.
+     */
+    public void writeSARIF(Writer writer) throws IOException {
+        JSONWriter json = new JSONWriter(writer);
+        
+        json.beginObject();
+        json.name("$schema").value(SARIF_SCHEMA);
+        json.name("version").value(SARIF_VERSION);
+        
+        json.name("runs").beginArray();
+        json.beginObject();
+        
+        // Tool and rules
+        List<String> ruleIds = new ArrayList<>();
+        
+        json.name("tool").beginObject();
+        json.name("driver").beginObject();
+        json.name("name").value(TOOL_NAME);
+        json.name("informationUri").value(TOOL_URI);
+        json.name("rules").beginArray();
+        
+        for(Entry<String, List<IIssue>> entry : fCheckerIssues.entrySet()) {
+            if(!entry.getValue().isEmpty()) {
+                IIssue issue = entry.getValue().get(0);
+                ruleIds.add(entry.getKey());
+                
+                json.beginObject();
+                json.name("id").value(entry.getKey());
+                json.name("name").value(issue.getName());
+                json.name("shortDescription").beginObject().name("text").value(issue.getName()).endObject();
+                json.name("defaultConfiguration").beginObject().name("level").value(getSARIFLevel(issue)).endObject();
+                json.endObject();
+            }
+        }
+        
+        json.endArray();
+        json.endObject();
+        json.endObject();
+        
+        // Results
+        json.name("results").beginArray();
+        
+        for(Entry<String, List<IIssue>> entry : fCheckerIssues.entrySet()) {
+            for(IIssue issue : entry.getValue()) {
+                json.beginObject();
+                json.name("ruleId").value(entry.getKey());
+                json.name("ruleIndex").value(ruleIds.indexOf(entry.getKey()));
+                json.name("level").value(getSARIFLevel(issue));
+                json.name("message").beginObject().name("text").value(issue.getDescription()).endObject();
+                
+                json.name("locations").beginArray();
+                json.beginObject();
+                
+                if(fModel.getFile() != null) {
+                    json.name("physicalLocation").beginObject();
+                    json.name("artifactLocation").beginObject().name("uri").value(fModel.getFile().toURI().toString()).endObject();
+                    json.endObject();
+                }
+                
+                if(issue.getObject() instanceof EObject) {
+                    EObject eObject = (EObject)issue.getObject();
+                    json.name("logicalLocations").beginArray();
+                    json.beginObject();
+                    json.name("name").value(ArchiLabelProvider.INSTANCE.getLabel(eObject));
+                    json.name("fullyQualifiedName").value(getQualifiedName(eObject));
+                    json.name("kind").value(eObject.eClass().getName());
+                    json.endObject();
+                    json.endArray();
+                }
+                
+                json.endObject();
+                json.endArray();
+                
+                json.endObject();
+            }
+        }
+        
+        json.endArray();
+        
+        json.endObject();
+        json.endArray();
+        
+        json.endObject();
+        json.flush();
+    }
+    
+    private String getSARIFLevel(IIssue issue) {
+        String level = getLevel(issue);
+        return LEVEL_ADVICE.equals(level) ? "note" : level;
+    }
+    
+    /**
+     * @return The object's ID, prefixed with the ID of its view if it is in a view
+     */
+    private String getQualifiedName(EObject eObject) {
+        String id = eObject instanceof IIdentifier ? ((IIdentifier)eObject).getId() : eObject.eClass().getName();
+        
+        if(eObject instanceof IDiagramModelComponent && !(eObject instanceof IDiagramModel)) {
+            IDiagramModel dm = ((IDiagramModelComponent)eObject).getDiagramModel();
+            if(dm != null) {
+                return dm.getId() + "/" + id;
+            }
+        }
+        
+        return id;
+    }
+    
+    private void writeObject(JSONWriter json, EObject eObject) throws IOException {
+        json.beginObject();
+        json.name("id").value(eObject instanceof IIdentifier ? ((IIdentifier)eObject).getId() : null);
+        json.name("name").value(ArchiLabelProvider.INSTANCE.getLabel(eObject));
+        json.name("type").value(eObject.eClass().getName());
+        
+        if(eObject instanceof IDiagramModelComponent && !(eObject instanceof IDiagramModel)) {
+            IDiagramModel dm = ((IDiagramModelComponent)eObject).getDiagramModel();
+            if(dm != null) {
+                json.name("view");
+                writeObject(json, dm);
+            }
+        }
+        
+        json.endObject();
+    }
+    
+    /**
+     * Minimal indenting JSON writer
+     */
+    private static class JSONWriter {
+        private Writer writer;
+        private int depth;
+        private boolean first = true;
+        private boolean afterName;
+        
+        JSONWriter(Writer writer) {
+            this.writer = writer;
+        }
+        
+        JSONWriter beginObject() throws IOException {
+            return begin('{');
+        }
+        
+        JSONWriter endObject() throws IOException {
+            return end('}');
+        }
+        
+        JSONWriter beginArray() throws IOException {
+            return begin('[');
+        }
+        
+        JSONWriter endArray() throws IOException {
+            return end(']');
+        }
+        
+        JSONWriter name(String name) throws IOException {
+            separate();
+            writeString(name);
+            writer.write(": ");
+            afterName = true;
+            return this;
+        }
+        
+        JSONWriter value(String value) throws IOException {
+            separate();
+            if(value == null) {
+                writer.write("null");
+            }
+            else {
+                writeString(value);
+            }
+            return this;
+        }
+        
+        JSONWriter value(long value) throws IOException {
+            separate();
+            writer.write(Long.toString(value));
+            return this;
+        }
+        
+        void flush() throws IOException {
+            writer.write(System.lineSeparator());
+            writer.flush();
+        }
+        
+        private JSONWriter begin(char c) throws IOException {
+            separate();
+            writer.write(c);
+            depth++;
+            first = true;
+            return this;
+        }
+        
+        private JSONWriter end(char c) throws IOException {
+            depth--;
+            if(!first) {
+                newLine();
+            }
+            writer.write(c);
+            first = false;
+            return this;
+        }
+        
+        private void separate() throws IOException {
+            if(afterName) {
+                afterName = false;
+                return;
+            }
+            
+            if(!first) {
+                writer.write(',');
+            }
+            
+            if(depth > 0) {
+                newLine();
+            }
+            
+            first = false;
+        }
+        
+        private void newLine() throws IOException {
+            writer.write(System.lineSeparator());
+            for(int i = 0; i < depth; i++) {
+                writer.write("  ");
+            }
+        }
+        
+        private void writeString(String s) throws IOException {
+            writer.write('"');
+            
+            for(int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch(c) {
+                    case '"':
+                        writer.write("\\\"");
+                        break;
+                    case '\\':
+                        writer.write("\\\\");
+                        break;
+                    case '\n':
+                        writer.write("\\n");
+                        break;
+                    case '\r':
+                        writer.write("\\r");
+                        break;
+                    case '\t':
+                        writer.write("\\t");
+                        break;
+                    default:
+                        if(c < 0x20) {
+                            writer.write(String.format("\\u%04x", (int)c));
+                        }
+                        else {
+                            writer.write(c);
+                        }
+                }
+            }
+            
+            writer.write('"');
+        }
+    }
+}
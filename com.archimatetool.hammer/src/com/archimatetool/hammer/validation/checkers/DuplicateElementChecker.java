@@ -6,10 +6,15 @@
 package com.archimatetool.hammer.validation.checkers;
 
 import java.util.ArrayList;
-import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Locale;
+import java.util.Map;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.emf.ecore.EClass;
 import org.eclipse.osgi.util.NLS;
 
 import com.archimatetool.editor.ui.ArchiLabelProvider;
@@ -32,53 +37,111 @@ public class DuplicateElementChecker implements IChecker {
     final String EXPLANATION = Messages.DuplicateElementChecker_2;
     
     private List<IArchimateElement> fArchimateElements;
+    private boolean fNormaliseNames;
     
     public DuplicateElementChecker(List<IArchimateElement> archimateElements) {
+        this(archimateElements, false);
+    }
+
+    /**
+     * @param archimateElements The elements to check
+     * @param normaliseNames If true names are compared ignoring case, whitespace and punctuation
+     */
+    public DuplicateElementChecker(List<IArchimateElement> archimateElements, boolean normaliseNames) {
         fArchimateElements = archimateElements;
+        fNormaliseNames = normaliseNames;
     }
 
     @Override
     public List<IIssue> getIssues() {
-        return findDuplicateNamesElements();
+        return getIssues(new NullProgressMonitor());
+    }
+    
+    @Override
+    public List<IIssue> getIssues(IProgressMonitor monitor) {
+        return findDuplicateNamesElements(monitor);
     }
     
-    List<IIssue> findDuplicateNamesElements() {
+    List<IIssue> findDuplicateNamesElements(IProgressMonitor monitor) {
         List<IIssue> issues = new ArrayList<IIssue>();
         
-        Set<IArchimateElement> dupes = new LinkedHashSet<IArchimateElement>();
+        // Group elements by type and name in one pass. Groups are kept in the order that they are first found.
+        Map<DuplicateKey, List<IArchimateElement>> groups = new LinkedHashMap<>();
         
-        for(int i = 0; i < fArchimateElements.size(); i++) {
-            for(int j = i + 1; j < fArchimateElements.size(); j++) {
-                IArchimateElement element1 = fArchimateElements.get(i);
-                IArchimateElement element2 = fArchimateElements.get(j);
-                if(isDuplicate(element1, element2)) {
-                    dupes.add(element1);
-                    dupes.add(element2);
-                }
+        for(IArchimateElement element : fArchimateElements) {
+            if(monitor.isCanceled()) {
+                throw new OperationCanceledException();
+            }
+            
+            // Ignore Junctions as these tend to just be called "Junction" or may well have a common name like "Or" or "And"
+            if(element.eClass() == IArchimatePackage.eINSTANCE.getJunction()) {
+                continue;
             }
+            
+            DuplicateKey key = new DuplicateKey(element.eClass(), getKeyName(element));
+            groups.computeIfAbsent(key, k -> new ArrayList<>(2)).add(element);
         }
         
-        for(IArchimateElement element : dupes) {
-            String description = NLS.bind(DESCRIPTION, new Object[] { element.getName(),
-                    ArchiLabelProvider.INSTANCE.getDefaultName(element.eClass()) });
+        for(List<IArchimateElement> group : groups.values()) {
+            if(group.size() > 1) {
+                for(IArchimateElement element : group) {
+                    String description = NLS.bind(DESCRIPTION, new Object[] { element.getName(),
+                            ArchiLabelProvider.INSTANCE.getDefaultName(element.eClass()) });
 
-            IIssue issue = new WarningType(NAME, description, EXPLANATION, element);
-            issues.add(issue);
+                    IIssue issue = new WarningType(NAME, description, EXPLANATION, element);
+                    issues.add(issue);
+                }
+            }
         }
         
         return issues;
     }
     
-    private boolean isDuplicate(IArchimateElement element1, IArchimateElement element2) {
-        // Ignore Junctions as these tend to just be called "Junction" or may well have a common name like "Or" or "And"
-        if(element1.eClass() == IArchimatePackage.eINSTANCE.getJunction() &&
-                element2.eClass() == IArchimatePackage.eINSTANCE.getJunction()) {
-            return false;
+    private String getKeyName(IArchimateElement element) {
+        String name = StringUtils.safeString(element.getName());
+        return fNormaliseNames ? normaliseName(name) : name;
+    }
+    
+    /**
+     * @return name in lower case with whitespace and punctuation removed
+     */
+    static String normaliseName(String name) {
+        StringBuilder sb = new StringBuilder(name.length());
+        
+        name.toLowerCase(Locale.ROOT).codePoints()
+                                     .filter(Character::isLetterOrDigit)
+                                     .forEach(sb::appendCodePoint);
+        
+        return sb.toString();
+    }
+    
+    /**
+     * Key of element type and name
+     */
+    private static class DuplicateKey {
+        private EClass eClass;
+        private String name;
+        
+        DuplicateKey(EClass eClass, String name) {
+            this.eClass = eClass;
+            this.name = name;
         }
         
-        String name1 = StringUtils.safeString(element1.getName());
-        String name2 = StringUtils.safeString(element2.getName());
+        @Override
+        public boolean equals(Object obj) {
+            if(this == obj) {
+                return true;
+            }
+            if(!(obj instanceof DuplicateKey)) {
+                return false;
+            }
+            DuplicateKey other = (DuplicateKey)obj;
+            return eClass == other.eClass && name.equals(other.name);
+        }
         
-        return name1.equals(name2) && (element1.eClass() == element2.eClass());
+        @Override
+        public int hashCode() {
+            return 31 * eClass.hashCode() + name.hashCode();
+        }
     }
 }
@@ -8,6 +8,9 @@ package com.archimatetool.hammer.validation.checkers;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.osgi.util.NLS;
 
 import com.archimatetool.editor.ui.ArchiLabelProvider;
@@ -36,14 +39,23 @@ public class EmptyViewsChecker implements IChecker {
 
     @Override
     public List<IIssue> getIssues() {
-        return findEmptyViews();
+        return getIssues(new NullProgressMonitor());
+    }
+    
+    @Override
+    public List<IIssue> getIssues(IProgressMonitor monitor) {
+        return findEmptyViews(monitor);
     }
     
     // Empty Views
-    List<IIssue> findEmptyViews() {
+    List<IIssue> findEmptyViews(IProgressMonitor monitor) {
         List<IIssue> issues = new ArrayList<IIssue>();
         
         for(IArchimateDiagramModel view : fViews) {
+            if(monitor.isCanceled()) {
+                throw new OperationCanceledException();
+            }
+            
             if(view.getChildren().isEmpty()) {
                 String viewName = ArchiLabelProvider.INSTANCE.getLabel(view);
                 String description = NLS.bind(fDescription, viewName);
@@ -7,6 +7,8 @@ package com.archimatetool.hammer.validation.checkers;
 
 import java.util.List;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+
 import com.archimatetool.hammer.validation.issues.IIssue;
 
 
@@ -18,4 +20,14 @@ import com.archimatetool.hammer.validation.issues.IIssue;
  */
 public interface IChecker {
     List<IIssue> getIssues();
+    
+    /**
+     * Get the issues, checking the monitor for cancellation while checking
+     * @param monitor The monitor to check for cancellation
+     * @return The issues
+     * @throws org.eclipse.core.runtime.OperationCanceledException if the monitor was cancelled
+     */
+    default List<IIssue> getIssues(IProgressMonitor monitor) {
+        return getIssues();
+    }
 }
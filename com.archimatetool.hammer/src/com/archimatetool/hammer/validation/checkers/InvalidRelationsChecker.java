@@ -8,6 +8,9 @@ package com.archimatetool.hammer.validation.checkers;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.osgi.util.NLS;
 
 import com.archimatetool.editor.ui.ArchiLabelProvider;
@@ -37,14 +40,23 @@ public class InvalidRelationsChecker implements IChecker {
 
     @Override
     public List<IIssue> getIssues() {
-        return findInvalidRelations();
+        return getIssues(new NullProgressMonitor());
+    }
+    
+    @Override
+    public List<IIssue> getIssues(IProgressMonitor monitor) {
+        return findInvalidRelations(monitor);
     }
     
     // Invalid Relations
-    List<IIssue> findInvalidRelations() {
+    List<IIssue> findInvalidRelations(IProgressMonitor monitor) {
         List<IIssue> issues = new ArrayList<IIssue>();
         
         for(IArchimateRelationship relation : fRelations) {
+            if(monitor.isCanceled()) {
+                throw new OperationCanceledException();
+            }
+            
             boolean valid = ArchimateModelUtils.isValidRelationship(relation.getSource(), relation.getTarget(), relation.eClass());
             if(!valid) {
                 String className = ArchiLabelProvider.INSTANCE.getDefaultName(relation.eClass());
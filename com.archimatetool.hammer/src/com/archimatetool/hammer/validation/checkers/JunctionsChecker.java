@@ -8,6 +8,9 @@ package com.archimatetool.hammer.validation.checkers;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.osgi.util.NLS;
 
 import com.archimatetool.editor.ui.ArchiLabelProvider;
@@ -38,13 +41,22 @@ public class JunctionsChecker implements IChecker {
 
     @Override
     public List<IIssue> getIssues() {
-        return findBogusJunctions();
+        return getIssues(new NullProgressMonitor());
     }
     
-    List<IIssue> findBogusJunctions() {
+    @Override
+    public List<IIssue> getIssues(IProgressMonitor monitor) {
+        return findBogusJunctions(monitor);
+    }
+    
+    List<IIssue> findBogusJunctions(IProgressMonitor monitor) {
         List<IIssue> issues = new ArrayList<IIssue>();
         
         for(IArchimateElement element : fArchimateElements) {
+            if(monitor.isCanceled()) {
+                throw new OperationCanceledException();
+            }
+            
             if(element instanceof IJunction) {
                 
                 IArchimateRelationship rel = null;
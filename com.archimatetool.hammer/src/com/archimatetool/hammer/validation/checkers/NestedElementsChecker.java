@@ -9,6 +9,9 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.osgi.util.NLS;
 
@@ -49,15 +52,24 @@ public class NestedElementsChecker implements IChecker {
 
     @Override
     public List<IIssue> getIssues() {
-        return findWrongNestedElements();
+        return getIssues(new NullProgressMonitor());
+    }
+    
+    @Override
+    public List<IIssue> getIssues(IProgressMonitor monitor) {
+        return findWrongNestedElements(monitor);
     }
     
     // Nested diagram elements without correct relationships
-    List<IIssue> findWrongNestedElements() {
+    List<IIssue> findWrongNestedElements(IProgressMonitor monitor) {
         List<IIssue> issues = new ArrayList<IIssue>();
         
         for(IArchimateDiagramModel dm : fViews) {
             for(Iterator<EObject> iter = dm.eAllContents(); iter.hasNext();) {
+                if(monitor.isCanceled()) {
+                    throw new OperationCanceledException();
+                }
+                
                 EObject eObject = iter.next();
                 
                 if(eObject instanceof IDiagramModelArchimateObject) {
@@ -8,6 +8,9 @@ package com.archimatetool.hammer.validation.checkers;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.osgi.util.NLS;
 
 import com.archimatetool.editor.model.DiagramModelUtils;
@@ -37,13 +40,22 @@ public class UnusedElementsChecker implements IChecker {
 
     @Override
     public List<IIssue> getIssues() {
-        return findUnusedElements();
+        return getIssues(new NullProgressMonitor());
     }
     
-    List<IIssue> findUnusedElements() {
+    @Override
+    public List<IIssue> getIssues(IProgressMonitor monitor) {
+        return findUnusedElements(monitor);
+    }
+    
+    List<IIssue> findUnusedElements(IProgressMonitor monitor) {
         List<IIssue> issues = new ArrayList<IIssue>();
         
         for(IArchimateElement element : fArchimateElements) {
+            if(monitor.isCanceled()) {
+                throw new OperationCanceledException();
+            }
+            
             if(!DiagramModelUtils.isArchimateConceptReferencedInDiagrams(element)) {
                 String name = ArchiLabelProvider.INSTANCE.getLabel(element);
                 String description = NLS.bind(DESCRIPTION, name);
@@ -8,6 +8,9 @@ package com.archimatetool.hammer.validation.checkers;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.osgi.util.NLS;
 
 import com.archimatetool.editor.model.DiagramModelUtils;
@@ -37,13 +40,22 @@ public class UnusedRelationsChecker implements IChecker {
 
     @Override
     public List<IIssue> getIssues() {
-        return findUnusedRelations();
+        return getIssues(new NullProgressMonitor());
     }
     
-    List<IIssue> findUnusedRelations() {
+    @Override
+    public List<IIssue> getIssues(IProgressMonitor monitor) {
+        return findUnusedRelations(monitor);
+    }
+    
+    List<IIssue> findUnusedRelations(IProgressMonitor monitor) {
         List<IIssue> issues = new ArrayList<IIssue>();
         
         for(IArchimateRelationship relation : fRelations) {
+            if(monitor.isCanceled()) {
+                throw new OperationCanceledException();
+            }
+            
             if(!DiagramModelUtils.isArchimateConceptReferencedInDiagrams(relation)) {
                 String name = ArchiLabelProvider.INSTANCE.getLabel(relation);
                 String description = NLS.bind(DESCRIPTION, name);
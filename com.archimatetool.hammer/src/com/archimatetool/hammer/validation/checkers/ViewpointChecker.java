@@ -9,6 +9,9 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.osgi.util.NLS;
 
@@ -43,10 +46,15 @@ public class ViewpointChecker implements IChecker {
 
     @Override
     public List<IIssue> getIssues() {
-        return findComponentsInWrongViewpoints();
+        return getIssues(new NullProgressMonitor());
+    }
+    
+    @Override
+    public List<IIssue> getIssues(IProgressMonitor monitor) {
+        return findComponentsInWrongViewpoints(monitor);
     }
 
-    List<IIssue> findComponentsInWrongViewpoints() {
+    List<IIssue> findComponentsInWrongViewpoints(IProgressMonitor monitor) {
         List<IIssue> issues = new ArrayList<IIssue>();
         
         for(IArchimateDiagramModel dm : fViews) {
@@ -54,6 +62,10 @@ public class ViewpointChecker implements IChecker {
             IViewpoint viewPoint = ViewpointManager.INSTANCE.getViewpoint(id);
             
             for(Iterator<EObject> iter = dm.eAllContents(); iter.hasNext();) {
+                if(monitor.isCanceled()) {
+                    throw new OperationCanceledException();
+                }
+                
                 EObject eObject = iter.next();
                 
                 if(eObject instanceof IDiagramModelArchimateObject) {
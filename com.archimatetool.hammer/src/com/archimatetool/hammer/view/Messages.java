@@ -18,6 +18,12 @@ public class Messages extends NLS {
 
     public static String ValidatorView_4;
 
+    public static String ValidatorView_5;
+
+    public static String ValidatorView_6;
+
+    public static String ValidatorView_7;
+
     public static String ValidatorViewer_0;
 
     public static String ValidatorViewer_1;
@@ -7,9 +7,18 @@ package com.archimatetool.hammer.view;
 
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.ProgressMonitorWrapper;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.EObject;
 import org.eclipse.help.HelpSystem;
 import org.eclipse.help.IContext;
 import org.eclipse.help.IContextProvider;
@@ -20,6 +29,7 @@ import org.eclipse.jface.action.IMenuManager;
 import org.eclipse.jface.action.IToolBarManager;
 import org.eclipse.jface.action.MenuManager;
 import org.eclipse.jface.action.Separator;
+import org.eclipse.jface.dialogs.ProgressMonitorDialog;
 import org.eclipse.jface.layout.TreeColumnLayout;
 import org.eclipse.jface.preference.PreferenceDialog;
 import org.eclipse.jface.resource.ImageDescriptor;
@@ -31,6 +41,7 @@ import org.eclipse.jface.viewers.ISelectionChangedListener;
 import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.jface.viewers.SelectionChangedEvent;
 import org.eclipse.jface.viewers.StructuredSelection;
+import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.BusyIndicator;
 import org.eclipse.swt.layout.GridData;
@@ -49,6 +60,7 @@ import org.eclipse.ui.views.properties.tabbed.ITabbedPropertySheetPageContributo
 import org.eclipse.ui.views.properties.tabbed.TabbedPropertySheetPage;
 
 import com.archimatetool.editor.ArchiPlugin;
+import com.archimatetool.editor.Logger;
 import com.archimatetool.editor.diagram.IDiagramModelEditor;
 import com.archimatetool.editor.model.IEditorModelManager;
 import com.archimatetool.editor.ui.ArchiLabelProvider;
@@ -56,12 +68,15 @@ import com.archimatetool.editor.ui.services.EditorManager;
 import com.archimatetool.editor.ui.services.ViewManager;
 import com.archimatetool.editor.utils.PlatformUtils;
 import com.archimatetool.editor.views.tree.ITreeModelView;
+import com.archimatetool.hammer.ArchiHammerPlugin;
 import com.archimatetool.hammer.IHammerImages;
+import com.archimatetool.hammer.preferences.IPreferenceConstants;
 import com.archimatetool.hammer.validation.Validator;
 import com.archimatetool.hammer.validation.issues.IIssue;
 import com.archimatetool.help.hints.IHintsView;
 import com.archimatetool.model.IArchimateConcept;
 import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IArchimateModelObject;
 import com.archimatetool.model.IDiagramModel;
 import com.archimatetool.model.IDiagramModelComponent;
 
@@ -80,9 +95,20 @@ implements IValidatorView, ISelectionListener, IContextProvider, ITabbedProperty
     private IAction fActionExplain;
     private IAction fActionSelectObjects;
     private IAction fActionShowPreferences;
+    private IAction fActionLiveValidation;
     
     private IArchimateModel fModel;
     
+    /**
+     * The last validation, kept so that it can be updated in live validation
+     */
+    private Validator fValidator;
+    
+    /**
+     * Objects changed in the last validated model since it was last validated
+     */
+    private Set<EObject> fChangedObjects = new HashSet<>();
+    
     public ValidatorView() {
     }
 
@@ -208,6 +234,17 @@ implements IValidatorView, ISelectionListener, IContextProvider, ITabbedProperty
                 return getText();
             }
         };
+        
+        fActionLiveValidation = new Action(Messages.ValidatorView_7, IAction.AS_CHECK_BOX) {
+            @Override
+            public void run() {
+                ArchiHammerPlugin.INSTANCE.getPreferenceStore().setValue(IPreferenceConstants.PREFS_HAMMER_LIVE_VALIDATION, isChecked());
+                if(isChecked() && fModel != null) {
+                    validateModel();
+                }
+            }
+        };
+        fActionLiveValidation.setChecked(isLiveValidation());
     }
 
     /**
@@ -228,6 +265,8 @@ implements IValidatorView, ISelectionListener, IContextProvider, ITabbedProperty
         manager.add(fActionExplain);
         
         final IMenuManager menuManager = bars.getMenuManager();
+        menuManager.add(fActionLiveValidation);
+        menuManager.add(new Separator());
         menuManager.add(fActionShowPreferences); 
     }
     
@@ -347,18 +386,97 @@ implements IValidatorView, ISelectionListener, IContextProvider, ITabbedProperty
     
     @Override
     public void validateModel() {
+        updateStatusBar();
+        
+        IArchimateModel model = fModel;
+        Validator validator = new Validator(model);
+        List<List<Object>> result = new ArrayList<>(1);
+        long start = System.currentTimeMillis();
+        
+        // The checkers read the model on other threads so validate in a modal progress dialog in this thread
+        // so that the model can't be edited while they run. If cancelled the previous results are kept
+        try {
+            ProgressMonitorDialog dialog = new ProgressMonitorDialog(getSite().getShell());
+            dialog.run(false, true, monitor -> {
+                monitor.setTaskName(Messages.ValidatorView_5);
+                try {
+                    result.add(validator.validate(new ProgressMonitorWrapper(monitor) {
+                        @Override
+                        public boolean isCanceled() {
+                            // Let the dialog's Cancel button be pressed while waiting for the checkers
+                            while(Display.getCurrent().readAndDispatch());
+                            return super.isCanceled();
+                        }
+                    }));
+                }
+                catch(OperationCanceledException ex) {
+                    throw new InterruptedException();
+                }
+            });
+        }
+        catch(InterruptedException ex) {
+            return;
+        }
+        catch(InvocationTargetException ex) {
+            Logger.logError("Error validating model", ex.getCause()); //$NON-NLS-1$
+            return;
+        }
+        
+        fViewer.setInput(result.get(0));
+        fViewer.expandAll();
+        
+        fValidator = model != null ? validator : null;
+        fChangedObjects.clear();
+        
+        if(model != null) {
+            updateStatusBar(model, System.currentTimeMillis() - start, validator.getTimings());
+        }
+    }
+    
+    /**
+     * Validate only the objects that have changed since the last validation
+     */
+    private void validateChanges() {
         BusyIndicator.showWhile(null, new Runnable() {
             @Override
             public void run() {
-                updateStatusBar();
-                Validator validator = new Validator(fModel);
-                List<Object> result = validator.validate();
+                long start = System.currentTimeMillis();
+                
+                List<Object> result = fValidator.validate(fChangedObjects, null);
+                fChangedObjects.clear();
+                
                 fViewer.setInput(result);
                 fViewer.expandAll();
+                
+                updateStatusBar(fValidator.getModel(), System.currentTimeMillis() - start, fValidator.getTimings());
             }
         });
     }
     
+    private boolean isLiveValidation() {
+        return ArchiHammerPlugin.INSTANCE.getPreferenceStore().getBoolean(IPreferenceConstants.PREFS_HAMMER_LIVE_VALIDATION);
+    }
+    
+    /**
+     * Show the time taken by validation and its slowest checker in the status bar
+     */
+    private void updateStatusBar(IArchimateModel model, long elapsed, Map<String, Long> timings) {
+        String slowest = null;
+        
+        for(Entry<String, Long> entry : timings.entrySet()) {
+            if(slowest == null || entry.getValue() > timings.get(slowest)) {
+                slowest = entry.getKey();
+            }
+        }
+        
+        String message = ArchiLabelProvider.INSTANCE.getLabel(model);
+        if(slowest != null) {
+            message += " - " + NLS.bind(Messages.ValidatorView_6, new Object[] { elapsed, slowest, timings.get(slowest) }); //$NON-NLS-1$
+        }
+        
+        getViewSite().getActionBars().getStatusLineManager().setMessage(ArchiLabelProvider.INSTANCE.getImage(model), message);
+    }
+    
     private void updateStatusBar() {
         if(fModel != null) {
             getViewSite().getActionBars().getStatusLineManager().setMessage(ArchiLabelProvider.INSTANCE.getImage(fModel),
@@ -427,6 +545,26 @@ implements IValidatorView, ISelectionListener, IContextProvider, ITabbedProperty
                 fViewer.setInput(null);
                 fActionValidate.setEnabled(false);
             }
+            if(fValidator != null && fValidator.getModel() == newValue) {
+                fValidator = null;
+                fChangedObjects.clear();
+            }
+        }
+        
+        // Live validation. Collect the objects changed in the last validated model and validate them when the command completes
+        else if(propertyName == IEditorModelManager.PROPERTY_ECORE_EVENT) {
+            if(fValidator != null && isLiveValidation()) {
+                Notification msg = (Notification)newValue;
+                if(msg.getNotifier() instanceof IArchimateModelObject
+                        && ((IArchimateModelObject)msg.getNotifier()).getArchimateModel() == fValidator.getModel()) {
+                    Validator.collectChangedObjects(msg, fChangedObjects);
+                }
+            }
+        }
+        else if(propertyName == IEditorModelManager.COMMAND_STACK_CHANGED) {
+            if(fValidator != null && evt.getSource() == fValidator.getModel() && !fChangedObjects.isEmpty() && isLiveValidation()) {
+                validateChanges();
+            }
         }
     }
 
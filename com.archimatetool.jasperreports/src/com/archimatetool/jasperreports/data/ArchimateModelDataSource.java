@@ -80,7 +80,7 @@ public class ArchimateModelDataSource implements JRDataSource, IPropertiesDataSo
      * @return The element, or null if not found
      */
     public Object getElementByID(String id) {
-        return ArchimateModelUtils.getObjectByID(fModel, id);
+        return fModel.getObjectByID(id);
     }
 
     @Override
@@ -194,6 +194,14 @@ public interface IArchimateModel extends IFolderContainer, IArchimateModelObject
      */
     boolean removeModelContentListener(IModelContentListener listener);
     
+    /**
+     * Get an object in this model given its ID.
+     * This is backed by an index which is created on first use and then kept up to date as the model changes
+     * @param id The ID of the object to search for
+     * @return The matching EObject in the model or null if not found
+     */
+    EObject getObjectByID(String id);
+    
     /**
      * Dispose of this model to free memory
      */
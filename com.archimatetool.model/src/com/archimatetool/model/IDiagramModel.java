@@ -5,6 +5,7 @@
  */
 package com.archimatetool.model;
 
+import java.util.List;
 
 /**
  * <!-- begin-user-doc -->
@@ -33,6 +34,11 @@ public interface IDiagramModel extends IArchimateModelObject, IDiagramModelConta
     // int CONNECTION_ROUTER_SHORTEST_PATH = 1;
     
     int CONNECTION_ROUTER_MANHATTAN = 2;
+    
+    /**
+     * @return A list of diagram model references in this diagram model's model that reference this diagram model
+     */
+    List<IDiagramModelReference> getReferencingDiagramModelReferences();
 
     /**
      * Returns the value of the '<em><b>Connection Router Type</b></em>' attribute.
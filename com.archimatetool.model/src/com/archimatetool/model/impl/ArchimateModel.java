@@ -9,9 +9,11 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.common.notify.NotificationChain;
@@ -19,6 +21,7 @@ import org.eclipse.emf.common.util.BasicEList;
 import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
 import org.eclipse.emf.ecore.InternalEObject;
 import org.eclipse.emf.ecore.impl.ENotificationImpl;
 import org.eclipse.emf.ecore.impl.EObjectImpl;
@@ -218,6 +221,18 @@ public class ArchimateModel extends EObjectImpl implements IArchimateModel {
      */
     private List<IModelContentListener> fContentListeners = new ArrayList<IModelContentListener>();
     
+    /**
+     * ID -> EObject index. Created on the first call to getObjectByID() and then kept up to date by eContentAdapter.
+     * This is volatile as it can be created from a thread other than the UI thread, such as when validating the model.
+     */
+    private volatile Map<String, EObject> fIDIndex;
+    
+    /**
+     * IDs that more than one object was found with, as in imported or corrupt models. Only the first object found is in the ID index
+     * so if that object is removed the model is searched for another object with the same ID.
+     */
+    private Set<String> fDuplicateIDs;
+    
     /**
      * One central EContentAdapter to listen to all model changes and forward on to listeners
      */
@@ -231,6 +246,11 @@ public class ArchimateModel extends EObjectImpl implements IArchimateModel {
                 return;
             }
             
+            // Keep the ID index in sync (this includes undo and redo)
+            if(fIDIndex != null) {
+                updateIDIndex(notification);
+            }
+            
             // Notify model listeners
             if(fContentListeners != null) {
                 for(IModelContentListener listener : new ArrayList<>(fContentListeners)) {
@@ -273,6 +293,184 @@ public class ArchimateModel extends EObjectImpl implements IArchimateModel {
         return fContentListeners.remove(listener);
     }
     
+    @Override
+    public EObject getObjectByID(String id) {
+        if(id == null || fContentListeners == null) { // we might be disposed
+            return null;
+        }
+        
+        if(id.equals(getId())) {
+            return this;
+        }
+        
+        Map<String, EObject> index = fIDIndex;
+        if(index == null) {
+            index = createIDIndex();
+        }
+        
+        return index.get(id);
+    }
+    
+    /**
+     * Create the ID index with one iteration of the model's contents and attach the content adapter to keep it up to date.
+     * This is synchronized so that the index is only created once if more than one thread looks up an ID at the same time,
+     * and the index is only set when it is complete.
+     */
+    private synchronized Map<String, EObject> createIDIndex() {
+        if(fIDIndex == null) {
+            Map<String, EObject> index = new HashMap<>();
+            fDuplicateIDs = new HashSet<>();
+            
+            for(Iterator<EObject> iter = eAllContents(); iter.hasNext();) {
+                addToIDIndex(index, iter.next());
+            }
+            
+            if(!eAdapters().contains(eContentAdapter)) {
+                eAdapters().add(eContentAdapter);
+            }
+            
+            fIDIndex = index;
+        }
+        
+        return fIDIndex;
+    }
+    
+    /**
+     * Update the ID index from a notification
+     */
+    private void updateIDIndex(Notification notification) {
+        Object feature = notification.getFeature();
+        
+        // ID changed on a child object
+        if(feature == IArchimatePackage.Literals.IDENTIFIER__ID) {
+            if(notification.getNotifier() != this) {
+                EObject eObject = (EObject)notification.getNotifier();
+                String oldID = notification.getOldStringValue();
+                if(oldID != null) {
+                    removeFromIDIndex(oldID, eObject);
+                }
+                String newID = notification.getNewStringValue();
+                if(newID != null) {
+                    addToIDIndex(fIDIndex, newID, eObject);
+                }
+            }
+            return;
+        }
+        
+        // Only interested in containment changes
+        if(!(feature instanceof EReference && ((EReference)feature).isContainment())) {
+            return;
+        }
+        
+        switch(notification.getEventType()) {
+            case Notification.ADD:
+            case Notification.ADD_MANY:
+                addTreeToIDIndex(notification.getNewValue());
+                break;
+
+            case Notification.REMOVE:
+            case Notification.REMOVE_MANY:
+            case Notification.UNSET:
+                removeTreeFromIDIndex(notification.getOldValue());
+                break;
+
+            case Notification.SET:
+                removeTreeFromIDIndex(notification.getOldValue());
+                addTreeToIDIndex(notification.getNewValue());
+                break;
+
+            default:
+                break;
+        }
+    }
+    
+    /**
+     * Add an EObject, or Collection of EObjects, and all child objects to the ID index
+     */
+    private void addTreeToIDIndex(Object value) {
+        if(value instanceof Collection<?>) {
+            for(Object o : (Collection<?>)value) {
+                addTreeToIDIndex(o);
+            }
+        }
+        else if(value instanceof EObject) {
+            addToIDIndex(fIDIndex, (EObject)value);
+            for(Iterator<EObject> iter = ((EObject)value).eAllContents(); iter.hasNext();) {
+                addToIDIndex(fIDIndex, iter.next());
+            }
+        }
+    }
+    
+    /**
+     * Remove an EObject, or Collection of EObjects, and all child objects from the ID index
+     */
+    private void removeTreeFromIDIndex(Object value) {
+        if(value instanceof Collection<?>) {
+            for(Object o : (Collection<?>)value) {
+                removeTreeFromIDIndex(o);
+            }
+        }
+        else if(value instanceof EObject) {
+            removeFromIDIndex((EObject)value);
+            for(Iterator<EObject> iter = ((EObject)value).eAllContents(); iter.hasNext();) {
+                removeFromIDIndex(iter.next());
+            }
+        }
+    }
+    
+    private void addToIDIndex(Map<String, EObject> index, EObject eObject) {
+        if(eObject instanceof IIdentifier) {
+            String id = ((IIdentifier)eObject).getId();
+            if(id != null) {
+                addToIDIndex(index, id, eObject);
+            }
+        }
+    }
+    
+    private void addToIDIndex(Map<String, EObject> index, String id, EObject eObject) {
+        // If there are duplicate IDs the first one found wins
+        EObject existing = index.putIfAbsent(id, eObject);
+        if(existing != null && existing != eObject) {
+            fDuplicateIDs.add(id);
+        }
+    }
+    
+    private void removeFromIDIndex(EObject eObject) {
+        if(eObject instanceof IIdentifier) {
+            String id = ((IIdentifier)eObject).getId();
+            if(id != null) {
+                removeFromIDIndex(id, eObject);
+            }
+        }
+    }
+    
+    private void removeFromIDIndex(String id, EObject eObject) {
+        if(fIDIndex.remove(id, eObject) && fDuplicateIDs.contains(id)) {
+            // Another object in the model might have the same ID so that is found now
+            EObject other = findObjectByID(id);
+            if(other != null) {
+                fIDIndex.put(id, other);
+            }
+            else {
+                fDuplicateIDs.remove(id);
+            }
+        }
+    }
+    
+    /**
+     * @return The first object in the model's contents with the given ID, or null
+     */
+    private EObject findObjectByID(String id) {
+        for(Iterator<EObject> iter = eAllContents(); iter.hasNext();) {
+            EObject eObject = iter.next();
+            if(eObject instanceof IIdentifier && id.equals(((IIdentifier)eObject).getId())) {
+                return eObject;
+            }
+        }
+        
+        return null;
+    }
+    
     /**
      * <!-- begin-user-doc -->
      * <!-- end-user-doc -->
@@ -936,6 +1134,12 @@ public class ArchimateModel extends EObjectImpl implements IArchimateModel {
         fContentListeners.clear();
         fContentListeners = null;
         
+        if(fIDIndex != null) {
+            fIDIndex.clear();
+            fIDIndex = null;
+            fDuplicateIDs = null;
+        }
+        
         // Dispose of these in case they are referenced in an editor or similar
         for(IDiagramModel dm : getDiagramModels()) {
             dm.getProperties().clear();
@@ -6,9 +6,13 @@
  */
 package com.archimatetool.model.impl;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.common.notify.NotificationChain;
@@ -31,6 +35,7 @@ import com.archimatetool.model.IDiagramModel;
 import com.archimatetool.model.IDiagramModelComponent;
 import com.archimatetool.model.IDiagramModelContainer;
 import com.archimatetool.model.IDiagramModelObject;
+import com.archimatetool.model.IDiagramModelReference;
 import com.archimatetool.model.IDocumentable;
 import com.archimatetool.model.IFeature;
 import com.archimatetool.model.IFeatures;
@@ -62,6 +67,13 @@ import com.archimatetool.model.util.UUIDFactory;
  * @generated
  */
 public abstract class DiagramModel extends EObjectImpl implements IDiagramModel {
+    
+    /**
+     * Stored references to Diagram Model References
+     * Some of these may be orphaned so this is not an accurate list of live diagram model references
+     */
+    Set<IDiagramModelReference> diagramModelReferences = new HashSet<>();
+    
     /**
      * The default value of the '{@link #getName() <em>Name</em>}' attribute.
      * <!-- begin-user-doc -->
@@ -242,6 +254,28 @@ public abstract class DiagramModel extends EObjectImpl implements IDiagramModel
         }
         return ((IArchimateModelObject)eContainer()).getArchimateModel();
     }
+    
+    /*
+     * If an *ancestor* of a reference is deleted, or its diagram model, but not the direct parent,
+     * the reference will not be removed from the stored references,
+     * so we check that the reference's top model ancestor is the same model as this one.
+     */
+    @Override
+    public List<IDiagramModelReference> getReferencingDiagramModelReferences() {
+        List<IDiagramModelReference> list = new ArrayList<>();
+        
+        IArchimateModel model = getArchimateModel();
+        
+        if(model != null) {
+            for(IDiagramModelReference ref : diagramModelReferences) {
+                if(ref.getArchimateModel() == model) {
+                    list.add(ref);
+                }
+            }
+        }
+        
+        return list;
+    }
 
     /**
      * <!-- begin-user-doc -->
@@ -6,7 +6,9 @@
 package com.archimatetool.model.impl;
 
 import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.NotificationChain;
 import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.InternalEObject;
 import org.eclipse.emf.ecore.impl.ENotificationImpl;
 
 import com.archimatetool.model.IArchimatePackage;
@@ -112,15 +114,44 @@ public class DiagramModelReference extends DiagramModelObject implements IDiagra
     /**
      * <!-- begin-user-doc -->
      * <!-- end-user-doc -->
-     * @generated
+     * @generated NOT
      */
     @Override
     public void setReferencedModel(IDiagramModel newReferencedModel) {
         IDiagramModel oldReferencedModel = referencedModel;
+        
+        // If we already have a diagram model we *must* remove this from its referenced list first
+        if(oldReferencedModel instanceof DiagramModel) {
+            ((DiagramModel)oldReferencedModel).diagramModelReferences.remove(this);
+        }
+        
         referencedModel = newReferencedModel;
+        
+        if(referencedModel instanceof DiagramModel) {
+            ((DiagramModel)referencedModel).diagramModelReferences.add(this);
+        }
+        
         if (eNotificationRequired())
             eNotify(new ENotificationImpl(this, Notification.SET, IArchimatePackage.DIAGRAM_MODEL_REFERENCE__REFERENCED_MODEL, oldReferencedModel, referencedModel));
     }
+    
+    @Override
+    public NotificationChain eInverseAdd(InternalEObject otherEnd, int featureID, Class<?> baseClass, NotificationChain msgs) {
+        // Re-Add a reference to this in the Diagram Model
+        if(referencedModel instanceof DiagramModel) {
+            ((DiagramModel)referencedModel).diagramModelReferences.add(this);
+        }
+        return super.eInverseAdd(otherEnd, featureID, baseClass, msgs);
+    }
+    
+    @Override
+    public NotificationChain eInverseRemove(InternalEObject otherEnd, int featureID, Class<?> baseClass, NotificationChain msgs) {
+        // Remove the reference to this in the Diagram Model
+        if(referencedModel instanceof DiagramModel) {
+            ((DiagramModel)referencedModel).diagramModelReferences.remove(this);
+        }
+        return super.eInverseRemove(otherEnd, featureID, baseClass, msgs);
+    }
 
     @Override
     public String getName() {
@@ -8,7 +8,6 @@ package com.archimatetool.model.util;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
@@ -19,7 +18,6 @@ import com.archimatetool.model.IArchimateConcept;
 import com.archimatetool.model.IArchimateModel;
 import com.archimatetool.model.IArchimatePackage;
 import com.archimatetool.model.IArchimateRelationship;
-import com.archimatetool.model.IIdentifier;
 import com.archimatetool.model.IJunction;
 
 
@@ -190,19 +188,7 @@ public class ArchimateModelUtils {
             return null;
         }
         
-        if(id.equals(model.getId())) {
-            return model;
-        }
-        
-        // This is an expensive iteration!
-        for(Iterator<EObject> iter = model.eAllContents(); iter.hasNext();) {
-            EObject element = iter.next();
-            if(element instanceof IIdentifier && id.equals(((IIdentifier)element).getId())) {
-                return element;
-            }
-        }
-
-        return null;
+        return model.getObjectByID(id);
     }
 
     
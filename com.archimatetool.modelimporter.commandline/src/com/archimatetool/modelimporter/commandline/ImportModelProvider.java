@@ -7,6 +7,9 @@ package com.archimatetool.modelimporter.commandline;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Option;
@@ -17,6 +20,8 @@ import com.archimatetool.commandline.AbstractCommandLineProvider;
 import com.archimatetool.commandline.CommandLineState;
 import com.archimatetool.editor.utils.StringUtils;
 import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.modelimporter.ModelChange.Kind;
+import com.archimatetool.modelimporter.ModelChangeSet;
 import com.archimatetool.modelimporter.ModelImporter;
 
 /**
@@ -28,6 +33,10 @@ import com.archimatetool.modelimporter.ModelImporter;
    --createEmptyModel
    --importModel "mymodel.archimate" --importModel.update --importModel.updateAll
  * 
+ * To write the changes between the models to a file instead of importing:
+ * 
+   --importModel "mymodel.archimate" --importModel.diff "changes.txt"
+ * 
  * @author Phillip Beauvoir
  */
 public class ImportModelProvider extends AbstractCommandLineProvider {
@@ -37,6 +46,7 @@ public class ImportModelProvider extends AbstractCommandLineProvider {
     static final String OPTION_IMPORT_MODEL = "importModel"; //$NON-NLS-1$
     static final String OPTION_UPDATE = "importModel.update"; //$NON-NLS-1$
     static final String OPTION_UPDATE_ALL = "importModel.updateAll"; //$NON-NLS-1$
+    static final String OPTION_DIFF = "importModel.diff"; //$NON-NLS-1$
     
     public ImportModelProvider() {
     }
@@ -66,6 +76,12 @@ public class ImportModelProvider extends AbstractCommandLineProvider {
             return;
         }
 
+        // Compare only
+        if(commandLine.hasOption(OPTION_DIFF)) {
+            writeChanges(modelFile, model, commandLine.getOptionValue(OPTION_DIFF));
+            return;
+        }
+
         boolean update = commandLine.hasOption(OPTION_UPDATE);
         boolean updateAll = commandLine.hasOption(OPTION_UPDATE_ALL);
         
@@ -78,6 +94,30 @@ public class ImportModelProvider extends AbstractCommandLineProvider {
         logMessage(Messages.ImportModelProvider_4);
     }
     
+    private void writeChanges(File modelFile, IArchimateModel model, String reportPath) throws IOException {
+        ModelChangeSet changeSet = new ModelImporter().compare(modelFile, model);
+        
+        logMessage(NLS.bind(Messages.ImportModelProvider_9, new Object[] { changeSet.getObjectCount(), changeSet.getTime(),
+                changeSet.getChanges(Kind.ADDED).size(), changeSet.getChanges(Kind.REMOVED).size(),
+                changeSet.getChanges(Kind.MODIFIED).size(), changeSet.getChanges(Kind.MOVED).size() }));
+        
+        if(!StringUtils.isSet(reportPath)) {
+            return;
+        }
+        
+        File reportFile = new File(reportPath);
+        File parent = reportFile.getAbsoluteFile().getParentFile();
+        if(parent != null) {
+            parent.mkdirs();
+        }
+        
+        try(Writer writer = Files.newBufferedWriter(reportFile.toPath(), StandardCharsets.UTF_8)) {
+            changeSet.write(writer);
+        }
+        
+        logMessage(NLS.bind(Messages.ImportModelProvider_10, reportFile.getPath()));
+    }
+    
     @Override
     public Options getOptions() {
         Options options = new Options();
@@ -103,6 +143,16 @@ public class ImportModelProvider extends AbstractCommandLineProvider {
                 .desc(Messages.ImportModelProvider_8)
                 .build();
         options.addOption(option);
+        
+        // Compare only option
+        option = Option.builder()
+                .longOpt(OPTION_DIFF)
+                .hasArg()
+                .optionalArg(true)
+                .argName(Messages.ImportModelProvider_11)
+                .desc(Messages.ImportModelProvider_12)
+                .build();
+        options.addOption(option);
 
         return options;
     }
@@ -23,6 +23,14 @@ public class Messages extends NLS {
     public static String ImportModelProvider_7;
 
     public static String ImportModelProvider_8;
+
+    public static String ImportModelProvider_9;
+
+    public static String ImportModelProvider_10;
+
+    public static String ImportModelProvider_11;
+
+    public static String ImportModelProvider_12;
     static {
         // initialize resource bundle
         NLS.initializeMessages(BUNDLE_NAME, Messages.class);
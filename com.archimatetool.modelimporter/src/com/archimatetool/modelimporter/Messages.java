@@ -62,6 +62,14 @@ public class Messages extends NLS {
 
     public static String ModelImporter_6;
 
+    public static String ModelImporter_7;
+
+    public static String ModelImporter_8;
+
+    public static String ModelImporter_9;
+
+    public static String ModelImporter_10;
+
     public static String StatusDialog_0;
 
     public static String StatusDialog_1;
@@ -0,0 +1,129 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.modelimporter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.archimatetool.model.IIdentifier;
+
+
+/**
+ * A change to one object found by ModelDiff
+ */
+public class ModelChange {
+    
+    public enum Kind {
+        /**
+         * The object is in the other model but not in the base model
+         */
+        ADDED,
+        
+        /**
+         * The object is in the base model but not in the other model
+         */
+        REMOVED,
+        
+        /**
+         * The object's values are different. The field changes say which
+         */
+        MODIFIED,
+        
+        /**
+         * The object has a different parent. The one field change is the old and new parent ID
+         */
+        MOVED
+    }
+    
+    /**
+     * The old and new value of one feature of a modified object
+     */
+    public static class FieldChange {
+        private String name;
+        private Object oldValue, newValue;
+        
+        FieldChange(String name, Object oldValue, Object newValue) {
+            this.name = name;
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+        }
+        
+        /**
+         * @return The name of the feature
+         */
+        public String getName() {
+            return name;
+        }
+        
+        /**
+         * @return The value in the base model. References to other objects are given as their IDs
+         */
+        public Object getOldValue() {
+            return oldValue;
+        }
+        
+        /**
+         * @return The value in the other model. References to other objects are given as their IDs
+         */
+        public Object getNewValue() {
+            return newValue;
+        }
+    }
+    
+    private Kind kind;
+    private IIdentifier baseObject, otherObject;
+    private List<FieldChange> fieldChanges;
+    
+    ModelChange(Kind kind, IIdentifier baseObject, IIdentifier otherObject) {
+        this.kind = kind;
+        this.baseObject = baseObject;
+        this.otherObject = otherObject;
+    }
+    
+    void addFieldChange(String name, Object oldValue, Object newValue) {
+        if(fieldChanges == null) {
+            fieldChanges = new ArrayList<>();
+        }
+        fieldChanges.add(new FieldChange(name, oldValue, newValue));
+    }
+    
+    public Kind getKind() {
+        return kind;
+    }
+    
+    public String getId() {
+        return getObject().getId();
+    }
+    
+    /**
+     * @return The object in the base model, or null if it was added
+     */
+    public IIdentifier getBaseObject() {
+        return baseObject;
+    }
+    
+    /**
+     * @return The object in the other model, or null if it was removed
+     */
+    public IIdentifier getOtherObject() {
+        return otherObject;
+    }
+    
+    /**
+     * @return The object in the other model, or the object in the base model if it was removed
+     */
+    public IIdentifier getObject() {
+        return otherObject != null ? otherObject : baseObject;
+    }
+    
+    /**
+     * @return The field changes of a modified or moved object. Empty for an added or removed object
+     */
+    public List<FieldChange> getFieldChanges() {
+        return fieldChanges != null ? Collections.unmodifiableList(fieldChanges) : Collections.emptyList();
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.modelimporter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.eclipse.emf.ecore.EObject;
+
+import com.archimatetool.editor.ui.ArchiLabelProvider;
+import com.archimatetool.model.IBounds;
+import com.archimatetool.model.IFeature;
+import com.archimatetool.model.IIdentifier;
+import com.archimatetool.model.IProperty;
+import com.archimatetool.modelimporter.ModelChange.FieldChange;
+import com.archimatetool.modelimporter.ModelChange.Kind;
+
+
+/**
+ * The changes between two models found by ModelDiff
+ */
+@SuppressWarnings("nls")
+public class ModelChangeSet {
+    
+    private List<ModelChange> changes = new ArrayList<>();
+    private int objectCount;
+    private long time;
+    
+    ModelChangeSet() {
+    }
+    
+    void add(ModelChange change) {
+        changes.add(change);
+    }
+    
+    void setObjectCount(int objectCount) {
+        this.objectCount = objectCount;
+    }
+    
+    void setTime(long time) {
+        this.time = time;
+    }
+    
+    /**
+     * @return All changes. Added, modified and moved objects are in the order of the other model followed by removed objects in the order of the base model
+     */
+    public List<ModelChange> getChanges() {
+        return Collections.unmodifiableList(changes);
+    }
+    
+    /**
+     * @return The changes of the given kind
+     */
+    public List<ModelChange> getChanges(Kind kind) {
+        return changes.stream()
+                      .filter(change -> change.getKind() == kind)
+                      .collect(Collectors.toList());
+    }
+    
+    /**
+     * @return The change of the given kind for the object with the given ID, or null if there is none
+     */
+    public ModelChange getChange(String id, Kind kind) {
+        for(ModelChange change : changes) {
+            if(change.getKind() == kind && change.getId().equals(id)) {
+                return change;
+            }
+        }
+        return null;
+    }
+    
+    public int size() {
+        return changes.size();
+    }
+    
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+    
+    /**
+     * @return The number of objects with an ID in the base model, including the base model itself
+     */
+    public int getObjectCount() {
+        return objectCount;
+    }
+    
+    /**
+     * @return The time taken to compare the models in milliseconds
+     */
+    public long getTime() {
+        return time;
+    }
+    
+    /**
+     * Write the changes as text, one line for each change followed by a line for each field change
+     */
+    public void write(Writer writer) throws IOException {
+        String newLine = System.lineSeparator();
+        
+        for(ModelChange change : changes) {
+            IIdentifier object = change.getObject();
+            
+            writer.write(change.getKind() + " " + ArchiLabelProvider.INSTANCE.getDefaultName(object.eClass())
+                    + " '" + ArchiLabelProvider.INSTANCE.getLabel(object) + "' (" + object.getId() + ")" + newLine);
+            
+            for(FieldChange fieldChange : change.getFieldChanges()) {
+                writer.write("    " + fieldChange.getName() + ": " + valueToString(fieldChange.getOldValue())
+                        + " -> " + valueToString(fieldChange.getNewValue()) + newLine);
+            }
+        }
+        
+        writer.flush();
+    }
+    
+    private String valueToString(Object value) {
+        if(value instanceof List) {
+            return ((List<?>)value).stream()
+                                   .map(this::valueToString)
+                                   .collect(Collectors.joining(", ", "[", "]"));
+        }
+        
+        if(value instanceof IProperty) {
+            return ((IProperty)value).getKey() + "=" + ((IProperty)value).getValue();
+        }
+        
+        if(value instanceof IFeature) {
+            return ((IFeature)value).getName() + "=" + ((IFeature)value).getValue();
+        }
+        
+        if(value instanceof IBounds) {
+            IBounds bounds = (IBounds)value;
+            return bounds.getX() + "," + bounds.getY() + "," + bounds.getWidth() + "," + bounds.getHeight();
+        }
+        
+        if(value instanceof EObject) {
+            return ((EObject)value).eClass().getName();
+        }
+        
+        if(value instanceof String) {
+            return "'" + value + "'";
+        }
+        
+        return String.valueOf(value);
+    }
+    
+    @Override
+    public String toString() {
+        return "ModelChangeSet: " + getChanges(Kind.ADDED).size() + " added, " + getChanges(Kind.REMOVED).size() + " removed, "
+                + getChanges(Kind.MODIFIED).size() + " modified, " + getChanges(Kind.MOVED).size() + " moved";
+    }
+}
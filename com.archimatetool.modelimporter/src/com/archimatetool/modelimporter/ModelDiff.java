@@ -0,0 +1,263 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.modelimporter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import com.archimatetool.model.FolderType;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IArchimatePackage;
+import com.archimatetool.model.IFolder;
+import com.archimatetool.model.IIdentifier;
+import com.archimatetool.modelimporter.ModelChange.Kind;
+
+
+/**
+ * Compares two models and returns the changes from a base model to another model.
+ * 
+ * The two models are paired with each other and their top-level folders are paired by folder type, as the models
+ * and their top-level folders have different IDs unless one model is a copy of the other. All other objects are matched by ID.
+ * Each model is walked once and the base model's objects are kept in a map, so the time taken grows in line with the size of the models.
+ * 
+ * An object is MODIFIED if any of its attributes, properties, features, bounds or references to other objects differ.
+ * An object is MOVED if its parent is not paired with the parent of the matching object in the base model. Child objects that have an ID, such as the elements in a folder or
+ * the children of a view, are compared as objects in their own right and not as a change to their parent.
+ */
+public class ModelDiff {
+    
+    private IArchimateModel baseModel;
+    private IArchimateModel otherModel;
+    
+    /**
+     * @param baseModel The model to compare from
+     * @param otherModel The model to compare to
+     */
+    public ModelDiff(IArchimateModel baseModel, IArchimateModel otherModel) {
+        this.baseModel = baseModel;
+        this.otherModel = otherModel;
+    }
+    
+    /**
+     * Compare the models
+     * @return The changes from the base model to the other model
+     */
+    public ModelChangeSet compare() {
+        long startTime = System.currentTimeMillis();
+        
+        ModelChangeSet changeSet = new ModelChangeSet();
+        
+        Map<String, IIdentifier> baseObjects = createIndex(baseModel);
+        
+        // Objects in the other model and their matching objects in the base model
+        Map<EObject, IIdentifier> pairs = createRootPairs();
+        Set<IIdentifier> matchedBaseObjects = new HashSet<>(pairs.values());
+        
+        // Added, modified and moved
+        for(IIdentifier otherObject : getObjects(otherModel)) {
+            IIdentifier baseObject = pairs.get(otherObject);
+            
+            if(baseObject == null) {
+                baseObject = baseObjects.get(otherObject.getId());
+                
+                // Not in the base model, a different type of object with the same ID, or an object that is already paired
+                if(baseObject == null || baseObject.eClass() != otherObject.eClass() || matchedBaseObjects.contains(baseObject)) {
+                    changeSet.add(new ModelChange(Kind.ADDED, null, otherObject));
+                    continue;
+                }
+                
+                pairs.put(otherObject, baseObject);
+                matchedBaseObjects.add(baseObject);
+            }
+            
+            ModelChange change = compareObjects(baseObject, otherObject);
+            if(change != null) {
+                changeSet.add(change);
+            }
+            
+            // Parents are always walked before their children so the other parent is already paired if it has a match
+            String baseParentId = getId(baseObject.eContainer());
+            String otherParentId = getId(otherObject.eContainer());
+            IIdentifier pairedParent = pairs.get(otherObject.eContainer());
+            if(!Objects.equals(baseParentId, pairedParent != null ? pairedParent.getId() : otherParentId)) {
+                change = new ModelChange(Kind.MOVED, baseObject, otherObject);
+                change.addFieldChange("parent", baseParentId, otherParentId); //$NON-NLS-1$
+                changeSet.add(change);
+            }
+        }
+        
+        // Removed
+        for(IIdentifier baseObject : baseObjects.values()) {
+            if(!matchedBaseObjects.contains(baseObject)) {
+                changeSet.add(new ModelChange(Kind.REMOVED, baseObject, null));
+            }
+        }
+        
+        changeSet.setObjectCount(baseObjects.size());
+        changeSet.setTime(System.currentTimeMillis() - startTime);
+        
+        return changeSet;
+    }
+    
+    /**
+     * Pair the two models and their top-level folders of the same folder type
+     * @return A map of the other model and its top-level folders to their pairs in the base model
+     */
+    private Map<EObject, IIdentifier> createRootPairs() {
+        Map<EObject, IIdentifier> pairs = new HashMap<>();
+        
+        pairs.put(otherModel, baseModel);
+        
+        for(IFolder otherFolder : otherModel.getFolders()) {
+            if(otherFolder.getType() != FolderType.USER) {
+                IFolder baseFolder = baseModel.getFolder(otherFolder.getType());
+                if(baseFolder != null) {
+                    pairs.put(otherFolder, baseFolder);
+                }
+            }
+        }
+        
+        return pairs;
+    }
+    
+    /**
+     * @return A map of ID to object for all objects in a model, in model order
+     */
+    private Map<String, IIdentifier> createIndex(IArchimateModel model) {
+        Map<String, IIdentifier> map = new LinkedHashMap<>();
+        
+        for(IIdentifier object : getObjects(model)) {
+            map.put(object.getId(), object);
+        }
+        
+        return map;
+    }
+    
+    /**
+     * @return The model and all objects in the model that have an ID
+     */
+    private List<IIdentifier> getObjects(IArchimateModel model) {
+        List<IIdentifier> list = new ArrayList<>();
+        
+        list.add(model);
+        
+        for(Iterator<EObject> iter = model.eAllContents(); iter.hasNext();) {
+            EObject eObject = iter.next();
+            if(eObject instanceof IIdentifier) {
+                list.add((IIdentifier)eObject);
+            }
+        }
+        
+        return list;
+    }
+    
+    /**
+     * Compare the features of two objects of the same class
+     * @return A MODIFIED change or null if they are the same
+     */
+    private ModelChange compareObjects(IIdentifier baseObject, IIdentifier otherObject) {
+        ModelChange change = null;
+        
+        for(EStructuralFeature feature : baseObject.eClass().getEAllStructuralFeatures()) {
+            if(!shouldCompare(feature)) {
+                continue;
+            }
+            
+            Object baseValue = getValue(baseObject, feature);
+            Object otherValue = getValue(otherObject, feature);
+            
+            if(!isEqual(feature, baseValue, otherValue)) {
+                if(change == null) {
+                    change = new ModelChange(Kind.MODIFIED, baseObject, otherObject);
+                }
+                change.addFieldChange(feature.getName(), baseValue, otherValue);
+            }
+        }
+        
+        return change;
+    }
+    
+    private boolean shouldCompare(EStructuralFeature feature) {
+        if(feature.isTransient() || feature.isDerived() || feature == IArchimatePackage.Literals.IDENTIFIER__ID) {
+            return false;
+        }
+        
+        // This is set from the source end of the connection so it is compared there
+        if(feature == IArchimatePackage.Literals.CONNECTABLE__TARGET_CONNECTIONS) {
+            return false;
+        }
+        
+        // Child objects with IDs are compared on their own
+        if(feature instanceof EReference && ((EReference)feature).isContainment() && isIdentifierType((EReference)feature)) {
+            return false;
+        }
+        
+        return true;
+    }
+    
+    private boolean isIdentifierType(EReference reference) {
+        return IArchimatePackage.Literals.IDENTIFIER.isSuperTypeOf(reference.getEReferenceType());
+    }
+    
+    /**
+     * @return The value of a feature. References to other objects are returned as their IDs
+     */
+    private Object getValue(EObject eObject, EStructuralFeature feature) {
+        Object value = eObject.eGet(feature);
+        
+        if(feature instanceof EReference && !((EReference)feature).isContainment()) {
+            if(value instanceof List) {
+                List<Object> ids = new ArrayList<>();
+                for(Object o : (List<?>)value) {
+                    ids.add(o instanceof EObject ? getId((EObject)o) : o);
+                }
+                return ids;
+            }
+            
+            if(value instanceof EObject) {
+                return getId((EObject)value);
+            }
+        }
+        
+        return value;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private boolean isEqual(EStructuralFeature feature, Object baseValue, Object otherValue) {
+        // Contained objects without IDs such as properties, features and bounds
+        if(feature instanceof EReference && ((EReference)feature).isContainment()) {
+            if(baseValue instanceof List) {
+                return EcoreUtil.equals((List<EObject>)baseValue, (List<EObject>)otherValue);
+            }
+            return EcoreUtil.equals((EObject)baseValue, (EObject)otherValue);
+        }
+        
+        // Attributes that are not set are the same as attributes that are set to their default value
+        if(feature instanceof EAttribute && !feature.isMany()) {
+            baseValue = baseValue == null ? feature.getDefaultValue() : baseValue;
+            otherValue = otherValue == null ? feature.getDefaultValue() : otherValue;
+        }
+        
+        return Objects.equals(baseValue, otherValue);
+    }
+    
+    private String getId(EObject eObject) {
+        return eObject instanceof IIdentifier ? ((IIdentifier)eObject).getId() : null;
+    }
+}
@@ -8,10 +8,8 @@ package com.archimatetool.modelimporter;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EObject;
@@ -49,7 +47,6 @@ import com.archimatetool.model.IIdentifier;
 import com.archimatetool.model.INameable;
 import com.archimatetool.model.IProperties;
 import com.archimatetool.model.IProperty;
-import com.archimatetool.model.util.ArchimateModelUtils;
 import com.archimatetool.model.util.ArchimateResourceFactory;
 import com.archimatetool.modelimporter.StatusMessage.StatusMessageLevel;
 
@@ -57,6 +54,9 @@ import com.archimatetool.modelimporter.StatusMessage.StatusMessageLevel;
 /**
  * Model Importer
  * 
+ * The target model is indexed once at the start. Objects created for the target model are added to the index
+ * so that finding objects, resolving Diagram Model References and checking connections don't have to search the target model again.
+ * 
  * @author Phillip Beauvoir
  */
 public class ModelImporter {
@@ -67,8 +67,8 @@ public class ModelImporter {
     private IArchimateModel importedModel;
     private IArchimateModel targetModel;
     
-    // Keep a cache of objects in the target model for speed
-    private Map<String, IIdentifier> objectCache;
+    // Index of objects in the target model for speed
+    private TargetModelIndex index;
     
     // Status Messages
     private List<StatusMessage> statusMessages;
@@ -80,14 +80,18 @@ public class ModelImporter {
     }
 
     public void doImport(File importedFile, IArchimateModel targetModel) throws IOException, ImportException {
+        long startTime = System.currentTimeMillis();
+        
         importedModel = loadModel(importedFile);
 
         this.targetModel = targetModel;
         
-        objectCache = createObjectIDCache();
-        
         statusMessages = new ArrayList<>();
         
+        long time = System.currentTimeMillis();
+        index = new TargetModelIndex(targetModel);
+        logMessage(StatusMessageLevel.INFO, Messages.ModelImporter_7, index.size(), System.currentTimeMillis() - time);
+        
         compoundCommand = new NonNotifyingCompoundCommand(Messages.ModelImporter_1);
         
         // Upate root model object if the option is set
@@ -97,6 +101,9 @@ public class ModelImporter {
             logMessage(StatusMessageLevel.INFO, Messages.ModelImporter_3, targetModel);
         }
         
+        int folderCount = 0, conceptCount = 0, viewCount = 0;
+        time = System.currentTimeMillis();
+        
         // Iterate through all model contents
         for(Iterator<EObject> iter = importedModel.eAllContents(); iter.hasNext();) {
             EObject eObject = iter.next();
@@ -104,22 +111,29 @@ public class ModelImporter {
             // Update folders
             if(eObject instanceof IFolder) {
                 new FolderImporter(this).importFolder((IFolder)eObject);
+                folderCount++;
             }
             // Update concepts
             else if(eObject instanceof IArchimateConcept) {
                 new ConceptImporter(this).importConcept((IArchimateConcept)eObject);
+                conceptCount++;
             }
             // Update Views
             else if(eObject instanceof IDiagramModel) {
                 new ViewImporter(this).importView((IDiagramModel)eObject);
+                viewCount++;
             }
         }
         
+        logMessage(StatusMessageLevel.INFO, Messages.ModelImporter_8, folderCount, conceptCount, viewCount, System.currentTimeMillis() - time);
+        
         // Check view connection ends are valid if we have done some commands and even if update is off
         if(compoundCommand.canExecute()) {
-            addCommand(new SetArchimateReconnectionCommand(targetModel));
+            addCommand(new SetArchimateReconnectionCommand(targetModel, new ArrayList<>(index.getArchimateConnections())));
         }
         
+        time = System.currentTimeMillis();
+        
         // Run Commands
         CommandStack stack = (CommandStack)targetModel.getAdapter(CommandStack.class);
         stack.execute(compoundCommand);
@@ -127,12 +141,25 @@ public class ModelImporter {
         // Resolve Diagram Model References *after* the commands have run
         resolveDiagramModelReferences();
         
-        objectCache.clear();
-        objectCache = null;
+        logMessage(StatusMessageLevel.INFO, Messages.ModelImporter_9, System.currentTimeMillis() - time);
+        logMessage(StatusMessageLevel.INFO, Messages.ModelImporter_10, System.currentTimeMillis() - startTime);
+        
+        index.dispose();
+        index = null;
         importedModel = null;
         this.targetModel = null;
     }
     
+    /**
+     * Compare a model file with a target model without importing it, to see what an import in update mode would change.
+     * All differences are returned, including objects that are only in the target model and would not be removed by an import.
+     * @return The changes from the target model to the model in the file
+     */
+    public ModelChangeSet compare(File importedFile, IArchimateModel targetModel) throws IOException {
+        IArchimateModel model = loadModel(importedFile);
+        return new ModelDiff(targetModel, model).compare();
+    }
+    
     protected IArchimateModel getImportedModel() {
         return importedModel;
     }
@@ -223,40 +250,20 @@ public class ModelImporter {
         return model;
     }
     
-    /**
-     * Create a cache of objects in the target model for speed
-     */
-    private Map<String, IIdentifier> createObjectIDCache() {
-        HashMap<String, IIdentifier> map = new HashMap<String, IIdentifier>();
-        
-        for(Iterator<EObject> iter = targetModel.eAllContents(); iter.hasNext();) {
-            EObject eObject = iter.next();
-            if(eObject instanceof IIdentifier) {
-                map.put(((IIdentifier)eObject).getId(), (IIdentifier)eObject);
-            }
-        }
-        
-        return map;
-    }
-    
     /**
      * Resolve Diagram Model References *after* the import has happened.
      * New and Updated Diagram Model References will be pointing to the DM in the imported model.
      */
     private void resolveDiagramModelReferences() throws ImportException {
-        for(Iterator<EObject> iter = targetModel.eAllContents(); iter.hasNext();) {
-            EObject eObject = iter.next();
-            if(eObject instanceof IDiagramModelReference) {
-                IDiagramModelReference ref = (IDiagramModelReference)eObject;
-                IDiagramModel dm = ref.getReferencedModel(); 
-                if(dm.getArchimateModel() == getImportedModel()) { // This could be the dm in the imported model
-                    EObject targetDM = ArchimateModelUtils.getObjectByID(targetModel, dm.getId()); // Use its id to find the target dm
-                    if(targetDM instanceof IDiagramModel) {
-                        ref.setReferencedModel((IDiagramModel)targetDM);
-                    }
-                    else {
-                        throw new ImportException("Could not get referenced diagram model"); //$NON-NLS-1$
-                    }
+        for(IDiagramModelReference ref : index.getDiagramModelReferences()) {
+            IDiagramModel dm = ref.getReferencedModel(); 
+            if(dm.getArchimateModel() == getImportedModel()) { // This could be the dm in the imported model
+                EObject targetDM = index.get(dm.getId()); // Use its id to find the target dm
+                if(targetDM instanceof IDiagramModel) {
+                    ref.setReferencedModel((IDiagramModel)targetDM);
+                }
+                else {
+                    throw new ImportException("Could not get referenced diagram model"); //$NON-NLS-1$
                 }
             }
         }
@@ -280,7 +287,7 @@ public class ModelImporter {
      */
     @SuppressWarnings("unchecked")
     <T extends IIdentifier> T findObjectInTargetModel(T eObject) throws ImportException {
-        EObject foundObject = objectCache.get(eObject.getId());
+        EObject foundObject = index.get(eObject.getId());
         
         // Not found
         if(foundObject == null) {
@@ -313,7 +320,7 @@ public class ModelImporter {
         
         newObject.setId(eObject.getId());
         
-        objectCache.put(newObject.getId(), newObject);
+        index.add(newObject);
         
         return (T)newObject;
     }
@@ -422,9 +429,15 @@ public class ModelImporter {
      */
     private class SetArchimateReconnectionCommand extends CompoundCommand {
         private IArchimateModel model;
+        private List<IDiagramModelArchimateConnection> connections;
         
-        private SetArchimateReconnectionCommand(IArchimateModel model) {
+        /**
+         * @param model The target model
+         * @param connections All ArchiMate connections that could be in the target model when this is executed
+         */
+        private SetArchimateReconnectionCommand(IArchimateModel model, List<IDiagramModelArchimateConnection> connections) {
             this.model = model;
+            this.connections = connections;
             
             // Add an empty Command so this always executes
             add(new Command() {});
@@ -432,11 +445,10 @@ public class ModelImporter {
         
         @Override
         public void execute() {
-            for(Iterator<EObject> iter = model.eAllContents(); iter.hasNext();) {
-                EObject eObject = iter.next();
-                
-                if(eObject instanceof IDiagramModelArchimateConnection) {
-                    addArchimateReconnectionCommand((IDiagramModelArchimateConnection)eObject);
+            for(IDiagramModelArchimateConnection connection : connections) {
+                // Connections in views that have been updated might have been removed
+                if(connection.getArchimateModel() == model) {
+                    addArchimateReconnectionCommand(connection);
                 }
             }
             
@@ -447,6 +459,7 @@ public class ModelImporter {
         public void dispose() {
             super.dispose();
             model = null;
+            connections = null;
         }
         
         /**
@@ -59,7 +59,7 @@ class StatusMessage {
     
     String getMessage() {
         Object[] objsList = Stream.of(objs)
-                                      .map(obj -> ArchiLabelProvider.INSTANCE.getLabel(obj))
+                                      .map(obj -> obj instanceof Number || obj instanceof String ? obj : ArchiLabelProvider.INSTANCE.getLabel(obj))
                                       .toArray();
         
         return getLevel().getText() + " " + NLS.bind(message, objsList); //$NON-NLS-1$
@@ -0,0 +1,89 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.modelimporter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.ecore.EObject;
+
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IDiagramModelArchimateConnection;
+import com.archimatetool.model.IDiagramModelReference;
+import com.archimatetool.model.IIdentifier;
+
+
+/**
+ * Index of the objects in the target model of an import
+ *
+ * This is created with one pass of the target model and then objects are added to it as they are created for the target model,
+ * so that the target model doesn't have to be searched again during the import.
+ */
+class TargetModelIndex {
+    
+    // ID -> object
+    private Map<String, IIdentifier> objects = new HashMap<>();
+    
+    // Diagram Model References that might need resolving after the import
+    private List<IDiagramModelReference> diagramModelReferences = new ArrayList<>();
+    
+    // ArchiMate connections that might need reconnecting after the import
+    private List<IDiagramModelArchimateConnection> archimateConnections = new ArrayList<>();
+    
+    TargetModelIndex(IArchimateModel targetModel) {
+        for(Iterator<EObject> iter = targetModel.eAllContents(); iter.hasNext();) {
+            EObject eObject = iter.next();
+            if(eObject instanceof IIdentifier) {
+                add((IIdentifier)eObject);
+            }
+        }
+    }
+    
+    /**
+     * Add an object that is in, or will be added to, the target model
+     */
+    void add(IIdentifier object) {
+        objects.put(object.getId(), object);
+        
+        if(object instanceof IDiagramModelReference) {
+            diagramModelReferences.add((IDiagramModelReference)object);
+        }
+        else if(object instanceof IDiagramModelArchimateConnection) {
+            archimateConnections.add((IDiagramModelArchimateConnection)object);
+        }
+    }
+    
+    IIdentifier get(String id) {
+        return objects.get(id);
+    }
+    
+    int size() {
+        return objects.size();
+    }
+    
+    /**
+     * @return All Diagram Model References added. Some of these might have since been removed from the target model
+     */
+    List<IDiagramModelReference> getDiagramModelReferences() {
+        return diagramModelReferences;
+    }
+    
+    /**
+     * @return All ArchiMate connections added. Some of these might have since been removed from the target model
+     */
+    List<IDiagramModelArchimateConnection> getArchimateConnections() {
+        return archimateConnections;
+    }
+    
+    void dispose() {
+        objects.clear();
+        diagramModelReferences.clear();
+        archimateConnections.clear();
+    }
+}
@@ -43,7 +43,7 @@ import org.stringtemplate.v4.StringRenderer;
 import com.archimatetool.editor.ArchiPlugin;
 import com.archimatetool.editor.browser.BrowserEditorInput;
 import com.archimatetool.editor.browser.IBrowserEditor;
-import com.archimatetool.editor.diagram.util.DiagramUtils;
+import com.archimatetool.editor.diagram.util.DiagramImageRenderer;
 import com.archimatetool.editor.diagram.util.ModelReferencedImage;
 import com.archimatetool.editor.ui.ImageFactory;
 import com.archimatetool.editor.ui.services.EditorManager;
@@ -393,6 +393,18 @@ public class HTMLReportExporter {
      * @throws IOException 
      */
     private void saveImages(File imagesFolder, List<IDiagramModel> diagramModels) throws IOException {
+        // Re-use the same renderer for all images
+        DiagramImageRenderer renderer = new DiagramImageRenderer();
+        
+        try {
+            saveImages(imagesFolder, diagramModels, renderer);
+        }
+        finally {
+            renderer.dispose();
+        }
+    }
+    
+    private void saveImages(File imagesFolder, List<IDiagramModel> diagramModels, DiagramImageRenderer renderer) throws IOException {
         // Use this to generate unique name for image file
         Hashtable<IDiagramModel, String> nameTable = new Hashtable<IDiagramModel, String>();
         
@@ -406,7 +418,7 @@ public class HTMLReportExporter {
             Image image = null;
             
             try {
-                ModelReferencedImage geoImage = DiagramUtils.createModelReferencedImage(dm, 1, 10);
+                ModelReferencedImage geoImage = renderer.createModelReferencedImage(dm, 1, 10);
                 image = geoImage.getImage();
 
                 // Generate file name
@@ -0,0 +1,226 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package org.opengroup.archimate.xmlexchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.jdom2.Attribute;
+import org.jdom2.Content;
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+import org.jdom2.output.Format;
+import org.jdom2.output.support.AbstractStAXStreamProcessor;
+import org.jdom2.output.support.FormatStack;
+import org.jdom2.util.NamespaceStack;
+
+
+
+/**
+ * Writes an XML Document to an XMLStreamWriter while it is being created so that the whole Document is never held in memory.
+ *
+ * Container elements are started and ended on the stream. Their content is created as small JDOM Elements
+ * which are written and then removed. The output is indented in the same way as JDOM's pretty Format.
+ */
+class XMLFragmentWriter {
+    
+    private static final String ENCODING = "UTF-8"; //$NON-NLS-1$
+    private static final String VERSION = "1.0"; //$NON-NLS-1$
+    
+    private XMLStreamWriter fWriter;
+    private Format fFormat = Format.getPrettyFormat();
+    private FragmentProcessor fProcessor = new FragmentProcessor();
+    private NamespaceStack fNamespaceStack = new NamespaceStack();
+    
+    /**
+     * Container elements that have been started, innermost first.
+     * The start tag of a container is not written until it has some content or it ends.
+     */
+    private Deque<OpenElement> fOpenElements = new ArrayDeque<>();
+    
+    private static class OpenElement {
+        Element element;
+        boolean required;
+        boolean written;
+    }
+    
+    /**
+     * Writes a JDOM Element indented to a given depth
+     */
+    private static class FragmentProcessor extends AbstractStAXStreamProcessor {
+        void printElement(XMLStreamWriter writer, Format format, NamespaceStack namespaceStack, Element element, int depth) throws XMLStreamException {
+            FormatStack formatStack = new FormatStack(format);
+            for(int i = 0; i < depth; i++) {
+                formatStack.push();
+            }
+            printElement(writer, formatStack, namespaceStack, element);
+        }
+    }
+    
+    XMLFragmentWriter(OutputStream out) throws IOException {
+        try {
+            fWriter = XMLOutputFactory.newInstance().createXMLStreamWriter(out, ENCODING);
+        }
+        catch(XMLStreamException ex) {
+            throw new IOException(ex);
+        }
+    }
+    
+    /**
+     * Write the XML declaration
+     */
+    void startDocument() throws IOException {
+        try {
+            fWriter.writeStartDocument(ENCODING, VERSION);
+        }
+        catch(XMLStreamException ex) {
+            throw new IOException(ex);
+        }
+    }
+    
+    /**
+     * Finish the document and flush the stream. The underlying OutputStream is not closed.
+     */
+    void endDocument() throws IOException {
+        try {
+            fWriter.writeCharacters(fFormat.getLineSeparator());
+            fWriter.writeEndDocument();
+            fWriter.flush();
+            fWriter.close();
+        }
+        catch(XMLStreamException ex) {
+            throw new IOException(ex);
+        }
+    }
+    
+    /**
+     * Start a container element. Only its name, namespaces and attributes are written, any content is ignored.
+     * @param required If false the element is not written at all if it has no content when it ends
+     */
+    void startElement(Element element, boolean required) {
+        OpenElement openElement = new OpenElement();
+        openElement.element = element;
+        openElement.required = required;
+        fOpenElements.push(openElement);
+    }
+    
+    /**
+     * End the current container element
+     * @return true if the element was written, false if it was not required and had no content
+     */
+    boolean endElement() throws IOException {
+        OpenElement openElement = fOpenElements.pop();
+        
+        try {
+            if(openElement.written) {
+                writeNewLine(fOpenElements.size());
+                fWriter.writeEndElement();
+                fNamespaceStack.pop();
+            }
+            else if(openElement.required) {
+                writeStartTags();
+                writeNewLine(fOpenElements.size());
+                fProcessor.printElement(fWriter, fFormat, fNamespaceStack, openElement.element, fOpenElements.size());
+            }
+            else {
+                return false;
+            }
+        }
+        catch(XMLStreamException ex) {
+            throw new IOException(ex);
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Write the content that has been added to the current container element and then remove it from the element
+     */
+    void writeContent(Element element) throws IOException {
+        List<Content> contents = element.removeContent();
+        if(contents.isEmpty()) {
+            return;
+        }
+        
+        try {
+            writeStartTags();
+            
+            int depth = fOpenElements.size();
+            
+            for(Content content : contents) {
+                if(content instanceof Element) {
+                    writeNewLine(depth);
+                    fProcessor.printElement(fWriter, fFormat, fNamespaceStack, (Element)content, depth);
+                }
+            }
+        }
+        catch(XMLStreamException ex) {
+            throw new IOException(ex);
+        }
+    }
+    
+    /**
+     * Write the start tags of any started container elements that have not been written yet, outermost first
+     */
+    private void writeStartTags() throws XMLStreamException {
+        int depth = 0;
+        
+        for(Iterator<OpenElement> iter = fOpenElements.descendingIterator(); iter.hasNext();) {
+            OpenElement openElement = iter.next();
+            if(!openElement.written) {
+                writeNewLine(depth);
+                writeStartTag(openElement.element);
+                openElement.written = true;
+            }
+            depth++;
+        }
+    }
+    
+    private void writeStartTag(Element element) throws XMLStreamException {
+        fWriter.writeStartElement(element.getNamespacePrefix(), element.getName(), element.getNamespaceURI());
+        
+        // Namespaces declared on this element
+        fNamespaceStack.push(element);
+        for(Namespace namespace : fNamespaceStack.addedForward()) {
+            if(namespace.getPrefix().isEmpty()) {
+                fWriter.writeDefaultNamespace(namespace.getURI());
+            }
+            else {
+                fWriter.writeNamespace(namespace.getPrefix(), namespace.getURI());
+            }
+        }
+        
+        if(element.hasAttributes()) {
+            for(Attribute attribute : element.getAttributes()) {
+                if(attribute.getNamespace() == Namespace.NO_NAMESPACE) {
+                    fWriter.writeAttribute(attribute.getName(), attribute.getValue());
+                }
+                else {
+                    fWriter.writeAttribute(attribute.getNamespacePrefix(), attribute.getNamespaceURI(), attribute.getName(), attribute.getValue());
+                }
+            }
+        }
+    }
+    
+    /**
+     * Write a line separator and indent to the given depth
+     */
+    private void writeNewLine(int depth) throws XMLStreamException {
+        StringBuilder sb = new StringBuilder(fFormat.getLineSeparator());
+        for(int i = 0; i < depth; i++) {
+            sb.append(fFormat.getIndent());
+        }
+        fWriter.writeCharacters(sb.toString());
+    }
+}
@@ -5,14 +5,18 @@
  */
 package org.opengroup.archimate.xmlexchange;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeMap;
+import java.util.zip.GZIPOutputStream;
 
 import org.eclipse.draw2d.geometry.Point;
 import org.eclipse.emf.common.util.EList;
@@ -24,6 +28,8 @@ import org.eclipse.swt.graphics.RGB;
 import org.jdom2.Document;
 import org.jdom2.Element;
 import org.jdom2.Namespace;
+import org.jdom2.output.Format;
+import org.jdom2.output.XMLOutputter;
 
 import com.archimatetool.editor.model.DiagramModelUtils;
 import com.archimatetool.editor.ui.ColorFactory;
@@ -61,10 +67,16 @@ import com.archimatetool.model.util.UUIDFactory;
 /**
  * Export Archi Model to Open Exchange XML Format using JDOM
  * 
+ * By default the document is streamed to the file as it is created. Each element, relationship, folder and view
+ * is created as a small JDOM Element that is written and then discarded, so the whole JDOM Document is never held in memory.
+ * Setting the streaming writer off creates the whole JDOM Document first and then writes it. Both produce the same XML.
+ * 
  * @author Phillip Beauvoir
  */
 public class XMLModelExporter implements IXMLExchangeGlobals {
     
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
     // ArchiMate model
     private IArchimateModel fModel;
     
@@ -90,21 +102,53 @@ public class XMLModelExporter implements IXMLExchangeGlobals {
      * The language code
      */
     private String fLanguageCode;
+    
+    /**
+     * Whether to stream the document to the file rather than create the whole JDOM Document first
+     */
+    private boolean fUseStreamingWriter = true;
+    
+    /**
+     * Whether to gzip the file
+     */
+    private boolean fCompressOutput;
+    
+    /**
+     * The writer if streaming, otherwise null
+     */
+    private XMLFragmentWriter fFragmentWriter;
 
     public void exportModel(IArchimateModel model, File outputFile) throws IOException {
         fModel = model;
         
+        // Create parent folder if it doesn't exist
+        File parent = outputFile.getAbsoluteFile().getParentFile();
+        if(parent != null) {
+            parent.mkdirs();
+        }
+        
         // JDOM Document
         Document doc = createDocument();
         
         // Root Element
         Element rootElement = createRootElement(doc);
-
-        // Persist model
-        writeModel(rootElement);
         
-        // Save
-        JDOMUtils.write2XMLFile(doc, outputFile);
+        try(OutputStream out = createOutputStream(outputFile)) {
+            // Persist and save model as it is created
+            if(fUseStreamingWriter) {
+                fFragmentWriter = new XMLFragmentWriter(out);
+                writeModel(rootElement);
+            }
+            // Persist model and save the Document
+            else {
+                writeModel(rootElement);
+                XMLOutputter outputter = new XMLOutputter(Format.getPrettyFormat());
+                outputter.output(doc, out);
+            }
+        }
+        finally {
+            fFragmentWriter = null;
+        }
         
         // XSD
         if(fIncludeXSD) {
@@ -162,6 +206,33 @@ public class XMLModelExporter implements IXMLExchangeGlobals {
     public void setLanguageCode(String languageCode) {
         fLanguageCode = languageCode;
     }
+    
+    /**
+     * Set whether to stream the XML to the file as it is created (the default)
+     * or to create the whole JDOM Document in memory and then save it
+     * @param set
+     */
+    public void setUseStreamingWriter(boolean set) {
+        fUseStreamingWriter = set;
+    }
+    
+    /**
+     * Set whether to compress the file with gzip
+     * @param set
+     */
+    public void setCompressOutput(boolean set) {
+        fCompressOutput = set;
+    }
+    
+    private OutputStream createOutputStream(File file) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        
+        if(fCompressOutput) {
+            out = new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+        
+        return new BufferedOutputStream(out, BUFFER_SIZE);
+    }
 
     /**
      * @return A JDOM Document
@@ -212,12 +283,17 @@ public class XMLModelExporter implements IXMLExchangeGlobals {
     /**
      * Write the model
      */
-    private void writeModel(Element rootElement) {
+    private void writeModel(Element rootElement) throws IOException {
         rootElement.setAttribute(ATTRIBUTE_IDENTIFIER, checkID(fModel));
         
         // Gather all properties now
         fPropertyDefsList = getAllUniquePropertyKeysForModel();
         
+        if(fFragmentWriter != null) {
+            fFragmentWriter.startDocument();
+            fFragmentWriter.startElement(rootElement, true);
+        }
+        
         // Name
         writeTextToElement(fModel.getName(), rootElement, ELEMENT_NAME, true);
         
@@ -230,6 +306,8 @@ public class XMLModelExporter implements IXMLExchangeGlobals {
         // Metadata
         writeMetadata(rootElement);
         
+        writeContent(rootElement);
+        
         // Model Elements
         writeModelElements(rootElement);
         
@@ -246,6 +324,53 @@ public class XMLModelExporter implements IXMLExchangeGlobals {
         
         // Views
         writeViews(rootElement);
+        
+        if(fFragmentWriter != null) {
+            fFragmentWriter.endElement();
+            fFragmentWriter.endDocument();
+        }
+    }
+    
+    // ========================================= Streaming ======================================
+    
+    /**
+     * Add a container element to its parent.
+     * If streaming, the container is started on the stream instead and its content is written with writeContent()
+     * @param required If false the element is removed, or not written, if it has no content when it ends
+     */
+    private void startElement(Element parentElement, Element element, boolean required) {
+        if(fFragmentWriter != null) {
+            fFragmentWriter.startElement(element, required);
+        }
+        else {
+            parentElement.addContent(element);
+        }
+    }
+    
+    /**
+     * End a container element started with startElement()
+     * @return true if the element was written or kept, false if it was not required and had no content
+     */
+    private boolean endElement(Element element, boolean required) throws IOException {
+        if(fFragmentWriter != null) {
+            return fFragmentWriter.endElement();
+        }
+        
+        if(!required && element.getChildren().isEmpty()) {
+            element.detach();
+            return false;
+        }
+        
+        return true;
+    }
+    
+    /**
+     * If streaming, write the content that has been added to a container element and remove it
+     */
+    private void writeContent(Element element) throws IOException {
+        if(fFragmentWriter != null) {
+            fFragmentWriter.writeContent(element);
+        }
     }
     
     // ========================================= Metadata ======================================
@@ -285,8 +410,9 @@ public class XMLModelExporter implements IXMLExchangeGlobals {
     /**
      * Write the elements from the layers and extensions
      */
-    Element writeModelElements(Element rootElement) {
+    Element writeModelElements(Element rootElement) throws IOException {
         Element elementsElement = new Element(ELEMENT_ELEMENTS, ARCHIMATE3_NAMESPACE);
+        startElement(rootElement, elementsElement, false);
         
         writeModelElementsFolder(fModel.getFolder(FolderType.STRATEGY), elementsElement);
         writeModelElementsFolder(fModel.getFolder(FolderType.BUSINESS), elementsElement);
@@ -297,8 +423,7 @@ public class XMLModelExporter implements IXMLExchangeGlobals {
         writeModelElementsFolder(fModel.getFolder(FolderType.OTHER), elementsElement);
         
         // If there are elements
-        if(!elementsElement.getChildren().isEmpty()) {
-            rootElement.addContent(elementsElement);
+        if(endElement(elementsElement, false)) {
             return elementsElement;
         }
         
@@ -309,7 +434,7 @@ public class XMLModelExporter implements IXMLExchangeGlobals {
     /**
      * Write the elements from an Archi folder
      */
-    private void writeModelElementsFolder(IFolder folder, Element elementsElement) {
+    private void writeModelElementsFolder(IFolder folder, Element elementsElement) throws IOException {
         if(folder == null) {
             return;
         }
@@ -319,6 +444,7 @@ public class XMLModelExporter implements IXMLExchangeGlobals {
         for(EObject eObject : list) {
             if(eObject instanceof IArchimateElement) {
                 writeModelElement((IArchimateElement)eObject, elementsElement);
+                writeContent(elementsElement);
              }
         }
     }
@@ -370,14 +496,14 @@ public class XMLModelExporter implements IXMLExchangeGlobals {
     /**
      * Write the relationships
      */
-    Element writeModelRelationships(Element rootElement) {
+    Element writeModelRelationships(Element rootElement) throws IOException {
         Element relationshipsElement = new Element(ELEMENT_RELATIONSHIPS, ARCHIMATE3_NAMESPACE);
+        startElement(rootElement, relationshipsElement, false);
         
         writeModelRelationshipsFolder(fModel.getFolder(FolderType.RELATIONS), relationshipsElement);
         
         // If there are relationships
-        if(!relationshipsElement.getChildren().isEmpty()) {
-            rootElement.addContent(relationshipsElement);
+        if(endElement(relationshipsElement, false)) {
             return relationshipsElement;
         }
         
@@ -388,7 +514,7 @@ public class XMLModelExporter implements IXMLExchangeGlobals {
     /**
      * Write the relationships from an Archi folder
      */
-    private void writeModelRelationshipsFolder(IFolder folder, Element relationshipsElement) {
+    private void writeModelRelationshipsFolder(IFolder folder, Element relationshipsElement) throws IOException {
         if(folder == null) {
             return;
         }
@@ -398,6 +524,7 @@ public class XMLModelExporter implements IXMLExchangeGlobals {
         for(EObject eObject : list) {
             if(eObject instanceof IArchimateRelationship) {
                 writeModelRelationship((IArchimateRelationship)eObject, relationshipsElement);
+                writeContent(relationshipsElement);
              }
         }
     }
@@ -470,19 +597,20 @@ public class XMLModelExporter implements IXMLExchangeGlobals {
     
     // ========================================= Organizations ======================================
 
-    Element writeOrganizations(Element rootElement) {
+    Element writeOrganizations(Element rootElement) throws IOException {
         Element organizationsElement = new Element(ELEMENT_ORGANIZATIONS, ARCHIMATE3_NAMESPACE);
+        startElement(rootElement, organizationsElement, false);
         
         for(IFolder folder : fModel.getFolders()) {
             // If the top level folder is not empty
             if(!(folder.getElements().isEmpty() && folder.getFolders().isEmpty())) {
                 writeFolder(folder, organizationsElement);
+                writeContent(organizationsElement);
             }
         }
         
         // If there are children
-        if(!organizationsElement.getChildren().isEmpty()) {
-            rootElement.addContent(organizationsElement);
+        if(endElement(organizationsElement, false)) {
             return organizationsElement;
         }
         
@@ -525,13 +653,13 @@ public class XMLModelExporter implements IXMLExchangeGlobals {
     
     // ========================================= Properties ======================================
 
-    Element writeModelPropertiesDefinitions(Element rootElement) {
+    Element writeModelPropertiesDefinitions(Element rootElement) throws IOException {
         if(fPropertyDefsList.isEmpty()) {
             return null;
         }
         
         Element propertiesDefinitionsElement = new Element(ELEMENT_PROPERTYDEFINITIONS, ARCHIMATE3_NAMESPACE);
-        rootElement.addContent(propertiesDefinitionsElement);
+        startElement(rootElement, propertiesDefinitionsElement, true);
 
         for(Entry<String, String> entry : fPropertyDefsList.entrySet()) {
             Element propertyDefElement = new Element(ELEMENT_PROPERTYDEFINITION, ARCHIMATE3_NAMESPACE);
@@ -543,8 +671,12 @@ public class XMLModelExporter implements IXMLExchangeGlobals {
             Element propertyNameElement = new Element(ELEMENT_NAME, ARCHIMATE3_NAMESPACE);
             propertyNameElement.setText(entry.getKey());
             propertyDefElement.addContent(propertyNameElement);
+            
+            writeContent(propertiesDefinitionsElement);
         }
         
+        endElement(propertiesDefinitionsElement, true);
+        
         return propertiesDefinitionsElement;
     }
     
@@ -622,7 +754,7 @@ public class XMLModelExporter implements IXMLExchangeGlobals {
      */
     private Point fCurrentDiagramNegativeOffset;
     
-    Element writeViews(Element rootElement) {
+    Element writeViews(Element rootElement) throws IOException {
         // Do we have any views?
         EList<IDiagramModel> views = fModel.getDiagramModels();
         if(views.isEmpty()) {
@@ -630,10 +762,10 @@ public class XMLModelExporter implements IXMLExchangeGlobals {
         }
         
         Element viewsElement = new Element(ELEMENT_VIEWS, ARCHIMATE3_NAMESPACE);
-        rootElement.addContent(viewsElement);
+        startElement(rootElement, viewsElement, true);
         
         Element diagramsElement = new Element(ELEMENT_DIAGRAMS, ARCHIMATE3_NAMESPACE);
-        viewsElement.addContent(diagramsElement);
+        startElement(viewsElement, diagramsElement, true);
         
         for(IDiagramModel dm : views) {
             if(dm instanceof IArchimateDiagramModel) {
@@ -641,9 +773,13 @@ public class XMLModelExporter implements IXMLExchangeGlobals {
                 fCurrentDiagramNegativeOffset = XMLExchangeUtils.getNegativeOffsetForDiagram(dm);
                 
                 writeView((IArchimateDiagramModel)dm, diagramsElement);
+                writeContent(diagramsElement);
             }
         }
         
+        endElement(diagramsElement, true);
+        endElement(viewsElement, true);
+        
         return viewsElement;
     }
     
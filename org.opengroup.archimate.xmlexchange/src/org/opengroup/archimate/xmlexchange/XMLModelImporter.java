@@ -5,8 +5,11 @@
  */
 package org.opengroup.archimate.xmlexchange;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -15,15 +18,20 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.FontData;
 import org.eclipse.swt.graphics.RGB;
-import org.jdom2.Document;
 import org.jdom2.Element;
 import org.jdom2.JDOMException;
 import org.jdom2.Namespace;
+import org.jdom2.input.StAXStreamBuilder;
 
 import com.archimatetool.editor.diagram.ArchimateDiagramModelFactory;
 import com.archimatetool.editor.diagram.ICreationFactory;
@@ -31,7 +39,6 @@ import com.archimatetool.editor.model.DiagramModelUtils;
 import com.archimatetool.editor.ui.ColorFactory;
 import com.archimatetool.editor.ui.FontFactory;
 import com.archimatetool.editor.utils.StringUtils;
-import com.archimatetool.jdom.JDOMUtils;
 import com.archimatetool.model.FolderType;
 import com.archimatetool.model.IAccessRelationship;
 import com.archimatetool.model.IArchimateConcept;
@@ -68,6 +75,13 @@ import com.archimatetool.model.IProperty;
 /**
  * XML Model Importer
  * 
+ * The file is read in one forward pass with a StAX stream reader so that the whole document is never held in memory.
+ * Each element, relationship and view is read into a small JDOM fragment and added to the model before the next one is read.
+ * 
+ * Things that can refer forward in the file are resolved from the lookup tables when their targets have been read:
+ * relationship sources and targets at the end of the relationships, properties when the property definitions are read,
+ * view references at the end of the views, and organizations (which refer to views) at the end of the file.
+ * 
  * @author Phillip Beauvoir
  */
 public class XMLModelImporter implements IXMLExchangeGlobals {
@@ -89,6 +103,36 @@ public class XMLModelImporter implements IXMLExchangeGlobals {
     // Diagram Model references lookup
     private Map<IDiagramModelReference, String> fDiagramRefsLookup;
     
+    // Properties read before the property definitions
+    private List<PendingProperty> fPendingProperties;
+    
+    // Relations waiting for their source and target
+    private List<RelationInfo> fRelationInfoList;
+    
+    // Organizations are added at the end because they refer to views
+    private List<Element> fOrganizationsElements;
+    
+    private boolean fHasPropertyDefinitions;
+    
+    private StAXStreamBuilder fBuilder = new StAXStreamBuilder();
+    
+    private static class PendingProperty {
+        IProperties propertiesModel;
+        String idref;
+        String value;
+    }
+    
+    private static class RelationInfo {
+        IArchimateRelationship relation;
+        String sourceID;
+        String targetID;
+    }
+    
+    @FunctionalInterface
+    private interface ElementHandler {
+        void handle(Element element) throws IOException, XMLModelParserException;
+    }
+    
     public IArchimateModel createArchiMateModel(File instanceFile) throws IOException, JDOMException, XMLModelParserException {
         // New lookup tables
         fPropertyDefinitionsList = new HashMap<>();
@@ -96,40 +140,192 @@ public class XMLModelImporter implements IXMLExchangeGlobals {
         fConnectionsNodesLookup = new HashMap<>();
         fDiagramsLookup = new HashMap<>();
         fDiagramRefsLookup = new HashMap<>();
+        fPendingProperties = new ArrayList<>();
+        fRelationInfoList = new ArrayList<>();
+        fOrganizationsElements = new ArrayList<>();
+        fHasPropertyDefinitions = false;
         
         // Create a new Archimate Model and set its defaults
         fModel = IArchimateFactory.eINSTANCE.createArchimateModel();
         fModel.setDefaults();
         
         // Read file without Schema validation
-        Document doc = JDOMUtils.readXMLFile(instanceFile);
+        try(InputStream in = new BufferedInputStream(new FileInputStream(instanceFile))) {
+            XMLStreamReader reader = createXMLStreamReader(in);
+            
+            try {
+                parseDocument(reader);
+            }
+            finally {
+                reader.close();
+            }
+        }
+        catch(XMLStreamException ex) {
+            throw new JDOMException(ex.getMessage(), ex);
+        }
         
-        Element rootElement = doc.getRootElement();
+        return fModel;
+    }
+    
+    private XMLStreamReader createXMLStreamReader(InputStream in) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
         
-        // Parse Property Definitions first
-        parsePropertyDefinitions(rootElement.getChild(ELEMENT_PROPERTYDEFINITIONS, ARCHIMATE3_NAMESPACE));
+        // Don't allow DTD loading in case of XSS exploits
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
         
-        // Parse Root Element
-        parseRootElement(rootElement);
+        return factory.createXMLStreamReader(in);
+    }
+    
+    // ========================================= Document ======================================
+    
+    private void parseDocument(XMLStreamReader reader) throws XMLStreamException, IOException, JDOMException, XMLModelParserException {
+        // Root Element
+        while(reader.getEventType() != XMLStreamConstants.START_ELEMENT) {
+            if(reader.getEventType() == XMLStreamConstants.DTD) {
+                throw new JDOMException("DOCTYPE is not allowed"); //$NON-NLS-1$
+            }
+            reader.next();
+        }
         
-        // Parse ArchiMate Elements
-        parseArchiMateElements(rootElement.getChild(ELEMENT_ELEMENTS, ARCHIMATE3_NAMESPACE));
+        // Identifier
+        String id = reader.getAttributeValue(null, ATTRIBUTE_IDENTIFIER);
+        if(id != null) {
+            fModel.setId(id);
+        }
+        
+        // The root element's name, documentation and properties
+        Element rootElement = new Element(reader.getLocalName(), ARCHIMATE3_NAMESPACE);
+        
+        boolean hasElements = false;
+        boolean hasRelations = false;
+        boolean hasViews = false;
         
-        // Parse ArchiMate Relations
-        parseArchiMateRelations(rootElement.getChild(ELEMENT_RELATIONSHIPS, ARCHIMATE3_NAMESPACE));
+        reader.next();
         
-        // Parse Views
-        Element viewsElement = rootElement.getChild(ELEMENT_VIEWS, ARCHIMATE3_NAMESPACE);
-        if(viewsElement != null) {
-            parseViews(viewsElement.getChild(ELEMENT_DIAGRAMS, ARCHIMATE3_NAMESPACE));
+        while(nextChildElement(reader)) {
+            // Properties are read when the property definitions have been read
+            if(isElement(reader, ELEMENT_NAME) || isElement(reader, ELEMENT_DOCUMENTATION) || isElement(reader, ELEMENT_PROPERTIES)) {
+                rootElement.addContent(readElement(reader));
+            }
+            // Parse Property Definitions
+            else if(isElement(reader, ELEMENT_PROPERTYDEFINITIONS) && !fHasPropertyDefinitions) {
+                parsePropertyDefinitions(readElement(reader));
+            }
+            // Parse ArchiMate Elements
+            else if(isElement(reader, ELEMENT_ELEMENTS) && !hasElements) {
+                hasElements = true;
+                parseChildElements(reader, ELEMENT_ELEMENT, this::parseArchiMateElement);
+            }
+            // Parse ArchiMate Relations
+            else if(isElement(reader, ELEMENT_RELATIONSHIPS) && !hasRelations) {
+                hasRelations = true;
+                parseChildElements(reader, ELEMENT_RELATIONSHIP, this::parseArchiMateRelation);
+                addRelationSourcesAndTargets();
+            }
+            // Organizations
+            else if(isElement(reader, ELEMENT_ORGANIZATIONS)) {
+                fOrganizationsElements.add(readElement(reader));
+            }
+            // Parse Views
+            else if(isElement(reader, ELEMENT_VIEWS) && !hasViews) {
+                hasViews = true;
+                parseViews(reader);
+            }
+            else {
+                skipElement(reader);
+            }
+        }
+        
+        if(!hasElements) {
+            throw new XMLModelParserException(Messages.XMLModelImporter_0);
         }
         
+        // Parse Root Element
+        parseRootElement(rootElement);
+        
+        // Any properties left don't have a property definition
+        fPendingProperties.clear();
+        
         // Parse Organizations
-        for(Element orgsElement : rootElement.getChildren(ELEMENT_ORGANIZATIONS, ARCHIMATE3_NAMESPACE)) {
+        for(Element orgsElement : fOrganizationsElements) {
             parseOrganizations(orgsElement);
         }
         
-        return fModel;
+        fOrganizationsElements.clear();
+    }
+    
+    /**
+     * Call handler with each child element of the current element that has the given name, and skip any others
+     */
+    private void parseChildElements(XMLStreamReader reader, String name, ElementHandler handler) throws XMLStreamException, IOException, JDOMException, XMLModelParserException {
+        reader.next();
+        
+        while(nextChildElement(reader)) {
+            if(isElement(reader, name)) {
+                handler.handle(readElement(reader));
+            }
+            else {
+                skipElement(reader);
+            }
+        }
+    }
+    
+    /**
+     * Move to the start of the next child element of the current element
+     * @return true if at the start of a child element, false if the end of the current element was reached and moved past
+     */
+    private boolean nextChildElement(XMLStreamReader reader) throws XMLStreamException {
+        while(true) {
+            switch(reader.getEventType()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    return true;
+                    
+                case XMLStreamConstants.END_ELEMENT:
+                    reader.next();
+                    return false;
+                    
+                case XMLStreamConstants.END_DOCUMENT:
+                    return false;
+                    
+                default:
+                    reader.next();
+                    break;
+            }
+        }
+    }
+    
+    /**
+     * @return true if the current element has the given name in the ArchiMate namespace
+     */
+    private boolean isElement(XMLStreamReader reader, String name) {
+        return name.equals(reader.getLocalName()) && ARCHIMATE3_NAMESPACE.getURI().equals(reader.getNamespaceURI());
+    }
+    
+    /**
+     * Read the current element and its content into a JDOM Element and move past its end
+     */
+    private Element readElement(XMLStreamReader reader) throws JDOMException {
+        return (Element)fBuilder.fragment(reader);
+    }
+    
+    /**
+     * Move past the end of the current element without reading it
+     */
+    private void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        
+        while(depth > 0) {
+            int event = reader.next();
+            if(event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            }
+            else if(event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+        
+        reader.next();
     }
     
     // ========================================= Property Definitions ======================================
@@ -147,6 +343,15 @@ public class XMLModelImporter implements IXMLExchangeGlobals {
                 fPropertyDefinitionsList.put(identifier, name);
             }
         }
+        
+        fHasPropertyDefinitions = true;
+        
+        // Add the properties that were read before the property definitions
+        for(PendingProperty pendingProperty : fPendingProperties) {
+            addProperty(pendingProperty.propertiesModel, pendingProperty.idref, pendingProperty.value);
+        }
+        
+        fPendingProperties.clear();
     }
     
     // ========================================= Root Element ======================================
@@ -184,176 +389,174 @@ public class XMLModelImporter implements IXMLExchangeGlobals {
                 String idref = propertyElement.getAttributeValue(ATTRIBUTE_PROPERTY_IDENTIFIERREF);
                 
                 if(idref != null) {
-                    String propertyName = fPropertyDefinitionsList.get(idref);
-                    if(propertyName != null) {
-                        String propertyValue = getChildElementText(propertyElement, ELEMENT_VALUE, true);
-                        IProperty property = IArchimateFactory.eINSTANCE.createProperty();
-                        property.setKey(propertyName);
-                        property.setValue(propertyValue);
-                        propertiesModel.getProperties().add(property);
+                    String propertyValue = getChildElementText(propertyElement, ELEMENT_VALUE, true);
+                    
+                    // Property definitions come after elements and relations in the file so keep these until they are read
+                    if(!fHasPropertyDefinitions) {
+                        PendingProperty pendingProperty = new PendingProperty();
+                        pendingProperty.propertiesModel = propertiesModel;
+                        pendingProperty.idref = idref;
+                        pendingProperty.value = propertyValue;
+                        fPendingProperties.add(pendingProperty);
+                    }
+                    else {
+                        addProperty(propertiesModel, idref, propertyValue);
                     }
                 }
             }
         }
     }
     
+    private void addProperty(IProperties propertiesModel, String idref, String propertyValue) {
+        String propertyName = fPropertyDefinitionsList.get(idref);
+        if(propertyName != null) {
+            IProperty property = IArchimateFactory.eINSTANCE.createProperty();
+            property.setKey(propertyName);
+            property.setValue(propertyValue);
+            propertiesModel.getProperties().add(property);
+        }
+    }
+    
     // ========================================= Elements ======================================
 
-    private void parseArchiMateElements(Element elementsElement) throws XMLModelParserException {
-        if(elementsElement == null) {
-            throw new XMLModelParserException(Messages.XMLModelImporter_0);
+    private void parseArchiMateElement(Element childElement) throws XMLModelParserException {
+        String type = childElement.getAttributeValue(ATTRIBUTE_TYPE, XSI_NAMESPACE);
+        // If type is bogus ignore
+        if(type == null) {
+            return;
         }
         
-        for(Element childElement : elementsElement.getChildren(ELEMENT_ELEMENT, ARCHIMATE3_NAMESPACE)) {
-            String type = childElement.getAttributeValue(ATTRIBUTE_TYPE, XSI_NAMESPACE);
-            // If type is bogus ignore
-            if(type == null) {
-                continue;
-            }
-            
-            IArchimateElement element = (IArchimateElement)XMLTypeMapper.createArchimateConcept(type);
-            // If element is null throw exception
-            if(element == null) {
-                throw new XMLModelParserException(NLS.bind(Messages.XMLModelImporter_1, type));
-            }
-                    
-            // Identifier first
-            String id = childElement.getAttributeValue(ATTRIBUTE_IDENTIFIER);
-            if(id != null) {
-                element.setId(id);
-            }
+        IArchimateElement element = (IArchimateElement)XMLTypeMapper.createArchimateConcept(type);
+        // If element is null throw exception
+        if(element == null) {
+            throw new XMLModelParserException(NLS.bind(Messages.XMLModelImporter_1, type));
+        }
+        
+        // Identifier first
+        String id = childElement.getAttributeValue(ATTRIBUTE_IDENTIFIER);
+        if(id != null) {
+            element.setId(id);
+        }
 
-            // Add to model
-            fModel.getDefaultFolderForObject(element).getElements().add(element);
-            
-            String name = getChildElementText(childElement, ELEMENT_NAME, true);
-            if(name != null) {
-                element.setName(name);
-            }
-            
-            String documentation = getChildElementText(childElement, ELEMENT_DOCUMENTATION, false);
-            if(documentation != null) {
-                element.setDocumentation(documentation);
-            }
-            
-            // Properties
-            addProperties(element, childElement);
-            
-            // Add to lookup
-            fConceptsLookup.put(element.getId(), element);
+        // Add to model
+        fModel.getDefaultFolderForObject(element).getElements().add(element);
+        
+        String name = getChildElementText(childElement, ELEMENT_NAME, true);
+        if(name != null) {
+            element.setName(name);
         }
+        
+        String documentation = getChildElementText(childElement, ELEMENT_DOCUMENTATION, false);
+        if(documentation != null) {
+            element.setDocumentation(documentation);
+        }
+        
+        // Properties
+        addProperties(element, childElement);
+        
+        // Add to lookup
+        fConceptsLookup.put(element.getId(), element);
     }
     
     // ========================================= Relations ======================================
 
-    private void parseArchiMateRelations(Element relationsElement) throws IOException {
-        if(relationsElement == null) { // Optional
+    private void parseArchiMateRelation(Element childElement) throws IOException {
+        String type = childElement.getAttributeValue(ATTRIBUTE_TYPE, XSI_NAMESPACE);
+        // If type is bogus ignore
+        if(type == null) {
             return;
         }
         
-        class RelationInfo {
-            IArchimateRelationship relation;
-            String sourceID;
-            String targetID;
+        IArchimateRelationship relation = (IArchimateRelationship)XMLTypeMapper.createArchimateConcept(type);
+        // If relation is null throw exception
+        if(relation == null) {
+            throw new IOException(NLS.bind(Messages.XMLModelImporter_2, type));
         }
         
-        List<RelationInfo> relationInfoList = new ArrayList<RelationInfo>();
-        IFolder relationshipFolder = fModel.getFolder(FolderType.RELATIONS);
-        
-        for(Element childElement : relationsElement.getChildren(ELEMENT_RELATIONSHIP, ARCHIMATE3_NAMESPACE)) {
-            String type = childElement.getAttributeValue(ATTRIBUTE_TYPE, XSI_NAMESPACE);
-            // If type is bogus ignore
-            if(type == null) {
-                continue;
-            }
-            
-            IArchimateRelationship relation = (IArchimateRelationship)XMLTypeMapper.createArchimateConcept(type);
-            // If relation is null throw exception
-            if(relation == null) {
-                throw new IOException(NLS.bind(Messages.XMLModelImporter_2, type));
-            }
-            
-            // Identifier first
-            String id = childElement.getAttributeValue(ATTRIBUTE_IDENTIFIER);
-            if(id != null) {
-                relation.setId(id);
-            }
+        // Identifier first
+        String id = childElement.getAttributeValue(ATTRIBUTE_IDENTIFIER);
+        if(id != null) {
+            relation.setId(id);
+        }
 
-            // Add to model
-            relationshipFolder.getElements().add(relation);
-            
-            // Name
-            String name = getChildElementText(childElement, ELEMENT_NAME, true);
-            if(name != null) {
-                relation.setName(name);
-            }
-            
-            // Documentation
-            String documentation = getChildElementText(childElement, ELEMENT_DOCUMENTATION, false);
-            if(documentation != null) {
-                relation.setDocumentation(documentation);
-            }
-            
-            // Properties
-            addProperties(relation, childElement);
-            
-            // Source and target
-            String sourceID = childElement.getAttributeValue(ATTRIBUTE_SOURCE);
-            String targetID = childElement.getAttributeValue(ATTRIBUTE_TARGET);
-            
-            // Access type
-            if(relation instanceof IAccessRelationship) {
-                String accessType = childElement.getAttributeValue(ATTRIBUTE_ACCESS_TYPE);
-                if(accessType != null) {
-                    IAccessRelationship accessRelationship = (IAccessRelationship)relation;
-                    
-                    switch(accessType) {
-                        case ACCESS_TYPE_ACCESS:
-                            accessRelationship.setAccessType(IAccessRelationship.UNSPECIFIED_ACCESS);
-                            break;
+        // Add to model
+        fModel.getFolder(FolderType.RELATIONS).getElements().add(relation);
+        
+        // Name
+        String name = getChildElementText(childElement, ELEMENT_NAME, true);
+        if(name != null) {
+            relation.setName(name);
+        }
+        
+        // Documentation
+        String documentation = getChildElementText(childElement, ELEMENT_DOCUMENTATION, false);
+        if(documentation != null) {
+            relation.setDocumentation(documentation);
+        }
+        
+        // Properties
+        addProperties(relation, childElement);
+        
+        // Source and target
+        String sourceID = childElement.getAttributeValue(ATTRIBUTE_SOURCE);
+        String targetID = childElement.getAttributeValue(ATTRIBUTE_TARGET);
+        
+        // Access type
+        if(relation instanceof IAccessRelationship) {
+            String accessType = childElement.getAttributeValue(ATTRIBUTE_ACCESS_TYPE);
+            if(accessType != null) {
+                IAccessRelationship accessRelationship = (IAccessRelationship)relation;
+                
+                switch(accessType) {
+                    case ACCESS_TYPE_ACCESS:
+                        accessRelationship.setAccessType(IAccessRelationship.UNSPECIFIED_ACCESS);
+                        break;
 
-                        case ACCESS_TYPE_READ:
-                            accessRelationship.setAccessType(IAccessRelationship.READ_ACCESS);
-                            break;
+                    case ACCESS_TYPE_READ:
+                        accessRelationship.setAccessType(IAccessRelationship.READ_ACCESS);
+                        break;
 
-                        case ACCESS_TYPE_READ_WRITE:
-                            accessRelationship.setAccessType(IAccessRelationship.READ_WRITE_ACCESS);
-                            break;
+                    case ACCESS_TYPE_READ_WRITE:
+                        accessRelationship.setAccessType(IAccessRelationship.READ_WRITE_ACCESS);
+                        break;
 
-                        default:
-                            accessRelationship.setAccessType(IAccessRelationship.WRITE_ACCESS);
-                            break;
-                    }
+                    default:
+                        accessRelationship.setAccessType(IAccessRelationship.WRITE_ACCESS);
+                        break;
                 }
             }
-            // Influence type
-            else if(relation instanceof IInfluenceRelationship) {
-                String influenceStrength = childElement.getAttributeValue(ATTRIBUTE_INFLUENCE_MODIFIER);
-                if(influenceStrength != null) {
-                    ((IInfluenceRelationship)relation).setStrength(influenceStrength);
-                }
+        }
+        // Influence type
+        else if(relation instanceof IInfluenceRelationship) {
+            String influenceStrength = childElement.getAttributeValue(ATTRIBUTE_INFLUENCE_MODIFIER);
+            if(influenceStrength != null) {
+                ((IInfluenceRelationship)relation).setStrength(influenceStrength);
             }
-            // Association type
-            else if(relation instanceof IAssociationRelationship) {
-                String isDirected = childElement.getAttributeValue(ATTRIBUTE_ASSOCIATION_DIRECTED);
-                if("true".equalsIgnoreCase(isDirected)) { //$NON-NLS-1$
-                    ((IAssociationRelationship)relation).setDirected(true);
-                }
+        }
+        // Association type
+        else if(relation instanceof IAssociationRelationship) {
+            String isDirected = childElement.getAttributeValue(ATTRIBUTE_ASSOCIATION_DIRECTED);
+            if("true".equalsIgnoreCase(isDirected)) { //$NON-NLS-1$
+                ((IAssociationRelationship)relation).setDirected(true);
             }
-            
-            // Add to lookup table
-            fConceptsLookup.put(relation.getId(), relation);
-            
-            // Add to relations list for 2nd pass
-            RelationInfo rInfo = new RelationInfo();
-            rInfo.relation = relation;
-            rInfo.sourceID = sourceID;
-            rInfo.targetID = targetID;
-            relationInfoList.add(rInfo);
         }
         
-        // 2nd pass, add source and target concepts
-        for(RelationInfo rInfo : relationInfoList) {
+        // Add to lookup table
+        fConceptsLookup.put(relation.getId(), relation);
+        
+        // Add to relations list for 2nd pass
+        RelationInfo rInfo = new RelationInfo();
+        rInfo.relation = relation;
+        rInfo.sourceID = sourceID;
+        rInfo.targetID = targetID;
+        fRelationInfoList.add(rInfo);
+    }
+    
+    /**
+     * 2nd pass, add source and target concepts when all relations have been read
+     */
+    private void addRelationSourcesAndTargets() throws IOException {
+        for(RelationInfo rInfo : fRelationInfoList) {
             IArchimateConcept source = fConceptsLookup.get(rInfo.sourceID);
             if(source == null) {
                 throw new IOException(Messages.XMLModelImporter_3 + rInfo.sourceID);
@@ -367,36 +570,80 @@ public class XMLModelImporter implements IXMLExchangeGlobals {
             rInfo.relation.setSource(source);
             rInfo.relation.setTarget(target);
         }
+        
+        fRelationInfoList.clear();
     }
     
     // ========================================= Organizations ======================================
 
+    /**
+     * An organization item and the folders that its hierarchy resolves to.
+     * Folders are resolved from the top of the hierarchy down and kept, so the parent items don't have to be walked for each item.
+     */
+    private static class OrganizationItem {
+        OrganizationItem parent;
+        
+        String name;
+        String documentation;
+        
+        // The Archi top level folder if this is a top level item whose label matches the folder name
+        IFolder toplevelFolder;
+        
+        // The top level folder of this item's hierarchy
+        IFolder toplevelFolderInHierarchy;
+        
+        // Base folder -> sub-folder for this item
+        Map<IFolder, IFolder> subFolders;
+    }
+    
     private void parseOrganizations(Element organizationsElement) {
         for(Element childElement : organizationsElement.getChildren(ELEMENT_ITEM, ARCHIMATE3_NAMESPACE)) {
-            parseItem(childElement);
+            parseItem(childElement, null);
         }
     }
     
-    private void parseItem(Element itemElement) {
+    private void parseItem(Element itemElement, OrganizationItem parentItem) {
+        OrganizationItem item = createOrganizationItem(itemElement, parentItem);
+        
         // Is it a Concept or View added to a folder?
-        boolean result = addObjectItemToFolder(itemElement);
+        boolean result = addObjectItemToFolder(itemElement, parentItem);
         
         // No, then a sub-folder?
         if(!result) {
-            getSubFolder(itemElement, getTopLevelArchiFolderInHierarchy(itemElement));
+            getSubFolder(item, item.toplevelFolderInHierarchy);
         }
 
         // Child Items
         for(Element childElement : itemElement.getChildren(ELEMENT_ITEM, ARCHIMATE3_NAMESPACE)) {
-            parseItem(childElement);
+            parseItem(childElement, item);
         }
     }
     
+    private OrganizationItem createOrganizationItem(Element itemElement, OrganizationItem parentItem) {
+        String label = getChildElementText(itemElement, ELEMENT_LABEL, true);
+        
+        OrganizationItem item = new OrganizationItem();
+        item.parent = parentItem;
+        item.name = StringUtils.safeString(label);
+        item.documentation = StringUtils.safeString(getChildElementText(itemElement, ELEMENT_DOCUMENTATION, true));
+        
+        // Top level item
+        if(parentItem == null) {
+            item.toplevelFolder = getTopLevelArchiFolder(label);
+            item.toplevelFolderInHierarchy = item.toplevelFolder;
+        }
+        else {
+            item.toplevelFolderInHierarchy = parentItem.toplevelFolderInHierarchy;
+        }
+        
+        return item;
+    }
+    
     /**
      * Add the object referenced by itemElement (if any) to a folder or sub-folder
      * @return true if successful
      */
-    private boolean addObjectItemToFolder(Element itemElement) {
+    private boolean addObjectItemToFolder(Element itemElement, OrganizationItem parentItem) {
         IArchimateModelObject object = getItemObject(itemElement);
         
         if(object == null) {
@@ -404,7 +651,7 @@ public class XMLModelImporter implements IXMLExchangeGlobals {
         }
         
         // Create/get a sub-folder
-        IFolder folder = getSubFolder(itemElement.getParentElement(), fModel.getDefaultFolderForObject(object));
+        IFolder folder = getSubFolder(parentItem, fModel.getDefaultFolderForObject(object));
         
         // Add it
         if(folder != null) {
@@ -427,7 +674,7 @@ public class XMLModelImporter implements IXMLExchangeGlobals {
         }
         
         // Must not have child items
-        if(!itemElement.getChildren(ELEMENT_ITEM, ARCHIMATE3_NAMESPACE).isEmpty()) {
+        if(itemElement.getChild(ELEMENT_ITEM, ARCHIMATE3_NAMESPACE) != null) {
             return null;
         }
         
@@ -436,32 +683,37 @@ public class XMLModelImporter implements IXMLExchangeGlobals {
     }
     
     /**
-     * Get a sub-folder for itemElement. If it does not exist, it is created.
+     * Get a sub-folder in folder for item's hierarchy. If it does not exist, it is created.
+     * If item is null (the organizations element) then folder is returned.
      */
-    private IFolder getSubFolder(Element itemElement, IFolder folder) {
-        if(folder == null) {
-            return null;
+    private IFolder getSubFolder(OrganizationItem item, IFolder folder) {
+        if(folder == null || item == null) {
+            return folder;
         }
         
-        // Work through the item hierarchy from top to bottom
-        for(Element element : getItemHierarchy(itemElement)) {
-            String name = StringUtils.safeString(getChildElementText(element, ELEMENT_LABEL, true));
-            String documentation = StringUtils.safeString(getChildElementText(element, ELEMENT_DOCUMENTATION, true));
-
-            // Is this a top-level Archi folder?
-            IFolder toplevelFolder = getTopLevelArchiFolder(element);
+        if(item.subFolders == null) {
+            item.subFolders = new HashMap<>();
+        }
+        
+        IFolder subFolder = item.subFolders.get(folder);
+        
+        if(subFolder == null) {
+            // Work through the item hierarchy from top to bottom
+            subFolder = getSubFolder(item.parent, folder);
             
-            // Yes it is, so just update the documentation
-            if(toplevelFolder != null) { 
-                toplevelFolder.setDocumentation(documentation);
+            // Is this a top-level Archi folder? Yes it is, so just update the documentation
+            if(item.toplevelFolder != null) {
+                item.toplevelFolder.setDocumentation(item.documentation);
             }
             // Not a top-level Archi folder so get/create the next sub-folder
-            else { 
-                folder = createSubFolder(folder, name, documentation);
+            else {
+                subFolder = createSubFolder(subFolder, item.name, item.documentation);
             }
+            
+            item.subFolders.put(folder, subFolder);
         }
-
-        return folder;
+        
+        return subFolder;
     }
     
     /**
@@ -483,113 +735,85 @@ public class XMLModelImporter implements IXMLExchangeGlobals {
     }
     
     /**
-     * @return a hierarchy of sub-folder items (reverses the elements from bottom-top to top-bottom)
-     */
-    private List<Element> getItemHierarchy(Element itemElement) {
-        List<Element> elements = new ArrayList<Element>();
-        
-        // While element is an item and not the organizations folder
-        while(itemElement != null && !ELEMENT_ORGANIZATIONS.equals(itemElement.getName())) {
-            elements.add(0, itemElement); // reverse order
-            itemElement = itemElement.getParentElement();
-        }
-        
-        return elements;
-    }
-    
-    /**
-     * @return the topmost Archi folder that corresponds to itemElement's hierarchy
+     * @return an Archi top level folder if name matches one of Archi's top-level folder names
      *         otherwise return null
      */
-    private IFolder getTopLevelArchiFolderInHierarchy(Element itemElement) {
-        while(itemElement != null && !ELEMENT_ORGANIZATIONS.equals(itemElement.getName())) {
-            IFolder folder = getTopLevelArchiFolder(itemElement);
-            if(folder != null) {
+    private IFolder getTopLevelArchiFolder(String name) {
+        for(IFolder folder : fModel.getFolders()) {
+            if(folder.getName().equals(name)) {
                 return folder;
             }
-            itemElement = itemElement.getParentElement();
         }
         
         return null;
     }
     
-    /**
-     * @return an Archi top level folder if itemElement is a top level item and its name matches one of Archi's top-level folder names
-     *         otherwise return null
-     */
-    private IFolder getTopLevelArchiFolder(Element itemElement) {
-        if(isTopLevelItem(itemElement)) {
-            String name = getChildElementText(itemElement, ELEMENT_LABEL, true);
-            for(IFolder folder : fModel.getFolders()) {
-                if(folder.getName().equals(name)) {
-                    return folder;
-                }
+    // ========================================= Views ======================================
+
+    private void parseViews(XMLStreamReader reader) throws XMLStreamException, IOException, JDOMException, XMLModelParserException {
+        boolean hasDiagrams = false;
+        
+        reader.next();
+        
+        while(nextChildElement(reader)) {
+            if(isElement(reader, ELEMENT_DIAGRAMS) && !hasDiagrams) {
+                hasDiagrams = true;
+                
+                // Add the views first because there may be child node view references
+                parseChildElements(reader, ELEMENT_VIEW, this::parseView);
+                
+                // Now add any view diagram references
+                addDiagramModelReferences();
+            }
+            else {
+                skipElement(reader);
             }
         }
-        
-        return null;
     }
     
-    /**
-     * @return true if itemElement is a direct child of the "organizations" element
-     */
-    private boolean isTopLevelItem(Element itemElement) {
-        return itemElement != null &&
-                itemElement.getParentElement() != null &&
-                ELEMENT_ORGANIZATIONS.equals(itemElement.getParentElement().getName());
-    }
-    
-    // ========================================= Views ======================================
+    private void parseView(Element viewElement) throws XMLModelParserException {
+        IArchimateDiagramModel dm = IArchimateFactory.eINSTANCE.createArchimateDiagramModel();
+        fModel.getDefaultFolderForObject(dm).getElements().add(dm);
+        
+        // Identifier first
+        String id = viewElement.getAttributeValue(ATTRIBUTE_IDENTIFIER);
+        if(id != null) {
+            dm.setId(id);
 
-    private void parseViews(Element viewsElement) throws XMLModelParserException {
-        if(viewsElement == null) { // Optional
-            return;
+            // Store it
+            fDiagramsLookup.put(id, dm);
         }
         
-        // Add the views first because there may be child node view references
-        for(Element viewElement : viewsElement.getChildren(ELEMENT_VIEW, ARCHIMATE3_NAMESPACE)) {
-            IArchimateDiagramModel dm = IArchimateFactory.eINSTANCE.createArchimateDiagramModel();
-            fModel.getDefaultFolderForObject(dm).getElements().add(dm);
-            
-            // Identifier first
-            String id = viewElement.getAttributeValue(ATTRIBUTE_IDENTIFIER);
-            if(id != null) {
-                dm.setId(id);
-
-                // Store it
-                fDiagramsLookup.put(id, dm);
-            }
-            
-            // Viewpoint
-            String viewPointName = viewElement.getAttributeValue(ATTRIBUTE_VIEWPOINT);
-            if(viewPointName != null) {
-                String viewPointID = XMLTypeMapper.getViewpointID(viewPointName);
-                dm.setViewpoint(viewPointID);
-            }
+        // Viewpoint
+        String viewPointName = viewElement.getAttributeValue(ATTRIBUTE_VIEWPOINT);
+        if(viewPointName != null) {
+            String viewPointID = XMLTypeMapper.getViewpointID(viewPointName);
+            dm.setViewpoint(viewPointID);
+        }
 
-            // Name
-            String name = getChildElementText(viewElement, ELEMENT_NAME, true);
-            if(name != null) {
-                dm.setName(name);
-            }
-            
-            // Documentation
-            String documentation = getChildElementText(viewElement, ELEMENT_DOCUMENTATION, false);
-            if(documentation != null) {
-                dm.setDocumentation(documentation);
-            }
-            
-            // Properties
-            addProperties(dm, viewElement);
-            
-            // Nodes
-            addNodes(dm, viewElement);
-            
-            // Connections
-            addConnections(viewElement);
+        // Name
+        String name = getChildElementText(viewElement, ELEMENT_NAME, true);
+        if(name != null) {
+            dm.setName(name);
+        }
+        
+        // Documentation
+        String documentation = getChildElementText(viewElement, ELEMENT_DOCUMENTATION, false);
+        if(documentation != null) {
+            dm.setDocumentation(documentation);
         }
         
-        // Now add any view diagram references
+        // Properties
+        addProperties(dm, viewElement);
+        
+        // Nodes
+        addNodes(dm, viewElement);
+        
+        // Connections
+        addConnections(dm, viewElement);
+    }
+    
+    private void addDiagramModelReferences() throws XMLModelParserException {
         for(Entry<IDiagramModelReference, String> element : fDiagramRefsLookup.entrySet()) {
             IDiagramModelReference dmRef = element.getKey();
             String refID = element.getValue();
@@ -601,6 +825,8 @@ public class XMLModelImporter implements IXMLExchangeGlobals {
                 throw new XMLModelParserException(Messages.XMLModelImporter_15 + refID);
             }
         }
+        
+        fDiagramRefsLookup.clear();
     }
     
     // ========================================= Nodes ======================================
@@ -758,7 +984,7 @@ public class XMLModelImporter implements IXMLExchangeGlobals {
     
     // ======================================= Connections ====================================
     
-    private void addConnections(Element viewElement) throws XMLModelParserException {
+    private void addConnections(IDiagramModel dm, Element viewElement) throws XMLModelParserException {
         class ConnectionInfo {
             IDiagramModelConnection connection;
             Element connectionElement;
@@ -855,42 +1081,41 @@ public class XMLModelImporter implements IXMLExchangeGlobals {
         }
         
         // Add implicit nested connections
-        addNestedConnections();
+        addNestedConnections(dm);
     }
     
     /**
      * Add implicit nested connections
-     * 1. Iterate through all diagram ArchiMate nodes and look for nested nodes
+     * 1. Iterate through the diagram's ArchiMate nodes and look for nested nodes
      * 2. If there is a relationship between the ArchiMate elements of the nodes and no existing connection, add one
+     * Only the diagram just read has to be checked as diagrams read before it have already been checked and are not changed
      */
-    private void addNestedConnections() {
-        for(IDiagramModel dm : fModel.getDiagramModels()) { // All diagrams
-            for(Iterator<EObject> iter = dm.eAllContents(); iter.hasNext();) { // Contents of a diagram
-                EObject eObject = iter.next();
+    private void addNestedConnections(IDiagramModel dm) {
+        for(Iterator<EObject> iter = dm.eAllContents(); iter.hasNext();) { // Contents of a diagram
+            EObject eObject = iter.next();
+            
+            if(eObject instanceof IDiagramModelArchimateObject) { // ArchiMate node
+                IDiagramModelArchimateObject parent = (IDiagramModelArchimateObject)eObject;
                 
-                if(eObject instanceof IDiagramModelArchimateObject) { // ArchiMate node
-                    IDiagramModelArchimateObject parent = (IDiagramModelArchimateObject)eObject;
-                    
-                    for(IDiagramModelObject dmo : parent.getChildren()) {
-                        if(dmo instanceof IDiagramModelArchimateObject) { // ArchiMate child node
-                            IDiagramModelArchimateObject child = (IDiagramModelArchimateObject)dmo;
-                            IArchimateElement parentElement = parent.getArchimateElement();
-                            IArchimateElement childElement = child.getArchimateElement();
-                            
-                            // Parent -> Child
-                            for(IArchimateRelationship relation : parentElement.getSourceRelationships()) {
-                                if(relation.getTarget() == childElement && !DiagramModelUtils.hasDiagramModelArchimateConnection(parent, child, relation)) {
-                                    IDiagramModelArchimateConnection connection = ArchimateDiagramModelFactory.createDiagramModelArchimateConnection(relation);
-                                    connection.connect(parent, child);
-                                }
+                for(IDiagramModelObject dmo : parent.getChildren()) {
+                    if(dmo instanceof IDiagramModelArchimateObject) { // ArchiMate child node
+                        IDiagramModelArchimateObject child = (IDiagramModelArchimateObject)dmo;
+                        IArchimateElement parentElement = parent.getArchimateElement();
+                        IArchimateElement childElement = child.getArchimateElement();
+                        
+                        // Parent -> Child
+                        for(IArchimateRelationship relation : parentElement.getSourceRelationships()) {
+                            if(relation.getTarget() == childElement && !DiagramModelUtils.hasDiagramModelArchimateConnection(parent, child, relation)) {
+                                IDiagramModelArchimateConnection connection = ArchimateDiagramModelFactory.createDiagramModelArchimateConnection(relation);
+                                connection.connect(parent, child);
                             }
-                            
-                            // Child -> Parent
-                            for(IArchimateRelationship relation : childElement.getSourceRelationships()) {
-                                if(relation.getTarget() == parentElement && !DiagramModelUtils.hasDiagramModelArchimateConnection(child, parent, relation)) {
-                                    IDiagramModelArchimateConnection connection = ArchimateDiagramModelFactory.createDiagramModelArchimateConnection(relation);
-                                    connection.connect(child, parent);
-                                }
+                        }
+                        
+                        // Child -> Parent
+                        for(IArchimateRelationship relation : childElement.getSourceRelationships()) {
+                            if(relation.getTarget() == parentElement && !DiagramModelUtils.hasDiagramModelArchimateConnection(child, parent, relation)) {
+                                IDiagramModelArchimateConnection connection = ArchimateDiagramModelFactory.createDiagramModelArchimateConnection(relation);
+                                connection.connect(child, parent);
                             }
                         }
                     }
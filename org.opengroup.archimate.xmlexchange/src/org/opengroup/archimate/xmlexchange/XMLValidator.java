@@ -11,6 +11,12 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import javax.xml.XMLConstants;
 import javax.xml.transform.Source;
@@ -27,23 +33,136 @@ import org.xml.sax.SAXException;
 /**
  * XML Validator
  * 
+ * The XSDs are compiled into a Schema the first time that it is needed and this is kept for the lifetime of the plug-in.
+ * A Schema is thread safe so many files can be validated at the same time, each with its own Validator.
+ * 
  * @author Phillip Beauvoir
  */
 public final class XMLValidator {
     
-    public void validateXML(File xmlInstance) throws SAXException, IOException {
-        SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+    /**
+     * The compiled XSDs
+     */
+    private static Schema schema;
+    
+    /**
+     * The result of validating one file
+     */
+    public static final class FileResult {
+        private File file;
+        private Exception exception;
+        private long time;
         
-        // Resolver for xsd import
-        factory.setResourceResolver(new ResourceResolver());
+        FileResult(File file) {
+            this.file = file;
+        }
         
-        // Local XSDs
-        Schema schema = factory.newSchema(new Source[]{
-                new StreamSource(XMLExchangePlugin.INSTANCE.getBundleInputStream(XMLExchangePlugin.XSD_FOLDER + XMLExchangePlugin.ARCHIMATE3_DIAGRAM_XSD)),
-                new StreamSource(XMLExchangePlugin.INSTANCE.getBundleInputStream(XMLExchangePlugin.XSD_FOLDER + XMLExchangePlugin.DUBLINCORE_XSD))
-        });
-
-        Validator validator = schema.newValidator();
+        public File getFile() {
+            return file;
+        }
+        
+        public boolean isValid() {
+            return exception == null;
+        }
+        
+        /**
+         * @return The SAXException if the file is not valid, or the IOException if it could not be read. Null if the file is valid
+         */
+        public Exception getException() {
+            return exception;
+        }
+        
+        /**
+         * @return The time taken to validate the file in milliseconds
+         */
+        public long getTime() {
+            return time;
+        }
+    }
+    
+    /**
+     * The results of validating a batch of files
+     */
+    public static final class BatchResult {
+        private List<FileResult> results;
+        private long time;
+        private long bytes;
+        
+        BatchResult(List<FileResult> results, long time, long bytes) {
+            this.results = Collections.unmodifiableList(results);
+            this.time = time;
+            this.bytes = bytes;
+        }
+        
+        /**
+         * @return The result for each file, in the same order as the files
+         */
+        public List<FileResult> getResults() {
+            return results;
+        }
+        
+        public int getValidCount() {
+            int count = 0;
+            for(FileResult result : results) {
+                if(result.isValid()) {
+                    count++;
+                }
+            }
+            return count;
+        }
+        
+        public int getInvalidCount() {
+            return results.size() - getValidCount();
+        }
+        
+        /**
+         * @return The elapsed time taken to validate all of the files in milliseconds
+         */
+        public long getTime() {
+            return time;
+        }
+        
+        /**
+         * @return The total size of the files in bytes
+         */
+        public long getBytes() {
+            return bytes;
+        }
+        
+        public double getFilesPerSecond() {
+            return time > 0 ? results.size() * 1000.0 / time : results.size();
+        }
+        
+        public double getBytesPerSecond() {
+            return time > 0 ? bytes * 1000.0 / time : bytes;
+        }
+    }
+    
+    /**
+     * @return The compiled XSDs, creating them the first time
+     */
+    static synchronized Schema getSchema() throws SAXException, IOException {
+        if(schema == null) {
+            SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+            
+            // Resolver for xsd import
+            factory.setResourceResolver(new ResourceResolver());
+            
+            // Local XSDs
+            try(InputStream diagramXSD = XMLExchangePlugin.INSTANCE.getBundleInputStream(XMLExchangePlugin.XSD_FOLDER + XMLExchangePlugin.ARCHIMATE3_DIAGRAM_XSD);
+                    InputStream dcXSD = XMLExchangePlugin.INSTANCE.getBundleInputStream(XMLExchangePlugin.XSD_FOLDER + XMLExchangePlugin.DUBLINCORE_XSD)) {
+                schema = factory.newSchema(new Source[]{
+                        new StreamSource(diagramXSD),
+                        new StreamSource(dcXSD)
+                });
+            }
+        }
+        
+        return schema;
+    }
+    
+    public void validateXML(File xmlInstance) throws SAXException, IOException {
+        Validator validator = getSchema().newValidator();
         
         // Don't allow DTD loading in case of XSS exploits
         validator.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, ""); //$NON-NLS-1$
@@ -65,6 +184,70 @@ public final class XMLValidator {
             in.close();
         }
     }
+    
+    /**
+     * Validate files at the same time using the common ForkJoinPool.
+     * An invalid file doesn't stop the others from being validated.
+     * @param xmlInstances The files to validate
+     * @return The result for each file and the total time taken
+     * @throws SAXException if the XSDs could not be compiled
+     * @throws IOException if the XSDs could not be read
+     */
+    public BatchResult validateXML(List<File> xmlInstances) throws SAXException, IOException {
+        long start = System.currentTimeMillis();
+        
+        // Compile the XSDs first so that this isn't done in a task
+        getSchema();
+        
+        List<ForkJoinTask<FileResult>> tasks = new ArrayList<>();
+        
+        for(File file : xmlInstances) {
+            tasks.add(ForkJoinPool.commonPool().submit(() -> {
+                FileResult result = new FileResult(file);
+                long fileStart = System.currentTimeMillis();
+                
+                try {
+                    validateXML(file);
+                }
+                catch(SAXException | IOException ex) {
+                    result.exception = ex;
+                }
+                
+                result.time = System.currentTimeMillis() - fileStart;
+                return result;
+            }));
+        }
+        
+        List<FileResult> results = new ArrayList<>();
+        long bytes = 0;
+        
+        for(ForkJoinTask<FileResult> task : tasks) {
+            try {
+                FileResult result = task.get();
+                results.add(result);
+                bytes += result.file.length();
+            }
+            catch(InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                for(ForkJoinTask<FileResult> t : tasks) {
+                    t.cancel(false);
+                }
+                throw new IOException(ex);
+            }
+            catch(ExecutionException ex) {
+                Throwable cause = ex.getCause();
+                if(cause instanceof RuntimeException) {
+                    throw (RuntimeException)cause;
+                }
+                if(cause instanceof Error) {
+                    throw (Error)cause;
+                }
+                throw new IOException(cause);
+            }
+        }
+        
+        return new BatchResult(results, System.currentTimeMillis() - start, bytes);
+    }
 
     static class ResourceResolver implements LSResourceResolver {
         @Override
@@ -9,18 +9,27 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.archimatetool.editor.utils.FileUtils;
+import com.archimatetool.model.FolderType;
 import com.archimatetool.model.IArchimateConcept;
 import com.archimatetool.model.IArchimateElement;
 import com.archimatetool.model.IArchimateFactory;
 import com.archimatetool.model.IArchimateModel;
 import com.archimatetool.model.IArchimateRelationship;
+import com.archimatetool.model.IAssociationRelationship;
+import com.archimatetool.model.IFolder;
 import com.archimatetool.model.IProperty;
+import com.archimatetool.tests.TestUtils;
 
 import junit.framework.JUnit4TestAdapter;
 
@@ -44,6 +53,11 @@ public class CSVExporterTests {
         exporter = new CSVExporter(model);
     }
     
+    @After
+    public void runOnceAfterEachTest() {
+        FileUtils.deleteFolder(TestUtils.TMP_FOLDER);
+    }
+    
     @Test
     public void testCreateHeader() {
         String[] elements = { "One", "Two", "Three" };
@@ -235,6 +249,63 @@ public class CSVExporterTests {
         assertEquals(element1, list.get(3));
     }
     
+    @Test
+    public void testExport() throws Exception {
+        IArchimateModel model = IArchimateFactory.eINSTANCE.createArchimateModel();
+        model.setDefaults();
+        model.setName("Model");
+        
+        // Two elements with the same sort key, the second in a child folder
+        IArchimateElement element1 = IArchimateFactory.eINSTANCE.createBusinessActor();
+        element1.setName("Actor");
+        element1.getProperties().add(createProperty("key1", "value1"));
+        model.getFolder(FolderType.BUSINESS).getElements().add(element1);
+        
+        IFolder folder = IArchimateFactory.eINSTANCE.createFolder();
+        model.getFolder(FolderType.BUSINESS).getFolders().add(folder);
+        
+        IArchimateElement element2 = IArchimateFactory.eINSTANCE.createBusinessActor();
+        element2.setName("actor ");
+        element2.getProperties().add(createProperty("key2", "value2"));
+        folder.getElements().add(element2);
+        
+        IAssociationRelationship relation = IArchimateFactory.eINSTANCE.createAssociationRelationship();
+        relation.connect(element1, element2);
+        model.getFolder(FolderType.RELATIONS).getElements().add(relation);
+        
+        CSVExporter exporter = new CSVExporter(model);
+        File folderOutput = TestUtils.createTempFolder("csv");
+        exporter.export(folderOutput);
+        
+        String expected = exporter.createHeader(CSVExporter.MODEL_ELEMENTS_HEADER) + CSVExporter.CRLF
+                + exporter.createModelRow()
+                + CSVExporter.CRLF + exporter.createElementRow(element1)
+                + CSVExporter.CRLF + exporter.createElementRow(element2);
+        assertEquals(expected, readFile(new File(folderOutput, exporter.createElementsFileName())));
+        
+        expected = exporter.createHeader(CSVExporter.RELATIONSHIPS_HEADER)
+                + CSVExporter.CRLF + exporter.createRelationshipRow(relation);
+        assertEquals(expected, readFile(new File(folderOutput, exporter.createRelationsFileName())));
+        
+        // Properties are in model contents order, so child folders come first
+        expected = exporter.createHeader(CSVExporter.PROPERTIES_HEADER)
+                + CSVExporter.CRLF + exporter.createPropertyRow(element2.getId(), "key2", "value2")
+                + CSVExporter.CRLF + exporter.createPropertyRow(element1.getId(), "key1", "value1")
+                + CSVExporter.CRLF + exporter.createPropertyRow(relation.getId(), CSVExporter.ASSOCIATION_DIRECTED, "false");
+        assertEquals(expected, readFile(new File(folderOutput, exporter.createPropertiesFileName())));
+    }
+    
+    private IProperty createProperty(String key, String value) {
+        IProperty property = IArchimateFactory.eINSTANCE.createProperty();
+        property.setKey(key);
+        property.setValue(value);
+        return property;
+    }
+    
+    private String readFile(File file) throws Exception {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+    
     @Test
     public void testCreateElementsFileName() {
         assertEquals("elements.csv", exporter.createElementsFileName());
@@ -14,7 +14,12 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
 
+import org.apache.commons.csv.CSVRecord;
 import org.eclipse.gef.commands.CommandStack;
 import org.junit.Before;
 import org.junit.Test;
@@ -233,6 +238,65 @@ public class CSVImporterTests {
         assertEquals(7, importer.newProperties.size());
     }
 
+    @Test
+    public void testReadRecords() throws Exception {
+        List<CSVRecord> records = new ArrayList<>();
+        long count = importer.readRecords(elements1File, records::add);
+        
+        assertEquals(records.size(), count);
+        assertTrue(count > 1);
+        assertEquals("ID", records.get(0).get(0));
+    }
+    
+    @Test
+    public void testReadRecords_SemicolonDelimiter() throws Exception {
+        File file = File.createTempFile("elements", ".csv");
+        file.deleteOnExit();
+        Files.write(file.toPath(), "\"ID\";\"Type\";\"Name\"\n\"id1\";\"BusinessActor\";\"Actor\"\n".getBytes(StandardCharsets.UTF_8));
+        
+        List<CSVRecord> records = new ArrayList<>();
+        assertEquals(2, importer.readRecords(file, records::add));
+        assertEquals("BusinessActor", records.get(1).get(1));
+        
+        file.delete();
+    }
+    
+    @Test
+    public void testGetCSVFormat_FromHeaderRecord() throws Exception {
+        File file = File.createTempFile("elements", ".csv");
+        file.deleteOnExit();
+        
+        Files.write(file.toPath(), "ID,Type,Name\nid1,BusinessActor,Actor\n".getBytes(StandardCharsets.UTF_8));
+        assertEquals(',', importer.getCSVFormat(file).getDelimiter());
+        
+        // Unquoted header fields can be read with any delimiter so the header has to be split into fields
+        Files.write(file.toPath(), "ID;Type;Name\nid1;BusinessActor;Actor\n".getBytes(StandardCharsets.UTF_8));
+        assertEquals(';', importer.getCSVFormat(file).getDelimiter());
+        
+        Files.write(file.toPath(), "ID\tType\tName\nid1\tBusinessActor\tActor\n".getBytes(StandardCharsets.UTF_8));
+        assertEquals('\t', importer.getCSVFormat(file).getDelimiter());
+        
+        // Only the header record is read
+        Files.write(file.toPath(), "\"ID\";\"Type\";\"Name\"\n\"id1\",\"BusinessActor\"x,\"Actor\"\n".getBytes(StandardCharsets.UTF_8));
+        assertEquals(';', importer.getCSVFormat(file).getDelimiter());
+        
+        file.delete();
+    }
+    
+    @Test
+    public void testDoImport_RecordCount() throws Exception {
+        long expected = importer.readRecords(elements1File, record -> {})
+                + importer.readRecords(relations1File, record -> {})
+                + importer.readRecords(properties1File, record -> {});
+        
+        CSVImporter csvImporter = new CSVImporter(model);
+        csvImporter.doImport(elements1File);
+        
+        assertEquals(expected, csvImporter.getRecordCount());
+        assertTrue(csvImporter.getImportTime() >= 0);
+        assertTrue(csvImporter.getRecordsPerSecond() >= 0);
+    }
+    
     @Test
     public void testIsElementsFileName() {
         assertFalse(CSVImporter.isElementsFileName(new File("relations.csv")));
@@ -16,6 +16,7 @@ import com.archimatetool.editor.diagram.policies.AllPoliciesTests;
 import com.archimatetool.editor.diagram.sketch.AllSketchTests;
 import com.archimatetool.editor.diagram.tools.FormatPainterInfoTests;
 import com.archimatetool.editor.diagram.tools.FormatPainterToolTests;
+import com.archimatetool.editor.diagram.util.DiagramImageRendererTests;
 import com.archimatetool.editor.diagram.util.DiagramUtilsTests;
 
 @SuppressWarnings("nls")
@@ -54,6 +55,7 @@ public class AllDiagramTests {
 		suite.addTest(FormatPainterToolTests.suite());
 
         // diagram.util
+        suite.addTest(DiagramImageRendererTests.suite());
         suite.addTest(DiagramUtilsTests.suite());
 
         return suite;
@@ -0,0 +1,136 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.diagram.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+
+import org.eclipse.gef.GraphicalViewer;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.RGB;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.layout.FillLayout;
+import org.eclipse.swt.widgets.Shell;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.archimatetool.editor.TestSupport;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IDiagramModel;
+import com.archimatetool.testingtools.ArchimateTestModel;
+
+import junit.framework.JUnit4TestAdapter;
+
+
+/**
+ * DiagramImageRendererTests
+ */
+@SuppressWarnings("nls")
+public class DiagramImageRendererTests {
+    
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(DiagramImageRendererTests.class);
+    }
+    
+    private static IArchimateModel model;
+    
+    private DiagramImageRenderer renderer;
+    
+    @BeforeClass
+    public static void runOnceBeforeAllTests() throws IOException {
+        ArchimateTestModel tm = new ArchimateTestModel(TestSupport.TEST_MODEL_FILE_1);
+        model = tm.loadModel();
+    }
+    
+    @Before
+    public void runBeforeEachTest() {
+        renderer = new DiagramImageRenderer();
+    }
+    
+    @After
+    public void runAfterEachTest() {
+        renderer.dispose();
+    }
+    
+    @Test
+    public void testCreateImage_SameAsDiagramUtils() {
+        // The same renderer is used for all Views
+        for(IDiagramModel dm : model.getDiagramModels()) {
+            Image img1 = createImageWithNewViewer(dm, 1, 10);
+            Image img2 = renderer.createImage(dm, 1, 10);
+            assertSameImage(img1, img2);
+            img1.dispose();
+            img2.dispose();
+        }
+    }
+    
+    @Test
+    public void testCreateImage_ReusedForDifferentSizes() {
+        // Blank View then a View with children
+        IDiagramModel dm1 = model.getDiagramModels().get(0);
+        IDiagramModel dm2 = model.getDiagramModels().get(2);
+        
+        Image img = renderer.createImage(dm2, 1, 0);
+        assertEquals(new Rectangle(0, 0, 720 + 193, 468 + 85), img.getBounds());
+        img.dispose();
+        
+        // Figures of the previous View are not included
+        img = renderer.createImage(dm1, 1, 0);
+        assertEquals(new Rectangle(0, 0, 100, 100), img.getBounds());
+        img.dispose();
+        
+        img = renderer.createImage(dm2, 0.5, 0);
+        assertEquals(new Rectangle(0, 0, (720 + 193) / 2, (468 + 85) / 2), img.getBounds());
+        img.dispose();
+    }
+    
+    @Test
+    public void testCreateModelReferencedImage_RemovesEditParts() {
+        IDiagramModel dm = model.getDiagramModels().get(2);
+        int adapters = dm.eAdapters().size();
+        
+        ModelReferencedImage image = renderer.createModelReferencedImage(dm, 1, 0);
+        image.getImage().dispose();
+        
+        // Edit parts are not listening to the model any more
+        assertEquals(adapters, dm.eAdapters().size());
+    }
+    
+    /**
+     * Create an image with a new Shell and Viewer as DiagramUtils did before DiagramImageRenderer
+     */
+    private Image createImageWithNewViewer(IDiagramModel dm, double scale, int margin) {
+        Shell shell = new Shell();
+        shell.setLayout(new FillLayout());
+        
+        try {
+            GraphicalViewer viewer = DiagramUtils.createViewer(dm, shell);
+            return DiagramUtils.createImage(viewer, scale, margin);
+        }
+        finally {
+            shell.dispose();
+        }
+    }
+    
+    private void assertSameImage(Image expected, Image actual) {
+        assertEquals(expected.getBounds(), actual.getBounds());
+        
+        ImageData expectedData = expected.getImageData();
+        ImageData actualData = actual.getImageData();
+        
+        for(int x = 0; x < expectedData.width; x++) {
+            for(int y = 0; y < expectedData.height; y++) {
+                RGB expectedRGB = expectedData.palette.getRGB(expectedData.getPixel(x, y));
+                RGB actualRGB = actualData.palette.getRGB(actualData.getPixel(x, y));
+                assertEquals("Pixel at " + x + "," + y, expectedRGB, actualRGB);
+            }
+        }
+    }
+}
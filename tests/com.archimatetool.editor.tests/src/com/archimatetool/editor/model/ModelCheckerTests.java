@@ -6,6 +6,7 @@
 package com.archimatetool.editor.model;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -188,4 +189,66 @@ public class ModelCheckerTests {
         assertEquals(1, messages.size());
         assertEquals("Folder contains wrong child object (Folder: " + folder.getId() + " Object: " + object.getId() + ")", messages.get(0));
     }
+    
+    @Test
+    public void checkAll_ErrorsInFolders() {
+        IArchimateElement element = (IArchimateElement)tm.createModelElementAndAddToModel(IArchimatePackage.eINSTANCE.getBusinessActor());
+        element.setName("Actor");
+        element.setId(null);
+        
+        IArchimateRelationship relation = (IArchimateRelationship)tm.createModelElementAndAddToModel(IArchimatePackage.eINSTANCE.getAssociationRelationship());
+        
+        assertFalse(modelChecker.checkAll());
+        
+        // In model order
+        List<String> messages = modelChecker.getErrorMessages();
+        assertEquals(3, messages.size());
+        assertEquals("No identifier set on Actor", messages.get(0));
+        assertTrue(messages.get(1).startsWith("Relationship has missing referenced source element (" + relation.getId()));
+        assertTrue(messages.get(2).startsWith("Relationship has missing referenced target element (" + relation.getId()));
+    }
+    
+    @Test
+    public void checkAll_StopsAtMaxErrors() {
+        for(int i = 0; i < 10; i++) {
+            IArchimateElement element = (IArchimateElement)tm.createModelElementAndAddToModel(IArchimatePackage.eINSTANCE.getBusinessActor());
+            element.setId(null);
+        }
+        
+        modelChecker.setMaxErrors(4);
+        assertFalse(modelChecker.checkAll());
+        
+        List<String> messages = modelChecker.getErrorMessages();
+        assertEquals(5, messages.size());
+        assertEquals("Checking stopped after 4 errors", messages.get(4));
+        
+        modelChecker.setMaxErrors(0);
+        assertFalse(modelChecker.checkAll());
+        assertEquals(10, modelChecker.getErrorMessages().size());
+    }
+    
+    @Test
+    public void checkAll_StopsAtMaxErrors_InModelOrder() {
+        for(int i = 0; i < 3; i++) {
+            IArchimateElement element = (IArchimateElement)tm.createModelElementAndAddToModel(IArchimatePackage.eINSTANCE.getBusinessActor());
+            element.setName("Actor");
+            element.setId(null);
+            tm.createModelElementAndAddToModel(IArchimatePackage.eINSTANCE.getAssociationRelationship());
+        }
+        
+        modelChecker.setMaxErrors(4);
+        
+        // The Business folder comes before the Relations folder whichever partition finishes first
+        for(int i = 0; i < 10; i++) {
+            assertFalse(modelChecker.checkAll());
+            
+            List<String> messages = modelChecker.getErrorMessages();
+            assertEquals(5, messages.size());
+            assertEquals("No identifier set on Actor", messages.get(0));
+            assertEquals("No identifier set on Actor", messages.get(1));
+            assertEquals("No identifier set on Actor", messages.get(2));
+            assertTrue(messages.get(3).startsWith("Relationship has missing referenced source element"));
+            assertEquals("Checking stopped after 4 errors", messages.get(4));
+        }
+    }
 }
\ No newline at end of file
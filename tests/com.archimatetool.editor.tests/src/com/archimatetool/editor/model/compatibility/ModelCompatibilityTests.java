@@ -7,19 +7,27 @@ package com.archimatetool.editor.model.compatibility;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
 
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.Resource.Diagnostic;
 import org.junit.Test;
 
 import com.archimatetool.editor.TestSupport;
+import com.archimatetool.editor.model.compatibility.handlers.OutlineOpacityHandler;
+import com.archimatetool.model.IArchimateFactory;
 import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IDiagramModelGroup;
+import com.archimatetool.model.IDiagramModelObject;
+import com.archimatetool.model.ITextAlignment;
 import com.archimatetool.model.util.ArchimateResourceFactory;
+import com.archimatetool.testingtools.ArchimateTestModel;
 
 import junit.framework.JUnit4TestAdapter;
 
@@ -129,6 +137,39 @@ public class ModelCompatibilityTests {
         assertTrue(mc.isCatastrophicException(diagnostic));
     }
     
+    @Test
+    public void testGetHandlers_CreatedOnce() {
+        List<ICompatibilityHandler> handlers = ModelCompatibility.getHandlers();
+        assertTrue(handlers.stream().anyMatch(handler -> handler instanceof OutlineOpacityHandler));
+        assertSame(handlers, ModelCompatibility.getHandlers());
+    }
+    
+    @Test
+    public void testFixCompatibility_AllVisitorsApplied() throws CompatibilityHandlerException {
+        ArchimateTestModel tm = new ArchimateTestModel();
+        IArchimateModel model = tm.createNewModel();
+        model.setVersion("4.0.1");
+        
+        IDiagramModelObject dmo = tm.createDiagramModelArchimateObjectAndAddToModel(IArchimateFactory.eINSTANCE.createBusinessActor());
+        dmo.setAlpha(100);
+        model.getDefaultDiagramModel().getChildren().add(dmo);
+        
+        IDiagramModelGroup group = IArchimateFactory.eINSTANCE.createDiagramModelGroup();
+        group.setTextAlignment(ITextAlignment.TEXT_ALIGNMENT_CENTER);
+        model.getDefaultDiagramModel().getChildren().add(group);
+        
+        resource = ArchimateResourceFactory.createNewResource(new File("test.archimate"));
+        resource.getContents().add(model);
+        
+        new ModelCompatibility(resource).fixCompatibility();
+        
+        // OutlineOpacityHandler
+        assertEquals(100, dmo.getLineAlpha());
+        
+        // DefaultTextAlignmentHandler
+        assertEquals(ITextAlignment.TEXT_ALIGNMENT_LEFT, group.getTextAlignment());
+    }
+    
     private void createResource(File file) {
         resource = ArchimateResourceFactory.createNewResource(file);
         mc = new ModelCompatibility(resource);
@@ -5,6 +5,7 @@
  */
 package com.archimatetool.editor.model.impl;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -16,14 +17,20 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.swt.graphics.Image;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
 
 import com.archimatetool.editor.TestSupport;
 import com.archimatetool.editor.model.IArchiveManager;
+import com.archimatetool.editor.utils.FileUtils;
 import com.archimatetool.model.IArchimateFactory;
 import com.archimatetool.model.IArchimateModel;
 import com.archimatetool.model.IDiagramModel;
@@ -140,6 +147,111 @@ public class ArchiveManagerTests {
         assertEquals(2, archiveManager.getLoadedImagePaths().size());
     }
     
+    @Test
+    public void testLoadImages_ReadOnDemand() throws Exception {
+        model.setFile(TestSupport.TEST_MODEL_FILE_ZIPPED);
+        archiveManager.loadImages();
+        
+        // Only indexed, not in memory
+        assertTrue(archiveManager.getByteArrayStorage().getEntrySet().isEmpty());
+        
+        for(String entryName : archiveManager.getLoadedImagePaths()) {
+            assertNotNull(archiveManager.getBytesFromEntry(entryName));
+        }
+    }
+    
+    @Test
+    public void testLoadImages_SaveOverArchiveFile() throws Exception {
+        File file = TestUtils.createTempFile(".archimate");
+        Files.copy(TestSupport.TEST_MODEL_FILE_ZIPPED.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        model.setFile(file);
+        archiveManager.loadImages();
+        
+        String imagePath = archiveManager.getLoadedImagePaths().get(0);
+        String unusedImagePath = archiveManager.getLoadedImagePaths().get(1);
+        byte[] bytes = archiveManager.getBytesFromEntry(imagePath);
+        
+        IDiagramModelImage dmImage = IArchimateFactory.eINSTANCE.createDiagramModelImage();
+        dm.getChildren().add(dmImage);
+        dmImage.setImagePath(imagePath);
+        
+        archiveManager.saveModel();
+        assertTrue(IArchiveManager.FACTORY.isArchiveFile(file));
+        
+        // Bytes are read from the new archive file
+        assertEquals(1, archiveManager.getByteArrayStorage().getEntrySet().size());
+        assertArrayEquals(bytes, archiveManager.getBytesFromEntry(imagePath));
+        
+        // And the unreferenced image was not saved but was kept in memory
+        assertEquals(2, archiveManager.getLoadedImagePaths().size());
+        assertNotNull(archiveManager.getBytesFromEntry(unusedImagePath));
+        
+        file.delete();
+    }
+    
+    @Test
+    public void testLoadImages_DeleteImageSaveAndUndo() throws Exception {
+        File file = TestUtils.createTempFile(".archimate");
+        Files.copy(TestSupport.TEST_MODEL_FILE_ZIPPED.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        model.setFile(file);
+        archiveManager.loadImages();
+        
+        String imagePath = archiveManager.getLoadedImagePaths().get(0);
+        String otherImagePath = archiveManager.getLoadedImagePaths().get(1);
+        byte[] bytes = archiveManager.getBytesFromEntry(imagePath);
+        
+        IDiagramModelImage dmImage1 = IArchimateFactory.eINSTANCE.createDiagramModelImage();
+        dm.getChildren().add(dmImage1);
+        dmImage1.setImagePath(imagePath);
+        
+        IDiagramModelImage dmImage2 = IArchimateFactory.eINSTANCE.createDiagramModelImage();
+        dm.getChildren().add(dmImage2);
+        dmImage2.setImagePath(otherImagePath);
+        
+        archiveManager.saveModel();
+        
+        // Delete the image object and save
+        dm.getChildren().remove(dmImage1);
+        archiveManager.saveModel();
+        
+        // Undo the delete and the image bytes are still there
+        dm.getChildren().add(dmImage1);
+        assertArrayEquals(bytes, archiveManager.getBytesFromEntry(imagePath));
+        
+        // And are saved again
+        archiveManager.saveModel();
+        ArchiveManager archiveManager2 = (ArchiveManager)IArchiveManager.FACTORY.createArchiveManager(IArchimateFactory.eINSTANCE.createArchimateModel());
+        archiveManager2.loadImagesFromModelFile(file);
+        assertArrayEquals(bytes, archiveManager2.getBytesFromEntry(imagePath));
+        
+        file.delete();
+    }
+    
+    @Test
+    public void testLoadImages_ArchiveFileChangedFailsSave() throws Exception {
+        File file = TestUtils.createTempFile(".archimate");
+        Files.copy(TestSupport.TEST_MODEL_FILE_ZIPPED.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        model.setFile(file);
+        archiveManager.loadImages();
+        
+        IDiagramModelImage dmImage = IArchimateFactory.eINSTANCE.createDiagramModelImage();
+        dm.getChildren().add(dmImage);
+        dmImage.setImagePath(archiveManager.getLoadedImagePaths().get(0));
+        
+        // The archive file that the image is read from is changed by something else
+        file.setLastModified(file.lastModified() - 10000);
+        
+        // Save to another file fails rather than saving a model without the image
+        File newFile = TestUtils.createTempFile(".archimate");
+        model.setFile(newFile);
+        assertThrows(IOException.class, () -> {
+            archiveManager.saveModel();
+        });
+        
+        file.delete();
+        newFile.delete();
+    }
+    
     @Test
     public void testLoadImagesFromModelFile() throws Exception {
         boolean result = archiveManager.loadImagesFromModelFile(null);
@@ -210,6 +322,73 @@ public class ArchiveManagerTests {
         assertSame(resource, model.eResource());
     }
     
+    @Test
+    public void testSaveModel_ReplacesExistingFile() throws IOException {
+        File folder = TestUtils.createTempFolder("saveModel");
+        File file = new File(folder, "test.archimate");
+        Files.write(file.toPath(), "existing".getBytes(StandardCharsets.UTF_8));
+        model.setFile(file);
+        
+        archiveManager.saveModel();
+        
+        // The file was replaced with the model
+        assertTrue(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).contains(model.getId()));
+        
+        // And the temp file was renamed
+        assertEquals(1, folder.listFiles().length);
+        
+        FileUtils.deleteFolder(folder);
+    }
+    
+    @Test
+    public void testSaveModel_FailedSaveDeletesTempFile() throws IOException {
+        File folder = TestUtils.createTempFolder("saveModel");
+        
+        // A folder can't be replaced with the saved file so the save will fail
+        File file = new File(folder, "test.archimate");
+        file.mkdirs();
+        File childFile = new File(file, "child");
+        childFile.createNewFile();
+        model.setFile(file);
+        
+        assertThrows(IOException.class, () -> {
+            archiveManager.saveModel();
+        });
+        
+        // The existing file is not touched and the temp file was deleted
+        assertTrue(childFile.exists());
+        assertEquals(1, folder.listFiles().length);
+        
+        FileUtils.deleteFolder(folder);
+    }
+    
+    @Test
+    public void testSaveModel_SymbolicLink() throws IOException {
+        File folder = TestUtils.createTempFolder("saveModel");
+        File file = new File(folder, "test.archimate");
+        Files.write(file.toPath(), "existing".getBytes(StandardCharsets.UTF_8));
+        
+        Path link = new File(folder, "link.archimate").toPath();
+        try {
+            Files.createSymbolicLink(link, file.toPath());
+        }
+        catch(UnsupportedOperationException | IOException ex) {
+            // Not supported on this platform or not allowed for this user
+            FileUtils.deleteFolder(folder);
+            Assume.assumeNoException(ex);
+        }
+        
+        model.setFile(link.toFile());
+        archiveManager.saveModel();
+        
+        // The link is kept and the file that it links to was replaced with the model
+        assertTrue(Files.isSymbolicLink(link));
+        assertTrue(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).contains(model.getId()));
+        assertEquals(2, folder.listFiles().length);
+        
+        FileUtils.deleteFolder(folder);
+    }
+    
     @Test
     public void testClone() throws IOException {
         archiveManager.loadImagesFromModelFile(TestSupport.TEST_MODEL_FILE_ZIPPED);
@@ -153,5 +153,48 @@ public class ByteArrayStorageTests {
         assertEquals(bytes1, storage.getEntry(entry2));
     }
 
+    @Test
+    public void removeEntry_SharedBytes() throws Exception {
+        byte[] bytes = storage.getBytesFromFile(img1File);
+        storage.addByteContentEntry(entry1, bytes);
+        storage.addByteContentEntry(entry2, storage.getBytesFromFile(img2File));
+        assertEquals(2, storage.getReferenceCount(entry1));
+        
+        // Remove the canonical entry and the other entry becomes the key
+        storage.removeEntry(entry1);
+        assertEquals(1, storage.getReferenceCount(entry2));
+        assertEquals(entry2, storage.getKey(bytes));
+        
+        storage.removeEntry(entry2);
+        assertNull(storage.getKey(bytes));
+        assertEquals(0, storage.getUniqueEntryCount());
+    }
+    
+    @Test
+    public void dedupStatistics() throws Exception {
+        assertEquals(0, storage.getUniqueEntryCount());
+        assertEquals(0, storage.getDuplicateCount());
+        assertEquals(0, storage.getDuplicateBytesSaved());
+        
+        storage.addFileContentEntry(entry1, img1File);
+        storage.addFileContentEntry(entry2, img2File);
+        
+        assertEquals(1, storage.getUniqueEntryCount());
+        assertEquals(1, storage.getDuplicateCount());
+        assertEquals(imgfileByteSize, storage.getDuplicateBytesSaved());
+    }
     
+    @Test
+    public void addEntries() throws Exception {
+        storage.addFileContentEntry(entry1, img1File);
+        storage.addFileContentEntry(entry2, img2File);
+        
+        ByteArrayStorage storage2 = new ByteArrayStorage();
+        storage2.addEntries(storage);
+        
+        assertEquals(storage.getEntry(entry1), storage2.getEntry(entry1));
+        assertEquals(storage.getEntry(entry2), storage2.getEntry(entry2));
+        assertEquals(1, storage2.getUniqueEntryCount());
+        assertEquals(2, storage2.getReferenceCount(entry1));
+    }
 }
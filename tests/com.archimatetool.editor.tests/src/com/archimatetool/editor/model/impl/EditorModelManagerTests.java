@@ -18,6 +18,7 @@ import org.eclipse.gef.commands.CommandStack;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.archimatetool.editor.TestSupport;
 import com.archimatetool.editor.model.IArchiveManager;
 import com.archimatetool.editor.model.IEditorModelManager;
 import com.archimatetool.editor.model.commands.EObjectFeatureCommand;
@@ -59,6 +60,69 @@ public class EditorModelManagerTests {
         assertEquals(0, editorModelManager.getModels().size());
     }
 
+    @Test
+    public void getModels_LoadsState() throws Exception {
+        File backingFile = createBackingFile(TestData.TEST_MODEL_FILE_ARCHISURANCE);
+        
+        editorModelManager = new EditorModelManager(backingFile);
+        assertEquals(1, editorModelManager.getModels().size());
+        
+        // Only loaded once
+        editorModelManager.loadState();
+        assertEquals(1, editorModelManager.getModels().size());
+    }
+    
+    @Test
+    public void loadState() throws Exception {
+        Preferences.STORE.setValue(IPreferenceConstants.LOAD_MODELS_IN_PARALLEL, false);
+        loadState_LoadsModelsInOrder();
+    }
+    
+    @Test
+    public void loadState_Parallel() throws Exception {
+        Preferences.STORE.setValue(IPreferenceConstants.LOAD_MODELS_IN_PARALLEL, true);
+        loadState_LoadsModelsInOrder();
+    }
+    
+    private void loadState_LoadsModelsInOrder() throws Exception {
+        File[] files = { TestSupport.TEST_MODEL_FILE_ZIPPED, TestData.TEST_MODEL_FILE_ARCHISURANCE };
+        File backingFile = createBackingFile(files);
+        
+        editorModelManager = new EditorModelManager(backingFile);
+        editorModelManager.loadState();
+        
+        assertEquals(2, editorModelManager.getModels().size());
+        
+        for(int i = 0; i < files.length; i++) {
+            IArchimateModel model = editorModelManager.getModels().get(i);
+            assertEquals(files[i].getAbsolutePath(), model.getFile().getAbsolutePath());
+            assertTrue(model.getAdapter(CommandStack.class) instanceof CommandStack);
+            assertTrue(model.getAdapter(IArchiveManager.class) instanceof IArchiveManager);
+        }
+        
+        // Only loaded once
+        editorModelManager.loadState();
+        assertEquals(2, editorModelManager.getModels().size());
+        
+        Preferences.STORE.setToDefault(IPreferenceConstants.LOAD_MODELS_IN_PARALLEL);
+    }
+    
+    /**
+     * Save the state of a model manager with these model files open
+     */
+    private File createBackingFile(File... files) throws Exception {
+        File backingFile = TestUtils.createTempFile(".xml");
+        backingFile.delete(); // No state to load yet
+        
+        EditorModelManager modelManager = new EditorModelManager(backingFile);
+        for(File file : files) {
+            modelManager.loadModel(file);
+        }
+        modelManager.saveState();
+        
+        return backingFile;
+    }
+
     @Test
     public void createNewModel_IsValid() {
         IArchimateModel model = editorModelManager.createNewModel();
@@ -7,9 +7,12 @@ package com.archimatetool.editor.ui.textrender;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.junit.Test;
 
 import com.archimatetool.model.FolderType;
@@ -229,6 +232,111 @@ public class TextRendererTests {
         assertEquals("${property:p1}", textRenderer.renderWithExpression(dmo, "${property:p1}"));
     }
 
+    // ============================= Cached Render Tests =========================================
+    
+    @Test
+    public void render_Cached() {
+        IDiagramModelArchimateObject dmo = createDiagramModelObject();
+        String result = textRenderer.renderWithExpression(dmo, "${name} ${property:k1}");
+        assertEquals("Concept Name concept_v1", result);
+        assertSame(result, textRenderer.renderWithExpression(dmo, "${name} ${property:k1}"));
+    }
+    
+    @Test
+    public void render_Cached_NameChanged() {
+        IDiagramModelArchimateObject dmo = createDiagramModelObject();
+        assertEquals("Concept Name", textRenderer.renderWithExpression(dmo, "${name}"));
+        
+        dmo.getArchimateConcept().setName("New Name");
+        assertEquals("New Name", textRenderer.renderWithExpression(dmo, "${name}"));
+    }
+    
+    @Test
+    public void render_Cached_PropertyChanged() {
+        IDiagramModelArchimateObject dmo = createDiagramModelObject();
+        assertEquals("concept_v1", textRenderer.renderWithExpression(dmo, "${property:k1}"));
+        
+        dmo.getArchimateConcept().getProperties().get(0).setValue("new_v1");
+        assertEquals("new_v1", textRenderer.renderWithExpression(dmo, "${property:k1}"));
+        
+        assertEquals("concept_v3, concept_v4", textRenderer.renderWithExpression(dmo, "${properties:, :k3}"));
+        
+        dmo.getArchimateConcept().getProperties().remove(2);
+        assertEquals("concept_v4", textRenderer.renderWithExpression(dmo, "${properties:, :k3}"));
+    }
+    
+    @Test
+    public void render_Cached_PrefixObjectChanged() {
+        IDiagramModelArchimateObject dmo = createDiagramModelObject();
+        assertEquals("View Name Model Name", textRenderer.renderWithExpression(dmo, "$view{name} $model{name}"));
+        
+        dmo.getDiagramModel().setName("New View Name");
+        dmo.getArchimateModel().setName("New Model Name");
+        assertEquals("New View Name New Model Name", textRenderer.renderWithExpression(dmo, "$view{name} $model{name}"));
+    }
+    
+    @Test
+    public void render_Cached_LinkedConceptChanged() {
+        IDiagramModelArchimateConnection dmc = createDiagramModelConnection();
+        assertEquals("Source Concept - Target Concept", textRenderer.renderWithExpression(dmc, "$source{name} - $target{name}"));
+        
+        IDiagramModelArchimateObject dmo = (IDiagramModelArchimateObject)dmc.getSource();
+        assertEquals("Target Concept", textRenderer.renderWithExpression(dmo, "$assignment:target{name}"));
+        
+        dmc.getArchimateRelationship().getTarget().setName("New Target");
+        assertEquals("Source Concept - New Target", textRenderer.renderWithExpression(dmc, "$source{name} - $target{name}"));
+        assertEquals("New Target", textRenderer.renderWithExpression(dmo, "$assignment:target{name}"));
+        
+        dmc.disconnect();
+        assertEquals("", textRenderer.renderWithExpression(dmo, "$assignment:target{name}"));
+    }
+    
+    @Test
+    public void render_Cached_AncestorsOnlyForAncestorPrefixes() {
+        IDiagramModelArchimateObject dmo = createDiagramModelObject();
+        IArchimateModel model = dmo.getArchimateModel();
+        
+        textRenderer.renderWithExpression(dmo, "${name} ${property:k1}");
+        assertNull(EcoreUtil.getExistingAdapter(model, dmo));
+        assertNull(EcoreUtil.getExistingAdapter(dmo.getDiagramModel(), dmo));
+        
+        textRenderer.renderWithExpression(dmo, "$model{name}");
+        assertNotNull(EcoreUtil.getExistingAdapter(model, dmo));
+    }
+    
+    @Test
+    public void render_Cached_OwnerRemoved() {
+        IDiagramModelArchimateObject dmo = createDiagramModelObject();
+        IArchimateConcept concept = dmo.getArchimateConcept();
+        
+        assertEquals("Concept Name", textRenderer.renderWithExpression(dmo, "${name}"));
+        assertNotNull(EcoreUtil.getExistingAdapter(concept, dmo));
+        
+        // The concept no longer keeps the removed object
+        dmo.getDiagramModel().getChildren().remove(dmo);
+        assertNull(EcoreUtil.getExistingAdapter(concept, dmo));
+        assertNull(EcoreUtil.getExistingAdapter(dmo, dmo));
+    }
+    
+    @Test
+    public void render_Cached_AncestorRemoved() {
+        IDiagramModelArchimateObject dmo = createDiagramModelObject();
+        IArchimateConcept concept = dmo.getArchimateConcept();
+        
+        assertEquals("Concept Name", textRenderer.renderWithExpression(dmo, "${name}"));
+        
+        // The concept no longer keeps the object in the removed view
+        EcoreUtil.remove(dmo.getDiagramModel());
+        assertNull(EcoreUtil.getExistingAdapter(concept, dmo));
+        assertNull(EcoreUtil.getExistingAdapter(dmo, dmo));
+    }
+    
+    @Test
+    public void render_UnknownExpression() {
+        IDiagramModelArchimateObject dmo = createDiagramModelObject();
+        assertEquals("${unknown} Concept Name $5", textRenderer.renderWithExpression(dmo, "${unknown} ${name} $5"));
+    }
+    
     // ============================= Word Wrap Expression Tests =========================================
     
     @Test
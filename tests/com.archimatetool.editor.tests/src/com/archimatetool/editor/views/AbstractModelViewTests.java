@@ -0,0 +1,149 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.views;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.beans.PropertyChangeEvent;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.help.IContext;
+import org.eclipse.jface.viewers.IStructuredSelection;
+import org.eclipse.jface.viewers.StructuredSelection;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Shell;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.archimatetool.editor.model.IEditorModelManager;
+import com.archimatetool.editor.views.tree.TreeModelViewer;
+import com.archimatetool.model.IArchimateElement;
+import com.archimatetool.model.IArchimateFactory;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IFolder;
+
+import junit.framework.JUnit4TestAdapter;
+
+
+@SuppressWarnings("nls")
+public class AbstractModelViewTests {
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(AbstractModelViewTests.class);
+    }
+
+    private Shell shell;
+    private IFolder folder;
+    private TestModelView view;
+
+    /**
+     * A Model View with a Tree Viewer that records the notifications it processes
+     */
+    private static class TestModelView extends AbstractModelView {
+        TreeModelViewer viewer;
+        List<Notification> processed = new ArrayList<>();
+
+        TestModelView(TreeModelViewer viewer) {
+            this.viewer = viewer;
+        }
+
+        @Override
+        protected void eCoreChanged(Notification msg) {
+            processed.add(msg);
+            super.eCoreChanged(msg);
+        }
+
+        @Override
+        public TreeModelViewer getViewer() {
+            return viewer;
+        }
+
+        @Override
+        protected void doCreatePartControl(Composite parent) {
+        }
+
+        @Override
+        protected IArchimateModel getActiveArchimateModel() {
+            return null;
+        }
+
+        @Override
+        public void setFocus() {
+        }
+
+        @Override
+        public int getContextChangeMask() {
+            return NONE;
+        }
+
+        @Override
+        public IContext getContext(Object target) {
+            return null;
+        }
+
+        @Override
+        public String getSearchExpression(Object target) {
+            return null;
+        }
+    }
+
+    @Before
+    public void runBeforeEachTest() {
+        shell = new Shell();
+
+        folder = IArchimateFactory.eINSTANCE.createFolder();
+
+        view = new TestModelView(new TreeModelViewer(shell, SWT.NONE));
+        view.getViewer().setInput(folder);
+
+        // Send the folder's notifications to the view outside of a command batch as the Model Manager does
+        folder.eAdapters().add(new AdapterImpl() {
+            @Override
+            public void notifyChanged(Notification msg) {
+                view.propertyChange(new PropertyChangeEvent(this, IEditorModelManager.PROPERTY_ECORE_EVENT, null, msg));
+            }
+        });
+    }
+
+    @After
+    public void runAfterEachTest() {
+        shell.dispose();
+    }
+
+    @Test
+    public void newElementCanBeSelected() {
+        IArchimateElement element = IArchimateFactory.eINSTANCE.createBusinessActor();
+        folder.getElements().add(element);
+
+        // As the new element commands select the new element straight after adding it
+        view.getViewer().setSelection(new StructuredSelection(element), true);
+        assertEquals(element, ((IStructuredSelection)view.getViewer().getSelection()).getFirstElement());
+    }
+
+    @Test
+    public void setNotificationsAreProcessedBeforeAdd() {
+        folder.setName("Folder 1");
+        folder.setName("Folder 2");
+
+        // Waiting to be processed together
+        assertTrue(view.processed.isEmpty());
+
+        folder.getElements().add(IArchimateFactory.eINSTANCE.createBusinessActor());
+
+        // In order
+        assertEquals(3, view.processed.size());
+        assertEquals(Notification.SET, view.processed.get(0).getEventType());
+        assertEquals("Folder 1", view.processed.get(0).getNewValue());
+        assertEquals(Notification.SET, view.processed.get(1).getEventType());
+        assertEquals(Notification.ADD, view.processed.get(2).getEventType());
+    }
+}
@@ -9,7 +9,9 @@ import junit.framework.TestSuite;
 
 import com.archimatetool.editor.views.tree.TreeModelViewerDragDropHandlerTests;
 import com.archimatetool.editor.views.tree.TreeModelViewerFindReplaceProviderTests;
+import com.archimatetool.editor.views.tree.TreeModelViewerTests;
 import com.archimatetool.editor.views.tree.commands.DeleteCommandHandlerTests;
+import com.archimatetool.editor.views.tree.search.SearchIndexTests;
 
 @SuppressWarnings("nls")
 public class AllViewsTests {
@@ -17,12 +19,19 @@ public class AllViewsTests {
     public static junit.framework.Test suite() {
 		TestSuite suite = new TestSuite("com.archimatetool.editor.views");
 		
+        // views
+        suite.addTest(AbstractModelViewTests.suite());
+        
         // views.tree
         suite.addTest(TreeModelViewerDragDropHandlerTests.suite());
         suite.addTest(TreeModelViewerFindReplaceProviderTests.suite());
+        suite.addTest(TreeModelViewerTests.suite());
 
         // views.tree.commands
         suite.addTest(DeleteCommandHandlerTests.suite());
+        
+        // views.tree.search
+        suite.addTest(SearchIndexTests.suite());
 
         return suite;
 	}
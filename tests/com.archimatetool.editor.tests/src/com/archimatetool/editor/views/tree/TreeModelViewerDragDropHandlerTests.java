@@ -18,10 +18,12 @@ import static org.mockito.Mockito.when;
 import org.eclipse.jface.util.LocalSelectionTransfer;
 import org.eclipse.jface.viewers.StructuredSelection;
 import org.eclipse.jface.viewers.TreeViewer;
+import org.eclipse.swt.SWT;
 import org.eclipse.swt.dnd.DND;
 import org.eclipse.swt.dnd.DragSourceListener;
 import org.eclipse.swt.dnd.DropTargetEvent;
 import org.eclipse.swt.dnd.DropTargetListener;
+import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.TreeItem;
 import org.junit.Before;
 import org.junit.Test;
@@ -387,6 +389,54 @@ public class TreeModelViewerDragDropHandlerTests {
         // Because parent tree items are created by the system
     }
     
+    /**
+     * In virtual mode tree items are only created when they are shown or found so test with real items
+     */
+    @Test
+    public void dropOnVirtualTree() {
+        Shell shell = new Shell();
+        
+        try {
+            IFolder parentFolder = IArchimateFactory.eINSTANCE.createFolder();
+            model.getFolder(FolderType.BUSINESS).getFolders().add(parentFolder);
+            IFolder childFolder = IArchimateFactory.eINSTANCE.createFolder();
+            parentFolder.getFolders().add(childFolder);
+            IArchimateElement element = IArchimateFactory.eINSTANCE.createBusinessActor();
+            childFolder.getElements().add(element);
+            
+            TreeModelViewer viewer = new TreeModelViewer(shell, SWT.VIRTUAL);
+            viewer.setInput(model);
+            TreeModelViewerDragDropHandler handler = new TreeModelViewerDragDropHandler(viewer);
+            
+            TreeItem childItem = viewer.findTreeItem(childFolder);
+            TreeItem parentItem = viewer.findTreeItem(parentFolder);
+            assertEquals(childFolder, childItem.getData());
+            assertEquals(parentItem, childItem.getParentItem());
+            
+            // Can't drop a folder onto itself or onto one of its descendants
+            assertFalse(handler.canDropObject(childFolder, childItem));
+            assertFalse(handler.canDropObject(parentFolder, childItem));
+            assertTrue(handler.canDropObject(element, parentItem));
+            
+            // Drop the element onto the parent folder's item
+            DropTargetEvent event = mock(DropTargetEvent.class);
+            event.currentDataType = LocalSelectionTransfer.getTransfer().getSupportedTypes()[0];
+            event.item = parentItem;
+            LocalSelectionTransfer.getTransfer().setSelection(new StructuredSelection(element));
+            handler.doDropOperation(event);
+            
+            assertEquals(parentFolder, element.eContainer());
+            
+            // And the element's new item is under the parent folder's item
+            viewer.refresh(parentFolder);
+            viewer.refresh(childFolder);
+            assertEquals(parentItem, viewer.findTreeItem(element).getParentItem());
+        }
+        finally {
+            shell.dispose();
+        }
+    }
+    
     
     // ====================================================================================================
     
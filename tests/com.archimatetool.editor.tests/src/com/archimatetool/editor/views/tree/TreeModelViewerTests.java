@@ -0,0 +1,227 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.views.tree;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.util.EContentAdapter;
+import org.eclipse.jface.viewers.IStructuredSelection;
+import org.eclipse.jface.viewers.StructuredSelection;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Shell;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.archimatetool.editor.ui.textrender.TextRenderer;
+import com.archimatetool.model.IArchimateDiagramModel;
+import com.archimatetool.model.IArchimateElement;
+import com.archimatetool.model.IArchimateFactory;
+import com.archimatetool.model.IArchimateRelationship;
+import com.archimatetool.model.IDiagramModelGroup;
+import com.archimatetool.model.IFolder;
+import com.archimatetool.model.IProperty;
+
+import junit.framework.JUnit4TestAdapter;
+
+
+@SuppressWarnings("nls")
+public class TreeModelViewerTests {
+    
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(TreeModelViewerTests.class);
+    }
+    
+    private Shell shell;
+    private IFolder folder;
+    private IFolder subFolder;
+    private IArchimateElement elementA, elementB, elementC;
+    
+    @Before
+    public void runBeforeEachTest() {
+        shell = new Shell();
+        
+        folder = IArchimateFactory.eINSTANCE.createFolder();
+        
+        elementC = createElement("C");
+        elementA = createElement("a");
+        elementB = createElement("B");
+        
+        subFolder = IArchimateFactory.eINSTANCE.createFolder();
+        folder.getFolders().add(subFolder);
+    }
+    
+    @After
+    public void runAfterEachTest() {
+        shell.dispose();
+    }
+    
+    @Test
+    public void isVirtual() {
+        assertFalse(new TreeModelViewer(shell, SWT.NONE).isVirtual());
+        assertTrue(new TreeModelViewer(shell, SWT.VIRTUAL).isVirtual());
+    }
+    
+    @Test
+    public void getSortedChildren() {
+        TreeModelViewer viewer = new TreeModelViewer(shell, SWT.NONE);
+        viewer.setInput(folder);
+        assertArrayEquals(new Object[] { subFolder, elementA, elementB, elementC }, viewer.getSortedChildren(folder));
+    }
+    
+    @Test
+    public void getSortedChildren_Virtual() {
+        TreeModelViewer viewer = new TreeModelViewer(shell, SWT.VIRTUAL);
+        viewer.setInput(folder);
+        assertArrayEquals(new Object[] { subFolder, elementA, elementB, elementC }, viewer.getSortedChildren(folder));
+    }
+    
+    @Test
+    public void getSortedChildren_Virtual_Refreshed() {
+        TreeModelViewer viewer = new TreeModelViewer(shell, SWT.VIRTUAL);
+        viewer.setInput(folder);
+        assertEquals(4, viewer.getSortedChildren(folder).length);
+        
+        IArchimateElement elementD = createElement("D");
+        
+        // Not refreshed yet
+        assertEquals(4, viewer.getSortedChildren(folder).length);
+        
+        viewer.refresh(folder);
+        assertArrayEquals(new Object[] { subFolder, elementA, elementB, elementC, elementD }, viewer.getSortedChildren(folder));
+    }
+    
+    @Test
+    public void findTreeItem_Virtual() {
+        TreeModelViewer viewer = new TreeModelViewer(shell, SWT.VIRTUAL);
+        viewer.setInput(folder);
+        
+        assertNotNull(viewer.findTreeItem(elementB));
+        assertEquals(elementB, viewer.findTreeItem(elementB).getData());
+    }
+    
+    @Test
+    public void setSelection_Virtual_NotShown() {
+        IFolder subSubFolder = IArchimateFactory.eINSTANCE.createFolder();
+        subFolder.getFolders().add(subSubFolder);
+        
+        IArchimateElement elementD = IArchimateFactory.eINSTANCE.createBusinessActor();
+        subSubFolder.getElements().add(elementD);
+        IArchimateElement elementE = IArchimateFactory.eINSTANCE.createBusinessActor();
+        subSubFolder.getElements().add(elementE);
+        
+        TreeModelViewer viewer = new TreeModelViewer(shell, SWT.VIRTUAL);
+        viewer.setInput(folder);
+        
+        // The items of the element and its parents haven't been created yet
+        viewer.setSelection(new StructuredSelection(elementD), true);
+        assertEquals(elementD, ((IStructuredSelection)viewer.getSelection()).getFirstElement());
+        assertTrue(viewer.getExpandedState(subFolder));
+        assertTrue(viewer.getExpandedState(subSubFolder));
+        
+        // The expanded parents have all of their children
+        assertEquals(1, viewer.findTreeItem(subFolder).getItemCount());
+        assertEquals(2, viewer.findTreeItem(subSubFolder).getItemCount());
+    }
+    
+    @Test
+    public void clearSortKeys_Name() {
+        TreeModelViewer viewer = createViewerClearingSortKeys();
+        assertArrayEquals(new Object[] { subFolder, elementA, elementB, elementC }, viewer.getSortedChildren(folder));
+        
+        elementA.setName("D");
+        assertArrayEquals(new Object[] { subFolder, elementB, elementC, elementA }, viewer.getSortedChildren(folder));
+    }
+    
+    @Test
+    public void clearSortKeys_RenderedText() {
+        folder.getFeatures().putString(TextRenderer.FEATURE_NAME, "${property:key}");
+        addProperty(elementA, "3");
+        addProperty(elementB, "2");
+        addProperty(elementC, "1");
+        
+        IArchimateDiagramModel dm = IArchimateFactory.eINSTANCE.createArchimateDiagramModel();
+        dm.setName("z");
+        IDiagramModelGroup group = IArchimateFactory.eINSTANCE.createDiagramModelGroup();
+        dm.getChildren().add(group);
+        folder.getElements().add(dm);
+        
+        TreeModelViewer viewer = createViewerClearingSortKeys();
+        assertArrayEquals(new Object[] { subFolder, elementC, elementB, elementA, dm }, viewer.getSortedChildren(folder));
+        
+        // Change the text that C is rendered from without a notification so that its cached sort key is out of date
+        IProperty property = elementC.getProperties().get(0);
+        property.eSetDeliver(false);
+        property.setValue("4");
+        property.eSetDeliver(true);
+        
+        // A change in a view can't change rendered text so the sort keys are kept
+        group.setBounds(10, 10, 100, 100);
+        group.setName("Group");
+        assertArrayEquals(new Object[] { subFolder, elementC, elementB, elementA, dm }, viewer.getSortedChildren(folder));
+        
+        // A change that can change rendered text clears the sort keys
+        elementC.setDocumentation("Documentation");
+        assertArrayEquals(new Object[] { subFolder, elementB, elementA, elementC, dm }, viewer.getSortedChildren(folder));
+    }
+    
+    @Test
+    public void clearSortKeys_RenderedText_RelationshipEnd() {
+        subFolder.getFeatures().putString(TextRenderer.FEATURE_NAME, "$source{name}");
+        
+        IArchimateRelationship relation1 = IArchimateFactory.eINSTANCE.createAssociationRelationship();
+        relation1.connect(elementA, elementB);
+        subFolder.getElements().add(relation1);
+        
+        IArchimateRelationship relation2 = IArchimateFactory.eINSTANCE.createAssociationRelationship();
+        relation2.connect(elementB, elementA);
+        subFolder.getElements().add(relation2);
+        
+        TreeModelViewer viewer = createViewerClearingSortKeys();
+        assertArrayEquals(new Object[] { relation1, relation2 }, viewer.getSortedChildren(subFolder));
+        
+        // Rendered from the new source's name
+        relation1.setSource(elementC);
+        assertArrayEquals(new Object[] { relation2, relation1 }, viewer.getSortedChildren(subFolder));
+    }
+    
+    /**
+     * @return A viewer that clears its sort keys from model notifications as the Models Tree does
+     */
+    private TreeModelViewer createViewerClearingSortKeys() {
+        TreeModelViewer viewer = new TreeModelViewer(shell, SWT.NONE);
+        viewer.setInput(folder);
+        
+        folder.eAdapters().add(new EContentAdapter() {
+            @Override
+            public void notifyChanged(Notification msg) {
+                super.notifyChanged(msg);
+                viewer.clearSortKeys(msg);
+            }
+        });
+        
+        return viewer;
+    }
+    
+    private void addProperty(IArchimateElement element, String value) {
+        IProperty property = IArchimateFactory.eINSTANCE.createProperty();
+        property.setKey("key");
+        property.setValue(value);
+        element.getProperties().add(property);
+    }
+    
+    private IArchimateElement createElement(String name) {
+        IArchimateElement element = IArchimateFactory.eINSTANCE.createBusinessActor();
+        element.setName(name);
+        folder.getElements().add(element);
+        return element;
+    }
+}
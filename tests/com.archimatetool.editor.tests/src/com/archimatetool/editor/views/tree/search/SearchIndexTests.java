@@ -0,0 +1,130 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.views.tree.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.archimatetool.model.FolderType;
+import com.archimatetool.model.IArchimateElement;
+import com.archimatetool.model.IArchimateFactory;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IFolder;
+import com.archimatetool.model.IProperty;
+
+import junit.framework.JUnit4TestAdapter;
+
+
+@SuppressWarnings("nls")
+public class SearchIndexTests {
+    
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(SearchIndexTests.class);
+    }
+    
+    private IArchimateModel model;
+    private IFolder folder;
+    private IArchimateElement element;
+    private SearchIndex index;
+    private int changes;
+    
+    @Before
+    public void runBeforeEachTest() {
+        model = IArchimateFactory.eINSTANCE.createArchimateModel();
+        model.setDefaults();
+        
+        folder = IArchimateFactory.eINSTANCE.createFolder();
+        model.getFolder(FolderType.BUSINESS).getFolders().add(folder);
+        
+        element = IArchimateFactory.eINSTANCE.createBusinessActor();
+        element.setName("Actor\r\nName");
+        element.setDocumentation("Some Documentation");
+        folder.getElements().add(element);
+        
+        index = new SearchIndex(model, () -> changes++);
+    }
+    
+    @After
+    public void runAfterEachTest() {
+        index.dispose();
+    }
+    
+    @Test
+    public void getEntry() {
+        assertNotNull(index.getEntry(model));
+        assertNotNull(index.getEntry(model.getFolder(FolderType.BUSINESS)));
+        assertNotNull(index.getEntry(folder));
+        
+        SearchIndex.Entry entry = index.getEntry(element);
+        assertEquals("actor\nname", entry.name);
+        assertEquals("some documentation", entry.documentation);
+    }
+    
+    @Test
+    public void getEntry_NotInFolder() {
+        IProperty property = IArchimateFactory.eINSTANCE.createProperty();
+        element.getProperties().add(property);
+        assertNull(index.getEntry(property));
+    }
+    
+    @Test
+    public void nameChanged() {
+        element.setName("Renamed");
+        assertEquals("renamed", index.getEntry(element).name);
+        assertEquals(1, changes);
+    }
+    
+    @Test
+    public void propertyChanged() {
+        IProperty property = IArchimateFactory.eINSTANCE.createProperty("Key", "Value");
+        element.getProperties().add(property);
+        assertEquals("Key", index.getEntry(element).propertyKeys.get(0));
+        assertEquals("value", index.getEntry(element).propertyValues.get(0));
+        
+        property.setValue("New Value");
+        assertEquals("new value", index.getEntry(element).propertyValues.get(0));
+        
+        element.getProperties().remove(property);
+        assertTrue(index.getEntry(element).propertyKeys.isEmpty());
+        
+        assertEquals(3, changes);
+    }
+    
+    @Test
+    public void elementAddedAndRemoved() {
+        IArchimateElement newElement = IArchimateFactory.eINSTANCE.createBusinessRole();
+        folder.getElements().add(newElement);
+        assertNotNull(index.getEntry(newElement));
+        
+        folder.getElements().remove(newElement);
+        assertNull(index.getEntry(newElement));
+        
+        assertEquals(2, changes);
+    }
+    
+    @Test
+    public void folderRemoved() {
+        model.getFolder(FolderType.BUSINESS).getFolders().remove(folder);
+        assertNull(index.getEntry(folder));
+        assertNull(index.getEntry(element));
+    }
+    
+    @Test
+    public void dispose() {
+        index.dispose();
+        assertNull(index.getEntry(element));
+        assertTrue(model.eAdapters().isEmpty());
+        
+        element.setName("Renamed");
+        assertEquals(0, changes);
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.hammer.commandline;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.cli.CommandLine;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.archimatetool.commandline.CommandLineState;
+import com.archimatetool.hammer.validation.ValidatorReport;
+import com.archimatetool.model.FolderType;
+import com.archimatetool.model.IArchimateFactory;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.tests.TestUtils;
+
+import junit.framework.JUnit4TestAdapter;
+
+
+@SuppressWarnings("nls")
+public class ValidateModelProviderTests {
+    
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(ValidateModelProviderTests.class);
+    }
+    
+    private ValidateModelProvider provider;
+    private CommandLine commandLine;
+    private File reportFile;
+    
+    @Before
+    public void runOnceBeforeEachTest() throws Exception {
+        provider = new ValidateModelProvider();
+        provider.doLog = false;
+        
+        // A model with an unused element
+        IArchimateModel model = IArchimateFactory.eINSTANCE.createArchimateModel();
+        model.setDefaults();
+        model.getFolder(FolderType.BUSINESS).getElements().add(IArchimateFactory.eINSTANCE.createBusinessActor());
+        CommandLineState.setModel(model);
+        CommandLineState.setExitCode(0);
+        
+        reportFile = TestUtils.createTempFile(".json");
+        
+        // Valid options
+        commandLine = mock(CommandLine.class);
+        when(commandLine.hasOption(ValidateModelProvider.OPTION_REPORT)).thenReturn(true);
+        when(commandLine.getOptionValue(ValidateModelProvider.OPTION_REPORT)).thenReturn(reportFile.getPath());
+        when(commandLine.getOptionValue(ValidateModelProvider.OPTION_FAIL_ON, ValidatorReport.LEVEL_ERROR)).thenReturn(ValidatorReport.LEVEL_ERROR);
+        when(commandLine.getOptionValue(ValidateModelProvider.OPTION_CHECKS)).thenReturn("unusedElements");
+    }
+    
+    @After
+    public void runOnceAfterEachTest() {
+        CommandLineState.setModel(null);
+        CommandLineState.setExitCode(0);
+        reportFile.delete();
+    }
+    
+    @Test
+    public void getOptionsNotNull() {
+        assertNotNull(provider.getOptions());
+    }
+    
+    @Test
+    public void run_WritesReport() throws Exception {
+        provider.run(commandLine);
+        
+        assertTrue(reportFile.length() > 0);
+        assertEquals(0, CommandLineState.getExitCode());
+    }
+    
+    @Test
+    public void run_ThresholdExceeded() throws Exception {
+        when(commandLine.getOptionValue(ValidateModelProvider.OPTION_FAIL_ON, ValidatorReport.LEVEL_ERROR)).thenReturn(ValidatorReport.LEVEL_WARNING);
+        
+        provider.run(commandLine);
+        
+        assertEquals(ValidateModelProvider.EXIT_THRESHOLD_EXCEEDED, CommandLineState.getExitCode());
+    }
+    
+    @Test
+    public void run_InvalidFormat() {
+        when(commandLine.getOptionValue(ValidateModelProvider.OPTION_FORMAT)).thenReturn("xml");
+        assertInvalidOption();
+    }
+    
+    @Test
+    public void run_InvalidFailOn() {
+        when(commandLine.getOptionValue(ValidateModelProvider.OPTION_FAIL_ON, ValidatorReport.LEVEL_ERROR)).thenReturn("bogus");
+        assertInvalidOption();
+    }
+    
+    @Test
+    public void run_InvalidMaxIssues() {
+        when(commandLine.getOptionValue(ValidateModelProvider.OPTION_MAX_ISSUES)).thenReturn("ten");
+        assertInvalidOption();
+    }
+    
+    @Test
+    public void run_NegativeMaxIssues() {
+        when(commandLine.getOptionValue(ValidateModelProvider.OPTION_MAX_ISSUES)).thenReturn("-1");
+        assertInvalidOption();
+    }
+    
+    @Test
+    public void run_NoModel() {
+        CommandLineState.setModel(null);
+        assertInvalidOption();
+    }
+    
+    @Test
+    public void run_InvalidChecks() {
+        when(commandLine.getOptionValue(ValidateModelProvider.OPTION_CHECKS)).thenReturn("unusedElements, bogus");
+        assertInvalidOption();
+    }
+    
+    private void assertInvalidOption() {
+        assertThrows(IOException.class, () -> {
+            provider.run(commandLine);
+        });
+        
+        assertEquals(ValidateModelProvider.EXIT_INVALID_OPTION, CommandLineState.getExitCode());
+        
+        // No report was written
+        assertEquals(0, reportFile.length());
+    }
+}
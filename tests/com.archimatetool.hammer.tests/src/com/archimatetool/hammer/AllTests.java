@@ -6,6 +6,7 @@
 package com.archimatetool.hammer;
 
 
+import com.archimatetool.hammer.validation.ValidatorReportTests;
 import com.archimatetool.hammer.validation.ValidatorTests;
 import com.archimatetool.hammer.validation.checkers.DuplicateElementCheckerTests;
 import com.archimatetool.hammer.validation.checkers.EmptyViewsCheckerTests;
@@ -34,6 +35,7 @@ public class AllTests {
 
 		// validation
 		suite.addTest(ValidatorTests.suite());
+		suite.addTest(ValidatorReportTests.suite());
 		
         // validation.checkers
 		suite.addTest(DuplicateElementCheckerTests.suite());
@@ -0,0 +1,112 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.hammer.validation;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.archimatetool.hammer.validation.issues.IIssue;
+import com.archimatetool.hammer.validation.issues.IIssueCategory;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.testingtools.ArchimateTestModel;
+import com.archimatetool.tests.TestData;
+
+import junit.framework.JUnit4TestAdapter;
+
+
+@SuppressWarnings("nls")
+public class ValidatorReportTests {
+    
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(ValidatorReportTests.class);
+    }
+    
+    static IArchimateModel model;
+    static Validator validator;
+    static List<Object> result;
+    
+    @BeforeClass
+    public static void runOnceBeforeAllTests() throws IOException {
+        ArchimateTestModel tm = new ArchimateTestModel(TestData.TEST_MODEL_FILE_ARCHISURANCE);
+        model = tm.loadModel();
+        validator = new Validator(model);
+        result = validator.validate();
+    }
+    
+    @Test
+    public void testIssueCounts() {
+        ValidatorReport report = new ValidatorReport(validator);
+        
+        int count = 0;
+        for(Object object : result) {
+            if(object instanceof IIssueCategory) {
+                count += ((IIssueCategory)object).getIssues().size();
+            }
+        }
+        
+        assertTrue(count > 0);
+        assertEquals(count, report.getErrorCount() + report.getWarningCount() + report.getAdviceCount());
+    }
+    
+    @Test
+    public void testWriteJSON() throws IOException {
+        ValidatorReport report = new ValidatorReport(validator);
+        StringWriter writer = new StringWriter();
+        report.writeJSON(writer);
+        String json = writer.toString();
+        
+        assertTrue(json.startsWith("{"));
+        assertTrue(json.contains("\"model\": \"" + model.getName() + "\""));
+        assertTrue(json.contains("\"errors\": " + report.getErrorCount()));
+        assertEquals(getIssueCount(), countOccurrences(json, "\"checker\": "));
+    }
+    
+    @Test
+    public void testWriteSARIF() throws IOException {
+        ValidatorReport report = new ValidatorReport(validator);
+        StringWriter writer = new StringWriter();
+        report.writeSARIF(writer);
+        String sarif = writer.toString();
+        
+        assertTrue(sarif.contains("\"version\": \"" + ValidatorReport.SARIF_VERSION + "\""));
+        assertTrue(sarif.contains("\"$schema\": \"" + ValidatorReport.SARIF_SCHEMA + "\""));
+        assertEquals(getIssueCount(), countOccurrences(sarif, "\"ruleId\": "));
+    }
+    
+    @Test
+    public void testGetLevel() {
+        for(List<IIssue> issues : validator.getCheckerIssues().values()) {
+            for(IIssue issue : issues) {
+                String level = ValidatorReport.getLevel(issue);
+                assertTrue(level == ValidatorReport.LEVEL_ERROR || level == ValidatorReport.LEVEL_WARNING || level == ValidatorReport.LEVEL_ADVICE);
+            }
+        }
+    }
+    
+    private int getIssueCount() {
+        int count = 0;
+        for(List<IIssue> issues : validator.getCheckerIssues().values()) {
+            count += issues.size();
+        }
+        return count;
+    }
+    
+    private int countOccurrences(String s, String sub) {
+        int count = 0;
+        for(int i = s.indexOf(sub); i != -1; i = s.indexOf(sub, i + sub.length())) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -12,13 +12,30 @@ import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EContentAdapter;
+import org.eclipse.jface.preference.PreferenceStore;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import com.archimatetool.hammer.preferences.IPreferenceConstants;
+import com.archimatetool.hammer.validation.checkers.EmptyViewsChecker;
+import com.archimatetool.hammer.validation.checkers.IChecker;
 import com.archimatetool.hammer.validation.issues.IIssueCategory;
+import com.archimatetool.model.IArchimateDiagramModel;
+import com.archimatetool.model.IArchimateElement;
+import com.archimatetool.model.IArchimateFactory;
 import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IFolder;
 import com.archimatetool.testingtools.ArchimateTestModel;
 import com.archimatetool.tests.TestData;
 
@@ -58,6 +75,78 @@ public class ValidatorTests {
         }
     }
     
+    @Test
+    public void testValidate_Timings() {
+        validator.validate();
+        
+        List<String> names = new ArrayList<>();
+        for(IChecker checker : validator.createCheckers()) {
+            names.add(checker.getClass().getSimpleName());
+        }
+        
+        assertFalse(names.isEmpty());
+        assertEquals(names, new ArrayList<>(validator.getTimings().keySet()));
+    }
+    
+    @Test(expected = OperationCanceledException.class)
+    public void testValidate_Cancelled() {
+        IProgressMonitor monitor = new NullProgressMonitor();
+        monitor.setCanceled(true);
+        validator.validate(monitor);
+    }
+    
+    @Test
+    public void testValidate_Changes() throws IOException {
+        IArchimateModel model = new ArchimateTestModel(TestData.TEST_MODEL_FILE_ARCHISURANCE).loadModel();
+        Validator validator = new Validator(model);
+        validator.validate();
+        
+        Set<EObject> changedObjects = new HashSet<>();
+        model.eAdapters().add(new EContentAdapter() {
+            @Override
+            public void notifyChanged(Notification msg) {
+                super.notifyChanged(msg);
+                Validator.collectChangedObjects(msg, changedObjects);
+            }
+        });
+        
+        // Add an empty view and an unused element and remove a view
+        IArchimateDiagramModel dm = IArchimateFactory.eINSTANCE.createArchimateDiagramModel();
+        model.getDefaultFolderForObject(dm).getElements().add(dm);
+        IArchimateElement element = IArchimateFactory.eINSTANCE.createBusinessActor();
+        model.getDefaultFolderForObject(element).getElements().add(element);
+        IArchimateDiagramModel firstView = validator.getArchimateViews().get(0);
+        ((IFolder)firstView.eContainer()).getElements().remove(firstView);
+        
+        List<Object> result = validator.validate(changedObjects, null);
+        
+        assertEquals(121, validator.getArchimateElements().size());
+        assertEquals(17, validator.getArchimateViews().size());
+        assertEquals(getIssueCount(new Validator(model).validate()), getIssueCount(result));
+    }
+    
+    private int getIssueCount(List<Object> result) {
+        int count = 0;
+        for(Object object : result) {
+            if(object instanceof IIssueCategory) {
+                count += ((IIssueCategory)object).getIssues().size();
+            }
+        }
+        return count;
+    }
+    
+    @Test
+    public void testValidate_PreferenceStore() {
+        PreferenceStore store = new PreferenceStore();
+        store.setValue(IPreferenceConstants.PREFS_HAMMER_CHECK_EMPTY_VIEWS, true);
+        
+        Validator validator = new Validator(model, store);
+        validator.validate();
+        
+        assertEquals(1, validator.getCheckerIssues().size());
+        assertTrue(validator.getCheckerIssues().containsKey(EmptyViewsChecker.class.getSimpleName()));
+    }
+    
     @Test
     public void testGetArchimateElements() {
         assertEquals(120, validator.getArchimateElements().size());
@@ -78,5 +78,58 @@ public class DuplicateElementCheckerTests {
         issues = checker.getIssues();
         assertTrue(issues.isEmpty());
     }
-
+    
+    @Test
+    public void testDifferentTypesNotDuplicates() {
+        List<IArchimateElement> elements = new ArrayList<IArchimateElement>();
+        
+        IArchimateElement e1 = IArchimateFactory.eINSTANCE.createBusinessActor();
+        e1.setName("fido");
+        elements.add(e1);
+        
+        IArchimateElement e2 = IArchimateFactory.eINSTANCE.createBusinessRole();
+        e2.setName("fido");
+        elements.add(e2);
+        
+        DuplicateElementChecker checker = new DuplicateElementChecker(elements);
+        assertTrue(checker.getIssues().isEmpty());
+    }
+    
+    @Test
+    public void testIssuesOrderedByGroup() {
+        List<IArchimateElement> elements = new ArrayList<IArchimateElement>();
+        
+        String[] names = { "a", "b", "a", "b", "c" };
+        for(String name : names) {
+            IArchimateElement e = IArchimateFactory.eINSTANCE.createBusinessActor();
+            e.setName(name);
+            elements.add(e);
+        }
+        
+        DuplicateElementChecker checker = new DuplicateElementChecker(elements);
+        List<IIssue> issues = checker.getIssues();
+        assertEquals(4, issues.size());
+        assertSame(elements.get(0), issues.get(0).getObject());
+        assertSame(elements.get(2), issues.get(1).getObject());
+        assertSame(elements.get(1), issues.get(2).getObject());
+        assertSame(elements.get(3), issues.get(3).getObject());
+    }
+    
+    @Test
+    public void testNormaliseNames() {
+        List<IArchimateElement> elements = new ArrayList<IArchimateElement>();
+        
+        IArchimateElement e1 = IArchimateFactory.eINSTANCE.createBusinessActor();
+        e1.setName("Customer Services");
+        elements.add(e1);
+        
+        IArchimateElement e2 = IArchimateFactory.eINSTANCE.createBusinessActor();
+        e2.setName("customer-services.");
+        elements.add(e2);
+        
+        assertTrue(new DuplicateElementChecker(elements).getIssues().isEmpty());
+        assertEquals(2, new DuplicateElementChecker(elements, true).getIssues().size());
+        
+        assertEquals("customerservices", DuplicateElementChecker.normaliseName(" Customer-Services! "));
+    }
 }
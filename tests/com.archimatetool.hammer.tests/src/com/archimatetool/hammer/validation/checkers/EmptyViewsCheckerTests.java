@@ -13,6 +13,9 @@ import static org.junit.Assert.assertTrue;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.junit.Test;
 
 import com.archimatetool.hammer.validation.issues.AdviceType;
@@ -52,5 +55,16 @@ public class EmptyViewsCheckerTests {
         assertEquals(0, issues.size());
     }
     
+    @Test(expected = OperationCanceledException.class)
+    public void testGetIssues_Cancelled() {
+        List<IArchimateDiagramModel> views = new ArrayList<IArchimateDiagramModel>();
+        views.add(IArchimateFactory.eINSTANCE.createArchimateDiagramModel());
+        
+        IProgressMonitor monitor = new NullProgressMonitor();
+        monitor.setCanceled(true);
+        
+        new EmptyViewsChecker(views).getIssues(monitor);
+    }
+    
     
 }
@@ -13,6 +13,11 @@ import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.ecore.EObject;
@@ -20,6 +25,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import com.archimatetool.model.FolderType;
+import com.archimatetool.model.IArchimateElement;
 import com.archimatetool.model.IArchimateFactory;
 import com.archimatetool.model.IDiagramModel;
 import com.archimatetool.model.IFolder;
@@ -92,6 +98,117 @@ public class ArchimateModelTests {
         assertFalse(model.removeModelContentListener(listener));
     }
 
+    @Test
+    public void getObjectByID() {
+        model.setDefaults();
+        
+        assertNull(model.getObjectByID(null));
+        assertSame(model, model.getObjectByID(model.getId()));
+        
+        IFolder folder = model.getFolder(FolderType.BUSINESS);
+        IArchimateElement element = IArchimateFactory.eINSTANCE.createBusinessActor();
+        folder.getElements().add(element);
+        
+        // Index is created here
+        assertSame(element, model.getObjectByID(element.getId()));
+        
+        // Added after index created
+        IFolder subFolder = IArchimateFactory.eINSTANCE.createFolder();
+        IArchimateElement element2 = IArchimateFactory.eINSTANCE.createBusinessRole();
+        subFolder.getElements().add(element2);
+        folder.getFolders().add(subFolder);
+        assertSame(subFolder, model.getObjectByID(subFolder.getId()));
+        assertSame(element2, model.getObjectByID(element2.getId()));
+        
+        // ID changed
+        String oldID = element.getId();
+        element.setId("newID");
+        assertNull(model.getObjectByID(oldID));
+        assertSame(element, model.getObjectByID("newID"));
+        
+        // Removed
+        folder.getFolders().remove(subFolder);
+        assertNull(model.getObjectByID(subFolder.getId()));
+        assertNull(model.getObjectByID(element2.getId()));
+        
+        // Moved
+        IFolder otherFolder = model.getFolder(FolderType.OTHER);
+        otherFolder.getElements().add(element);
+        assertSame(element, model.getObjectByID("newID"));
+        
+        // Disposed
+        model.dispose();
+        assertNull(model.getObjectByID("newID"));
+    }
+    
+    @Test
+    public void getObjectByID_DuplicateIDs() {
+        model.setDefaults();
+        
+        IFolder folder = model.getFolder(FolderType.BUSINESS);
+        IArchimateElement element1 = IArchimateFactory.eINSTANCE.createBusinessActor();
+        element1.setId("id1");
+        IArchimateElement element2 = IArchimateFactory.eINSTANCE.createBusinessRole();
+        element2.setId("id1");
+        IArchimateElement element3 = IArchimateFactory.eINSTANCE.createBusinessEvent();
+        element3.setId("id2");
+        folder.getElements().add(element1);
+        folder.getElements().add(element2);
+        folder.getElements().add(element3);
+        
+        // Index is created here and the first one found wins
+        assertSame(element1, model.getObjectByID("id1"));
+        
+        // Removing the indexed object finds the other one
+        folder.getElements().remove(element1);
+        assertSame(element2, model.getObjectByID("id1"));
+        
+        folder.getElements().remove(element2);
+        assertNull(model.getObjectByID("id1"));
+        
+        // ID changed to a duplicate ID and back again
+        element3.setId("id3");
+        folder.getElements().add(element1);
+        element1.setId("id3");
+        assertSame(element3, model.getObjectByID("id3"));
+        element3.setId("id2");
+        assertSame(element1, model.getObjectByID("id3"));
+        assertSame(element3, model.getObjectByID("id2"));
+    }
+    
+    @Test
+    public void getObjectByID_ManyThreads() throws Exception {
+        model.setDefaults();
+        
+        List<IArchimateElement> elements = new ArrayList<>();
+        for(int i = 0; i < 1000; i++) {
+            IArchimateElement element = IArchimateFactory.eINSTANCE.createBusinessActor();
+            model.getFolder(FolderType.BUSINESS).getElements().add(element);
+            elements.add(element);
+        }
+        
+        // The index is created by the first thread to look up an ID and the others have to wait for it
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        
+        for(int i = 0; i < 4; i++) {
+            futures.add(executor.submit(() -> {
+                for(IArchimateElement element : elements) {
+                    if(model.getObjectByID(element.getId()) != element) {
+                        return false;
+                    }
+                }
+                return true;
+            }));
+        }
+        
+        for(Future<Boolean> future : futures) {
+            assertTrue(future.get());
+        }
+        
+        executor.shutdown();
+    }
+
     @Test
     public void addDefaultFolders() {
         // No folders by default
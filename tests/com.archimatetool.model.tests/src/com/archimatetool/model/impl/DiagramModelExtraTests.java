@@ -16,6 +16,7 @@ import com.archimatetool.model.IDiagramModel;
 import com.archimatetool.model.IDiagramModelArchimateConnection;
 import com.archimatetool.model.IDiagramModelArchimateObject;
 import com.archimatetool.model.IDiagramModelGroup;
+import com.archimatetool.model.IDiagramModelReference;
 import com.archimatetool.model.IFolder;
 
 import junit.framework.JUnit4TestAdapter;
@@ -305,4 +306,64 @@ public class DiagramModelExtraTests {
         assertEquals(0, ((ArchimateRelationship)conn3a.getArchimateRelationship()).diagramConnections.size());
     }
     
+    /**
+     * See {@link DiagramModelReference#setReferencedModel(IDiagramModel)}
+     * See {@link DiagramModelReference#eInverseAdd(org.eclipse.emf.ecore.InternalEObject, int, Class, org.eclipse.emf.common.notify.NotificationChain)}
+     * See {@link DiagramModelReference#eInverseRemove(org.eclipse.emf.ecore.InternalEObject, int, Class, org.eclipse.emf.common.notify.NotificationChain)}
+     */
+    @Test
+    public void testDiagramModelReference_eInverseAdd_DiagramModel_getReferencingDiagramModelReferences() {
+        // Set up model and diagram models
+        IArchimateModel model = IArchimateFactory.eINSTANCE.createArchimateModel();
+        model.setDefaults();
+        DiagramModel dm1 = (DiagramModel)IArchimateFactory.eINSTANCE.createArchimateDiagramModel();
+        model.getDefaultFolderForObject(dm1).getElements().add(dm1);
+        DiagramModel dm2 = (DiagramModel)IArchimateFactory.eINSTANCE.createArchimateDiagramModel();
+        model.getDefaultFolderForObject(dm2).getElements().add(dm2);
+        
+        IDiagramModelGroup parent = IArchimateFactory.eINSTANCE.createDiagramModelGroup();
+        dm2.getChildren().add(parent);
+        
+        IDiagramModelReference ref1 = IArchimateFactory.eINSTANCE.createDiagramModelReference();
+        IDiagramModelReference ref2 = IArchimateFactory.eINSTANCE.createDiagramModelReference();
+        ref1.setReferencedModel(dm1);
+        ref2.setReferencedModel(dm1);
+        
+        // Public method returns zero references
+        assertEquals(0, dm1.getReferencingDiagramModelReferences().size());
+        
+        // But internally is more
+        assertEquals(2, dm1.diagramModelReferences.size());
+        
+        // Add the refs
+        dm2.getChildren().add(ref1);
+        parent.getChildren().add(ref2);
+        assertEquals(2, dm1.getReferencingDiagramModelReferences().size());
+        assertEquals(2, dm1.diagramModelReferences.size());
+        
+        // Remove diagram model, public method returns zero but internally still referenced
+        ((IFolder)dm2.eContainer()).getElements().remove(dm2);
+        assertEquals(0, dm1.getReferencingDiagramModelReferences().size());
+        assertEquals(2, dm1.diagramModelReferences.size());
+        
+        // Add diagram model back again
+        model.getDefaultFolderForObject(dm2).getElements().add(dm2);
+        assertEquals(2, dm1.getReferencingDiagramModelReferences().size());
+        
+        // Change the referenced diagram model
+        ref2.setReferencedModel(dm2);
+        assertEquals(1, dm1.getReferencingDiagramModelReferences().size());
+        assertEquals(1, dm1.diagramModelReferences.size());
+        assertEquals(1, dm2.getReferencingDiagramModelReferences().size());
+        assertEquals(1, dm2.diagramModelReferences.size());
+        
+        // Simple remove from direct parent
+        dm2.getChildren().remove(ref1);
+        parent.getChildren().remove(ref2);
+        assertEquals(0, dm1.getReferencingDiagramModelReferences().size());
+        assertEquals(0, dm1.diagramModelReferences.size());
+        assertEquals(0, dm2.getReferencingDiagramModelReferences().size());
+        assertEquals(0, dm2.diagramModelReferences.size());
+    }
+    
 }
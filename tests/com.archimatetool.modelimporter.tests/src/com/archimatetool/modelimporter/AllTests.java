@@ -15,6 +15,7 @@ public class AllTests {
 		TestSuite suite = new TestSuite("com.archimatetool.modelimporter");
 
         suite.addTest(ModelImporterTests.suite());
+        suite.addTest(ModelDiffTests.suite());
 		
         return suite;
 	}
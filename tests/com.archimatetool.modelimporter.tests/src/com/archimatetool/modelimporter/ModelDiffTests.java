@@ -0,0 +1,183 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.modelimporter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringWriter;
+import java.util.Iterator;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.archimatetool.model.FolderType;
+import com.archimatetool.model.IArchimateElement;
+import com.archimatetool.model.IArchimateFactory;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IArchimatePackage;
+import com.archimatetool.model.IFolder;
+import com.archimatetool.model.IIdentifier;
+import com.archimatetool.model.IProperty;
+import com.archimatetool.modelimporter.ModelChange.FieldChange;
+import com.archimatetool.modelimporter.ModelChange.Kind;
+import com.archimatetool.testingtools.ArchimateTestModel;
+
+import junit.framework.JUnit4TestAdapter;
+
+
+@SuppressWarnings("nls")
+public class ModelDiffTests {
+    
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(ModelDiffTests.class);
+    }
+    
+    private IArchimateModel baseModel;
+    private IArchimateElement baseElement;
+    
+    @Before
+    public void runBeforeEachTest() {
+        ArchimateTestModel tm = new ArchimateTestModel();
+        baseModel = tm.createNewModel();
+        baseElement = (IArchimateElement)tm.createModelElementAndAddToModel(IArchimatePackage.eINSTANCE.getBusinessActor());
+        baseElement.setName("Actor");
+    }
+    
+    @Test
+    public void compare_SameModel_NoChanges() {
+        ModelChangeSet changeSet = new ModelDiff(baseModel, EcoreUtil.copy(baseModel)).compare();
+        assertTrue(changeSet.isEmpty());
+        assertTrue(changeSet.getObjectCount() > 1);
+    }
+    
+    @Test
+    public void compare_Added() {
+        IArchimateModel otherModel = EcoreUtil.copy(baseModel);
+        IArchimateElement element = IArchimateFactory.eINSTANCE.createBusinessRole();
+        otherModel.getDefaultFolderForObject(element).getElements().add(element);
+        
+        ModelChangeSet changeSet = new ModelDiff(baseModel, otherModel).compare();
+        assertEquals(1, changeSet.size());
+        
+        ModelChange change = changeSet.getChange(element.getId(), Kind.ADDED);
+        assertNotNull(change);
+        assertEquals(element, change.getObject());
+        assertNull(change.getBaseObject());
+    }
+    
+    @Test
+    public void compare_Removed() {
+        IArchimateModel otherModel = EcoreUtil.copy(baseModel);
+        EcoreUtil.remove(otherModel.getObjectByID(baseElement.getId()));
+        
+        ModelChangeSet changeSet = new ModelDiff(baseModel, otherModel).compare();
+        assertEquals(1, changeSet.size());
+        
+        ModelChange change = changeSet.getChange(baseElement.getId(), Kind.REMOVED);
+        assertEquals(baseElement, change.getObject());
+        assertNull(change.getOtherObject());
+    }
+    
+    @Test
+    public void compare_Modified() {
+        IArchimateModel otherModel = EcoreUtil.copy(baseModel);
+        IArchimateElement element = (IArchimateElement)otherModel.getObjectByID(baseElement.getId());
+        element.setName("Actor 2");
+        IProperty property = IArchimateFactory.eINSTANCE.createProperty();
+        property.setKey("key");
+        property.setValue("value");
+        element.getProperties().add(property);
+        
+        ModelChangeSet changeSet = new ModelDiff(baseModel, otherModel).compare();
+        assertEquals(1, changeSet.size());
+        
+        ModelChange change = changeSet.getChange(baseElement.getId(), Kind.MODIFIED);
+        assertEquals(2, change.getFieldChanges().size());
+        
+        FieldChange fieldChange = change.getFieldChanges().get(0);
+        assertEquals("name", fieldChange.getName());
+        assertEquals("Actor", fieldChange.getOldValue());
+        assertEquals("Actor 2", fieldChange.getNewValue());
+        
+        assertEquals("properties", change.getFieldChanges().get(1).getName());
+    }
+    
+    @Test
+    public void compare_Moved() {
+        IArchimateModel otherModel = EcoreUtil.copy(baseModel);
+        IFolder businessFolder = otherModel.getFolder(FolderType.BUSINESS);
+        IFolder subFolder = IArchimateFactory.eINSTANCE.createFolder();
+        businessFolder.getFolders().add(subFolder);
+        subFolder.getElements().add((IArchimateElement)otherModel.getObjectByID(baseElement.getId()));
+        
+        ModelChangeSet changeSet = new ModelDiff(baseModel, otherModel).compare();
+        assertEquals(2, changeSet.size());
+        assertNotNull(changeSet.getChange(subFolder.getId(), Kind.ADDED));
+        
+        ModelChange change = changeSet.getChange(baseElement.getId(), Kind.MOVED);
+        FieldChange fieldChange = change.getFieldChanges().get(0);
+        assertEquals(businessFolder.getId(), fieldChange.getOldValue());
+        assertEquals(subFolder.getId(), fieldChange.getNewValue());
+    }
+    
+    @Test
+    public void compare_ModelFile() throws Exception {
+        IArchimateModel fileModel = new ArchimateTestModel(TestData.TEST_MODEL_FILE).loadModel();
+        ModelChangeSet changeSet = new ModelImporter().compare(TestData.TEST_MODEL_FILE, baseModel);
+        
+        // The models are paired although they have different IDs
+        assertNull(changeSet.getChange(fileModel.getId(), Kind.ADDED));
+        assertNull(changeSet.getChange(baseModel.getId(), Kind.REMOVED));
+        assertTrue(hasFieldChange(changeSet.getChange(fileModel.getId(), Kind.MODIFIED), "name", "Test Model"));
+        
+        // The top-level folders are paired by type although they have different IDs
+        int objectCount = 0;
+        for(IFolder folder : fileModel.getFolders()) {
+            IFolder baseFolder = baseModel.getFolder(folder.getType());
+            assertNull(changeSet.getChange(folder.getId(), Kind.ADDED));
+            assertNull(changeSet.getChange(baseFolder.getId(), Kind.REMOVED));
+            assertNull(changeSet.getChange(folder.getId(), Kind.MOVED));
+            
+            for(Iterator<EObject> iter = folder.eAllContents(); iter.hasNext();) {
+                if(iter.next() instanceof IIdentifier) {
+                    objectCount++;
+                }
+            }
+        }
+        
+        ModelChange folderChange = changeSet.getChange(fileModel.getFolder(FolderType.BUSINESS).getId(), Kind.MODIFIED);
+        assertEquals(baseModel.getFolder(FolderType.BUSINESS), folderChange.getBaseObject());
+        assertTrue(hasFieldChange(folderChange, "documentation", "Business Documentation"));
+        
+        // Everything in the top-level folders of the file is added
+        assertEquals(objectCount, changeSet.getChanges(Kind.ADDED).size());
+        assertNotNull(changeSet.getChange("5dde26f7-9d5e-4685-aada-5d66ad27bdb0", Kind.ADDED));
+        assertTrue(changeSet.getChanges(Kind.MOVED).isEmpty());
+        
+        // The element and the default view of the base model are removed
+        assertEquals(2, changeSet.getChanges(Kind.REMOVED).size());
+        assertNotNull(changeSet.getChange(baseElement.getId(), Kind.REMOVED));
+        
+        StringWriter writer = new StringWriter();
+        changeSet.write(writer);
+        assertTrue(writer.toString().contains(baseElement.getId()));
+    }
+    
+    private boolean hasFieldChange(ModelChange change, String name, Object newValue) {
+        for(FieldChange fieldChange : change.getFieldChanges()) {
+            if(fieldChange.getName().equals(name) && newValue.equals(fieldChange.getNewValue())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -8,6 +8,10 @@ package com.archimatetool.modelimporter;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.regex.Pattern;
 
 import org.junit.Test;
 
@@ -16,6 +20,7 @@ import com.archimatetool.model.IArchimateElement;
 import com.archimatetool.model.IArchimateModel;
 import com.archimatetool.model.IArchimateRelationship;
 import com.archimatetool.model.IFolder;
+import com.archimatetool.modelimporter.StatusMessage.StatusMessageLevel;
 import com.archimatetool.testingtools.ArchimateTestModel;
 
 import junit.framework.JUnit4TestAdapter;
@@ -206,5 +211,40 @@ public class ModelImporterTests {
         IFolder viewsFolder = model.getFolder(FolderType.DIAGRAMS);
         assertEquals(2, viewsFolder.getElements().size());
     }
+    
+    @Test
+    public void doImport_Twice_FindsImportedObjects() throws Exception {
+        ArchimateTestModel tm = new ArchimateTestModel();
+        IArchimateModel model = tm.createNewModel();
+        
+        ModelImporter importer = new ModelImporter();
+        importer.setUpdate(true);
+        importer.doImport(TestData.TEST_MODEL_FILE, model);
+        
+        IFolder businessFolder = model.getFolder(FolderType.BUSINESS);
+        IFolder relationsFolder = model.getFolder(FolderType.RELATIONS);
+        IFolder viewsFolder = model.getFolder(FolderType.DIAGRAMS);
+        int businessCount = businessFolder.getElements().size();
+        int relationsCount = relationsFolder.getElements().size();
+        int viewsCount = viewsFolder.getElements().size();
+        
+        // Import again into the same model. Everything should be found and updated, not added again
+        importer = new ModelImporter();
+        importer.setUpdate(true);
+        importer.doImport(TestData.TEST_MODEL_FILE, model);
+        
+        assertEquals(businessCount, businessFolder.getElements().size());
+        assertEquals(relationsCount, relationsFolder.getElements().size());
+        assertEquals(viewsCount, viewsFolder.getElements().size());
+        
+        // Timings are reported
+        List<StatusMessage> messages = importer.getStatusMessages();
+        StatusMessage lastMessage = messages.get(messages.size() - 1);
+        assertEquals(StatusMessageLevel.INFO, lastMessage.getLevel());
+        
+        String regex = Pattern.quote(StatusMessageLevel.INFO.getText() + " " + Messages.ModelImporter_10.replace("{0}", "#"))
+                              .replace("#", "\\E\\d+\\Q");
+        assertTrue(lastMessage.getMessage().matches(regex));
+    }
 
 }
@@ -5,15 +5,26 @@
  */
 package org.opengroup.archimate.xmlexchange;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
 import org.eclipse.emf.ecore.resource.Resource;
+import org.jdom2.Document;
+import org.jdom2.output.Format;
+import org.jdom2.output.XMLOutputter;
 import org.junit.Test;
 import org.xml.sax.SAXException;
 
+import com.archimatetool.jdom.JDOMUtils;
 import com.archimatetool.model.IArchimateModel;
 import com.archimatetool.model.util.ArchimateResourceFactory;
 import com.archimatetool.tests.TestUtils;
@@ -35,11 +46,58 @@ public class XMLModelExporterTests {
 
     @Test
     public void testExportModel() throws IOException, SAXException {
-        Resource resource = ArchimateResourceFactory.createNewResource(TestSupport.archiFile1);
-        resource.load(null);
+        IArchimateModel model = loadModel();
+        XMLModelExporter exporter = createExporter();
+        
+        // Export
+        File outputFile = TestUtils.createTempFile(".xml");
+        exporter.exportModel(model, outputFile);
+        
+        // And Validate
+        XMLValidator validator = new XMLValidator();
+        validator.validateXML(outputFile);
+    }
+    
+    @Test
+    public void testExportModel_StreamingWriterSameAsJDOM() throws Exception {
+        IArchimateModel model = loadModel();
+        XMLModelExporter exporter = createExporter();
+        
+        File streamedFile = TestUtils.createTempFile(".xml");
+        exporter.exportModel(model, streamedFile);
+        
+        exporter.setUseStreamingWriter(false);
+        File jdomFile = TestUtils.createTempFile(".xml");
+        exporter.exportModel(model, jdomFile);
+        
+        // Empty elements are written as <name/> rather than <name /> so compare the parsed documents
+        assertEquals(readNormalised(jdomFile), readNormalised(streamedFile));
+    }
+    
+    @Test
+    public void testExportModel_CompressOutput() throws Exception {
+        IArchimateModel model = loadModel();
+        XMLModelExporter exporter = createExporter();
         
-        IArchimateModel model = (IArchimateModel)resource.getContents().get(0);
+        File outputFile = TestUtils.createTempFile(".xml");
+        exporter.exportModel(model, outputFile);
         
+        exporter.setCompressOutput(true);
+        File gzipFile = TestUtils.createTempFile(".xml.gz");
+        exporter.exportModel(model, gzipFile);
+        
+        try(InputStream in = new GZIPInputStream(new FileInputStream(gzipFile))) {
+            assertArrayEquals(Files.readAllBytes(outputFile.toPath()), in.readAllBytes());
+        }
+    }
+    
+    private IArchimateModel loadModel() throws IOException {
+        Resource resource = ArchimateResourceFactory.createNewResource(TestSupport.archiFile1);
+        resource.load(null);
+        return (IArchimateModel)resource.getContents().get(0);
+    }
+    
+    private XMLModelExporter createExporter() {
         XMLModelExporter exporter = new XMLModelExporter();
         
         // Language code
@@ -58,13 +116,12 @@ public class XMLModelExporterTests {
         // Add Organization
         exporter.setSaveOrganisation(true);
         
-        // Export
-        File outputFile = TestUtils.createTempFile(".xml");
-        exporter.exportModel(model, outputFile);
-        
-        // And Validate
-        XMLValidator validator = new XMLValidator();
-        validator.validateXML(outputFile);
+        return exporter;
+    }
+    
+    private String readNormalised(File file) throws Exception {
+        Document doc = JDOMUtils.readXMLFile(file);
+        return new XMLOutputter(Format.getPrettyFormat()).outputString(doc);
     }
 
 }
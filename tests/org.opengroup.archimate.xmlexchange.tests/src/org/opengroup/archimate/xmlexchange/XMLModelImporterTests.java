@@ -8,6 +8,7 @@ package org.opengroup.archimate.xmlexchange;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -17,7 +18,10 @@ import com.archimatetool.model.IArchimateElement;
 import com.archimatetool.model.IArchimateModel;
 import com.archimatetool.model.IArchimatePackage;
 import com.archimatetool.model.IArchimateRelationship;
+import com.archimatetool.model.IDiagramModel;
 import com.archimatetool.model.IFolder;
+import com.archimatetool.model.IProperty;
+import com.archimatetool.model.util.ArchimateModelUtils;
 
 import junit.framework.JUnit4TestAdapter;
 
@@ -74,4 +78,32 @@ public class XMLModelImporterTests {
         assertEquals(element1, relation.getSource());
         assertEquals(element2, relation.getTarget());
     }
+    
+    @Test
+    public void testForwardReferencesAreResolved() throws Exception {
+        IArchimateModel model = importer.createArchiMateModel(TestSupport.xmlFile2);
+        
+        // Model properties are defined after the elements and relations
+        assertEquals(2, model.getProperties().size());
+        IProperty property = model.getProperties().get(0);
+        assertEquals("Property1", property.getKey());
+        assertEquals("Value of Property 1", property.getValue());
+        
+        // Element properties are defined after the elements and relations
+        IArchimateElement element = (IArchimateElement)ArchimateModelUtils.getObjectByID(model, "id-521");
+        assertEquals(1, element.getProperties().size());
+        assertEquals("Property", element.getProperties().get(0).getKey());
+        assertEquals("Hello", element.getProperties().get(0).getValue());
+        
+        // Organizations come before the views they refer to
+        IFolder viewsFolder = model.getFolder(FolderType.DIAGRAMS);
+        assertEquals(18, viewsFolder.getElements().size());
+        assertEquals("id-3641", ((IDiagramModel)viewsFolder.getElements().get(0)).getId());
+        
+        // Sub-folders
+        element = (IArchimateElement)ArchimateModelUtils.getObjectByID(model, "id-1544");
+        IFolder folder = (IFolder)element.eContainer();
+        assertEquals("Actors", folder.getName());
+        assertSame(model.getFolder(FolderType.BUSINESS), folder.eContainer());
+    }
 }
@@ -5,7 +5,21 @@
  */
 package org.opengroup.archimate.xmlexchange;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
 import org.junit.Test;
+import org.xml.sax.SAXException;
+
+import com.archimatetool.tests.TestUtils;
 
 import junit.framework.JUnit4TestAdapter;
 
@@ -27,4 +41,35 @@ public class XMLValidatorTests {
         validator.validateXML(TestSupport.xmlFile2);
     }
     
+    @Test
+    public void testSchemaIsCached() throws Exception {
+        assertNotNull(XMLValidator.getSchema());
+        assertSame(XMLValidator.getSchema(), XMLValidator.getSchema());
+    }
+    
+    @Test
+    public void testValidateFiles() throws Exception {
+        File invalidFile = TestUtils.createTempFile(".xml");
+        Files.write(invalidFile.toPath(), "<model xmlns=\"http://www.opengroup.org/xsd/archimate/3.0/\"/>".getBytes(StandardCharsets.UTF_8)); //$NON-NLS-1$
+        
+        XMLValidator validator = new XMLValidator();
+        XMLValidator.BatchResult batchResult = validator.validateXML(Arrays.asList(TestSupport.xmlFile1, invalidFile, TestSupport.xmlFile2));
+        
+        assertEquals(3, batchResult.getResults().size());
+        assertEquals(2, batchResult.getValidCount());
+        assertEquals(1, batchResult.getInvalidCount());
+        
+        // Results are in the same order as the files
+        assertEquals(TestSupport.xmlFile1, batchResult.getResults().get(0).getFile());
+        assertTrue(batchResult.getResults().get(0).isValid());
+        
+        assertEquals(invalidFile, batchResult.getResults().get(1).getFile());
+        assertFalse(batchResult.getResults().get(1).isValid());
+        assertTrue(batchResult.getResults().get(1).getException() instanceof SAXException);
+        
+        assertTrue(batchResult.getResults().get(2).isValid());
+        
+        assertEquals(TestSupport.xmlFile1.length() + invalidFile.length() + TestSupport.xmlFile2.length(), batchResult.getBytes());
+    }
+    
 }